@@ -0,0 +1,126 @@
+package hu.nye.benchmark;
+
+import hu.nye.model.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single moves and the win and full checks of {@link Board}.
+ *
+ * <p>The sparse board holds the first few moves of a game, the dense
+ * one most of a drawn game, so the win checks see both nearly empty
+ * and nearly full bitboards without either side having won.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+
+    /** A game that fills the board without a win, as column digits. */
+    static final String DRAWN_GAME =
+            "015502320345364356222230416104501114435666";
+
+    /** The number of moves on the sparse board. */
+    private static final int SPARSE_MOVES = 4;
+
+    /** The number of moves on the dense board. */
+    private static final int DENSE_MOVES = 36;
+
+    /** A board with a few pieces. */
+    private Board sparse;
+
+    /** A board with few empty cells left. */
+    private Board dense;
+
+    /** The board single moves are made and taken back on. */
+    private Board empty;
+
+    /** The column of the next single move. */
+    private int column;
+
+    /**
+     * Builds the boards.
+     */
+    @Setup
+    public void setUp() {
+        sparse = replay(DRAWN_GAME.substring(0, SPARSE_MOVES));
+        dense = replay(DRAWN_GAME.substring(0, DENSE_MOVES));
+        empty = new Board();
+    }
+
+    /**
+     * Drops a piece and takes it back, cycling through the columns.
+     *
+     * @return whether the move failed
+     */
+    @Benchmark
+    public boolean makeMove() {
+        column = column == empty.getColumnCount() - 1 ? 0 : column + 1;
+        boolean failed = empty.makeMove(column, 'R');
+        empty.undoMove(column);
+        return failed;
+    }
+
+    /**
+     * Checks a nearly empty board for a win.
+     *
+     * @return whether the first player has won
+     */
+    @Benchmark
+    public boolean checkWinSparse() {
+        return sparse.checkWin('R');
+    }
+
+    /**
+     * Checks a nearly full board for a win.
+     *
+     * @return whether the first player has won
+     */
+    @Benchmark
+    public boolean checkWinDense() {
+        return dense.checkWin('R');
+    }
+
+    /**
+     * Checks the lines through one cell of a nearly full board.
+     *
+     * @return whether the piece in the cell is part of a win
+     */
+    @Benchmark
+    public boolean checkWinAtDense() {
+        return dense.checkWinAt(dense.getRowCount() - 1, SPARSE_MOVES);
+    }
+
+    /**
+     * Checks whether a nearly full board is full.
+     *
+     * @return whether no move is left
+     */
+    @Benchmark
+    public boolean isFullDense() {
+        return dense.isFull();
+    }
+
+    /**
+     * Builds a board by playing the given columns, 'R' moving first.
+     *
+     * @param moves the columns played, one digit each
+     * @return the resulting board
+     */
+    static Board replay(final String moves) {
+        Board board = new Board();
+        char symbol = 'R';
+        for (char move : moves.toCharArray()) {
+            board.makeMove(move - '0', symbol);
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        return board;
+    }
+}
@@ -0,0 +1,83 @@
+package hu.nye.benchmark;
+
+import hu.nye.model.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading the initial board from the classpath and appending
+ * a finished game to the save file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardFileBenchmark {
+
+    /** The board file loaded by the game. */
+    private static final String INPUT = "board_input.txt";
+
+    /** The number of moves on the saved board. */
+    private static final int SAVED_MOVES = 16;
+
+    /** The board that is loaded and saved. */
+    private Board board;
+
+    /** The file games are appended to. */
+    private Path saveFile;
+
+    /**
+     * Creates the board and a fresh save file.
+     *
+     * @throws IOException if the save file cannot be created
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        board = BoardBenchmark.replay(
+                BoardBenchmark.DRAWN_GAME.substring(0, SAVED_MOVES));
+        saveFile = Files.createTempFile("connect4-bench", ".txt");
+    }
+
+    /**
+     * Deletes the save file so that it does not grow across iterations.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saveFile);
+    }
+
+    /**
+     * Loads the initial board.
+     *
+     * @return the loaded board
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public Board load() throws IOException {
+        board.loadInitialBoard(INPUT);
+        return board;
+    }
+
+    /**
+     * Appends the board to the save file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Benchmark
+    public void save() throws IOException {
+        board.saveFinalGame(saveFile.toString());
+    }
+}
@@ -0,0 +1,55 @@
+package hu.nye.benchmark;
+
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+import hu.nye.model.RandomMoveStrategy;
+import hu.nye.selfplay.SelfPlayRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete games between two random players, the inner loop of
+ * self-play and of playout-based search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PlayoutBenchmark {
+
+    /** The seed of the random players. */
+    private static final long SEED = 42L;
+
+    /** The board every game is played on. */
+    private Board board;
+
+    /** The strategy of both players. */
+    private MoveStrategy random;
+
+    /**
+     * Creates the board and the players.
+     */
+    @Setup
+    public void setUp() {
+        board = new Board();
+        random = new RandomMoveStrategy(new SplittableRandom(SEED));
+    }
+
+    /**
+     * Plays one random game on a cleared board.
+     *
+     * @return the outcome of the game
+     */
+    @Benchmark
+    public int randomPlayout() {
+        board.clear();
+        return SelfPlayRunner.playGame(board, random, random);
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * JMH benchmarks of the board and game hot paths, built and run only
+ * by the {@code benchmark} Maven profile.
+ */
+package hu.nye.benchmark;
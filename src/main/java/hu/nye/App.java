@@ -1,17 +1,113 @@
 package hu.nye;
 
+import hu.nye.ai.BookMoveStrategy;
+import hu.nye.ai.EndgameMoveStrategy;
+import hu.nye.ai.EndgameTablebase;
+import hu.nye.ai.EndgameTablebaseBuilder;
+import hu.nye.ai.LazyMoveStrategy;
+import hu.nye.ai.MctsStrategy;
+import hu.nye.ai.OpeningBook;
+import hu.nye.ai.OpeningBookGenerator;
+import hu.nye.ai.ParallelSolver;
+import hu.nye.ai.PonderingStrategy;
+import hu.nye.ai.SearchBenchmark;
+import hu.nye.ai.SearchBudget;
+import hu.nye.ai.SearchResult;
+import hu.nye.ai.Solver;
+import hu.nye.ai.TranspositionTable;
+import hu.nye.analysis.AnalysisReport;
+import hu.nye.analysis.PositionAnalyzer;
+import hu.nye.db.HighScore;
+import hu.nye.db.HighScoreRepository;
+import hu.nye.io.DatasetWriter;
+import hu.nye.io.GameLogReader;
+import hu.nye.io.GameLogWriter;
+import hu.nye.io.GameRecord;
+import hu.nye.io.GameXmlReader;
+import hu.nye.io.GameXmlWriter;
+import hu.nye.metrics.EngineMetrics;
+import hu.nye.metrics.MetricsReporter;
 import hu.nye.model.Game;
+import hu.nye.model.GameArchive;
+import hu.nye.model.MoveStrategy;
 import hu.nye.model.Player;
 import hu.nye.model.Board;
+import hu.nye.model.RandomMoveStrategy;
+import hu.nye.model.SuspendedGame;
+import hu.nye.selfplay.SelfPlayRunner;
+import hu.nye.selfplay.SelfPlayStats;
+import hu.nye.server.GameServer;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 
 /**
  * Main class for starting the Connect4 game.
  */
 public final class App {
 
+    /** The default time the solver may spend on one move. */
+    private static final long DEFAULT_BUDGET_MILLIS = 1000;
+
+    /** The default size of the solver's transposition table. */
+    private static final int DEFAULT_HASH_MEGABYTES = 16;
+
+    /** The default number of moves covered by a generated book. */
+    private static final int DEFAULT_BOOK_DEPTH = 4;
+
+    /** The default number of empty cells covered by a tablebase. */
+    private static final int DEFAULT_TABLEBASE_EMPTY = 8;
+
+    /** The default number of random seed games of a tablebase. */
+    private static final int DEFAULT_SEED_GAMES = 1000;
+
+    /** The default number of games of a self-play batch. */
+    private static final long DEFAULT_SELFPLAY_GAMES = 1000;
+
+    /** The default node budget per move of solvers in self-play. */
+    private static final long DEFAULT_SELFPLAY_NODES = 10_000;
+
+    /** The binary log finished games are recorded in by default. */
+    private static final String GAME_LOG_FILE = "saved_games.c4log";
+
+    /** The default target of a text export of the game log. */
+    private static final String TEXT_SAVE_FILE = "saved_game.txt";
+
+    /** The XML file a suspended game is saved to by default. */
+    private static final String SUSPENDED_GAME_FILE = "suspended_game.xml";
+
+    /** The address the server listens on by default. */
+    private static final String DEFAULT_HOST = "127.0.0.1";
+
+    /** The port the server listens on by default. */
+    private static final int DEFAULT_PORT = 4000;
+
+    /** The time between two metric reports of the server. */
+    private static final long STATS_INTERVAL_MILLIS = 10_000;
+
+    /** The default time between two metric reports in seconds. */
+    private static final long DEFAULT_METRICS_SECONDS = 10;
+
+    /** The number of players shown in the high-score table. */
+    private static final int HIGH_SCORE_ROWS = 10;
+
+    /** The default depth of the search benchmark. */
+    private static final int DEFAULT_BENCHMARK_DEPTH = 14;
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -22,28 +118,799 @@ public final class App {
     /**
      * Main method for starting the Connect4 game.
      *
-     * @param args the command line arguments (not used)
+     * <p>By default the computer picks random columns. With
+     * {@code --computer solver} it searches for the best move instead,
+     * spending at most {@code --budget-ms} milliseconds per move on
+     * {@code --threads} threads ({@code --mode lazy-smp} or
+     * {@code root-split}) sharing a transposition table of
+     * {@code --hash-mb} megabytes, 16 by default, and with
+     * {@code --ponder} searches its replies while the player thinks;
+     * {@code --computer mcts} runs random playouts for
+     * {@code --budget-ms} instead, on boards of any size.
+     * {@code --benchmark} measures the speedup of the parallel search up
+     * to {@code --threads} threads instead of starting a game,
+     * {@code --benchmark eval} times the static position evaluator and
+     * {@code --benchmark ordering} compares the move ordering schemes.
+     * {@code --generate-book <file>} writes an opening book covering
+     * {@code --book-depth} moves, searching each position for
+     * {@code --budget-ms}; {@code --book <file>} makes the computer play
+     * from such a book before searching.</p>
+     *
+     * <p>{@code --move <columns>} prints the computer's move in the
+     * position reached by the given columns, one digit each and counted
+     * from 0, and exits. The computer's transposition table, book and
+     * tablebase are only loaded when it first moves; the
+     * {@code fast-start} build profile adds a class archive that makes
+     * such short runs start faster.</p>
+     *
+     * <p>{@code --analyze <file>} solves every position of a file of
+     * boards in the format of {@code board_input.txt}, on
+     * {@code --threads} threads with {@code --budget-nodes} nodes, or
+     * {@code --budget-ms} if not given, per position, and writes the
+     * results to {@code --out} as {@code --format csv} or
+     * {@code binary}; the first player is {@code --first}, R by default,
+     * the second {@code --second}, Y by default. Invalid positions are
+     * counted and skipped.</p>
+     *
+     * <p>{@code --build-tablebase <file>} writes an endgame tablebase of
+     * every position with at most {@code --tablebase-empty} empty cells
+     * reachable from the games of {@code --game-log}, or from
+     * {@code --seed-games} random games if no log is given, on
+     * {@code --threads} threads; an interrupted build resumes where it
+     * stopped. {@code --tablebase <file>} makes the computer play
+     * perfectly from such a tablebase once the position is covered.</p>
+     *
+     * <p>{@code --selfplay} plays {@code --games} games between
+     * {@code --player-a} and {@code --player-b} ({@code random},
+     * {@code solver} or {@code mcts}, searching {@code --budget-nodes}
+     * nodes or playouts per move)
+     * on {@code --threads} threads and prints only the totals.
+     * {@code --dataset <dir>} exports every new position of the games
+     * as a training sample into binary shards of at most
+     * {@code --shard-mb} megabytes, 256 by default, skipping positions
+     * remembered in {@code --dedup-mb} megabytes of keys, 64 by default;
+     * {@code --dataset-score} adds the score of a solver searching
+     * {@code --budget-nodes} nodes.</p>
+     *
+     * <p>Finished games are recorded in the binary game log
+     * {@code --game-log}, {@code saved_games.c4log} by default; self-play
+     * records its games only when {@code --game-log} is given.
+     * {@code --export-log <file>} appends the final boards of a log to
+     * {@code --to}, {@code saved_game.txt} by default, as text.</p>
+     *
+     * <p>The wins of every player are counted in the H2 database
+     * {@code --db}, a JDBC URL, {@code jdbc:h2:./connect4_scores} by
+     * default; the high-score table is shown after every game, or alone
+     * with {@code --high-scores}. Self-play adds the wins of each side
+     * under the strategy's name when {@code --db} is given.</p>
+     *
+     * <p>Typing {@code save} instead of a column suspends the game and
+     * writes it to the XML file {@code --save-file},
+     * {@code suspended_game.xml} by default; {@code --resume <file>}
+     * continues it.</p>
+     *
+     * <p>{@code --server} serves games over TCP on {@code --host} and
+     * {@code --port}, 127.0.0.1:4000 by default, one session per
+     * connection; the {@code --computer} of every session is searched
+     * on {@code --search-threads} threads.</p>
+     *
+     * <p>Games and self-play use a board of {@code --rows} rows and
+     * {@code --columns} columns won by {@code --connect} pieces in a
+     * row, the standard 6x7 four-in-a-row board by default.</p>
+     *
+     * <p>{@code --metrics} records move latencies, search rates,
+     * transposition table hits, save and load times and finished games,
+     * and logs them every {@code --metrics-interval} seconds, 10 by
+     * default, and on exit; {@code --metrics <file>} also writes them
+     * to the file in the Prometheus text format.</p>
+     *
+     * @param args the command line arguments
      */
     public static void main(final String[] args) {
-        Scanner scanner = new Scanner(System.in);
-        Random random = new Random();  // Initialize Random object
+        Map<String, String> options = parseOptions(args);
+        MetricsReporter metrics = startMetrics(options);
+        try {
+            run(options);
+        } finally {
+            if (metrics != null) {
+                metrics.close();
+            }
+        }
+    }
 
-        System.out.println("Welcome to Connect4!");
-        System.out.print("Enter player name: ");
-        String playerName = scanner.nextLine();
+    /**
+     * Enables the engine metrics if {@code --metrics} is given.
+     *
+     * @param options the command line options
+     * @return the reporter of the metrics, or null if they are disabled
+     */
+    private static MetricsReporter startMetrics(
+            final Map<String, String> options) {
+        String target = options.get("--metrics");
+        if (target == null) {
+            return null;
+        }
+        EngineMetrics.setEnabled(true);
+        long seconds = Long.parseLong(options.getOrDefault(
+                "--metrics-interval",
+                String.valueOf(DEFAULT_METRICS_SECONDS)));
+        return new MetricsReporter(EngineMetrics.registry(),
+                "true".equals(target) ? null : Path.of(target),
+                TimeUnit.SECONDS.toMillis(seconds));
+    }
 
-        Player player = new Player(playerName, 'R');
+    /**
+     * Runs the mode selected by the command line options.
+     *
+     * @param options the command line options
+     */
+    private static void run(final Map<String, String> options) {
+        int threads = Integer.parseInt(options.getOrDefault("--threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        ParallelSolver.Mode mode = ParallelSolver.Mode.valueOf(options
+                .getOrDefault("--mode", "lazy-smp")
+                .toUpperCase(Locale.ROOT).replace('-', '_'));
+
+        long budgetMillis = Long.parseLong(options.getOrDefault(
+                "--budget-ms", String.valueOf(DEFAULT_BUDGET_MILLIS)));
+        int rows = Integer.parseInt(options.getOrDefault("--rows",
+                String.valueOf(Board.DEFAULT_ROWS)));
+        int columns = Integer.parseInt(options.getOrDefault("--columns",
+                String.valueOf(Board.DEFAULT_COLUMNS)));
+        int connect = Integer.parseInt(options.getOrDefault("--connect",
+                String.valueOf(Board.DEFAULT_WIN_LENGTH)));
+
+        if (options.containsKey("--benchmark")) {
+            int depth = Integer.parseInt(options.getOrDefault("--depth",
+                    String.valueOf(DEFAULT_BENCHMARK_DEPTH)));
+            if ("eval".equals(options.get("--benchmark"))) {
+                SearchBenchmark.runEvaluation(System.out);
+            } else if ("ordering".equals(options.get("--benchmark"))) {
+                SearchBenchmark.runOrdering(depth, System.out);
+            } else {
+                SearchBenchmark.run(threads, depth, mode, System.out);
+            }
+            return;
+        }
+        if (options.containsKey("--high-scores")) {
+            HighScoreRepository scores = openScores(options);
+            printHighScores(scores);
+            closeScores(scores);
+            return;
+        }
+        if (options.containsKey("--selfplay")) {
+            selfPlay(options, threads,
+                    () -> new Board(rows, columns, connect));
+            return;
+        }
+        if (options.containsKey("--server")) {
+            serve(options, () -> new Board(rows, columns, connect),
+                    SearchBudget.ofMillis(budgetMillis));
+            return;
+        }
+        if (options.containsKey("--export-log")) {
+            exportLog(Path.of(options.get("--export-log")),
+                    Path.of(options.getOrDefault("--to", TEXT_SAVE_FILE)));
+            return;
+        }
+        if (options.containsKey("--analyze")) {
+            SearchBudget budget = options.containsKey("--budget-nodes")
+                    ? SearchBudget.ofNodes(Long.parseLong(
+                            options.get("--budget-nodes")))
+                    : SearchBudget.ofMillis(budgetMillis);
+            analyze(options, rows, columns, budget, threads);
+            return;
+        }
+        if (options.containsKey("--build-tablebase")) {
+            buildTablebase(options, new Board(rows, columns, connect),
+                    threads);
+            return;
+        }
+        if (options.containsKey("--generate-book")) {
+            generateBook(Path.of(options.get("--generate-book")),
+                    Integer.parseInt(options.getOrDefault("--book-depth",
+                            String.valueOf(DEFAULT_BOOK_DEPTH))),
+                    SearchBudget.ofMillis(budgetMillis), threads);
+            return;
+        }
+
+        // Tables, books and tablebases are only loaded for the first move
+        MoveStrategy strategy = new LazyMoveStrategy(() -> computerStrategy(
+                options, SearchBudget.ofMillis(budgetMillis), threads, mode));
+        if (options.containsKey("--move")) {
+            playOneMove(options.get("--move"),
+                    new Board(rows, columns, connect), strategy);
+            return;
+        }
+
+        Scanner scanner = new Scanner(System.in);
+        System.out.println("Welcome to Connect4!");
+        SuspendedGame saved = options.containsKey("--resume")
+                ? loadSuspended(Path.of(options.get("--resume"))) : null;
+        Player player;
+        if (saved != null) {
+            // The saved game is continued by the player who saved it
+            player = saved.human();
+            System.out.println("Welcome back, " + player.name() + "!");
+        } else {
+            System.out.print("Enter player name: ");
+            player = new Player(scanner.nextLine(), 'R');
+        }
 
         // Create a new board object
-        Board board = new Board();
+        Board board = saved != null ? saved.toBoard()
+                : new Board(rows, columns, connect);
+
+        // Finished games are recorded in the binary game log
+        GameLogWriter log = openLog(Path.of(options.getOrDefault(
+                "--game-log", GAME_LOG_FILE)));
+
+        // The winner's victories are counted in the high-score database
+        HighScoreRepository scores = openScores(options);
 
-        // Pass Scanner and Random to the Game object
-        Game game = new Game(player, board, scanner, random);
+        // Pass Scanner and the computer's strategy to the Game object
+        Game game = new Game(player, board, scanner, strategy, log, scores);
 
-        // Load the initial board state from 'board_input.txt'
-        game.loadInitialBoard();
+        if (saved != null) {
+            // Continue a suspended game instead of loading a board
+            game.resume(saved);
+        } else {
+            // Load the initial board state from 'board_input.txt'
+            game.loadInitialBoard();
+        }
 
         // Start the game
         game.start();
+        if (game.isSuspended()) {
+            suspend(game, Path.of(options.getOrDefault("--save-file",
+                    SUSPENDED_GAME_FILE)));
+        }
+        closeLog(log);
+        printHighScores(scores);
+        closeScores(scores);
+    }
+
+    /**
+     * Creates the computer's strategy selected by {@code --computer},
+     * consulting {@code --tablebase} and {@code --book} first if given.
+     *
+     * @param options the command line options
+     * @param budget the limits of every search
+     * @param threads the number of search threads
+     * @param mode the division of work between threads
+     * @return the strategy of the computer player
+     */
+    private static MoveStrategy computerStrategy(
+            final Map<String, String> options, final SearchBudget budget,
+            final int threads, final ParallelSolver.Mode mode) {
+        MoveStrategy strategy = new RandomMoveStrategy(new Random());
+        if ("solver".equals(options.get("--computer"))) {
+            TranspositionTable table = TranspositionTable.ofMegabytes(
+                    Integer.parseInt(options.getOrDefault("--hash-mb",
+                            String.valueOf(DEFAULT_HASH_MEGABYTES))));
+            strategy = reportingSolver(budget, threads, mode, table);
+            if (options.containsKey("--ponder")) {
+                strategy = new PonderingStrategy(strategy, table);
+            }
+        } else if ("mcts".equals(options.get("--computer"))) {
+            MctsStrategy mcts = new MctsStrategy(budget);
+            strategy = (board, symbol) -> reportPlayouts(
+                    mcts.search(board, symbol));
+        }
+        if (options.containsKey("--tablebase")) {
+            strategy = withTablebase(Path.of(options.get("--tablebase")),
+                    strategy);
+        }
+        if (options.containsKey("--book")) {
+            strategy = withBook(Path.of(options.get("--book")), strategy);
+        }
+        return strategy;
+    }
+
+    /**
+     * Prints the computer's move in a position and returns, for scripts
+     * asking for a single move.
+     *
+     * @param moves the columns played from the empty board, one digit
+     *        each and counted from 0, or "true" for the empty board
+     * @param board an empty board of the position's geometry
+     * @param strategy the strategy of the computer player
+     */
+    private static void playOneMove(final String moves, final Board board,
+                                    final MoveStrategy strategy) {
+        String columns = "true".equals(moves) ? "" : moves;
+        char symbol = 'R';
+        for (int i = 0; i < columns.length(); i++) {
+            int col = Character.digit(columns.charAt(i), Character.MAX_RADIX);
+            if (col < 0 || col >= board.getColumnCount()
+                    || board.dropPiece(col, symbol) < 0) {
+                System.out.println("Invalid move '" + columns.charAt(i)
+                        + "' at " + i + ".");
+                return;
+            }
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        if (board.checkWin('R') || board.checkWin('Y') || board.isFull()) {
+            System.out.println("The game is over.");
+            return;
+        }
+        System.out.println("Computer plays column "
+                + strategy.chooseMove(board, symbol) + ".");
+    }
+
+    /**
+     * Reads a suspended game, reporting a failure instead of throwing.
+     *
+     * @param path the XML file holding the suspended game
+     * @return the game, or null if it cannot be read
+     */
+    private static SuspendedGame loadSuspended(final Path path) {
+        long timer = EngineMetrics.startTimer();
+        try {
+            SuspendedGame saved = GameXmlReader.load(path);
+            saved.toBoard();  // Reject boards that cannot be played
+            EngineMetrics.gameLoaded(timer);
+            return saved;
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Failed to resume game, starting a new one: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves a suspended game.
+     *
+     * @param game the suspended game
+     * @param path the XML file to write
+     */
+    private static void suspend(final Game game, final Path path) {
+        long timer = EngineMetrics.startTimer();
+        try {
+            GameXmlWriter.save(path, game.suspend());
+            EngineMetrics.gameSaved(timer);
+            System.out.println("Game saved to '" + path + "'; continue it "
+                    + "with --resume " + path + ".");
+        } catch (IOException e) {
+            System.out.println("Failed to save game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Plays a batch of games between two computer players and prints
+     * the totals.
+     *
+     * @param options the command line options
+     * @param threads the number of playing threads
+     * @param boards creates the board of each thread
+     */
+    private static void selfPlay(final Map<String, String> options,
+                                 final int threads,
+                                 final Supplier<Board> boards) {
+        SearchBudget moveBudget = SearchBudget.ofNodes(Long.parseLong(
+                options.getOrDefault("--budget-nodes",
+                        String.valueOf(DEFAULT_SELFPLAY_NODES))));
+        GameLogWriter log = options.containsKey("--game-log")
+                ? openLog(Path.of(options.get("--game-log"))) : null;
+        DatasetWriter dataset = options.containsKey("--dataset")
+                ? openDataset(options, moveBudget) : null;
+        GameArchive archive = log;
+        if (dataset != null) {
+            archive = log == null ? dataset
+                    : (board, first, second, moves, count) -> {
+                        dataset.archive(board, first, second, moves, count);
+                        log.archive(board, first, second, moves, count);
+                    };
+        }
+        SelfPlayRunner runner = new SelfPlayRunner(
+                SelfPlayRunner.strategy(options.getOrDefault(
+                        "--player-a", "random"), moveBudget),
+                SelfPlayRunner.strategy(options.getOrDefault(
+                        "--player-b", "random"), moveBudget),
+                threads, boards, archive);
+        SelfPlayStats stats = runner.run(
+                Long.parseLong(options.getOrDefault("--games",
+                        String.valueOf(DEFAULT_SELFPLAY_GAMES))),
+                Long.parseLong(options.getOrDefault("--seed",
+                        String.valueOf(System.nanoTime()))));
+        System.out.println(stats);
+        closeLog(log);
+        closeDataset(dataset);
+        if (options.containsKey("--db")) {
+            HighScoreRepository scores = openScores(options);
+            if (scores != null && stats.winsA() > 0) {
+                scores.recordWins(options.getOrDefault("--player-a",
+                        "random"), (int) stats.winsA());
+            }
+            if (scores != null && stats.winsB() > 0) {
+                scores.recordWins(options.getOrDefault("--player-b",
+                        "random"), (int) stats.winsB());
+            }
+            closeScores(scores);
+        }
+    }
+
+    /**
+     * Opens the high-score database {@code --db}, reporting a failure
+     * instead of throwing.
+     *
+     * @param options the command line options
+     * @return the repository, or null if the database cannot be opened
+     */
+    private static HighScoreRepository openScores(
+            final Map<String, String> options) {
+        try {
+            return new HighScoreRepository(options.getOrDefault("--db",
+                    HighScoreRepository.DEFAULT_URL),
+                    HighScoreRepository.DEFAULT_FLUSH_MILLIS,
+                    HighScoreRepository.DEFAULT_BATCH_SIZE);
+        } catch (SQLException e) {
+            System.out.println("Failed to open high scores: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void closeScores(final HighScoreRepository scores) {
+        if (scores == null) {
+            return;
+        }
+        try {
+            scores.close();
+        } catch (SQLException e) {
+            System.out.println("Failed to save high scores: "
+                    + e.getMessage());
+        }
+    }
+
+    private static void printHighScores(final HighScoreRepository scores) {
+        if (scores == null) {
+            return;
+        }
+        System.out.println("High scores:");
+        int rank = 1;
+        for (HighScore entry : scores.top(HIGH_SCORE_ROWS)) {
+            System.out.printf("%2d. %-20s %d%n", rank++,
+                    entry.playerName(), entry.wins());
+        }
+    }
+
+    /**
+     * Runs the game server until the process is stopped, printing its
+     * metrics periodically.
+     *
+     * @param options the command line options
+     * @param boards creates the board of each session
+     * @param budget the search budget of every computer move
+     */
+    private static void serve(final Map<String, String> options,
+                              final Supplier<Board> boards,
+                              final SearchBudget budget) {
+        Function<RandomGenerator, MoveStrategy> strategies =
+                SelfPlayRunner.strategy(options.getOrDefault("--computer",
+                        "random"), budget);
+        InetSocketAddress address = new InetSocketAddress(
+                options.getOrDefault("--host", DEFAULT_HOST),
+                Integer.parseInt(options.getOrDefault("--port",
+                        String.valueOf(DEFAULT_PORT))));
+        int searchThreads = Integer.parseInt(options.getOrDefault(
+                "--search-threads", String.valueOf(
+                        Runtime.getRuntime().availableProcessors())));
+        try (GameServer server = new GameServer(address, searchThreads,
+                boards, () -> strategies.apply(new SplittableRandom()))) {
+            int port = server.start();
+            System.out.println("Listening on " + address.getHostString()
+                    + ":" + port + ".");
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(STATS_INTERVAL_MILLIS);
+                System.out.println(server.metrics());
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to run the server: "
+                    + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Opens the game log, reporting a failure instead of throwing.
+     *
+     * @param path the log file
+     * @return the writer, or null if the log cannot be opened
+     */
+    private static GameLogWriter openLog(final Path path) {
+        try {
+            return new GameLogWriter(path);
+        } catch (IOException e) {
+            System.out.println("Failed to open game log, games will be "
+                    + "saved as text: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Opens the training sample shards in {@code --dataset}, reporting a
+     * failure instead of throwing. With {@code --dataset-score} every
+     * exported position is scored by a solver of the thread exporting
+     * it.
+     *
+     * @param options the command line options
+     * @param budget the search budget of the scoring solvers
+     * @return the writer, or null if the directory cannot be created
+     */
+    private static DatasetWriter openDataset(
+            final Map<String, String> options, final SearchBudget budget) {
+        DatasetWriter.Scorer scorer = null;
+        if (options.containsKey("--dataset-score")) {
+            ThreadLocal<Solver> solvers =
+                    ThreadLocal.withInitial(() -> new Solver(budget));
+            scorer = (board, symbol) ->
+                    solvers.get().search(board, symbol).score();
+        }
+        try {
+            return new DatasetWriter(Path.of(options.get("--dataset")),
+                    Integer.parseInt(options.getOrDefault("--shard-mb",
+                            String.valueOf(
+                                    DatasetWriter.DEFAULT_SHARD_MEGABYTES))),
+                    Integer.parseInt(options.getOrDefault("--dedup-mb",
+                            String.valueOf(
+                                    DatasetWriter.DEFAULT_DEDUP_MEGABYTES))),
+                    scorer);
+        } catch (IOException e) {
+            System.out.println("Failed to open the dataset, no samples "
+                    + "will be exported: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void closeDataset(final DatasetWriter dataset) {
+        if (dataset == null) {
+            return;
+        }
+        try {
+            dataset.close();
+            System.out.println("Exported " + dataset.getWrittenCount()
+                    + " samples into " + dataset.getShardCount()
+                    + " shards, skipped " + dataset.getDuplicateCount()
+                    + " duplicates.");
+        } catch (IOException e) {
+            System.out.println("Failed to close the dataset: "
+                    + e.getMessage());
+        }
+    }
+
+    private static void closeLog(final GameLogWriter log) {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.out.println("Failed to close game log: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Exports a game log in the text format of the final boards.
+     *
+     * @param log the game log to read
+     * @param text the text file to append to
+     */
+    private static void exportLog(final Path log, final Path text) {
+        try {
+            long games = GameLogReader.exportText(log, text);
+            System.out.println("Exported " + games + " games to '" + text
+                    + "'.");
+        } catch (IOException e) {
+            System.out.println("Failed to export game log: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses {@code --name value} pairs; an option without a value is
+     * stored as {@code "true"}.
+     *
+     * @param args the command line arguments
+     * @return the options by name
+     */
+    static Map<String, String> parseOptions(final String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                System.out.println("Ignoring unexpected argument "
+                        + args[i] + ".");
+            } else if (i + 1 < args.length
+                    && !args[i + 1].startsWith("--")) {
+                options.put(args[i], args[i + 1]);
+                i++;
+            } else {
+                options.put(args[i], "true");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Creates a solver strategy that prints the statistics of every
+     * search.
+     *
+     * @param budget the limits of every search
+     * @param threads the number of search threads
+     * @param mode the division of work between threads
+     * @param table the transposition table of the solver
+     * @return a strategy delegating to the solver
+     */
+    private static MoveStrategy reportingSolver(
+            final SearchBudget budget, final int threads,
+            final ParallelSolver.Mode mode, final TranspositionTable table) {
+        if (threads == 1) {
+            Solver solver = new Solver(budget, table);
+            return (board, symbol) -> report(solver.search(board, symbol));
+        }
+        ParallelSolver solver = new ParallelSolver(budget, threads, mode,
+                table);
+        return (board, symbol) -> report(solver.search(board, symbol));
+    }
+
+    /**
+     * Generates an opening book and reports how long it took.
+     *
+     * @param path the book file to write
+     * @param depth the number of moves the book covers
+     * @param budget the limits of the search of every position
+     * @param threads the number of searching threads
+     */
+    private static void generateBook(final Path path, final int depth,
+                                     final SearchBudget budget,
+                                     final int threads) {
+        long start = System.nanoTime();
+        try {
+            int positions = new OpeningBookGenerator(depth, budget, threads)
+                    .generate(path);
+            System.out.println("Wrote " + positions + " positions to '"
+                    + path + "' in " + TimeUnit.NANOSECONDS.toSeconds(
+                            System.nanoTime() - start) + " s.");
+        } catch (IOException e) {
+            System.out.println("Failed to generate opening book: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Analyzes a position file and reports the progress.
+     *
+     * @param options the command line options
+     * @param rows the number of rows of the positions
+     * @param columns the number of columns of the positions
+     * @param budget the limits of the search of every position
+     * @param threads the number of solving threads
+     */
+    private static void analyze(final Map<String, String> options,
+                                final int rows, final int columns,
+                                final SearchBudget budget,
+                                final int threads) {
+        Path input = Path.of(options.get("--analyze"));
+        PositionAnalyzer.Format format = PositionAnalyzer.Format.valueOf(
+                options.getOrDefault("--format", "csv")
+                        .toUpperCase(Locale.ROOT));
+        Path output = Path.of(options.getOrDefault("--out",
+                input + (format == PositionAnalyzer.Format.CSV
+                        ? ".csv" : ".bin")));
+        try {
+            PositionAnalyzer analyzer = new PositionAnalyzer(rows, columns,
+                    options.getOrDefault("--first", "R").charAt(0),
+                    options.getOrDefault("--second", "Y").charAt(0),
+                    budget, threads);
+            AnalysisReport report = analyzer.analyze(input, output, format,
+                    progress -> System.out.println("Progress: " + progress));
+            System.out.println("Wrote '" + output + "': " + report);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Failed to analyze positions: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds an endgame tablebase and reports how long it took.
+     *
+     * @param options the command line options
+     * @param board an empty board of the tablebase's geometry
+     * @param threads the number of solving threads
+     */
+    private static void buildTablebase(final Map<String, String> options,
+                                       final Board board,
+                                       final int threads) {
+        Path path = Path.of(options.get("--build-tablebase"));
+        int empty = Integer.parseInt(options.getOrDefault(
+                "--tablebase-empty",
+                String.valueOf(DEFAULT_TABLEBASE_EMPTY)));
+        long start = System.nanoTime();
+        try {
+            List<byte[]> games = new ArrayList<>();
+            if (options.containsKey("--game-log")) {
+                try (GameLogReader log = GameLogReader.open(
+                        Path.of(options.get("--game-log")))) {
+                    for (GameRecord game = log.read(); game != null;
+                         game = log.read()) {
+                        if (game.rows() == board.getRowCount()
+                                && game.columns() == board.getColumnCount()
+                                && game.winLength() == board.getWinLength()) {
+                            games.add(game.moves());
+                        }
+                    }
+                }
+            } else {
+                games = EndgameTablebaseBuilder.randomGames(
+                        board.getRowCount(), board.getColumnCount(),
+                        board.getWinLength(), Integer.parseInt(
+                                options.getOrDefault("--seed-games",
+                                        String.valueOf(DEFAULT_SEED_GAMES))),
+                        System.nanoTime());
+            }
+            int positions = new EndgameTablebaseBuilder(board.getRowCount(),
+                    board.getColumnCount(), board.getWinLength(), empty,
+                    threads).build(games, path);
+            System.out.println("Wrote " + positions + " positions to '"
+                    + path + "' in " + TimeUnit.NANOSECONDS.toSeconds(
+                            System.nanoTime() - start) + " s.");
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Failed to build endgame tablebase: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Makes a strategy consult an endgame tablebase first.
+     *
+     * @param path the tablebase file
+     * @param strategy the strategy used outside the tablebase
+     * @return the tablebase-first strategy, or the given one if the
+     *         tablebase cannot be opened
+     */
+    private static MoveStrategy withTablebase(final Path path,
+                                              final MoveStrategy strategy) {
+        try {
+            return new EndgameMoveStrategy(EndgameTablebase.open(path),
+                    strategy);
+        } catch (IOException e) {
+            System.out.println("Failed to open endgame tablebase: "
+                    + e.getMessage());
+            return strategy;
+        }
+    }
+
+    /**
+     * Makes a strategy consult an opening book first.
+     *
+     * @param path the book file
+     * @param strategy the strategy used outside the book
+     * @return the book-first strategy, or the given one if the book
+     *         cannot be opened
+     */
+    private static MoveStrategy withBook(final Path path,
+                                         final MoveStrategy strategy) {
+        try {
+            return new BookMoveStrategy(OpeningBook.open(path), strategy);
+        } catch (IOException e) {
+            System.out.println("Failed to open opening book: "
+                    + e.getMessage());
+            return strategy;
+        }
+    }
+
+    private static int reportPlayouts(final SearchResult result) {
+        System.out.println("Computer ran " + result.nodes() + " playouts ("
+                + result.nodesPerSecond() + " playouts/s).");
+        return result.move();
+    }
+
+    private static int report(final SearchResult result) {
+        System.out.println("Computer searched " + result.nodes()
+                + " nodes to depth " + result.depth() + " ("
+                + result.nodesPerSecond() + " nodes/s).");
+        return result.move();
     }
 }
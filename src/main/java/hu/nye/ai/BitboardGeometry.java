@@ -0,0 +1,188 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+
+/**
+ * Move generation and win detection on raw bitboards in the layout of
+ * {@link Board#getPieces(char)}, for any geometry that fits into a
+ * bitboard and any winning line length.
+ *
+ * <p>A position is described by the pieces of the side to move and the
+ * occupied cells; its key is their sum, which is unique because every
+ * column has an empty sentinel bit on top. Keys are canonical when the
+ * smaller of a position and its mirror image is used.</p>
+ */
+final class BitboardGeometry {
+
+    /** The number of rows. */
+    private final int rows;
+
+    /** The number of columns. */
+    private final int columns;
+
+    /** The number of consecutive pieces required to win. */
+    private final int winLength;
+
+    /** The number of bits per column, including the sentinel. */
+    private final int height;
+
+    /** The bottom cell of every column. */
+    private final long bottomMask;
+
+    /** Every real cell of the board. */
+    private final long boardMask;
+
+    /** An empty board of the geometry, used to mirror bitboards. */
+    private final Board template;
+
+    /**
+     * Creates the geometry of a board.
+     *
+     * @param rowCount the number of rows
+     * @param columnCount the number of columns
+     * @param lineLength the number of consecutive pieces required to win
+     * @throws IllegalArgumentException if the board is invalid or does
+     *         not fit into a bitboard
+     */
+    BitboardGeometry(final int rowCount, final int columnCount,
+                     final int lineLength) {
+        this.template = new Board(rowCount, columnCount, lineLength);
+        if (!template.isBitboard()) {
+            throw new IllegalArgumentException("A " + rowCount + "x"
+                    + columnCount + " board does not fit into a bitboard.");
+        }
+        this.rows = rowCount;
+        this.columns = columnCount;
+        this.winLength = lineLength;
+        this.height = rowCount + 1;
+        long bottom = 0;
+        for (int col = 0; col < columnCount; col++) {
+            bottom |= 1L << (col * height);
+        }
+        this.bottomMask = bottom;
+        this.boardMask = bottom * ((1L << rowCount) - 1);
+    }
+
+    /**
+     * Returns whether a board has this geometry.
+     *
+     * @param board the board to check
+     * @return true if the sizes and the winning line length match
+     */
+    boolean matches(final Board board) {
+        return board.getRowCount() == rows
+                && board.getColumnCount() == columns
+                && board.getWinLength() == winLength;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the number of columns
+     */
+    int columns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of consecutive pieces required to win.
+     *
+     * @return the length of a winning line
+     */
+    int winLength() {
+        return winLength;
+    }
+
+    /**
+     * Returns the number of cells of the board.
+     *
+     * @return rows times columns
+     */
+    int cells() {
+        return rows * columns;
+    }
+
+    /**
+     * Returns the cells a piece can be dropped into.
+     *
+     * @param mask the occupied cells
+     * @return the lowest empty cell of every column that is not full
+     */
+    long possibleMoves(final long mask) {
+        return (mask + bottomMask) & boardMask;
+    }
+
+    /**
+     * Returns the cells of a column.
+     *
+     * @param col the column
+     * @return the real cells of the column
+     */
+    long columnCells(final int col) {
+        return ((1L << rows) - 1) << (col * height);
+    }
+
+    /**
+     * Returns whether pieces contain a winning line.
+     *
+     * @param pieces the pieces of one player
+     * @return true if the pieces hold a line of the winning length
+     */
+    boolean isWin(final long pieces) {
+        return hasLine(pieces, 1) || hasLine(pieces, height)
+                || hasLine(pieces, height - 1)
+                || hasLine(pieces, height + 1);
+    }
+
+    private boolean hasLine(final long pieces, final int shift) {
+        long line = pieces;
+        for (int i = 1; i < winLength && line != 0; i++) {
+            int distance = i * shift;
+            line &= distance < Long.SIZE ? pieces >>> distance : 0;
+        }
+        return line != 0;
+    }
+
+    /**
+     * Returns the key of a position.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @return the key
+     */
+    static long keyOf(final long current, final long mask) {
+        return current + mask;
+    }
+
+    /**
+     * Returns the key shared by a position and its mirror image.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @return the smaller of both keys
+     */
+    long canonicalKey(final long current, final long mask) {
+        long key = keyOf(current, mask);
+        // Columns never carry into each other, so the sum mirrors as well
+        return Math.min(key, template.mirror(key));
+    }
+
+    /**
+     * Mirrors a bitboard at the center column.
+     *
+     * @param bits the bitboard
+     * @return the mirrored bitboard
+     */
+    long mirror(final long bits) {
+        return template.mirror(bits);
+    }
+}
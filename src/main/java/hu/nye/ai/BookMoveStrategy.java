@@ -0,0 +1,81 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+
+/**
+ * Plays from an {@link OpeningBook} while the position is in the book
+ * and asks another strategy, typically a solver, otherwise.
+ */
+public final class BookMoveStrategy implements MoveStrategy {
+
+    /** The book consulted first. */
+    private final OpeningBook book;
+
+    /** The strategy used for positions outside the book. */
+    private final MoveStrategy fallback;
+
+    /** The number of moves answered from the book. */
+    private long bookHits;
+
+    /**
+     * Creates a book-first strategy.
+     *
+     * @param openingBook the book consulted first
+     * @param searchStrategy the strategy used outside the book
+     */
+    public BookMoveStrategy(final OpeningBook openingBook,
+                            final MoveStrategy searchStrategy) {
+        this.book = openingBook;
+        this.fallback = searchStrategy;
+    }
+
+    /**
+     * Returns the book move if there is a playable one, otherwise the
+     * fallback strategy's choice.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen column
+     */
+    @Override
+    public int chooseMove(final Board board, final char playerSymbol) {
+        int move = book.bestMove(board, playerSymbol);
+        if (move >= 0 && move < board.getColumnCount()
+                && !board.isColumnFull(move)) {
+            bookHits++;
+            return move;
+        }
+        return fallback.chooseMove(board, playerSymbol);
+    }
+
+    /**
+     * Lets the fallback strategy ponder.
+     *
+     * @param board the current game board with the opponent to move
+     * @param opponentSymbol the symbol of the opponent, who is to move
+     * @param playerSymbol the symbol of the strategy's own player
+     */
+    @Override
+    public void ponder(final Board board, final char opponentSymbol,
+                       final char playerSymbol) {
+        fallback.ponder(board, opponentSymbol, playerSymbol);
+    }
+
+    /**
+     * Stops the pondering of the fallback strategy.
+     */
+    @Override
+    public void stopPondering() {
+        fallback.stopPondering();
+    }
+
+    /**
+     * Returns how many moves were answered from the book.
+     *
+     * @return the number of book moves played
+     */
+    public long getBookHits() {
+        return bookHits;
+    }
+}
@@ -0,0 +1,80 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+
+/**
+ * Plays perfectly from an {@link EndgameTablebase} once the position is
+ * covered and asks another strategy otherwise.
+ */
+public final class EndgameMoveStrategy implements MoveStrategy {
+
+    /** The tablebase consulted first. */
+    private final EndgameTablebase tablebase;
+
+    /** The strategy used for positions outside the tablebase. */
+    private final MoveStrategy fallback;
+
+    /** The number of moves answered from the tablebase. */
+    private long tablebaseHits;
+
+    /**
+     * Creates a tablebase-first strategy.
+     *
+     * @param endgames the tablebase consulted first
+     * @param searchStrategy the strategy used outside the tablebase
+     */
+    public EndgameMoveStrategy(final EndgameTablebase endgames,
+                               final MoveStrategy searchStrategy) {
+        this.tablebase = endgames;
+        this.fallback = searchStrategy;
+    }
+
+    /**
+     * Returns the tablebase move if the position is covered, otherwise
+     * the fallback strategy's choice.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen column
+     */
+    @Override
+    public int chooseMove(final Board board, final char playerSymbol) {
+        int move = tablebase.bestMove(board, playerSymbol);
+        if (move >= 0) {
+            tablebaseHits++;
+            return move;
+        }
+        return fallback.chooseMove(board, playerSymbol);
+    }
+
+    /**
+     * Lets the fallback strategy ponder.
+     *
+     * @param board the current game board with the opponent to move
+     * @param opponentSymbol the symbol of the opponent, who is to move
+     * @param playerSymbol the symbol of the strategy's own player
+     */
+    @Override
+    public void ponder(final Board board, final char opponentSymbol,
+                       final char playerSymbol) {
+        fallback.ponder(board, opponentSymbol, playerSymbol);
+    }
+
+    /**
+     * Stops the pondering of the fallback strategy.
+     */
+    @Override
+    public void stopPondering() {
+        fallback.stopPondering();
+    }
+
+    /**
+     * Returns how many moves were answered from the tablebase.
+     *
+     * @return the number of tablebase moves played
+     */
+    public long getTablebaseHits() {
+        return tablebaseHits;
+    }
+}
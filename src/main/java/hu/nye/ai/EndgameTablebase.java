@@ -0,0 +1,320 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only endgame tablebase memory-mapped from a file written by
+ * {@link EndgameTablebaseBuilder}, holding the perfect-play result of
+ * positions with few empty cells.
+ *
+ * <p>The file starts with a {@value #HEADER_SIZE}-byte header: the
+ * magic number, the format version, the board geometry, the largest
+ * number of empty cells covered and the number of entries. Then follow
+ * fixed-width entries sorted by canonical position key; each holds the
+ * key as a {@code long} and a {@code short} packing the result for the
+ * side to move (win, draw or loss) and the number of moves until the
+ * game ends with perfect play, the winner hurrying and the loser
+ * delaying. Mirror images share one entry. Probes binary-search the
+ * mapped file directly and allocate nothing.</p>
+ */
+public final class EndgameTablebase implements AutoCloseable {
+
+    /** The value returned by {@link #probe(long)} for a missing key. */
+    public static final int NO_ENTRY = Integer.MIN_VALUE;
+
+    /** The result of a position the side to move wins. */
+    public static final int WIN = 1;
+
+    /** The result of a drawn position. */
+    public static final int DRAW = 0;
+
+    /** The result of a position the side to move loses. */
+    public static final int LOSS = -1;
+
+    /** Identifies tablebase files ("C4TB"). */
+    static final int MAGIC = 0x43345442;
+
+    /** The version of the file format. */
+    static final short VERSION = 1;
+
+    /** The size of the file header in bytes. */
+    static final int HEADER_SIZE = 16;
+
+    /** The size of one entry in bytes. */
+    static final int ENTRY_SIZE = Long.BYTES + Short.BYTES;
+
+    /** Offset of the version in the header. */
+    static final int VERSION_OFFSET = 4;
+
+    /** Offset of the number of rows in the header. */
+    static final int ROWS_OFFSET = 6;
+
+    /** Offset of the number of columns in the header. */
+    static final int COLUMNS_OFFSET = 7;
+
+    /** Offset of the winning line length in the header. */
+    static final int WIN_LENGTH_OFFSET = 8;
+
+    /** Offset of the largest number of empty cells in the header. */
+    static final int EMPTY_OFFSET = 9;
+
+    /** Offset of the number of entries in the header. */
+    static final int COUNT_OFFSET = 12;
+
+    /** The number of bits holding the distance in a packed value. */
+    private static final int DISTANCE_BITS = 8;
+
+    /** Mask of the distance in a packed value. */
+    private static final int DISTANCE_MASK = (1 << DISTANCE_BITS) - 1;
+
+    /** The mapped file contents. */
+    private final MappedByteBuffer buffer;
+
+    /** The channel the file was mapped from. */
+    private final FileChannel channel;
+
+    /** The geometry of the tablebase's board. */
+    private final BitboardGeometry geometry;
+
+    /** The largest number of empty cells of a covered position. */
+    private final int maxEmpty;
+
+    /** The number of entries. */
+    private final int size;
+
+    private EndgameTablebase(final FileChannel fileChannel,
+                             final MappedByteBuffer contents)
+            throws IOException {
+        this.channel = fileChannel;
+        this.buffer = contents;
+        if (contents.capacity() < HEADER_SIZE
+                || contents.getInt(0) != MAGIC) {
+            throw new IOException("Not an endgame tablebase file.");
+        }
+        if (contents.getShort(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported tablebase version "
+                    + contents.getShort(VERSION_OFFSET) + ".");
+        }
+        try {
+            this.geometry = new BitboardGeometry(contents.get(ROWS_OFFSET),
+                    contents.get(COLUMNS_OFFSET),
+                    contents.get(WIN_LENGTH_OFFSET));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid tablebase geometry: "
+                    + e.getMessage(), e);
+        }
+        this.maxEmpty = contents.get(EMPTY_OFFSET);
+        this.size = contents.getInt(COUNT_OFFSET);
+        if ((long) HEADER_SIZE + (long) size * ENTRY_SIZE
+                != contents.capacity()) {
+            throw new IOException("Tablebase file is truncated.");
+        }
+    }
+
+    /**
+     * Memory-maps a tablebase file.
+     *
+     * @param path the tablebase file
+     * @return the opened tablebase
+     * @throws IOException if the file cannot be read or is not a
+     *         tablebase
+     */
+    public static EndgameTablebase open(final Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer contents = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            contents.order(ByteOrder.BIG_ENDIAN);
+            return new EndgameTablebase(channel, contents);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up a position by its canonical key.
+     *
+     * @param key the smaller of the keys of the position and its mirror
+     *        image
+     * @return the packed value, or {@link #NO_ENTRY} if the position is
+     *         not in the tablebase
+     */
+    public int probe(final long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long offset = HEADER_SIZE + (long) middle * ENTRY_SIZE;
+            long candidate = buffer.getLong((int) offset);
+            if (candidate < key) {
+                low = middle + 1;
+            } else if (candidate > key) {
+                high = middle - 1;
+            } else {
+                return buffer.getShort((int) offset + Long.BYTES);
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Looks up a position of a board.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the packed value, or {@link #NO_ENTRY} if the position is
+     *         not in the tablebase
+     */
+    public int probe(final Board board, final char playerSymbol) {
+        if (!covers(board)) {
+            return NO_ENTRY;
+        }
+        return probe(geometry.canonicalKey(board.getPieces(playerSymbol),
+                board.getMask()));
+    }
+
+    /**
+     * Returns a move keeping the best result, found by probing the
+     * positions after every move.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the best column, or -1 if the position is not covered
+     */
+    public int bestMove(final Board board, final char playerSymbol) {
+        if (!covers(board)) {
+            return -1;
+        }
+        long current = board.getPieces(playerSymbol);
+        long mask = board.getMask();
+        long possible = geometry.possibleMoves(mask);
+        int bestMove = -1;
+        int bestRank = Integer.MIN_VALUE;
+        for (int col = 0; col < geometry.columns(); col++) {
+            long move = possible & geometry.columnCells(col);
+            if (move == 0) {
+                continue;
+            }
+            if (geometry.isWin(current | move)) {
+                return col;
+            }
+            int rank;
+            if (Long.bitCount(mask) + 1 == geometry.cells()) {
+                rank = rankOf(pack(DRAW, 1));
+            } else {
+                int child = probe(geometry.canonicalKey(current ^ mask,
+                        mask | move));
+                if (child == NO_ENTRY) {
+                    return -1;
+                }
+                rank = rankOf(parentOf(child));
+            }
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = col;
+            }
+        }
+        return bestMove;
+    }
+
+    private boolean covers(final Board board) {
+        return geometry.matches(board) && board.isBitboard()
+                && geometry.cells() - board.getMoveCount() <= maxEmpty;
+    }
+
+    /**
+     * Packs a result and a distance into a tablebase value.
+     *
+     * @param result {@link #WIN}, {@link #DRAW} or {@link #LOSS}
+     * @param distance the number of moves until the game ends
+     * @return the packed value
+     */
+    static int pack(final int result, final int distance) {
+        return (result << DISTANCE_BITS) | distance;
+    }
+
+    /**
+     * Returns the value of the position before the move that led to a
+     * position of the given value.
+     *
+     * @param child the value of the position after the move
+     * @return the value for the player who made the move
+     */
+    static int parentOf(final int child) {
+        return pack(-resultOf(child), distanceOf(child) + 1);
+    }
+
+    /**
+     * Orders values from the mover's point of view: quick wins first,
+     * then draws, then slow losses.
+     *
+     * @param value a packed value
+     * @return a rank, higher being better for the side to move
+     */
+    static int rankOf(final int value) {
+        int distance = distanceOf(value);
+        return switch (resultOf(value)) {
+            case WIN -> DISTANCE_MASK + 1 - distance;
+            case LOSS -> distance - DISTANCE_MASK - 1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Returns the result of a packed value.
+     *
+     * @param value a value returned by {@link #probe(long)}
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the side to
+     *         move
+     */
+    public static int resultOf(final int value) {
+        return value >> DISTANCE_BITS;
+    }
+
+    /**
+     * Returns the distance of a packed value.
+     *
+     * @param value a value returned by {@link #probe(long)}
+     * @return the number of moves until the game ends with perfect play
+     */
+    public static int distanceOf(final int value) {
+        return value & DISTANCE_MASK;
+    }
+
+    /**
+     * Returns the number of positions in the tablebase.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the largest number of empty cells of a covered position.
+     *
+     * @return the number of empty cells
+     */
+    public int maxEmpty() {
+        return maxEmpty;
+    }
+
+    /**
+     * Closes the file channel; the mapping is released by the garbage
+     * collector once the tablebase is no longer referenced.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
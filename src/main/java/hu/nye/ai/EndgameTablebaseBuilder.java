@@ -0,0 +1,531 @@
+package hu.nye.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Builds {@link EndgameTablebase} files by retrograde analysis.
+ *
+ * <p>The positions of the tablebase are those reachable from seed games:
+ * every game long enough contributes the position where exactly the
+ * given number of cells is empty, and every position reachable from
+ * these roots until the game ends is enumerated level by level, one
+ * level per number of empty cells. The results are then computed
+ * backwards, from the level with a single empty cell up to the roots,
+ * each position from the already known results of its successors.
+ * Both passes process the positions of a level in parallel.</p>
+ *
+ * <p>Mirror images are stored once under their canonical key. The roots
+ * are split into parts that are solved one after another and written
+ * to a directory next to the target file, so an interrupted build
+ * resumes with the first missing part. The parts are finally merged
+ * into the tablebase and removed.</p>
+ */
+public final class EndgameTablebaseBuilder {
+
+    /** The number of root positions solved per part. */
+    static final int ROOTS_PER_PART = 256;
+
+    /** The file listing the roots of an unfinished build. */
+    private static final String ROOTS_FILE = "roots.bin";
+
+    /** The entries written per buffer flush. */
+    private static final int ENTRIES_PER_WRITE = 4096;
+
+    /** The geometry of the board. */
+    private final BitboardGeometry geometry;
+
+    /** The largest number of empty cells of a covered position. */
+    private final int maxEmpty;
+
+    /** The number of solving threads. */
+    private final int threads;
+
+    /**
+     * Creates a builder.
+     *
+     * @param rows the number of rows of the board
+     * @param columns the number of columns of the board
+     * @param winLength the number of consecutive pieces required to win
+     * @param emptyCells the largest number of empty cells of a covered
+     *        position
+     * @param threadCount the number of solving threads
+     * @throws IllegalArgumentException if the board does not fit into a
+     *         bitboard or a count is out of range
+     */
+    public EndgameTablebaseBuilder(final int rows, final int columns,
+                                   final int winLength,
+                                   final int emptyCells,
+                                   final int threadCount) {
+        this.geometry = new BitboardGeometry(rows, columns, winLength);
+        if (emptyCells < 1 || emptyCells >= geometry.cells()
+                || threadCount < 1) {
+            throw new IllegalArgumentException("Expected 1 to "
+                    + (geometry.cells() - 1) + " empty cells and at "
+                    + "least one thread.");
+        }
+        this.maxEmpty = emptyCells;
+        this.threads = threadCount;
+    }
+
+    /**
+     * Builds the tablebase from seed games and writes it to a file.
+     *
+     * @param games the columns played in each seed game, first player
+     *        first; games too short or decided before the covered
+     *        positions are ignored
+     * @param path the file to write, replaced if it exists
+     * @return the number of positions written
+     * @throws IOException if the file cannot be written
+     */
+    public int build(final List<byte[]> games, final Path path)
+            throws IOException {
+        Path parts = partsDirectory(path);
+        int partCount = solveParts(games, parts);
+        int size = merge(parts, partCount, path);
+        try (Stream<Path> files = Files.list(parts)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(parts);
+        return size;
+    }
+
+    /**
+     * Solves the parts that are not solved yet.
+     *
+     * @param games the seed games
+     * @param parts the directory of the parts
+     * @return the number of parts
+     * @throws IOException if a part cannot be written
+     */
+    int solveParts(final List<byte[]> games, final Path parts)
+            throws IOException {
+        long[] roots = roots(games);
+        prepareParts(parts, roots);
+        int rootCount = roots.length / 2;
+        int partCount = (rootCount + ROOTS_PER_PART - 1) / ROOTS_PER_PART;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int part = 0; part < partCount; part++) {
+                Path file = partFile(parts, part);
+                if (Files.exists(file)) {
+                    continue;  // Solved before the build was interrupted
+                }
+                int from = part * ROOTS_PER_PART;
+                int to = Math.min(rootCount, from + ROOTS_PER_PART);
+                writePart(file, solve(pool,
+                        Arrays.copyOfRange(roots, 2 * from, 2 * to)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return partCount;
+    }
+
+    /**
+     * Returns the directory holding the parts of an unfinished build.
+     *
+     * @param path the tablebase file
+     * @return the directory next to the file
+     */
+    static Path partsDirectory(final Path path) {
+        return path.resolveSibling(path.getFileName() + ".parts");
+    }
+
+    /**
+     * Returns the file of a part.
+     *
+     * @param parts the directory of the parts
+     * @param part the index of the part
+     * @return the part file
+     */
+    static Path partFile(final Path parts, final int part) {
+        return parts.resolve(String.format("part-%05d.bin", part));
+    }
+
+    /**
+     * Collects the distinct undecided positions with exactly
+     * {@code maxEmpty} empty cells of the seed games.
+     *
+     * @param games the seed games
+     * @return the canonical keys of the roots in ascending order, each
+     *         followed by the mask of the root
+     */
+    private long[] roots(final List<byte[]> games) {
+        TreeMap<Long, Long> roots = new TreeMap<>();
+        int moves = geometry.cells() - maxEmpty;
+        for (byte[] game : games) {
+            if (game.length < moves) {
+                continue;
+            }
+            long current = 0;
+            long mask = 0;
+            boolean decided = false;
+            for (int i = 0; i < moves && !decided; i++) {
+                long move = geometry.possibleMoves(mask)
+                        & geometry.columnCells(game[i]);
+                if (move == 0) {
+                    throw new IllegalArgumentException("Seed game plays "
+                            + "into the full column " + game[i] + ".");
+                }
+                decided = geometry.isWin(current | move);
+                current ^= mask;
+                mask |= move;
+            }
+            if (!decided) {
+                long key = geometry.canonicalKey(current, mask);
+                roots.put(key, key == BitboardGeometry.keyOf(current, mask)
+                        ? mask : geometry.mirror(mask));
+            }
+        }
+        long[] packed = new long[roots.size() * 2];
+        int i = 0;
+        for (Map.Entry<Long, Long> root : roots.entrySet()) {
+            packed[i++] = root.getKey();
+            packed[i++] = root.getValue();
+        }
+        return packed;
+    }
+
+    /**
+     * Keeps the parts of an interrupted build of the same roots and
+     * discards them otherwise.
+     *
+     * @param parts the directory of the parts
+     * @param roots the roots of this build
+     * @throws IOException if the directory cannot be prepared
+     */
+    private void prepareParts(final Path parts, final long[] roots)
+            throws IOException {
+        ByteBuffer manifest = ByteBuffer.allocate(
+                Integer.BYTES * 2 + roots.length * Long.BYTES);
+        manifest.putInt(geometry.cells()).putInt(maxEmpty);
+        for (long root : roots) {
+            manifest.putLong(root);
+        }
+        Path rootsFile = parts.resolve(ROOTS_FILE);
+        if (Files.exists(rootsFile) && Arrays.equals(
+                Files.readAllBytes(rootsFile), manifest.array())) {
+            return;
+        }
+        if (Files.exists(parts)) {
+            try (Stream<Path> files = Files.list(parts)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.createDirectories(parts);
+        Files.write(rootsFile, manifest.array());
+    }
+
+    /**
+     * Solves every position reachable from some roots.
+     *
+     * @param pool the pool running the levels in parallel
+     * @param roots the canonical keys of the roots, each followed by its
+     *        mask
+     * @return the packed value of every position by canonical key
+     * @throws IOException if the computation fails or is interrupted
+     */
+    Map<Long, Short> solve(final ForkJoinPool pool, final long[] roots)
+            throws IOException {
+        // levels.get(e) holds the positions with e empty cells
+        List<Map<Long, Long>> levels = new ArrayList<>();
+        for (int empty = 0; empty <= maxEmpty; empty++) {
+            levels.add(new ConcurrentHashMap<>());
+        }
+        for (int i = 0; i < roots.length; i += 2) {
+            levels.get(maxEmpty).put(roots[i], roots[i + 1]);
+        }
+        Map<Long, Short> values = new ConcurrentHashMap<>();
+        try {
+            for (int empty = maxEmpty; empty > 1; empty--) {
+                Map<Long, Long> level = levels.get(empty);
+                Map<Long, Long> next = levels.get(empty - 1);
+                pool.submit(() -> level.entrySet()
+                        .parallelStream().forEach(position -> expand(
+                                position.getKey() - position.getValue(),
+                                position.getValue(), next))).get();
+            }
+            for (int empty = 1; empty <= maxEmpty; empty++) {
+                int level = empty;
+                pool.submit(() -> levels.get(level).entrySet()
+                        .parallelStream().forEach(position -> values.put(
+                                position.getKey(), (short) valueOf(
+                                        position.getKey()
+                                                - position.getValue(),
+                                        position.getValue(), level,
+                                        values)))).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Tablebase build was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Tablebase build failed.", e.getCause());
+        }
+        return values;
+    }
+
+    /**
+     * Adds the undecided successors of a position to the next level.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @param next the positions with one empty cell less
+     */
+    private void expand(final long current, final long mask,
+                        final Map<Long, Long> next) {
+        long possible = geometry.possibleMoves(mask);
+        for (int col = 0; col < geometry.columns(); col++) {
+            long move = possible & geometry.columnCells(col);
+            if (move == 0 || geometry.isWin(current | move)) {
+                continue;
+            }
+            long child = current ^ mask;
+            long childMask = mask | move;
+            long key = geometry.canonicalKey(child, childMask);
+            next.putIfAbsent(key, key == BitboardGeometry.keyOf(child,
+                    childMask) ? childMask : geometry.mirror(childMask));
+        }
+    }
+
+    /**
+     * Computes the value of a position from the values of its
+     * successors.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @param empty the number of empty cells
+     * @param values the values of the positions with fewer empty cells
+     * @return the packed value
+     */
+    private int valueOf(final long current, final long mask,
+                        final int empty, final Map<Long, Short> values) {
+        long possible = geometry.possibleMoves(mask);
+        int best = EndgameTablebase.NO_ENTRY;
+        int bestRank = Integer.MIN_VALUE;
+        for (int col = 0; col < geometry.columns(); col++) {
+            long move = possible & geometry.columnCells(col);
+            if (move == 0) {
+                continue;
+            }
+            if (geometry.isWin(current | move)) {
+                return EndgameTablebase.pack(EndgameTablebase.WIN, 1);
+            }
+            int value = empty == 1
+                    ? EndgameTablebase.pack(EndgameTablebase.DRAW, 1)
+                    : EndgameTablebase.parentOf(values.get(geometry
+                            .canonicalKey(current ^ mask, mask | move)));
+            int rank = EndgameTablebase.rankOf(value);
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Writes the values of a part sorted by key, through a temporary
+     * file so that a part exists only once it is complete.
+     *
+     * @param file the part file
+     * @param values the values by canonical key
+     * @throws IOException if the file cannot be written
+     */
+    private static void writePart(final Path file,
+                                  final Map<Long, Short> values)
+            throws IOException {
+        long[] keys = new long[values.size()];
+        int i = 0;
+        for (long key : values.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            for (long key : keys) {
+                out.writeLong(key);
+                out.writeShort(values.get(key));
+            }
+        }
+        Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Merges the sorted parts into the tablebase, keeping one entry per
+     * position shared by several parts.
+     *
+     * @param parts the directory of the parts
+     * @param partCount the number of parts
+     * @param path the tablebase file
+     * @return the number of entries written
+     * @throws IOException if a file cannot be read or written
+     */
+    private int merge(final Path parts, final int partCount,
+                      final Path path) throws IOException {
+        List<PartReader> readers = new ArrayList<>();
+        PriorityQueue<PartReader> queue = new PriorityQueue<>(
+                (a, b) -> Long.compare(a.key, b.key));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int part = 0; part < partCount; part++) {
+                PartReader reader = new PartReader(partFile(parts, part));
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            channel.position(EndgameTablebase.HEADER_SIZE);
+            ByteBuffer chunk = ByteBuffer.allocate(
+                    EndgameTablebase.ENTRY_SIZE * ENTRIES_PER_WRITE);
+            int count = 0;
+            long last = 0;
+            while (!queue.isEmpty()) {
+                PartReader reader = queue.poll();
+                if (count == 0 || reader.key != last) {
+                    if (!chunk.hasRemaining()) {
+                        writeFully(channel, chunk.flip());
+                        chunk.clear();
+                    }
+                    chunk.putLong(reader.key).putShort(reader.value);
+                    last = reader.key;
+                    count++;
+                }
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            writeFully(channel, chunk.flip());
+            ByteBuffer header = ByteBuffer.allocate(
+                    EndgameTablebase.HEADER_SIZE);
+            header.putInt(EndgameTablebase.MAGIC)
+                    .putShort(EndgameTablebase.VERSION)
+                    .put((byte) geometry.rows())
+                    .put((byte) geometry.columns())
+                    .put((byte) geometry.winLength())
+                    .put((byte) maxEmpty)
+                    .position(EndgameTablebase.COUNT_OFFSET);
+            header.putInt(count).flip();
+            channel.position(0);
+            writeFully(channel, header);
+            return count;
+        } finally {
+            for (PartReader reader : readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    private static void writeFully(final FileChannel channel,
+                                   final ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the columns of random games, as seeds covering typical
+     * endgames when no recorded games are at hand.
+     *
+     * @param rows the number of rows of the board
+     * @param columns the number of columns of the board
+     * @param winLength the number of consecutive pieces required to win
+     * @param count the number of games
+     * @param seed the seed of the random moves
+     * @return the columns played in each game
+     */
+    public static List<byte[]> randomGames(final int rows, final int columns,
+                                           final int winLength,
+                                           final int count,
+                                           final long seed) {
+        BitboardGeometry geometry = new BitboardGeometry(rows, columns,
+                winLength);
+        SplittableRandom random = new SplittableRandom(seed);
+        List<byte[]> games = new ArrayList<>(count);
+        byte[] moves = new byte[geometry.cells()];
+        for (int game = 0; game < count; game++) {
+            long current = 0;
+            long mask = 0;
+            int played = 0;
+            while (played < moves.length) {
+                int col = random.nextInt(columns);
+                long move = geometry.possibleMoves(mask)
+                        & geometry.columnCells(col);
+                if (move == 0) {
+                    continue;
+                }
+                moves[played++] = (byte) col;
+                if (geometry.isWin(current | move)) {
+                    break;
+                }
+                current ^= mask;
+                mask |= move;
+            }
+            games.add(Arrays.copyOf(moves, played));
+        }
+        return games;
+    }
+
+    /** Reads the entries of one part in order. */
+    private static final class PartReader {
+
+        /** The part file. */
+        private final DataInputStream in;
+
+        /** The key of the current entry. */
+        private long key;
+
+        /** The value of the current entry. */
+        private short value;
+
+        PartReader(final Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(file)));
+        }
+
+        /**
+         * Reads the next entry.
+         *
+         * @return false at the end of the part
+         * @throws IOException if the part cannot be read
+         */
+        boolean advance() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            value = in.readShort();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+
+import java.util.function.Supplier;
+
+/**
+ * Creates another strategy when the first move is asked for, so that
+ * its transposition table, opening book or tablebase is only allocated
+ * or mapped by processes that actually let the computer move.
+ */
+public final class LazyMoveStrategy implements MoveStrategy {
+
+    /** Creates the strategy, cleared once it ran. */
+    private Supplier<MoveStrategy> factory;
+
+    /** The created strategy, or null before the first move. */
+    private MoveStrategy strategy;
+
+    /**
+     * Creates a strategy deferring to another one created on demand.
+     *
+     * @param strategyFactory creates the strategy; called at most once
+     */
+    public LazyMoveStrategy(final Supplier<MoveStrategy> strategyFactory) {
+        this.factory = strategyFactory;
+    }
+
+    /**
+     * Creates the strategy if needed and returns its choice.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen column
+     */
+    @Override
+    public int chooseMove(final Board board, final char playerSymbol) {
+        if (strategy == null) {
+            strategy = factory.get();
+            factory = null;
+        }
+        return strategy.chooseMove(board, playerSymbol);
+    }
+
+    /**
+     * Lets the strategy ponder once it was created by a move; before
+     * that, pondering would load it ahead of need.
+     *
+     * @param board the current game board with the opponent to move
+     * @param opponentSymbol the symbol of the opponent, who is to move
+     * @param playerSymbol the symbol of the strategy's own player
+     */
+    @Override
+    public void ponder(final Board board, final char opponentSymbol,
+                       final char playerSymbol) {
+        if (strategy != null) {
+            strategy.ponder(board, opponentSymbol, playerSymbol);
+        }
+    }
+
+    /**
+     * Stops the pondering of the strategy, if it was created.
+     */
+    @Override
+    public void stopPondering() {
+        if (strategy != null) {
+            strategy.stopPondering();
+        }
+    }
+
+    /**
+     * Returns whether the strategy was created.
+     *
+     * @return true once the computer was asked for a move
+     */
+    public boolean isInitialized() {
+        return strategy != null;
+    }
+}
@@ -0,0 +1,516 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Chooses moves by Monte Carlo tree search with the UCT selection rule.
+ *
+ * <p>Every iteration resets a scratch {@link Board} to the searched
+ * position with {@link Board#copyInto(Board)}, walks down the tree
+ * picking the child with the best upper confidence bound, adds one new
+ * child and finishes the game with random moves. The playout reuses the
+ * scratch board and a column buffer, so it allocates nothing; only the
+ * tree grows. Unlike {@link Solver} it works on boards of any size and
+ * winning line length.</p>
+ *
+ * <p>After a move is chosen the subtree below it is kept. When the next
+ * search starts from that position plus one opponent move, as in
+ * consecutive turns of a game, the matching grandchild becomes the new
+ * root and its statistics are searched on instead of discarded.</p>
+ *
+ * <p>The node limit of the {@link SearchBudget} caps the number of
+ * playouts, the depth limit is ignored. The {@link SearchResult} of a
+ * search reports the playouts as nodes, so
+ * {@link SearchResult#nodesPerSecond()} is the playout rate, the depth
+ * of the deepest expanded node and the chosen move's win rate in
+ * permille as score.</p>
+ */
+public final class MctsStrategy implements MoveStrategy {
+
+    /** The exploration constant of the UCT formula. */
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    /** The value of a drawn playout for either player. */
+    private static final double DRAW_VALUE = 0.5;
+
+    /** The scale of the win rate reported as score. */
+    private static final int PERMILLE = 1000;
+
+    /** How many playouts run between two clock checks. */
+    private static final long CLOCK_CHECK_MASK = 15;
+
+    /** The most nodes kept in the tree; leaves stop expanding beyond. */
+    private static final int MAX_TREE_NODES = 2_000_000;
+
+    /** The outcome of a game won by the searching player. */
+    private static final int OURS = 1;
+
+    /** The outcome of a game won by the opponent. */
+    private static final int THEIRS = -1;
+
+    /** The outcome of a drawn game. */
+    private static final int DRAW = 0;
+
+    /** The outcome of a position whose game is not over. */
+    private static final int UNDECIDED = 2;
+
+    /** The symbol of an empty cell. */
+    private static final char EMPTY = '-';
+
+    /** The logger used to report search statistics. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(MctsStrategy.class);
+
+    /** The limits applied to every search. */
+    private final SearchBudget budget;
+
+    /** The source of the random moves. */
+    private final RandomGenerator random;
+
+    /** The board every iteration is played out on. */
+    private Board scratch;
+
+    /** The board used to match the tree to a new position. */
+    private Board probe;
+
+    /** The playable columns of the current playout position. */
+    private int[] open = new int[0];
+
+    /** The root of the tree kept from the previous search. */
+    private Node root;
+
+    /** The position of the previous search's root after its move. */
+    private Board previous;
+
+    /** The symbol the previous search was run for. */
+    private char previousPlayer;
+
+    /** The number of nodes in the tree. */
+    private int treeSize;
+
+    /** The depth of the deepest node expanded by the current search. */
+    private int deepest;
+
+    /** The result of the last search. */
+    private SearchResult lastResult;
+
+    /**
+     * Creates a strategy with its own random numbers.
+     *
+     * @param searchBudget the limits applied to every search, which must
+     *        limit the time or the number of playouts
+     */
+    public MctsStrategy(final SearchBudget searchBudget) {
+        this(searchBudget, new SplittableRandom());
+    }
+
+    /**
+     * Creates a strategy.
+     *
+     * @param searchBudget the limits applied to every search, which must
+     *        limit the time or the number of playouts
+     * @param randomGenerator the source of the random moves
+     */
+    public MctsStrategy(final SearchBudget searchBudget,
+                        final RandomGenerator randomGenerator) {
+        if (!searchBudget.hasTimeLimit()
+                && searchBudget.maxNodes() == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Tree search needs a time "
+                    + "or playout limit.");
+        }
+        this.budget = searchBudget;
+        this.random = randomGenerator;
+    }
+
+    /**
+     * Chooses the most visited column after searching the position.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen column
+     */
+    @Override
+    public int chooseMove(final Board board, final char playerSymbol) {
+        return search(board, playerSymbol).move();
+    }
+
+    /**
+     * Searches the position for the given player.
+     *
+     * @param board the current game board, which is not modified
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen move and the search statistics
+     * @throws IllegalArgumentException if the board is full
+     */
+    public SearchResult search(final Board board, final char playerSymbol) {
+        long start = System.nanoTime();
+        char opponent = opponentOf(board, playerSymbol);
+        prepareBoards(board);
+        Node searchRoot = reusableRoot(board, playerSymbol, opponent);
+        if (searchRoot == null) {
+            treeSize = 0;
+            searchRoot = newNode(null, -1, false, board);
+        } else {
+            treeSize = size(searchRoot);
+        }
+        if (searchRoot.untried == 0 && searchRoot.children == null) {
+            throw new IllegalArgumentException("The board is full.");
+        }
+        deepest = 0;
+        long playouts = 0;
+        long deadline = start
+                + TimeUnit.MILLISECONDS.toNanos(budget.timeMillis());
+        while (!outOfBudget(playouts, deadline)) {
+            board.copyInto(scratch);
+            iterate(searchRoot, playerSymbol, opponent);
+            playouts++;
+        }
+
+        Node best = mostVisited(searchRoot);
+        int score = (int) (PERMILLE * best.wins / best.visits);
+        root = best;
+        root.parent = null;
+        board.copyInto(previous);
+        previous.dropPiece(best.move, playerSymbol);
+        previousPlayer = playerSymbol;
+        lastResult = new SearchResult(best.move, score, deepest, playouts,
+                System.nanoTime() - start);
+        LOGGER.debug("Tree search finished: {}", lastResult);
+        return lastResult;
+    }
+
+    /**
+     * Returns the result of the last search.
+     *
+     * @return the last result, or null before the first search
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Returns the number of nodes in the tree after the last search,
+     * including those kept from earlier searches.
+     *
+     * @return the tree size
+     */
+    int getTreeSize() {
+        return treeSize;
+    }
+
+    /**
+     * Plays one random game from the given position on the scratch
+     * board, exactly as the playouts of a search do.
+     *
+     * @param board the starting position, which is not modified
+     * @param player the symbol of the player to move
+     * @param opponent the symbol of the other player
+     * @return {@link #OURS}, {@link #THEIRS} or {@link #DRAW}, seen from
+     *         the player to move
+     */
+    int playoutFrom(final Board board, final char player,
+                    final char opponent) {
+        prepareBoards(board);
+        board.copyInto(scratch);
+        return playout(true, player, opponent);
+    }
+
+    private boolean outOfBudget(final long playouts, final long deadline) {
+        if (playouts >= budget.maxNodes()) {
+            return true;
+        }
+        if (playouts == 0 || (playouts & CLOCK_CHECK_MASK) != 0) {
+            return false;
+        }
+        return budget.hasTimeLimit() && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * Runs one selection, expansion, playout and backpropagation step on
+     * the scratch board, which holds the root position.
+     *
+     * @param start the root of the tree
+     * @param player the symbol of the player to move at the root
+     * @param opponent the symbol of the other player
+     */
+    private void iterate(final Node start, final char player,
+                         final char opponent) {
+        Node node = start;
+        int depth = 0;
+        while (node.outcome == UNDECIDED && node.untried == 0
+                && node.children != null) {
+            node = select(node);
+            scratch.dropPiece(node.move, node.ours ? player : opponent);
+            depth++;
+        }
+        int outcome = node.outcome;
+        if (outcome == UNDECIDED && node.untried != 0
+                && treeSize < MAX_TREE_NODES) {
+            node = expand(node, player, opponent);
+            outcome = node.outcome;
+            deepest = Math.max(deepest, depth + 1);
+        }
+        if (outcome == UNDECIDED) {
+            outcome = playout(!node.ours, player, opponent);
+        }
+        for (Node n = node; n != null; n = n.parent) {
+            n.visits++;
+            if (outcome == DRAW) {
+                n.wins += DRAW_VALUE;
+            } else if ((outcome == OURS) == n.ours) {
+                n.wins += 1;
+            }
+        }
+    }
+
+    /**
+     * Picks the child with the highest upper confidence bound.
+     *
+     * @param node a fully expanded node
+     * @return the selected child
+     */
+    private static Node select(final Node node) {
+        double logVisits = Math.log(node.visits);
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : node.children) {
+            if (child == null) {
+                continue;
+            }
+            double value = child.wins / child.visits
+                    + EXPLORATION * Math.sqrt(logVisits / child.visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays a random untried move of a node on the scratch board and
+     * adds the resulting child.
+     *
+     * @param node the node to expand
+     * @param player the symbol of the searching player
+     * @param opponent the symbol of the other player
+     * @return the new child
+     */
+    private Node expand(final Node node, final char player,
+                        final char opponent) {
+        boolean ours = !node.ours;
+        int pick = random.nextInt(Integer.bitCount(node.untried));
+        int bits = node.untried;
+        for (int i = 0; i < pick; i++) {
+            bits &= bits - 1;
+        }
+        int col = Integer.numberOfTrailingZeros(bits);
+        node.untried &= ~(1 << col);
+        int row = scratch.dropPiece(col, ours ? player : opponent);
+        Node child = newNode(node, col, ours, scratch);
+        if (scratch.checkWinAt(row, col)) {
+            child.outcome = ours ? OURS : THEIRS;
+            child.untried = 0;
+        } else if (child.untried == 0) {
+            child.outcome = DRAW;
+        }
+        if (node.children == null) {
+            node.children = new Node[scratch.getColumnCount()];
+        }
+        node.children[col] = child;
+        return child;
+    }
+
+    /**
+     * Finishes the game on the scratch board with uniformly random
+     * moves. Nothing is allocated.
+     *
+     * @param oursToMove whether the searching player is to move
+     * @param player the symbol of the searching player
+     * @param opponent the symbol of the other player
+     * @return {@link #OURS}, {@link #THEIRS} or {@link #DRAW}
+     */
+    int playout(final boolean oursToMove, final char player,
+                final char opponent) {
+        boolean ours = oursToMove;
+        while (true) {
+            int count = scratch.getLegalMoves(open);
+            if (count == 0) {
+                return DRAW;
+            }
+            int col = open[random.nextInt(count)];
+            int row = scratch.dropPiece(col, ours ? player : opponent);
+            if (scratch.checkWinAt(row, col)) {
+                return ours ? OURS : THEIRS;
+            }
+            ours = !ours;
+        }
+    }
+
+    /**
+     * Creates a node for the position on the given board.
+     *
+     * @param parent the parent node, or null for a root
+     * @param move the column played to reach the node
+     * @param ours whether the searching player played it
+     * @param position the position after the move
+     * @return the new node
+     */
+    private Node newNode(final Node parent, final int move,
+                         final boolean ours, final Board position) {
+        int untried = 0;
+        for (int col = position.nextLegalMove(0); col >= 0;
+             col = position.nextLegalMove(col + 1)) {
+            untried |= 1 << col;
+        }
+        treeSize++;
+        return new Node(parent, move, ours, untried);
+    }
+
+    /**
+     * Finds the node of the kept tree matching the given position, which
+     * must be the previous position plus one move of the opponent.
+     *
+     * @param board the position to search
+     * @param player the symbol of the player to move
+     * @param opponent the symbol of the player who moved last
+     * @return the matching node, or null if the tree cannot be reused
+     */
+    private Node reusableRoot(final Board board, final char player,
+                              final char opponent) {
+        if (root == null || root.children == null || player != previousPlayer
+                || previous.getMoveCount() + 1 != board.getMoveCount()) {
+            root = null;
+            return null;
+        }
+        for (Node child : root.children) {
+            if (child == null) {
+                continue;
+            }
+            previous.copyInto(probe);
+            probe.dropPiece(child.move, opponent);
+            if (probe.samePosition(board)) {
+                child.parent = null;
+                root = null;
+                return child;
+            }
+        }
+        root = null;
+        return null;
+    }
+
+    /**
+     * Makes sure the scratch boards match the geometry of the searched
+     * board, dropping the kept tree if it changed.
+     *
+     * @param board the board to be searched
+     */
+    private void prepareBoards(final Board board) {
+        if (scratch != null
+                && scratch.getRowCount() == board.getRowCount()
+                && scratch.getColumnCount() == board.getColumnCount()
+                && scratch.getWinLength() == board.getWinLength()
+                && scratch.isBitboard() == board.isBitboard()) {
+            return;
+        }
+        scratch = new Board(board.getRowCount(), board.getColumnCount(),
+                board.getWinLength());
+        probe = new Board(board.getRowCount(), board.getColumnCount(),
+                board.getWinLength());
+        previous = new Board(board.getRowCount(), board.getColumnCount(),
+                board.getWinLength());
+        open = new int[board.getColumnCount()];
+        root = null;
+    }
+
+    /**
+     * Returns the symbol of the other player on the board, or a stand-in
+     * if the other player has not moved yet.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the opponent's symbol
+     */
+    private static char opponentOf(final Board board,
+                                   final char playerSymbol) {
+        for (char[] row : board.getBoard()) {
+            for (char cell : row) {
+                if (cell != EMPTY && cell != playerSymbol) {
+                    return cell;
+                }
+            }
+        }
+        return playerSymbol == 'O' ? 'X' : 'O';
+    }
+
+    private static int size(final Node node) {
+        int count = 1;
+        if (node.children != null) {
+            for (Node child : node.children) {
+                if (child != null) {
+                    count += size(child);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Node mostVisited(final Node node) {
+        Node best = null;
+        for (Node child : node.children) {
+            if (child != null && (best == null
+                    || child.visits > best.visits)) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A position in the search tree, reached by {@link #move}.
+     */
+    private static final class Node {
+
+        /** The node this one was expanded from, or null for the root. */
+        private Node parent;
+
+        /** The column played to reach this node. */
+        private final int move;
+
+        /** Whether the searching player played {@link #move}. */
+        private final boolean ours;
+
+        /** The playable columns not yet expanded, one bit each. */
+        private int untried;
+
+        /** The expanded children by column, or null before the first. */
+        private Node[] children;
+
+        /** The outcome if the game is over here. */
+        private int outcome = UNDECIDED;
+
+        /** The number of playouts through this node. */
+        private int visits;
+
+        /**
+         * The playouts won by the player of {@link #move}, a draw
+         * counting half.
+         */
+        private double wins;
+
+        Node(final Node parentNode, final int column, final boolean byUs,
+             final int playable) {
+            this.parent = parentNode;
+            this.move = column;
+            this.ours = byUs;
+            this.untried = playable;
+        }
+    }
+}
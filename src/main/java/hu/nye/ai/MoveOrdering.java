@@ -0,0 +1,279 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+
+import java.util.Arrays;
+
+/**
+ * Orders the playable columns of a position so that an alpha-beta
+ * search tries the most promising one first.
+ *
+ * <p>Moves are described as cells of the bitboard layout of
+ * {@link Board#getPieces(char)}. A position whose side to move can win
+ * at once only offers its winning moves, and one where the opponent
+ * threatens to win on a playable cell only offers the blocks, as every
+ * other move loses at once. Otherwise the move of the transposition
+ * table comes first, then the {@link Scheme} decides: the killer moves
+ * of the ply, which refuted a sibling position, and the columns with
+ * the best history of cutoffs, ties broken center-first.</p>
+ *
+ * <p>The tables belong to one searcher and are not thread-safe; every
+ * searcher of a parallel search owns its instance.</p>
+ */
+public final class MoveOrdering {
+
+    /**
+     * The heuristics ordering the moves that are not forced.
+     */
+    public enum Scheme {
+        /** Columns from left to right. */
+        LEFT_TO_RIGHT,
+        /** Columns from the center outwards. */
+        CENTER_FIRST,
+        /** The killer moves of the ply, then center-first. */
+        KILLERS,
+        /** The killer moves, then the history table, then center-first. */
+        KILLERS_AND_HISTORY
+    }
+
+    /** The number of killer moves remembered per ply. */
+    static final int KILLERS = 2;
+
+    /** History scores are halved once one of them exceeds this. */
+    private static final int HISTORY_LIMIT = 16_777_216;
+
+    /** The heuristics in use. */
+    private final Scheme scheme;
+
+    /** Whether cutoffs are remembered as killer moves and history. */
+    private final boolean learns;
+
+    /** Whether the history table orders the remaining moves. */
+    private final boolean byHistory;
+
+    /** The number of rows. */
+    private final int rows;
+
+    /** The number of columns. */
+    private final int columns;
+
+    /** The number of bits per column, including the sentinel. */
+    private final int height;
+
+    /** The columns in the order the scheme tries them statically. */
+    private final int[] staticOrder;
+
+    /** The killer cells per ply as bit indices, -1 where there is none. */
+    private final int[] killers;
+
+    /** The cutoff history per side to move and cell. */
+    private final int[] history = new int[2 * Long.SIZE];
+
+    /** The history score of every column while ordering a position. */
+    private final int[] columnScores;
+
+    /**
+     * Creates the tables of a board geometry.
+     *
+     * @param rowCount the number of rows
+     * @param columnCount the number of columns
+     * @param orderingScheme the heuristics to use
+     * @throws IllegalArgumentException if the board does not fit into a
+     *         bitboard
+     */
+    public MoveOrdering(final int rowCount, final int columnCount,
+                        final Scheme orderingScheme) {
+        if (columnCount * (rowCount + 1) > Long.SIZE) {
+            throw new IllegalArgumentException("A " + rowCount + "x"
+                    + columnCount + " board does not fit into a bitboard.");
+        }
+        this.scheme = orderingScheme;
+        this.learns = orderingScheme == Scheme.KILLERS
+                || orderingScheme == Scheme.KILLERS_AND_HISTORY;
+        this.byHistory = orderingScheme == Scheme.KILLERS_AND_HISTORY;
+        this.rows = rowCount;
+        this.columns = columnCount;
+        this.height = rowCount + 1;
+        this.staticOrder = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            int offset = (i + 1) / 2;
+            staticOrder[i] = orderingScheme == Scheme.LEFT_TO_RIGHT ? i
+                    : columnCount / 2 + (i % 2 == 1 ? -offset : offset);
+        }
+        this.killers = new int[(rowCount * columnCount + 1) * KILLERS];
+        this.columnScores = new int[columnCount];
+        newSearch();
+    }
+
+    /**
+     * Creates the ordering of a board's geometry.
+     *
+     * @param board a board of the geometry
+     * @param orderingScheme the heuristics to use
+     * @return the ordering
+     * @throws IllegalArgumentException if the board does not fit into a
+     *         bitboard
+     */
+    public static MoveOrdering forBoard(final Board board,
+                                        final Scheme orderingScheme) {
+        return new MoveOrdering(board.getRowCount(), board.getColumnCount(),
+                orderingScheme);
+    }
+
+    /**
+     * Returns whether a board has the geometry of this ordering.
+     *
+     * @param board the board to check
+     * @return true if the sizes match
+     */
+    public boolean matches(final Board board) {
+        return board.getRowCount() == rows
+                && board.getColumnCount() == columns;
+    }
+
+    /**
+     * Returns the heuristics in use.
+     *
+     * @return the scheme
+     */
+    public Scheme scheme() {
+        return scheme;
+    }
+
+    /**
+     * Forgets the killer moves and ages the history, so that a new
+     * search favours what it learns itself.
+     */
+    public void newSearch() {
+        Arrays.fill(killers, -1);
+        ageHistory();
+    }
+
+    /**
+     * Writes the columns worth searching in the order to try them.
+     *
+     * @param ply the number of pieces on the board
+     * @param possible the playable cells
+     * @param wins the cells completing a line for the side to move
+     * @param blocks the cells completing a line for the opponent
+     * @param hashMove the column of the transposition table, or -1
+     * @param moves receives the columns; room for one per column
+     * @return the number of columns written
+     */
+    public int order(final int ply, final long possible, final long wins,
+                     final long blocks, final int hashMove,
+                     final int[] moves) {
+        if ((possible & wins) != 0) {
+            return forced(possible & wins, moves);
+        }
+        if ((possible & blocks) != 0) {
+            return forced(possible & blocks, moves);
+        }
+        int count = 0;
+        if (hashMove >= 0 && (possible & columnCells(hashMove)) != 0) {
+            moves[count++] = hashMove;
+        }
+        if (learns) {
+            for (int k = ply * KILLERS; k < (ply + 1) * KILLERS; k++) {
+                int killer = killers[k];
+                // A killer only applies where its cell is the playable one
+                if (killer >= 0 && (possible & 1L << killer) != 0
+                        && !contains(moves, count, killer / height)) {
+                    moves[count++] = killer / height;
+                }
+            }
+        }
+        int sorted = count;
+        int side = (ply & 1) * Long.SIZE;
+        for (int col : staticOrder) {
+            long cell = possible & columnCells(col);
+            if (cell == 0 || contains(moves, sorted, col)) {
+                continue;
+            }
+            int at = count++;
+            if (byHistory) {
+                int score = history[side + Long.numberOfTrailingZeros(cell)];
+                columnScores[col] = score;
+                // Insertion keeps the center-first order among ties
+                while (at > sorted && columnScores[moves[at - 1]] < score) {
+                    moves[at] = moves[at - 1];
+                    at--;
+                }
+            }
+            moves[at] = col;
+        }
+        return count;
+    }
+
+    /**
+     * Learns from a move that refuted its position.
+     *
+     * @param ply the number of pieces on the board before the move
+     * @param col the column of the move
+     * @param cell the cell the move filled
+     * @param depth the remaining depth of the position
+     */
+    public void cutoff(final int ply, final int col, final long cell,
+                       final int depth) {
+        if (!learns) {
+            return;
+        }
+        int first = ply * KILLERS;
+        int bit = Long.numberOfTrailingZeros(cell);
+        if (killers[first] != bit) {
+            System.arraycopy(killers, first, killers, first + 1,
+                    KILLERS - 1);
+            killers[first] = bit;
+        }
+        int index = (ply & 1) * Long.SIZE + bit;
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Returns the killer moves of a ply, the most recent first.
+     *
+     * @param ply the number of pieces on the board
+     * @return the killer columns, -1 where there is none
+     */
+    int[] killersOf(final int ply) {
+        int[] columnsOf = new int[KILLERS];
+        for (int k = 0; k < KILLERS; k++) {
+            int killer = killers[ply * KILLERS + k];
+            columnsOf[k] = killer < 0 ? -1 : killer / height;
+        }
+        return columnsOf;
+    }
+
+    private void ageHistory() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    private int forced(final long cells, final int[] moves) {
+        int count = 0;
+        for (int col : staticOrder) {
+            if ((cells & columnCells(col)) != 0) {
+                moves[count++] = col;
+            }
+        }
+        return count;
+    }
+
+    private static boolean contains(final int[] moves, final int count,
+                                    final int col) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == col) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long columnCells(final int col) {
+        return ((1L << rows) - 1) << (col * height);
+    }
+}
@@ -0,0 +1,235 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only opening book memory-mapped from a file written by
+ * {@link OpeningBookGenerator}.
+ *
+ * <p>The file starts with a {@value #HEADER_SIZE}-byte header: the
+ * magic number, the format version, the board geometry, the depth the
+ * book was generated to and the number of entries. Then follow
+ * fixed-width entries sorted by position key; each holds the key as a
+ * {@code long} and an {@code int} packing the score and the best move.
+ * Lookups binary-search the mapped file directly and allocate
+ * nothing.</p>
+ */
+public final class OpeningBook implements AutoCloseable {
+
+    /** The value returned by {@link #lookup(long)} for a missing key. */
+    public static final int NO_ENTRY = Integer.MIN_VALUE;
+
+    /** Identifies opening book files ("C4BK"). */
+    static final int MAGIC = 0x4334424B;
+
+    /** The version of the file format. */
+    static final short VERSION = 1;
+
+    /** The size of the file header in bytes. */
+    static final int HEADER_SIZE = 16;
+
+    /** The size of one entry in bytes. */
+    static final int ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+    /** The number of bits holding the move in a packed value. */
+    static final int MOVE_BITS = 4;
+
+    /** Mask of the move in a packed value. */
+    private static final int MOVE_MASK = (1 << MOVE_BITS) - 1;
+
+    /** Offset of the version in the header. */
+    static final int VERSION_OFFSET = 4;
+
+    /** Offset of the number of rows in the header. */
+    static final int ROWS_OFFSET = 6;
+
+    /** Offset of the number of columns in the header. */
+    static final int COLUMNS_OFFSET = 7;
+
+    /** Offset of the generation depth in the header. */
+    static final int DEPTH_OFFSET = 8;
+
+    /** Offset of the number of entries in the header. */
+    static final int COUNT_OFFSET = 12;
+
+    /** The mapped file contents. */
+    private final MappedByteBuffer buffer;
+
+    /** The channel the file was mapped from. */
+    private final FileChannel channel;
+
+    /** The number of rows of the book's board. */
+    private final int rows;
+
+    /** The number of columns of the book's board. */
+    private final int columns;
+
+    /** The depth the book was generated to. */
+    private final int depth;
+
+    /** The number of entries. */
+    private final int size;
+
+    private OpeningBook(final FileChannel fileChannel,
+                        final MappedByteBuffer contents) throws IOException {
+        this.channel = fileChannel;
+        this.buffer = contents;
+        if (contents.capacity() < HEADER_SIZE
+                || contents.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book file.");
+        }
+        if (contents.getShort(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported opening book version "
+                    + contents.getShort(VERSION_OFFSET) + ".");
+        }
+        this.rows = contents.get(ROWS_OFFSET);
+        this.columns = contents.get(COLUMNS_OFFSET);
+        this.depth = contents.get(DEPTH_OFFSET);
+        this.size = contents.getInt(COUNT_OFFSET);
+        if ((long) HEADER_SIZE + (long) size * ENTRY_SIZE
+                != contents.capacity()) {
+            throw new IOException("Opening book file is truncated.");
+        }
+    }
+
+    /**
+     * Memory-maps an opening book file.
+     *
+     * @param path the book file
+     * @return the opened book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(final Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer contents = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            contents.order(ByteOrder.BIG_ENDIAN);
+            return new OpeningBook(channel, contents);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the key identifying a position with its side to move.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @return the position key
+     */
+    public static long keyOf(final long current, final long mask) {
+        return current + mask;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the position key
+     * @return the packed value, or {@link #NO_ENTRY} if the position is
+     *         not in the book
+     */
+    public int lookup(final long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = HEADER_SIZE + middle * ENTRY_SIZE;
+            long candidate = buffer.getLong(offset);
+            if (candidate < key) {
+                low = middle + 1;
+            } else if (candidate > key) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(offset + Long.BYTES);
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Looks up the best move of a position.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the book move, or -1 if the position is not in the book
+     */
+    public int bestMove(final Board board, final char playerSymbol) {
+        if (board.getRowCount() != rows
+                || board.getColumnCount() != columns
+                || board.getWinLength() != Board.DEFAULT_WIN_LENGTH) {
+            return -1;
+        }
+        int value = lookup(keyOf(board.getPieces(playerSymbol),
+                board.getMask()));
+        return value == NO_ENTRY ? -1 : moveOf(value);
+    }
+
+    /**
+     * Packs a score and a move into a book value.
+     *
+     * @param score the score from the mover's point of view
+     * @param move the best column
+     * @return the packed value
+     */
+    static int pack(final int score, final int move) {
+        return (score << MOVE_BITS) | move;
+    }
+
+    /**
+     * Returns the best move of a packed value.
+     *
+     * @param value a value returned by {@link #lookup(long)}
+     * @return the best column
+     */
+    public static int moveOf(final int value) {
+        return value & MOVE_MASK;
+    }
+
+    /**
+     * Returns the score of a packed value.
+     *
+     * @param value a value returned by {@link #lookup(long)}
+     * @return the score from the mover's point of view
+     */
+    public static int scoreOf(final int value) {
+        return value >> MOVE_BITS;
+    }
+
+    /**
+     * Returns the number of positions in the book.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of moves the book covers from the empty board.
+     *
+     * @return the generation depth
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Closes the file channel; the mapping is released by the garbage
+     * collector once the book is no longer referenced.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
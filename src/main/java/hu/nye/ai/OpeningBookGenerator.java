@@ -0,0 +1,203 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Builds {@link OpeningBook} files.
+ *
+ * <p>Every position reachable from the empty board in at most the given
+ * number of moves, and not already decided, is searched with the given
+ * budget. Positions are distributed over a pool of threads, each with
+ * its own {@link Solver}. With an unlimited budget the book holds
+ * perfect play; in practice a time or depth budget per position keeps
+ * generation tractable beyond the first few moves.</p>
+ */
+public final class OpeningBookGenerator {
+
+    /** The symbol of the player who moves first. */
+    private static final char FIRST = 'R';
+
+    /** The symbol of the player who moves second. */
+    private static final char SECOND = 'Y';
+
+    /** The entries written per buffer flush. */
+    private static final int ENTRIES_PER_WRITE = 4096;
+
+    /** The number of moves the book covers. */
+    private final int maxDepth;
+
+    /** The limits of the search of every position. */
+    private final SearchBudget budget;
+
+    /** The number of searching threads. */
+    private final int threads;
+
+    /**
+     * Creates a generator.
+     *
+     * @param depth the number of moves from the empty board to cover
+     * @param searchBudget the limits of the search of every position
+     * @param threadCount the number of searching threads
+     */
+    public OpeningBookGenerator(final int depth,
+                                final SearchBudget searchBudget,
+                                final int threadCount) {
+        if (depth < 0 || threadCount < 1) {
+            throw new IllegalArgumentException("The depth must not be "
+                    + "negative and at least one thread is required.");
+        }
+        this.maxDepth = depth;
+        this.budget = searchBudget;
+        this.threads = threadCount;
+    }
+
+    /**
+     * Generates the book and writes it to a file.
+     *
+     * @param path the file to write, replaced if it exists
+     * @return the number of positions written
+     * @throws IOException if the file cannot be written
+     */
+    public int generate(final Path path) throws IOException {
+        List<String> positions = collectPositions();
+        long[] keys = new long[positions.size()];
+        int[] values = new int[positions.size()];
+        ThreadLocal<Solver> solvers = ThreadLocal.withInitial(
+                () -> new Solver(budget));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, positions.size()).parallel()
+                    .forEach(i -> {
+                        Board board = replay(positions.get(i));
+                        char symbol = sideToMove(positions.get(i));
+                        SearchResult result = solvers.get()
+                                .search(board, symbol);
+                        keys[i] = OpeningBook.keyOf(board.getPieces(symbol),
+                                board.getMask());
+                        values[i] = OpeningBook.pack(result.score(),
+                                result.move());
+                    })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Book generation was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Book generation failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        write(path, keys, values);
+        return keys.length;
+    }
+
+    /**
+     * Enumerates the distinct undecided positions up to the book depth.
+     *
+     * @return the move sequences leading to each position
+     */
+    List<String> collectPositions() {
+        List<String> positions = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        collect(new Board(), new StringBuilder(), positions, seen);
+        return positions;
+    }
+
+    private void collect(final Board board, final StringBuilder moves,
+                         final List<String> positions, final Set<Long> seen) {
+        char symbol = sideToMove(moves);
+        long key = OpeningBook.keyOf(board.getPieces(symbol), board.getMask());
+        if (!seen.add(key) || board.isFull()) {
+            return;
+        }
+        positions.add(moves.toString());
+        if (moves.length() == maxDepth) {
+            return;
+        }
+        for (int col = 0; col < board.getColumnCount(); col++) {
+            int row = board.dropPiece(col, symbol);
+            if (row < 0) {
+                continue;
+            }
+            if (!board.checkWinAt(row, col)) {
+                moves.append((char) ('0' + col));
+                collect(board, moves, positions, seen);
+                moves.setLength(moves.length() - 1);
+            }
+            board.undoMove(col);
+        }
+    }
+
+    /**
+     * Writes sorted entries to a book file.
+     *
+     * @param path the file to write
+     * @param keys the position keys
+     * @param values the packed values, in the order of the keys
+     * @throws IOException if the file cannot be written
+     */
+    private void write(final Path path, final long[] keys, final int[] values)
+            throws IOException {
+        Integer[] order = new Integer[keys.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+        Board board = new Board();
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(OpeningBook.HEADER_SIZE);
+            header.putInt(OpeningBook.MAGIC)
+                    .putShort(OpeningBook.VERSION)
+                    .put((byte) board.getRowCount())
+                    .put((byte) board.getColumnCount())
+                    .put((byte) maxDepth)
+                    .position(OpeningBook.COUNT_OFFSET);
+            header.putInt(keys.length).flip();
+            writeFully(channel, header);
+            ByteBuffer chunk = ByteBuffer.allocate(
+                    OpeningBook.ENTRY_SIZE * ENTRIES_PER_WRITE);
+            for (int index : order) {
+                if (!chunk.hasRemaining()) {
+                    writeFully(channel, chunk.flip());
+                    chunk.clear();
+                }
+                chunk.putLong(keys[index]).putInt(values[index]);
+            }
+            writeFully(channel, chunk.flip());
+        }
+    }
+
+    private static void writeFully(final FileChannel channel,
+                                   final ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static Board replay(final CharSequence moves) {
+        Board board = new Board();
+        char symbol = FIRST;
+        for (int i = 0; i < moves.length(); i++) {
+            board.makeMove(moves.charAt(i) - '0', symbol);
+            symbol = symbol == FIRST ? SECOND : FIRST;
+        }
+        return board;
+    }
+
+    private static char sideToMove(final CharSequence moves) {
+        return moves.length() % 2 == 0 ? FIRST : SECOND;
+    }
+}
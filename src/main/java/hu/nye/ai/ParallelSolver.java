@@ -0,0 +1,288 @@
+package hu.nye.ai;
+
+import hu.nye.metrics.EngineMetrics;
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs {@link Solver} searches on several threads sharing one
+ * {@link TranspositionTable}.
+ *
+ * <p>In {@link Mode#LAZY_SMP} mode every thread runs its own iterative
+ * deepening search of the whole position. Helpers start at alternating
+ * depths, fill the shared table and are stopped as soon as the main
+ * search finishes, whose result is returned. In {@link Mode#ROOT_SPLIT}
+ * mode each iteration searches the previous best root move first and
+ * then scores the remaining root moves in parallel against its
+ * score.</p>
+ */
+public final class ParallelSolver implements MoveStrategy, AutoCloseable {
+
+    /**
+     * The ways the search work is divided between threads.
+     */
+    public enum Mode {
+        /** Independent searches sharing the transposition table. */
+        LAZY_SMP,
+        /** Root moves of every iteration scored in parallel. */
+        ROOT_SPLIT
+    }
+
+    /** A score lower than any reachable one. */
+    private static final int NO_SCORE = -Solver.WIN_SCORE - 1;
+
+    /** The division of work between threads. */
+    private final Mode mode;
+
+    /** The limits applied to every search. */
+    private final SearchBudget budget;
+
+    /** The table shared by all searchers. */
+    private final TranspositionTable table;
+
+    /** The searcher running on the calling thread. */
+    private final Solver mainSolver;
+
+    /** The searchers running on the pool threads. */
+    private final List<Solver> helpers = new ArrayList<>();
+
+    /** The searchers currently not scoring a root move. */
+    private final BlockingQueue<Solver> idleHelpers;
+
+    /** The threads running the helpers. */
+    private final ForkJoinPool pool;
+
+    /** The stop signal shared by all searchers. */
+    private final AtomicBoolean stopSignal = new AtomicBoolean();
+
+    /**
+     * Creates a parallel solver with its own transposition table.
+     *
+     * @param searchBudget the limits applied to every search
+     * @param threads the total number of searching threads
+     * @param searchMode the division of work between threads
+     */
+    public ParallelSolver(final SearchBudget searchBudget, final int threads,
+                          final Mode searchMode) {
+        this(searchBudget, threads, searchMode, new TranspositionTable());
+    }
+
+    /**
+     * Creates a parallel solver.
+     *
+     * @param searchBudget the limits applied to every search
+     * @param threads the total number of searching threads
+     * @param searchMode the division of work between threads
+     * @param sharedTable the table shared by all searchers
+     */
+    public ParallelSolver(final SearchBudget searchBudget, final int threads,
+                          final Mode searchMode,
+                          final TranspositionTable sharedTable) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one search thread is required.");
+        }
+        this.mode = searchMode;
+        this.budget = searchBudget;
+        this.table = sharedTable;
+        SearchBudget share = searchBudget.perSearcher(threads);
+        this.mainSolver = new Solver(share, sharedTable);
+        mainSolver.joinParallelSearch(stopSignal, 0);
+        int helperCount = searchMode == Mode.LAZY_SMP ? threads - 1 : threads;
+        for (int i = 1; i <= helperCount; i++) {
+            Solver helper = new Solver(share, sharedTable);
+            helper.joinParallelSearch(stopSignal, i);
+            helpers.add(helper);
+        }
+        this.idleHelpers = new ArrayBlockingQueue<>(Math.max(1, helperCount),
+                false, helpers);
+        this.pool = new ForkJoinPool(Math.max(1, helperCount));
+    }
+
+    /**
+     * Chooses the best column found within the budget.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen column
+     */
+    @Override
+    public int chooseMove(final Board board, final char playerSymbol) {
+        return search(board, playerSymbol).move();
+    }
+
+    /**
+     * Searches the position for the given player on all threads.
+     *
+     * @param board the current game board, which is not modified
+     * @param playerSymbol the symbol of the player to move
+     * @return the best move found and the statistics of all threads
+     * @throws IllegalArgumentException if the board is full or too large
+     */
+    public SearchResult search(final Board board, final char playerSymbol) {
+        stopSignal.set(false);
+        table.newSearch();
+        return mode == Mode.LAZY_SMP
+                ? searchLazySmp(board, playerSymbol)
+                : searchRootSplit(board, playerSymbol);
+    }
+
+    /**
+     * Returns the division of work between threads.
+     *
+     * @return the search mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Stops the pool threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private SearchResult searchLazySmp(final Board board,
+                                       final char playerSymbol) {
+        List<Future<SearchResult>> running = new ArrayList<>();
+        for (Solver helper : helpers) {
+            running.add(pool.submit(() -> helper.search(board, playerSymbol)));
+        }
+        SearchResult main;
+        try {
+            main = mainSolver.search(board, playerSymbol);
+        } finally {
+            stopSignal.set(true);
+        }
+        long nodes = main.nodes();
+        for (Future<SearchResult> future : running) {
+            nodes += await(future).nodes();
+        }
+        return new SearchResult(main.move(), main.score(), main.depth(),
+                nodes, main.elapsedNanos());
+    }
+
+    private SearchResult searchRootSplit(final Board board,
+                                         final char playerSymbol) {
+        long start = System.nanoTime();
+        mainSolver.prepare(board, start);
+        for (Solver helper : helpers) {
+            helper.prepare(board, start);
+        }
+        long current = board.getPieces(playerSymbol);
+        long mask = board.getMask();
+        int moves = Long.bitCount(mask);
+        int[] order = mainSolver.orderedMoves(mask, -1);
+        if (order.length == 0) {
+            throw new IllegalArgumentException("The board is full.");
+        }
+
+        int bestMove = order[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        int winningMove = mainSolver.immediateWin(current, mask);
+        if (winningMove >= 0) {
+            bestMove = winningMove;
+            bestScore = Solver.WIN_SCORE - moves - 1;
+            completedDepth = 1;
+        }
+        int maxDepth = mainSolver.maxDepth(moves);
+        for (int depth = 1; winningMove < 0 && depth <= maxDepth; depth++) {
+            order = mainSolver.orderedMoves(mask, bestMove);
+            int firstScore = mainSolver.scoreRootMove(current, mask,
+                    order[0], depth, NO_SCORE);
+            if (mainSolver.isAborted()) {
+                break;
+            }
+            int[] scores = scoreInParallel(current, mask, order, depth,
+                    firstScore);
+            if (scores == null) {
+                break;
+            }
+            bestMove = order[0];
+            bestScore = firstScore;
+            for (int i = 1; i < order.length; i++) {
+                if (scores[i] > bestScore) {
+                    bestScore = scores[i];
+                    bestMove = order[i];
+                }
+            }
+            completedDepth = depth;
+            if (Solver.isDecisive(bestScore)) {
+                break;
+            }
+        }
+
+        long nodes = mainSolver.getNodes();
+        long probes = mainSolver.getTableProbes();
+        long hits = mainSolver.getTableHits();
+        for (Solver helper : helpers) {
+            nodes += helper.getNodes();
+            probes += helper.getTableProbes();
+            hits += helper.getTableHits();
+        }
+        long elapsed = System.nanoTime() - start;
+        EngineMetrics.searchFinished(nodes, elapsed, probes, hits);
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes,
+                elapsed);
+    }
+
+    /**
+     * Scores all root moves but the first on the pool threads.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @param order the playable columns, the already scored one first
+     * @param depth the depth of the iteration
+     * @param alpha the score of the first move
+     * @return the scores by position in {@code order}, or null if the
+     *         budget ran out before all moves were scored
+     */
+    private int[] scoreInParallel(final long current, final long mask,
+                                  final int[] order, final int depth,
+                                  final int alpha) {
+        int[] scores = new int[order.length];
+        List<Future<Boolean>> running = new ArrayList<>();
+        for (int i = 1; i < order.length; i++) {
+            int index = i;
+            running.add(pool.submit(() -> {
+                Solver helper = idleHelpers.take();
+                try {
+                    scores[index] = helper.scoreRootMove(current, mask,
+                            order[index], depth, alpha);
+                    return !helper.isAborted();
+                } finally {
+                    idleHelpers.put(helper);
+                }
+            }));
+        }
+        boolean complete = true;
+        for (Future<Boolean> future : running) {
+            complete &= await(future);
+        }
+        return complete ? scores : null;
+    }
+
+    private static <T> T await(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A search thread failed.",
+                    e.getCause());
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Searches the replies to every possible move of the opponent while
+ * the opponent thinks, so that the search for the actual move starts
+ * from a warm {@link TranspositionTable}.
+ *
+ * <p>Pondering runs on a daemon thread with its own {@link Solver}
+ * over the table of the search strategy. It deepens all replies
+ * together, one depth at a time, so that the table holds useful
+ * entries whichever column the opponent chooses, and stops once every
+ * reply is solved. Asking for a move stops it first and waits for the
+ * thread, so the two never write the table at the same time. A failing
+ * pondering search is logged and ends pondering; the move is still
+ * searched as usual.</p>
+ */
+public final class PonderingStrategy implements MoveStrategy {
+
+    /** The logger used to report failed pondering. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(PonderingStrategy.class);
+
+    /** The strategy choosing the moves, searching the shared table. */
+    private final MoveStrategy strategy;
+
+    /** The table filled by pondering. */
+    private final TranspositionTable table;
+
+    /** Set to stop the pondering searches. */
+    private final AtomicBoolean stopSignal = new AtomicBoolean();
+
+    /** The pondering thread, or null while not pondering. */
+    private Thread ponderer;
+
+    /** The nodes searched by the last pondering. */
+    private volatile long ponderedNodes;
+
+    /** The depth every reply was searched to by the last pondering. */
+    private volatile int ponderedDepth;
+
+    /**
+     * Creates a pondering strategy.
+     *
+     * @param searchStrategy chooses the moves, searching the table
+     * @param sharedTable the transposition table of the search strategy
+     */
+    public PonderingStrategy(final MoveStrategy searchStrategy,
+                             final TranspositionTable sharedTable) {
+        this.strategy = searchStrategy;
+        this.table = sharedTable;
+    }
+
+    /**
+     * Stops pondering and returns the search strategy's choice.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen column
+     */
+    @Override
+    public int chooseMove(final Board board, final char playerSymbol) {
+        stopPondering();
+        return strategy.chooseMove(board, playerSymbol);
+    }
+
+    /**
+     * Starts searching the replies to the opponent's possible moves in
+     * the background.
+     *
+     * @param board the current game board with the opponent to move,
+     *        which is copied
+     * @param opponentSymbol the symbol of the opponent, who is to move
+     * @param playerSymbol the symbol of the strategy's own player
+     */
+    @Override
+    public void ponder(final Board board, final char opponentSymbol,
+                       final char playerSymbol) {
+        stopPondering();
+        if (board.isFull()) {
+            return;
+        }
+        Board position = board.copy();
+        stopSignal.set(false);
+        ponderedNodes = 0;
+        ponderedDepth = 0;
+        ponderer = Thread.ofPlatform().daemon().name("ponder").start(
+                () -> ponderQuietly(position, opponentSymbol, playerSymbol));
+    }
+
+    /**
+     * Stops pondering and waits until the pondering thread ended.
+     */
+    @Override
+    public void stopPondering() {
+        if (ponderer == null) {
+            return;
+        }
+        stopSignal.set(true);
+        boolean interrupted = false;
+        while (ponderer.isAlive()) {
+            try {
+                ponderer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        ponderer = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns whether the pondering thread is running.
+     *
+     * @return true while pondering
+     */
+    public boolean isPondering() {
+        return ponderer != null && ponderer.isAlive();
+    }
+
+    /**
+     * Returns the nodes searched by the last pondering so far.
+     *
+     * @return the nodes of the completed pondering searches
+     */
+    public long getPonderedNodes() {
+        return ponderedNodes;
+    }
+
+    /**
+     * Returns the depth every unsolved reply was searched to by the last
+     * pondering so far.
+     *
+     * @return the completed depth
+     */
+    public int getPonderedDepth() {
+        return ponderedDepth;
+    }
+
+    /**
+     * Searches the replies, logging a failure instead of letting it end
+     * the thread unnoticed.
+     *
+     * @param position a copy of the board with the opponent to move
+     * @param opponentSymbol the symbol of the opponent
+     * @param playerSymbol the symbol of the strategy's own player
+     */
+    private void ponderQuietly(final Board position,
+                               final char opponentSymbol,
+                               final char playerSymbol) {
+        try {
+            searchReplies(position, opponentSymbol, playerSymbol);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Pondering failed", e);
+        }
+    }
+
+    /**
+     * Searches the replies to every opponent move with growing depth
+     * until all are solved or pondering is stopped.
+     *
+     * @param position a copy of the board with the opponent to move
+     * @param opponentSymbol the symbol of the opponent
+     * @param playerSymbol the symbol of the strategy's own player
+     */
+    private void searchReplies(final Board position,
+                               final char opponentSymbol,
+                               final char playerSymbol) {
+        int[] moves = new int[position.getColumnCount()];
+        int count = position.getLegalMoves(moves);
+        boolean[] solved = new boolean[position.getColumnCount()];
+        boolean open = true;
+        for (int depth = 1; open && !stopSignal.get(); depth++) {
+            Solver solver = new Solver(SearchBudget.ofDepth(depth), table);
+            solver.joinParallelSearch(stopSignal, 0);
+            open = false;
+            for (int i = 0; i < count && !stopSignal.get(); i++) {
+                int col = moves[i];
+                if (!solved[col]) {
+                    solved[col] = searchReply(solver, position, col,
+                            opponentSymbol, playerSymbol);
+                    open |= !solved[col];
+                }
+            }
+            if (!stopSignal.get()) {
+                ponderedDepth = depth;
+            }
+        }
+    }
+
+    /**
+     * Searches the reply to one opponent move.
+     *
+     * @param solver the solver of the current depth
+     * @param position the board with the opponent to move, restored
+     *        before returning
+     * @param col the opponent's move
+     * @param opponentSymbol the symbol of the opponent
+     * @param playerSymbol the symbol of the strategy's own player
+     * @return true if the reply needs no deeper search
+     */
+    private boolean searchReply(final Solver solver, final Board position,
+                                final int col, final char opponentSymbol,
+                                final char playerSymbol) {
+        int row = position.dropPiece(col, opponentSymbol);
+        try {
+            if (position.checkWinAt(row, col) || position.isFull()) {
+                return true;
+            }
+            SearchResult result = solver.search(position, playerSymbol);
+            if (solver.isAborted()) {
+                return false;
+            }
+            ponderedNodes += result.nodes();
+            int empty = position.getRowCount() * position.getColumnCount()
+                    - position.getMoveCount();
+            return Solver.isDecisive(result.score())
+                    || result.depth() >= empty;
+        } finally {
+            position.undoMove();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the parallel search scales with the number of threads.
+ *
+ * <p>A fixed set of opening positions is searched to a fixed depth with
+ * 1, 2, 4, ... threads up to the requested maximum, each run with a
+ * fresh transposition table. The report lists the total time, the node
+ * rate and the speedup relative to the single-threaded run.</p>
+ *
+ * <p>{@link #runEvaluation} times the {@link PositionEvaluator} alone
+ * on positions of random games, and {@link #runOrdering} compares the
+ * nodes searched with every {@link MoveOrdering.Scheme}.</p>
+ */
+public final class SearchBenchmark {
+
+    /** The opening positions searched, as column sequences. */
+    private static final String[] POSITIONS = {
+        "", "3", "33", "3324", "332415", "23", "0312", "6543"
+    };
+
+    /** The index bits of the table used by every run. */
+    private static final int TABLE_BITS = 22;
+
+    /** Converts a fraction to percent. */
+    private static final double PERCENT = 100.0;
+
+    /** The number of positions the evaluator is timed on. */
+    private static final int EVALUATION_POSITIONS = 4096;
+
+    /** The number of timed passes over the positions. */
+    private static final int EVALUATION_ROUNDS = 500;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SearchBenchmark() {
+        // This constructor is intentionally empty to prevent instantiation.
+    }
+
+    /**
+     * Runs the benchmark and prints one line per thread count.
+     *
+     * @param maxThreads the largest number of threads to measure
+     * @param depth the depth every position is searched to
+     * @param mode the division of work between threads
+     * @param out where the report is printed
+     * @return the speedup of the largest thread count over one thread
+     */
+    public static double run(final int maxThreads, final int depth,
+                             final ParallelSolver.Mode mode,
+                             final PrintStream out) {
+        out.println("Search benchmark: " + POSITIONS.length
+                + " positions, depth " + depth + ", mode " + mode);
+        // Let the JIT compile the search before anything is timed
+        searchAll(1, depth, mode);
+        long baseline = 0;
+        double speedup = 1.0;
+        for (int threads = 1; threads <= maxThreads;
+             threads = nextThreadCount(threads, maxThreads)) {
+            long start = System.nanoTime();
+            long nodes = searchAll(threads, depth, mode);
+            long elapsed = System.nanoTime() - start;
+            if (threads == 1) {
+                baseline = elapsed;
+            }
+            speedup = (double) baseline / elapsed;
+            long nodesPerSecond = (long) (nodes
+                    * (double) TimeUnit.SECONDS.toNanos(1) / elapsed);
+            out.printf("threads=%-3d time=%6d ms  nodes=%-12d "
+                            + "nodes/s=%-12d speedup=%.2fx%n",
+                    threads, TimeUnit.NANOSECONDS.toMillis(elapsed), nodes,
+                    nodesPerSecond, speedup);
+        }
+        return speedup;
+    }
+
+    /**
+     * Searches every benchmark position with a fresh solver.
+     *
+     * @param threads the number of threads
+     * @param depth the depth every position is searched to
+     * @param mode the division of work between threads
+     * @return the total number of visited nodes
+     */
+    private static long searchAll(final int threads, final int depth,
+                                  final ParallelSolver.Mode mode) {
+        long nodes = 0;
+        try (ParallelSolver solver = new ParallelSolver(
+                SearchBudget.ofDepth(depth), threads, mode,
+                new TranspositionTable(TABLE_BITS))) {
+            for (String position : POSITIONS) {
+                nodes += solver.search(toBoard(position), 'R').nodes();
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Times the static evaluator on the positions of random games on
+     * the standard board and prints the time per call.
+     *
+     * @param out where the report is printed
+     * @return the mean time of one evaluation in nanoseconds
+     */
+    public static double runEvaluation(final PrintStream out) {
+        Board board = new Board();
+        PositionEvaluator evaluator = PositionEvaluator.forBoard(board);
+        long[] current = new long[EVALUATION_POSITIONS];
+        long[] masks = new long[EVALUATION_POSITIONS];
+        SplittableRandom random = new SplittableRandom(1);
+        int[] open = new int[board.getColumnCount()];
+        for (int i = 0; i < EVALUATION_POSITIONS; i++) {
+            board.clear();
+            int moves = random.nextInt(board.getRowCount()
+                    * board.getColumnCount());
+            char symbol = 'R';
+            for (int m = 0; m < moves; m++) {
+                int count = board.getLegalMoves(open);
+                int col = open[random.nextInt(count)];
+                int row = board.dropPiece(col, symbol);
+                if (board.checkWinAt(row, col)) {
+                    board.undoMove();
+                    break;
+                }
+                symbol = symbol == 'R' ? 'Y' : 'R';
+            }
+            current[i] = board.getPieces(symbol);
+            masks[i] = board.getMask();
+        }
+        long checksum = 0;
+        long start = 0;
+        // The first rounds let the JIT compile the evaluator
+        for (int round = -EVALUATION_ROUNDS; round < EVALUATION_ROUNDS;
+             round++) {
+            if (round == 0) {
+                start = System.nanoTime();
+            }
+            for (int i = 0; i < EVALUATION_POSITIONS; i++) {
+                checksum += evaluator.evaluate(current[i], masks[i]);
+            }
+        }
+        double nanos = (System.nanoTime() - start)
+                / ((double) EVALUATION_ROUNDS * EVALUATION_POSITIONS);
+        out.printf("Evaluation benchmark: %d lines, %.1f ns per position "
+                        + "(checksum %d)%n", evaluator.lineCount(), nanos,
+                checksum);
+        return nanos;
+    }
+
+    /**
+     * Searches the benchmark positions on one thread with every move
+     * ordering scheme and prints the nodes relative to plain
+     * left-to-right order.
+     *
+     * @param depth the depth every position is searched to
+     * @param out where the report is printed
+     * @return the nodes of every scheme, in the order of the schemes
+     */
+    public static long[] runOrdering(final int depth, final PrintStream out) {
+        out.println("Move ordering benchmark: " + POSITIONS.length
+                + " positions, depth " + depth);
+        MoveOrdering.Scheme[] schemes = MoveOrdering.Scheme.values();
+        long[] nodes = new long[schemes.length];
+        // Let the JIT compile the search before anything is timed
+        searchAll(depth, schemes[schemes.length - 1]);
+        for (int i = 0; i < schemes.length; i++) {
+            long start = System.nanoTime();
+            nodes[i] = searchAll(depth, schemes[i]);
+            long elapsed = System.nanoTime() - start;
+            out.printf("%-20s time=%6d ms  nodes=%-12d reduction=%5.1f%%%n",
+                    schemes[i], TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    nodes[i], PERCENT * (nodes[0] - nodes[i]) / nodes[0]);
+        }
+        return nodes;
+    }
+
+    /**
+     * Searches every benchmark position on one thread with a fresh
+     * solver.
+     *
+     * @param depth the depth every position is searched to
+     * @param scheme the heuristics ordering the moves
+     * @return the total number of visited nodes
+     */
+    private static long searchAll(final int depth,
+                                  final MoveOrdering.Scheme scheme) {
+        Solver solver = new Solver(SearchBudget.ofDepth(depth),
+                new TranspositionTable(TABLE_BITS), scheme);
+        long nodes = 0;
+        for (String position : POSITIONS) {
+            nodes += solver.search(toBoard(position), 'R').nodes();
+        }
+        return nodes;
+    }
+
+    private static int nextThreadCount(final int threads,
+                                       final int maxThreads) {
+        if (threads < maxThreads && threads * 2 > maxThreads) {
+            return maxThreads;
+        }
+        return threads * 2;
+    }
+
+    /**
+     * Builds a board by playing the given columns, alternating the
+     * symbols so that 'R' is to move when the sequence has even length.
+     *
+     * @param moves the columns played, one digit each
+     * @return the resulting board
+     */
+    private static Board toBoard(final String moves) {
+        Board board = new Board();
+        char symbol = moves.length() % 2 == 0 ? 'R' : 'Y';
+        for (char move : moves.toCharArray()) {
+            board.makeMove(move - '0', symbol);
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        return board;
+    }
+}
@@ -0,0 +1,91 @@
+package hu.nye.ai;
+
+/**
+ * Limits how much work a single search may do.
+ * A search stops at whichever limit is reached first and answers with
+ * the result of the deepest fully completed iteration.
+ *
+ * @param timeMillis the wall-clock limit in milliseconds
+ * @param maxNodes the maximum number of visited nodes
+ * @param maxDepth the maximum depth of iterative deepening
+ */
+public record SearchBudget(long timeMillis, long maxNodes, int maxDepth) {
+
+    /**
+     * Validates the limits.
+     *
+     * @param timeMillis the wall-clock limit in milliseconds
+     * @param maxNodes the maximum number of visited nodes
+     * @param maxDepth the maximum depth of iterative deepening
+     */
+    public SearchBudget {
+        if (timeMillis <= 0 || maxNodes <= 0 || maxDepth <= 0) {
+            throw new IllegalArgumentException(
+                    "Search limits must be positive.");
+        }
+    }
+
+    /**
+     * Creates a budget limited by wall-clock time only.
+     *
+     * @param millis the time limit in milliseconds
+     * @return the budget
+     */
+    public static SearchBudget ofMillis(final long millis) {
+        return new SearchBudget(millis, Long.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a budget limited by the number of visited nodes only.
+     *
+     * @param nodes the node limit
+     * @return the budget
+     */
+    public static SearchBudget ofNodes(final long nodes) {
+        return new SearchBudget(Long.MAX_VALUE, nodes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a budget limited by search depth only; useful for
+     * repeatable measurements.
+     *
+     * @param depth the depth limit
+     * @return the budget
+     */
+    public static SearchBudget ofDepth(final int depth) {
+        return new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, depth);
+    }
+
+    /**
+     * Creates a budget that lets the search solve the position.
+     *
+     * @return the budget
+     */
+    public static SearchBudget unlimited() {
+        return new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Splits the node limit evenly between parallel searchers.
+     *
+     * @param searchers the number of searchers sharing the budget
+     * @return the budget of one searcher
+     */
+    public SearchBudget perSearcher(final int searchers) {
+        if (maxNodes == Long.MAX_VALUE) {
+            return this;
+        }
+        return new SearchBudget(timeMillis,
+                Math.max(1, maxNodes / searchers), maxDepth);
+    }
+
+    /**
+     * Checks whether the budget limits wall-clock time.
+     *
+     * @return true if a time limit is set
+     */
+    public boolean hasTimeLimit() {
+        return timeMillis != Long.MAX_VALUE;
+    }
+}
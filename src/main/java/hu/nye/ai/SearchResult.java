@@ -0,0 +1,51 @@
+package hu.nye.ai;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a search.
+ *
+ * @param move the best column found
+ * @param score the score of the move from the mover's point of view
+ * @param depth the depth of the deepest completed iteration
+ * @param nodes the number of visited nodes
+ * @param elapsedNanos the wall-clock time spent searching
+ */
+public record SearchResult(int move, int score, int depth, long nodes,
+                           long elapsedNanos) {
+
+    /**
+     * Returns the search speed.
+     *
+     * @return the number of visited nodes per second
+     */
+    public long nodesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return (long) (nodes * (double) TimeUnit.SECONDS.toNanos(1)
+                / elapsedNanos);
+    }
+
+    /**
+     * Checks whether the score is a proven win or loss.
+     *
+     * @return true if the search found a forced result
+     */
+    public boolean isDecisive() {
+        return Solver.isDecisive(score);
+    }
+
+    /**
+     * Returns a string representation of the SearchResult.
+     *
+     * @return a one-line summary of the search
+     */
+    @Override
+    public String toString() {
+        return "SearchResult{move=" + move + ", score=" + score
+                + ", depth=" + depth + ", nodes=" + nodes
+                + ", ms=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+                + ", nodesPerSecond=" + nodesPerSecond() + '}';
+    }
+}
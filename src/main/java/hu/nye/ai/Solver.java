@@ -0,0 +1,617 @@
+package hu.nye.ai;
+
+import hu.nye.metrics.EngineMetrics;
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Searches for the best move with negamax and alpha-beta pruning.
+ *
+ * <p>The search runs on the bitboards of a {@link Board} copied into
+ * primitive locals, so visiting a node allocates nothing. Moves are
+ * tried in the order of a {@link MoveOrdering}, after the best move
+ * remembered by the {@link TranspositionTable}. Iterative deepening
+ * keeps a usable move available at all times: when the
+ * {@link SearchBudget} runs out, the result of the deepest completed
+ * iteration is returned.</p>
+ *
+ * <p>A solver is not thread-safe; {@link ParallelSolver} runs several
+ * of them over a shared table.</p>
+ *
+ * <p>Scores are from the point of view of the side to move. A win is
+ * worth {@link #WIN_SCORE} minus the number of pieces on the board when
+ * it is completed, so quicker wins score higher. Positions at the
+ * depth horizon are scored by the {@link PositionEvaluator}.</p>
+ */
+public final class Solver implements MoveStrategy {
+
+    /** The score of a win completed on an empty board. */
+    public static final int WIN_SCORE = 1_000_000;
+
+    /** The only line length the bitboard threat detection handles. */
+    private static final int WIN_LENGTH = 4;
+
+    /** Scores beyond this magnitude are proven wins or losses. */
+    private static final int DECISIVE_THRESHOLD = WIN_SCORE / 2;
+
+    /** A score larger than any reachable one. */
+    private static final int INFINITY = WIN_SCORE + 1;
+
+    /** How many nodes are visited between two clock and stop checks. */
+    private static final long CLOCK_CHECK_MASK = 1023;
+
+    /** The largest bitboard the solver can search. */
+    private static final int MAX_BITS = Long.SIZE - 1;
+
+    /** The logger used to report search statistics. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(Solver.class);
+
+    /** The limits applied to every search. */
+    private final SearchBudget budget;
+
+    /** The cache of searched positions. */
+    private final TranspositionTable table;
+
+    /** The number of columns of the searched board. */
+    private int columns;
+
+    /** The number of rows of the searched board. */
+    private int rows;
+
+    /** The number of cells of the searched board. */
+    private int cells;
+
+    /** The bottom cell of every column. */
+    private long bottomMask;
+
+    /** Every playable cell of the board. */
+    private long boardMask;
+
+    /** The heuristics ordering the moves. */
+    private final MoveOrdering.Scheme orderingScheme;
+
+    /** Orders the moves of every node. */
+    private MoveOrdering ordering;
+
+    /** The ordered columns of every node, by the number of pieces. */
+    private int[][] moveLists = new int[0][];
+
+    /** Scores the positions at the depth horizon. */
+    private PositionEvaluator evaluator;
+
+    /** The number of nodes visited by the current search. */
+    private long nodes;
+
+    /** The transposition table probes of the current search. */
+    private long tableProbes;
+
+    /** The probes of the current search that found their position. */
+    private long tableHits;
+
+    /** The node limit of the current search. */
+    private long nodeLimit;
+
+    /** Whether the current search has a deadline. */
+    private boolean timed;
+
+    /** The deadline of the current search. */
+    private long deadline;
+
+    /** Whether the current search ran out of budget. */
+    private boolean aborted;
+
+    /** The result of the last completed search. */
+    private SearchResult lastResult;
+
+    /** Signal set by another searcher to stop this one early. */
+    private AtomicBoolean stopSignal = new AtomicBoolean();
+
+    /** Whether every search starts a new table generation. */
+    private boolean ownsTable = true;
+
+    /** How many plies deeper than usual iterative deepening starts. */
+    private int depthOffset;
+
+    /**
+     * Creates a solver with a transposition table of the default size.
+     *
+     * @param searchBudget the limits applied to every search
+     */
+    public Solver(final SearchBudget searchBudget) {
+        this(searchBudget, new TranspositionTable());
+    }
+
+    /**
+     * Creates a solver.
+     *
+     * @param searchBudget the limits applied to every search
+     * @param transpositionTable the transposition table to use
+     */
+    public Solver(final SearchBudget searchBudget,
+                  final TranspositionTable transpositionTable) {
+        this(searchBudget, transpositionTable,
+                MoveOrdering.Scheme.KILLERS);
+    }
+
+    /**
+     * Creates a solver ordering its moves with the given heuristics.
+     *
+     * @param searchBudget the limits applied to every search
+     * @param transpositionTable the transposition table to use
+     * @param scheme the heuristics ordering the moves
+     */
+    public Solver(final SearchBudget searchBudget,
+                  final TranspositionTable transpositionTable,
+                  final MoveOrdering.Scheme scheme) {
+        this.budget = searchBudget;
+        this.table = transpositionTable;
+        this.orderingScheme = scheme;
+    }
+
+    /**
+     * Chooses the best column found within the budget.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen column
+     */
+    @Override
+    public int chooseMove(final Board board, final char playerSymbol) {
+        return search(board, playerSymbol).move();
+    }
+
+    /**
+     * Searches the position for the given player.
+     *
+     * @param board the current game board, which is not modified
+     * @param playerSymbol the symbol of the player to move
+     * @return the best move found and the search statistics
+     * @throws IllegalArgumentException if the board is full or too large
+     */
+    public SearchResult search(final Board board, final char playerSymbol) {
+        long start = System.nanoTime();
+        prepare(board, start);
+        long current = board.getPieces(playerSymbol);
+        long mask = board.getMask();
+        int moves = Long.bitCount(mask);
+        long possible = possibleMoves(mask);
+        if (possible == 0) {
+            throw new IllegalArgumentException("The board is full.");
+        }
+        if (ownsTable) {
+            table.newSearch();
+        }
+
+        int bestMove = firstMove(moves, possible);
+        int bestScore = 0;
+        int completedDepth = 0;
+        int winningMove = immediateWin(current, mask);
+        if (winningMove >= 0) {
+            bestMove = winningMove;
+            bestScore = WIN_SCORE - moves - 1;
+            completedDepth = 1;
+        } else {
+            int maxDepth = maxDepth(moves);
+            for (int depth = Math.min(1 + depthOffset, maxDepth);
+                 depth <= maxDepth; depth++) {
+                long result = searchRoot(current, mask, moves, depth,
+                        bestMove);
+                if (aborted) {
+                    break;
+                }
+                bestMove = (int) (result >>> Integer.SIZE);
+                bestScore = (int) result;
+                completedDepth = depth;
+                if (isDecisive(bestScore)) {
+                    break;
+                }
+            }
+        }
+
+        lastResult = new SearchResult(bestMove, bestScore, completedDepth,
+                nodes, System.nanoTime() - start);
+        EngineMetrics.searchFinished(nodes, lastResult.elapsedNanos(),
+                tableProbes, tableHits);
+        LOGGER.debug("Search finished: {}", lastResult);
+        return lastResult;
+    }
+
+    /**
+     * Prepares the solver to take part in a parallel search. The
+     * coordinator starts the table generation itself, and odd helpers
+     * begin one ply deeper so that they fill the shared table ahead of
+     * the main searcher instead of duplicating its work.
+     *
+     * @param signal the stop signal shared by all searchers
+     * @param helperIndex 0 for the main searcher, positive for helpers
+     */
+    void joinParallelSearch(final AtomicBoolean signal,
+                            final int helperIndex) {
+        this.stopSignal = signal;
+        this.ownsTable = false;
+        this.depthOffset = helperIndex % 2;
+    }
+
+    /**
+     * Configures the geometry and starts the budget of a search.
+     *
+     * @param board the board to be searched
+     * @param startNanos the start of the search in {@link System#nanoTime()}
+     */
+    void prepare(final Board board, final long startNanos) {
+        configure(board);
+        ordering.newSearch();
+        nodes = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        nodeLimit = budget.maxNodes();
+        timed = budget.hasTimeLimit();
+        deadline = startNanos
+                + TimeUnit.MILLISECONDS.toNanos(budget.timeMillis());
+        aborted = false;
+    }
+
+    /**
+     * Scores a single root move, as done by parallel root splitting.
+     * The solver must have been {@link #prepare prepared} for the board.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @param col the playable column to score
+     * @param depth the depth of the iteration, including the root move
+     * @param alpha the score the move has to beat
+     * @return the score of the move, exact if it is above alpha
+     */
+    int scoreRootMove(final long current, final long mask, final int col,
+                      final int depth, final int alpha) {
+        long move = possibleMoves(mask) & columnMask(col);
+        return -negamax(current ^ mask, mask | move,
+                Long.bitCount(mask) + 1, depth - 1, -INFINITY, -alpha);
+    }
+
+    /**
+     * Returns the column completing a line for the side to move.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @return a winning column, or -1 if there is none
+     */
+    int immediateWin(final long current, final long mask) {
+        long winning = winningCells(current, mask) & possibleMoves(mask);
+        return winning != 0 ? columnOf(winning) : -1;
+    }
+
+    /**
+     * Returns the playable columns in the order they are tried.
+     *
+     * @param mask the occupied cells
+     * @param preferred a column to try first, or -1
+     * @return the playable columns
+     */
+    int[] orderedMoves(final long mask, final int preferred) {
+        int[] order = new int[columns];
+        int count = ordering.order(Long.bitCount(mask), possibleMoves(mask),
+                0, 0, preferred, order);
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * Returns the depth at which a search from the position ends.
+     *
+     * @param moves the number of pieces on the board
+     * @return the budget's depth limit or the number of empty cells
+     */
+    int maxDepth(final int moves) {
+        return Math.min(cells - moves, budget.maxDepth());
+    }
+
+    /**
+     * Returns whether the last search or root move ran out of budget.
+     *
+     * @return true if the search was aborted
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Returns the number of nodes visited since the last preparation.
+     *
+     * @return the visited nodes
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the transposition table probes since the last preparation.
+     *
+     * @return the probes
+     */
+    long getTableProbes() {
+        return tableProbes;
+    }
+
+    /**
+     * Returns the probes since the last preparation that found their
+     * position.
+     *
+     * @return the hits
+     */
+    long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     * Returns the result of the last search.
+     *
+     * @return the last result, or null if nothing was searched yet
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Checks whether a score is a proven win or loss.
+     *
+     * @param score a score returned by the solver
+     * @return true if the score is decisive
+     */
+    public static boolean isDecisive(final int score) {
+        return Math.abs(score) > DECISIVE_THRESHOLD;
+    }
+
+    /**
+     * Searches every root move to the given depth.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @param moves the number of pieces on the board
+     * @param depth the depth of this iteration
+     * @param previousBest the best move of the previous iteration
+     * @return the best move in the upper and its score in the lower half
+     */
+    private long searchRoot(final long current, final long mask,
+                            final int moves, final int depth,
+                            final int previousBest) {
+        long possible = possibleMoves(mask);
+        int alpha = -INFINITY;
+        int bestMove = previousBest;
+        int[] order = moveLists[moves];
+        int count = ordering.order(moves, possible, 0, 0, previousBest,
+                order);
+        for (int i = 0; i < count; i++) {
+            int col = order[i];
+            long move = possible & columnMask(col);
+            int score = -negamax(current ^ mask, mask | move, moves + 1,
+                    depth - 1, -INFINITY, -alpha);
+            if (aborted) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = col;
+            }
+        }
+        return ((long) bestMove << Integer.SIZE)
+                | Integer.toUnsignedLong(alpha);
+    }
+
+    /**
+     * Scores a position with negamax and alpha-beta pruning.
+     * The side to move never has an immediate win on entry, because the
+     * parent checks for it before descending.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @param moves the number of pieces on the board
+     * @param depth the remaining depth
+     * @param alphaIn the lower bound of the search window
+     * @param betaIn the upper bound of the search window
+     * @return the score of the position for the side to move
+     */
+    private int negamax(final long current, final long mask, final int moves,
+                        final int depth, final int alphaIn,
+                        final int betaIn) {
+        nodes++;
+        if (outOfBudget()) {
+            aborted = true;
+            return 0;
+        }
+        long possible = possibleMoves(mask);
+        if ((winningCells(current, mask) & possible) != 0) {
+            return WIN_SCORE - moves - 1;
+        }
+        if (moves + 1 >= cells) {
+            return 0;  // The last cell is filled without a win
+        }
+        if (depth == 0) {
+            return evaluate(current, mask);
+        }
+
+        int alpha = alphaIn;
+        int beta = betaIn;
+        long key = current + mask;
+        long entry = table.probe(key);
+        tableProbes++;
+        int ttMove = -1;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            tableHits++;
+            ttMove = TranspositionTable.moveOf(entry);
+            if (TranspositionTable.depthOf(entry) >= depth) {
+                int score = TranspositionTable.scoreOf(entry);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.EXACT) {
+                    return score;
+                } else if (bound == TranspositionTable.LOWER) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+        // A table bound may have narrowed the window; failing low against
+        // the raised alpha only proves an upper bound
+        int alphaOrig = alpha;
+
+        // Only blocks are worth trying against a threat on a playable cell
+        long threats = winningCells(current ^ mask, mask);
+        int[] order = moveLists[moves];
+        int count = ordering.order(moves, possible, 0, threats, ttMove,
+                order);
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            int col = order[i];
+            long move = possible & columnMask(col);
+            int score = -negamax(current ^ mask, mask | move, moves + 1,
+                    depth - 1, -beta, -alpha);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = col;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        ordering.cutoff(moves, col, move, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound;
+        if (best <= alphaOrig) {
+            bound = TranspositionTable.UPPER;
+        } else if (best >= beta) {
+            bound = TranspositionTable.LOWER;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+        table.store(key, best, depth, bound, bestMove);
+        return best;
+    }
+
+    /**
+     * Scores a position at the depth horizon.
+     *
+     * @param current the pieces of the side to move
+     * @param mask the occupied cells
+     * @return a score well inside the decisive range
+     */
+    private int evaluate(final long current, final long mask) {
+        return evaluator.evaluate(current, mask);
+    }
+
+    private boolean outOfBudget() {
+        if (nodes >= nodeLimit) {
+            return true;
+        }
+        if ((nodes & CLOCK_CHECK_MASK) != 0) {
+            return false;
+        }
+        return stopSignal.get()
+                || timed && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * Returns the empty cells that would complete a line for a player.
+     *
+     * @param pieces the pieces of the player
+     * @param mask the occupied cells
+     * @return the winning cells, whether or not they are playable yet
+     */
+    private long winningCells(final long pieces, final long mask) {
+        int height = rows + 1;
+        // Vertical: three pieces below the cell
+        long result = (pieces << 1) & (pieces << 2)
+                & (pieces << (WIN_LENGTH - 1));
+        result |= lineCells(pieces, height);
+        result |= lineCells(pieces, height - 1);
+        result |= lineCells(pieces, height + 1);
+        return result & (boardMask ^ mask);
+    }
+
+    /**
+     * Returns the cells completing a line of four in one direction,
+     * whether the gap is at either end or in the middle.
+     *
+     * @param pieces the pieces of the player
+     * @param shift the bit distance between neighbours on the line
+     * @return the completing cells, not yet restricted to the board
+     */
+    private static long lineCells(final long pieces, final int shift) {
+        long pair = (pieces << shift) & (pieces << (2 * shift));
+        long result = pair & (pieces << ((WIN_LENGTH - 1) * shift));
+        result |= pair & (pieces >>> shift);
+        pair = (pieces >>> shift) & (pieces >>> (2 * shift));
+        result |= pair & (pieces >>> ((WIN_LENGTH - 1) * shift));
+        result |= pair & (pieces << shift);
+        return result;
+    }
+
+    private long possibleMoves(final long mask) {
+        return (mask + bottomMask) & boardMask;
+    }
+
+    private long columnMask(final int col) {
+        return ((1L << rows) - 1) << (col * (rows + 1));
+    }
+
+    private int columnOf(final long move) {
+        return Long.numberOfTrailingZeros(move) / (rows + 1);
+    }
+
+    private int firstMove(final int moves, final long possible) {
+        int[] order = moveLists[moves];
+        return ordering.order(moves, possible, 0, 0, -1, order) > 0
+                ? order[0] : -1;
+    }
+
+    /**
+     * Prepares the geometry dependent masks for the given board.
+     *
+     * @param board the board to be searched
+     */
+    private void configure(final Board board) {
+        if (board.getWinLength() != WIN_LENGTH) {
+            throw new IllegalArgumentException("The solver supports "
+                    + "four-in-a-row boards only.");
+        }
+        if (board.getColumnCount() == columns
+                && board.getRowCount() == rows) {
+            return;
+        }
+        if (board.getColumnCount() * (board.getRowCount() + 1)
+                > MAX_BITS) {
+            throw new IllegalArgumentException("The solver supports "
+                    + "boards of at most " + MAX_BITS + " bits.");
+        }
+        columns = board.getColumnCount();
+        rows = board.getRowCount();
+        cells = columns * rows;
+        if (evaluator == null || !evaluator.matches(board)) {
+            evaluator = PositionEvaluator.forBoard(board);
+        }
+        bottomMask = 0;
+        for (int col = 0; col < columns; col++) {
+            bottomMask |= 1L << (col * (rows + 1));
+        }
+        boardMask = bottomMask * ((1L << rows) - 1);
+        ordering = MoveOrdering.forBoard(board, orderingScheme);
+        moveLists = new int[cells + 1][columns];
+    }
+}
@@ -0,0 +1,363 @@
+package hu.nye.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table caching search results by position key.
+ *
+ * <p>Each slot stores one packed {@code long} with the score, search
+ * depth, bound type, best move and the generation of the search that
+ * wrote it, plus the position key XOR-ed with that entry. Both words of
+ * a slot are stored next to each other in one {@code long[]}, and
+ * {@value #BUCKET_SLOTS} slots form a bucket of 64 bytes, the size of a
+ * cache line: a probe reads one bucket, so it touches one or, as the
+ * JVM does not align arrays to cache lines, at most two lines.</p>
+ *
+ * <p>A position may be stored in any slot of its bucket. A store
+ * overwrites the slot holding the same position, or else an empty
+ * slot, or else the slot least worth keeping: entries of earlier
+ * searches lose {@value #AGE_PENALTY} plies of depth for every search
+ * since they were written. An entry of the current search is only
+ * replaced by a search at least as deep.</p>
+ *
+ * <p>The table is shared by parallel searchers without locking. Two
+ * threads writing the same slot at once can leave the key word of one
+ * write next to the entry word of the other; such a torn slot fails the
+ * XOR check and is reported as missing instead of returning another
+ * position's entry. The table lives in one array sized once, so its
+ * footprint is fixed and searches create no garbage; {@link #clear()}
+ * and {@link #resize(int)} are meant for the pauses between games.</p>
+ *
+ * <p>The array is only allocated by the first probe or store, so that
+ * a short-lived process, or one that never reaches the solver, does not
+ * pay for zeroing hundreds of megabytes at startup.</p>
+ */
+public final class TranspositionTable {
+
+    /** The stored score is exact. */
+    public static final int EXACT = 1;
+
+    /** The stored score is a lower bound (the search failed high). */
+    public static final int LOWER = 2;
+
+    /** The stored score is an upper bound (the search failed low). */
+    public static final int UPPER = 3;
+
+    /** The value returned by {@link #probe(long)} for a missing entry. */
+    public static final long NO_ENTRY = 0L;
+
+    /** The number of index bits used when none are given. */
+    public static final int DEFAULT_SIZE_BITS = 20;
+
+    /** The bytes of one slot: the checked key and the entry. */
+    public static final int SLOT_BYTES = 2 * Long.BYTES;
+
+    /** The largest supported number of index bits. */
+    private static final int MAX_SIZE_BITS = 29;
+
+    /** The number of slots of a bucket, filling a 64-byte cache line. */
+    private static final int BUCKET_SLOTS = 4;
+
+    /** The bits of the slot within a bucket. */
+    private static final int BUCKET_BITS = 2;
+
+    /** The depth an entry loses for every search since it was written. */
+    private static final int AGE_PENALTY = 2;
+
+    /** The bytes of a megabyte. */
+    private static final long MEGABYTE = 1_048_576;
+
+    /** Multiplier spreading position keys over the table. */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /** Bit offset of the bound type. */
+    private static final int BOUND_SHIFT = 0;
+
+    /** Bit offset of the best move. */
+    private static final int MOVE_SHIFT = 8;
+
+    /** Bit offset of the search depth. */
+    private static final int DEPTH_SHIFT = 16;
+
+    /** Bit offset of the generation. */
+    private static final int GENERATION_SHIFT = 24;
+
+    /** Bit offset of the score. */
+    private static final int SCORE_SHIFT = 32;
+
+    /** Mask of a single packed byte-sized field. */
+    private static final int FIELD_MASK = 0xFF;
+
+    /**
+     * The slots, two words each: the position key XOR-ed with the entry,
+     * then the packed entry; null until first used.
+     */
+    private long[] slots;
+
+    /** The number of index bits of the table. */
+    private int sizeBits;
+
+    /** The number of bucket index bits. */
+    private int bucketBits;
+
+    /** The number of slots of a bucket. */
+    private int bucketSlots;
+
+    /** The generation of the current search. */
+    private int generation;
+
+    /**
+     * Creates a table with the default number of slots.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_BITS);
+    }
+
+    /**
+     * Creates a table with {@code 2^indexBits} slots.
+     *
+     * @param indexBits the number of index bits
+     */
+    public TranspositionTable(final int indexBits) {
+        allocate(indexBits);
+    }
+
+    /**
+     * Creates the largest table that fits into a memory budget.
+     *
+     * @param megabytes the memory budget, at least 1
+     * @return a table of at most that many megabytes
+     */
+    public static TranspositionTable ofMegabytes(final int megabytes) {
+        return new TranspositionTable(bitsFor(megabytes));
+    }
+
+    private static int bitsFor(final int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException(
+                    "The table needs at least one megabyte.");
+        }
+        long slotCount = megabytes * MEGABYTE / SLOT_BYTES;
+        int bits = Long.SIZE - 1 - Long.numberOfLeadingZeros(slotCount);
+        return Math.min(bits, MAX_SIZE_BITS);
+    }
+
+    private void allocate(final int indexBits) {
+        if (indexBits < 1 || indexBits > MAX_SIZE_BITS) {
+            throw new IllegalArgumentException("Table size bits must be "
+                    + "between 1 and " + MAX_SIZE_BITS + ".");
+        }
+        this.sizeBits = indexBits;
+        this.bucketBits = Math.max(0, indexBits - BUCKET_BITS);
+        this.bucketSlots = 1 << (indexBits - bucketBits);
+        this.slots = null;
+    }
+
+    /**
+     * Returns the slots, allocating them on first use. Searchers sharing
+     * the table may race here; the lock makes them agree on one array.
+     *
+     * @return the slots
+     */
+    private synchronized long[] allocated() {
+        if (slots == null) {
+            slots = new long[2 << sizeBits];
+        }
+        return slots;
+    }
+
+    /**
+     * Returns whether the slots were allocated by a probe or store.
+     *
+     * @return true once the table holds memory
+     */
+    public synchronized boolean isAllocated() {
+        return slots != null;
+    }
+
+    /**
+     * Starts a new search; entries of earlier searches become the first
+     * candidates for replacement.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & FIELD_MASK;
+    }
+
+    /**
+     * Removes every entry. Must not run during a search.
+     */
+    public void clear() {
+        long[] table = slots;
+        if (table != null) {
+            Arrays.fill(table, 0L);
+        }
+    }
+
+    /**
+     * Replaces the table by an empty one of the largest size fitting
+     * into a memory budget. Must not run during a search.
+     *
+     * @param megabytes the memory budget, at least 1
+     */
+    public void resize(final int megabytes) {
+        int bits = bitsFor(megabytes);
+        if (bits == sizeBits) {
+            clear();
+        } else {
+            allocate(bits);  // Lets the old table go at once
+        }
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the capacity of the table
+     */
+    public int capacity() {
+        return 1 << sizeBits;
+    }
+
+    /**
+     * Returns the memory held by the slots.
+     *
+     * @return the size of the table in bytes
+     */
+    public long sizeInBytes() {
+        return (long) SLOT_BYTES << sizeBits;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the position key
+     * @return the packed entry, or {@link #NO_ENTRY} if it is not stored
+     */
+    public long probe(final long key) {
+        long[] table = slots;
+        if (table == null) {
+            table = allocated();
+        }
+        int first = bucketOf(key);
+        int end = first + 2 * bucketSlots;
+        for (int i = first; i < end; i += 2) {
+            long entry = table[i + 1];
+            if ((table[i] ^ entry) == key && entry != NO_ENTRY) {
+                return entry;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores a search result, subject to the replacement policy.
+     *
+     * @param key the position key
+     * @param score the score of the position
+     * @param depth the remaining depth the position was searched to
+     * @param bound the bound type ({@link #EXACT}, {@link #LOWER}
+     *              or {@link #UPPER})
+     * @param move the best column, or -1 if unknown
+     */
+    public void store(final long key, final int score, final int depth,
+                      final int bound, final int move) {
+        long[] table = slots;
+        if (table == null) {
+            table = allocated();
+        }
+        int first = bucketOf(key);
+        int end = first + 2 * bucketSlots;
+        int victim = -1;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = first; i < end; i += 2) {
+            long old = table[i + 1];
+            if (old == NO_ENTRY || (table[i] ^ old) == key) {
+                victim = i;
+                break;
+            }
+            int age = (generation - generationOf(old)) & FIELD_MASK;
+            int worth = depthOf(old) - AGE_PENALTY * age;
+            if (worth < victimWorth) {
+                victim = i;
+                victimWorth = worth;
+            }
+        }
+        long old = table[victim + 1];
+        if (old != NO_ENTRY && (table[victim] ^ old) != key
+                && generationOf(old) == generation
+                && depthOf(old) > depth) {
+            return;
+        }
+        long entry = pack(score, depth, bound, move);
+        table[victim + 1] = entry;
+        table[victim] = key ^ entry;
+    }
+
+    private long pack(final int score, final int depth, final int bound,
+                      final int move) {
+        return ((long) score << SCORE_SHIFT)
+                | ((long) generation << GENERATION_SHIFT)
+                | ((long) (depth & FIELD_MASK) << DEPTH_SHIFT)
+                | ((long) (move & FIELD_MASK) << MOVE_SHIFT)
+                | ((long) bound << BOUND_SHIFT);
+    }
+
+    /**
+     * Returns the index of the first word of the bucket of a position.
+     *
+     * @param key the position key
+     * @return the array index of the bucket
+     */
+    private int bucketOf(final long key) {
+        if (bucketBits == 0) {
+            return 0;
+        }
+        int bucket = (int) ((key * HASH_MULTIPLIER)
+                >>> (Long.SIZE - bucketBits));
+        return bucket * 2 * bucketSlots;
+    }
+
+    /**
+     * Returns the score of a packed entry.
+     *
+     * @param entry the packed entry
+     * @return the stored score
+     */
+    public static int scoreOf(final long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+
+    /**
+     * Returns the search depth of a packed entry.
+     *
+     * @param entry the packed entry
+     * @return the stored depth
+     */
+    public static int depthOf(final long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & FIELD_MASK;
+    }
+
+    /**
+     * Returns the bound type of a packed entry.
+     *
+     * @param entry the packed entry
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public static int boundOf(final long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & FIELD_MASK;
+    }
+
+    /**
+     * Returns the best move of a packed entry.
+     *
+     * @param entry the packed entry
+     * @return the stored column, or -1 if none was stored
+     */
+    public static int moveOf(final long entry) {
+        int move = (int) (entry >>> MOVE_SHIFT) & FIELD_MASK;
+        return move == FIELD_MASK ? -1 : move;
+    }
+
+    private static int generationOf(final long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & FIELD_MASK;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Search engines and supporting data structures
+ * used by the computer player of the Connect-4 game.
+ */
+package hu.nye.ai;
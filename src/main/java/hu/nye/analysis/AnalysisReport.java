@@ -0,0 +1,77 @@
+package hu.nye.analysis;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The progress or result of a position analysis.
+ *
+ * @param analyzed the number of positions solved and written
+ * @param defects the number of skipped records by reason
+ * @param nodes the total number of searched nodes
+ * @param elapsedNanos the wall-clock time so far
+ */
+public record AnalysisReport(long analyzed, Map<PositionDefect, Long> defects,
+                             long nodes, long elapsedNanos) {
+
+    /**
+     * Copies the defect counts.
+     *
+     * @param analyzed the number of positions solved and written
+     * @param defects the number of skipped records by reason
+     * @param nodes the total number of searched nodes
+     * @param elapsedNanos the wall-clock time so far
+     */
+    public AnalysisReport {
+        defects = Map.copyOf(defects);
+    }
+
+    /**
+     * Returns the number of skipped records.
+     *
+     * @return the sum of all defect counts
+     */
+    public long skipped() {
+        long skipped = 0;
+        for (long count : defects.values()) {
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    /**
+     * Returns the analysis speed.
+     *
+     * @return the number of records, analyzed or skipped, per second
+     */
+    public double positionsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return (analyzed + skipped()) * (double) TimeUnit.SECONDS.toNanos(1)
+                / elapsedNanos;
+    }
+
+    /**
+     * Returns a human-readable summary.
+     *
+     * @return the summary line
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format(
+                "analyzed=%d skipped=%d", analyzed, skipped()));
+        for (PositionDefect defect : PositionDefect.values()) {
+            long count = defects.getOrDefault(defect, 0L);
+            if (count > 0) {
+                text.append(' ').append(defect.name().toLowerCase(
+                        Locale.ROOT)).append('=').append(count);
+            }
+        }
+        return text.append(String.format(" nodes=%d time=%d ms "
+                        + "positions/s=%.0f", nodes,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                positionsPerSecond())).toString();
+    }
+}
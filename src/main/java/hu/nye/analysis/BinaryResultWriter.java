@@ -0,0 +1,74 @@
+package hu.nye.analysis;
+
+import hu.nye.ai.SearchResult;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes results as fixed-width big-endian records after an 8-byte
+ * header of the magic number and the format version. Each record holds
+ * the record number as a {@code long}, the position key as a
+ * {@code long}, the side to move and the best move as bytes, the score
+ * as an {@code int} and the completed depth as a byte.
+ */
+final class BinaryResultWriter implements ResultWriter {
+
+    /** Identifies analysis result files ("C4AN"). */
+    static final int MAGIC = 0x4334414E;
+
+    /** The version of the file format. */
+    static final int VERSION = 1;
+
+    /** The size of one record in bytes. */
+    static final int RECORD_SIZE = 2 * Long.BYTES + 2 + Integer.BYTES + 1;
+
+    /** The output file. */
+    private final DataOutputStream out;
+
+    /**
+     * Creates the output, replacing the file if it exists.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be created
+     */
+    BinaryResultWriter(final Path path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Writes the result of one position.
+     *
+     * @param index the number of the record in the input, from 0
+     * @param side the symbol of the player to move
+     * @param key the pieces of the side to move plus the occupied cells
+     * @param result the result of the search
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void write(final long index, final char side, final long key,
+                      final SearchResult result) throws IOException {
+        out.writeLong(index);
+        out.writeLong(key);
+        out.writeByte(side);
+        out.writeByte(result.move());
+        out.writeInt(result.score());
+        out.writeByte(result.depth());
+    }
+
+    /**
+     * Flushes and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,69 @@
+package hu.nye.analysis;
+
+import hu.nye.ai.SearchResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes results as CSV with a header line: the record number, the side
+ * to move, the position key, the best move, the score, the completed
+ * search depth and the number of searched nodes.
+ */
+final class CsvResultWriter implements ResultWriter {
+
+    /** The header line. */
+    static final String HEADER = "index,side,key,move,score,depth,nodes";
+
+    /** The output file. */
+    private final BufferedWriter out;
+
+    /** Reused to format a line. */
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Creates the output, replacing the file if it exists.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be created
+     */
+    CsvResultWriter(final Path path) throws IOException {
+        this.out = Files.newBufferedWriter(path, StandardCharsets.US_ASCII);
+        out.write(HEADER);
+        out.newLine();
+    }
+
+    /**
+     * Writes the result of one position.
+     *
+     * @param index the number of the record in the input, from 0
+     * @param side the symbol of the player to move
+     * @param key the pieces of the side to move plus the occupied cells
+     * @param result the result of the search
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void write(final long index, final char side, final long key,
+                      final SearchResult result) throws IOException {
+        line.setLength(0);
+        line.append(index).append(',').append(side).append(',')
+                .append(key).append(',').append(result.move()).append(',')
+                .append(result.score()).append(',').append(result.depth())
+                .append(',').append(result.nodes());
+        out.append(line);
+        out.newLine();
+    }
+
+    /**
+     * Flushes and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,273 @@
+package hu.nye.analysis;
+
+import hu.nye.ai.SearchBudget;
+import hu.nye.ai.SearchResult;
+import hu.nye.ai.Solver;
+import hu.nye.model.Board;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Solves every position of a position file and writes the results.
+ *
+ * <p>Records are read in batches by one thread; the positions of a batch
+ * are validated and searched in parallel, each thread with its own
+ * {@link Solver} and scratch board, and the results are written in the
+ * order of the input. Invalid records are counted by
+ * {@link PositionDefect} and skipped.</p>
+ *
+ * <p>A position is valid if it holds only empty cells and the pieces of
+ * the two players, the first player has as many pieces as the second
+ * or one more, no piece is above an empty cell, and the game is neither
+ * won nor drawn yet. The side to move follows from the piece counts.</p>
+ */
+public final class PositionAnalyzer {
+
+    /** The output formats. */
+    public enum Format {
+        /** One CSV line per position, see {@link CsvResultWriter}. */
+        CSV,
+        /** Fixed-width binary records, see {@link BinaryResultWriter}. */
+        BINARY
+    }
+
+    /** The number of records read and solved together. */
+    static final int BATCH_SIZE = 1024;
+
+    /** The symbol of the empty cells. */
+    private static final byte EMPTY = '-';
+
+    /** The minimum time between two progress reports. */
+    private static final long PROGRESS_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /** The number of rows of the positions. */
+    private final int rows;
+
+    /** The number of columns of the positions. */
+    private final int columns;
+
+    /** The symbol of the player who moves first. */
+    private final char first;
+
+    /** The symbol of the player who moves second. */
+    private final char second;
+
+    /** The limits of the search of every position. */
+    private final SearchBudget budget;
+
+    /** The number of solving threads. */
+    private final int threads;
+
+    /**
+     * Creates an analyzer.
+     *
+     * @param rowCount the number of rows of the positions
+     * @param columnCount the number of columns of the positions
+     * @param firstSymbol the symbol of the player who moves first
+     * @param secondSymbol the symbol of the player who moves second
+     * @param searchBudget the limits of the search of every position
+     * @param threadCount the number of solving threads
+     * @throws IllegalArgumentException if the solver does not support the
+     *         geometry, the symbols are not distinct player symbols or no
+     *         thread is requested
+     */
+    public PositionAnalyzer(final int rowCount, final int columnCount,
+                            final char firstSymbol, final char secondSymbol,
+                            final SearchBudget searchBudget,
+                            final int threadCount) {
+        Board board = new Board(rowCount, columnCount,
+                Board.DEFAULT_WIN_LENGTH);
+        if (!board.isBitboard()) {
+            throw new IllegalArgumentException("The solver does not "
+                    + "support " + rowCount + "x" + columnCount + " boards.");
+        }
+        if (firstSymbol == secondSymbol || firstSymbol == EMPTY
+                || secondSymbol == EMPTY || threadCount < 1) {
+            throw new IllegalArgumentException("Expected two distinct "
+                    + "player symbols and at least one thread.");
+        }
+        this.rows = rowCount;
+        this.columns = columnCount;
+        this.first = firstSymbol;
+        this.second = secondSymbol;
+        this.budget = searchBudget;
+        this.threads = threadCount;
+    }
+
+    /**
+     * Analyzes a position file.
+     *
+     * @param input the position file
+     * @param output the result file, replaced if it exists
+     * @param format the format of the result file
+     * @param progress receives a report every few seconds
+     * @return the final report
+     * @throws IOException if a file cannot be read or written
+     */
+    public AnalysisReport analyze(final Path input, final Path output,
+                                  final Format format,
+                                  final Consumer<AnalysisReport> progress)
+            throws IOException {
+        long start = System.nanoTime();
+        long lastReport = start;
+        Map<PositionDefect, Long> defects =
+                new EnumMap<>(PositionDefect.class);
+        long analyzed = 0;
+        long nodes = 0;
+        long index = 0;
+        byte[][] batch = new byte[BATCH_SIZE][rows * columns];
+        int[] framing = new int[BATCH_SIZE];
+        Outcome[] outcomes = new Outcome[BATCH_SIZE];
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (PositionReader reader = new PositionReader(input, rows,
+                columns);
+             ResultWriter writer = format == Format.CSV
+                     ? new CsvResultWriter(output)
+                     : new BinaryResultWriter(output)) {
+            while (true) {
+                int size = 0;
+                while (size < BATCH_SIZE) {
+                    int status = reader.next(batch[size]);
+                    if (status == PositionReader.END) {
+                        break;
+                    }
+                    framing[size++] = status;
+                }
+                if (size == 0) {
+                    break;
+                }
+                int count = size;
+                pool.submit(() -> IntStream.range(0, count).parallel()
+                        .forEach(i -> outcomes[i] = framing[i]
+                                == PositionReader.OK
+                                ? workers.get().analyze(batch[i])
+                                : new Outcome(PositionDefect.MALFORMED,
+                                        (char) 0, 0, null))).get();
+                for (int i = 0; i < size; i++, index++) {
+                    Outcome outcome = outcomes[i];
+                    if (outcome.defect() != null) {
+                        defects.merge(outcome.defect(), 1L, Long::sum);
+                    } else {
+                        writer.write(index, outcome.side(), outcome.key(),
+                                outcome.result());
+                        analyzed++;
+                        nodes += outcome.result().nodes();
+                    }
+                }
+                long now = System.nanoTime();
+                if (now - lastReport >= PROGRESS_NANOS) {
+                    lastReport = now;
+                    progress.accept(new AnalysisReport(analyzed, defects,
+                            nodes, now - start));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The analysis was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("The analysis failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new AnalysisReport(analyzed, defects, nodes,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * The result of one record: a defect, or the side to move, the
+     * position key and the search result.
+     *
+     * @param defect why the record was skipped, or null
+     * @param side the symbol of the player to move
+     * @param key the pieces of the side to move plus the occupied cells
+     * @param result the result of the search
+     */
+    private record Outcome(PositionDefect defect, char side, long key,
+                           SearchResult result) {
+    }
+
+    /** The solver and scratch board of one thread. */
+    private final class Worker {
+
+        /** Searches the positions of this thread. */
+        private final Solver solver = new Solver(budget);
+
+        /** The board positions are set up on. */
+        private final Board board = new Board(rows, columns,
+                Board.DEFAULT_WIN_LENGTH);
+
+        /** The rows of the current position. */
+        private final List<String> lines = new ArrayList<>(rows);
+
+        /** How many pieces the first player has more than the second. */
+        private int firstLead;
+
+        /**
+         * Validates and solves one position.
+         *
+         * @param cells the cells row by row, top row first
+         * @return the outcome
+         */
+        Outcome analyze(final byte[] cells) {
+            PositionDefect defect = validate(cells);
+            if (defect != null) {
+                return new Outcome(defect, (char) 0, 0, null);
+            }
+            lines.clear();
+            for (int row = 0; row < rows; row++) {
+                lines.add(new String(cells, row * columns, columns,
+                        StandardCharsets.US_ASCII));
+            }
+            board.setCells(lines);
+            if (board.isFull() || board.checkWin(first)
+                    || board.checkWin(second)) {
+                return new Outcome(PositionDefect.DECIDED, (char) 0, 0, null);
+            }
+            char side = firstLead == 0 ? first : second;
+            SearchResult result = solver.search(board, side);
+            return new Outcome(null, side,
+                    board.getPieces(side) + board.getMask(), result);
+        }
+
+        private PositionDefect validate(final byte[] cells) {
+            int firstPieces = 0;
+            int secondPieces = 0;
+            for (int col = 0; col < columns; col++) {
+                boolean empty = false;
+                // Walk up from the bottom; nothing may rest on a hole
+                for (int row = rows - 1; row >= 0; row--) {
+                    byte cell = cells[row * columns + col];
+                    if (cell == EMPTY) {
+                        empty = true;
+                        continue;
+                    }
+                    if (cell == first) {
+                        firstPieces++;
+                    } else if (cell == second) {
+                        secondPieces++;
+                    } else {
+                        return PositionDefect.SYMBOLS;
+                    }
+                    if (empty) {
+                        return PositionDefect.FLOATING;
+                    }
+                }
+            }
+            firstLead = firstPieces - secondPieces;
+            return firstLead == 0 || firstLead == 1 ? null
+                    : PositionDefect.PARITY;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hu.nye.analysis;
+
+/**
+ * The reasons a record of a position file is skipped.
+ */
+public enum PositionDefect {
+
+    /** The record has too few rows or a row of the wrong length. */
+    MALFORMED,
+
+    /** The record holds symbols other than the two players'. */
+    SYMBOLS,
+
+    /** The first player does not have as many or one more pieces. */
+    PARITY,
+
+    /** A piece is above an empty cell. */
+    FLOATING,
+
+    /** The game is already won or the board is full. */
+    DECIDED
+}
@@ -0,0 +1,166 @@
+package hu.nye.analysis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the records of a position file through a file channel.
+ *
+ * <p>A record is one line per row, top row first, in the format of
+ * {@link hu.nye.model.Board#loadInitialBoard(String)}; surrounding
+ * whitespace is ignored. Records may be separated by blank lines or by
+ * the {@code ====} lines of saved games. The cells are copied into a
+ * caller-owned array, so reading allocates nothing per record.</p>
+ */
+final class PositionReader implements AutoCloseable {
+
+    /** Returned by {@link #next(byte[])} for a well-formed record. */
+    static final int OK = 0;
+
+    /** Returned by {@link #next(byte[])} for a malformed record. */
+    static final int MALFORMED = 1;
+
+    /** Returned by {@link #next(byte[])} after the last record. */
+    static final int END = -1;
+
+    /** The size of the read buffer in bytes. */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /** The file being read. */
+    private final FileChannel channel;
+
+    /** The bytes read but not parsed yet. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** The number of rows of a record. */
+    private final int rows;
+
+    /** The number of cells per row. */
+    private final int columns;
+
+    /** The cells of the current line, at most one row long. */
+    private final byte[] line;
+
+    /** The length of the current line without surrounding whitespace. */
+    private int lineLength;
+
+    /** Whether the end of the file was reached. */
+    private boolean endOfFile;
+
+    /**
+     * Opens a position file.
+     *
+     * @param path the file to read
+     * @param rowCount the number of rows of a record
+     * @param columnCount the number of cells per row
+     * @throws IOException if the file cannot be opened
+     */
+    PositionReader(final Path path, final int rowCount,
+                   final int columnCount) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.rows = rowCount;
+        this.columns = columnCount;
+        this.line = new byte[columnCount];
+        buffer.flip();
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @param cells receives the cells row by row, top row first
+     * @return {@link #OK}, {@link #MALFORMED} or {@link #END}
+     * @throws IOException if the file cannot be read
+     */
+    int next(final byte[] cells) throws IOException {
+        int row = 0;
+        boolean malformed = false;
+        while (row < rows) {
+            if (!readLine()) {
+                return row == 0 ? END : MALFORMED;
+            }
+            if (lineLength == 0 || line[0] == '=') {
+                if (row > 0) {
+                    return MALFORMED;  // The record ended early
+                }
+                continue;
+            }
+            if (lineLength != columns) {
+                malformed = true;
+            } else {
+                System.arraycopy(line, 0, cells, row * columns, columns);
+            }
+            row++;
+        }
+        return malformed ? MALFORMED : OK;
+    }
+
+    /**
+     * Reads one line, keeping at most one row of it.
+     *
+     * @return false at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean started = false;
+        boolean any = false;
+        int trailing = 0;
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                return any;
+            }
+            byte b = buffer.get();
+            any = true;
+            if (b == '\n') {
+                break;
+            }
+            if (b == ' ' || b == '\t' || b == '\r') {
+                if (started) {
+                    trailing++;
+                }
+                continue;
+            }
+            // Inner whitespace belongs to the line
+            for (; trailing > 0; trailing--) {
+                append((byte) ' ');
+            }
+            started = true;
+            append(b);
+        }
+        return true;
+    }
+
+    private void append(final byte b) {
+        if (lineLength < columns) {
+            line[lineLength] = b;
+        }
+        lineLength++;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfFile) {
+            return false;
+        }
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read < 0) {
+            endOfFile = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
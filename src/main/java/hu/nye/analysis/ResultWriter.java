@@ -0,0 +1,31 @@
+package hu.nye.analysis;
+
+import hu.nye.ai.SearchResult;
+
+import java.io.IOException;
+
+/**
+ * Writes the result of every analyzed position.
+ */
+interface ResultWriter extends AutoCloseable {
+
+    /**
+     * Writes the result of one position.
+     *
+     * @param index the number of the record in the input, from 0
+     * @param side the symbol of the player to move
+     * @param key the pieces of the side to move plus the occupied cells
+     * @param result the result of the search
+     * @throws IOException if the output cannot be written
+     */
+    void write(long index, char side, long key, SearchResult result)
+            throws IOException;
+
+    /**
+     * Flushes and closes the output.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    void close() throws IOException;
+}
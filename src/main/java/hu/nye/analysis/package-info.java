@@ -0,0 +1,5 @@
+/**
+ * Batch analysis of position files, streamed from disk, validated and
+ * solved in parallel.
+ */
+package hu.nye.analysis;
@@ -0,0 +1,31 @@
+package hu.nye.db;
+
+/**
+ * The number of games a player has won.
+ *
+ * @param playerName the name of the player
+ * @param wins the number of won games
+ */
+public record HighScore(String playerName, int wins) {
+
+    /** The longest player name that can be stored. */
+    public static final int MAX_NAME_LENGTH = 64;
+
+    /**
+     * Validates the entry.
+     *
+     * @param playerName the name of the player
+     * @param wins the number of won games
+     */
+    public HighScore {
+        if (playerName == null || playerName.isBlank()
+                || playerName.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("A player name must have 1 to "
+                    + MAX_NAME_LENGTH + " characters.");
+        }
+        if (wins < 0) {
+            throw new IllegalArgumentException(
+                    "The number of wins must not be negative.");
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package hu.nye.db;
+
+import hu.nye.model.ScoreKeeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stores the wins of every player in an embedded H2 database and serves
+ * the high-score table from memory.
+ *
+ * <p>All entries are loaded when the repository is opened. Recording a
+ * win only updates the in-memory table, moving the player's entry to
+ * its new rank, and adds the win to a queue of pending increments; the
+ * caller never waits for the database. A background thread writes the
+ * queue as one batch of upserts in one transaction every
+ * {@code flushMillis} milliseconds, or as soon as
+ * {@code batchSize} players have pending increments. Increments that
+ * fail to be written stay queued for the next attempt. Closing the
+ * repository writes whatever is still queued.</p>
+ */
+public final class HighScoreRepository implements ScoreKeeper, AutoCloseable {
+
+    /** The database used by default, a file in the working directory. */
+    public static final String DEFAULT_URL = "jdbc:h2:./connect4_scores";
+
+    /** The default time between background writes in milliseconds. */
+    public static final long DEFAULT_FLUSH_MILLIS = 1000;
+
+    /** The default number of pending players that triggers a write. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /** Logs background write failures. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(HighScoreRepository.class);
+
+    /** Creates the table on first use. */
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS "
+            + "high_scores (player_name VARCHAR("
+            + HighScore.MAX_NAME_LENGTH + ") PRIMARY KEY, "
+            + "wins INT NOT NULL)";
+
+    /** Reads every entry. */
+    private static final String SELECT_ALL =
+            "SELECT player_name, wins FROM high_scores";
+
+    /** Adds a number of wins to a player, creating the entry if needed. */
+    private static final String UPSERT = "MERGE INTO high_scores t "
+            + "USING (VALUES (CAST(? AS VARCHAR("
+            + HighScore.MAX_NAME_LENGTH + ")), CAST(? AS INT))) "
+            + "s(player_name, wins) ON t.player_name = s.player_name "
+            + "WHEN MATCHED THEN UPDATE SET wins = t.wins + s.wins "
+            + "WHEN NOT MATCHED THEN INSERT (player_name, wins) "
+            + "VALUES (s.player_name, s.wins)";
+
+    /** Orders entries by descending wins, then by name. */
+    private static final Comparator<HighScore> RANKING = Comparator
+            .comparingInt(HighScore::wins).reversed()
+            .thenComparing(HighScore::playerName);
+
+    /** The database connection, used only by the writer thread. */
+    private final Connection connection;
+
+    /** Writes the pending increments in the background. */
+    private final ScheduledExecutorService writer;
+
+    /** The number of pending players that triggers a write. */
+    private final int batchSize;
+
+    /** The entry of every player; guarded by {@code this}. */
+    private final Map<String, HighScore> byName = new HashMap<>();
+
+    /** Every entry in rank order; guarded by {@code this}. */
+    private final NavigableSet<HighScore> ranking = new TreeSet<>(RANKING);
+
+    /** Whether a write triggered by the batch size is already queued. */
+    private final AtomicBoolean writeQueued = new AtomicBoolean();
+
+    /** Wins not yet written by player; guarded by {@code this}. */
+    private Map<String, Integer> pending = new HashMap<>();
+
+    /**
+     * Opens the default database with the default write schedule.
+     *
+     * @throws SQLException if the database cannot be opened
+     */
+    public HighScoreRepository() throws SQLException {
+        this(DEFAULT_URL, DEFAULT_FLUSH_MILLIS, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Opens a database and loads its high scores.
+     *
+     * @param url the JDBC URL of the database, created if it does not
+     *        exist
+     * @param flushMillis the time between background writes in
+     *        milliseconds
+     * @param maxPending the number of pending players that triggers a
+     *        write
+     * @throws SQLException if the database cannot be opened
+     */
+    public HighScoreRepository(final String url, final long flushMillis,
+                               final int maxPending) throws SQLException {
+        if (flushMillis < 1 || maxPending < 1) {
+            throw new IllegalArgumentException("The write interval and the "
+                    + "batch size must be positive.");
+        }
+        this.batchSize = maxPending;
+        this.connection = DriverManager.getConnection(url);
+        try {
+            load();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        this.writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "high-score-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::writeQuietly, flushMillis,
+                flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void load() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+            try (ResultSet rows = statement.executeQuery(SELECT_ALL)) {
+                while (rows.next()) {
+                    HighScore entry = new HighScore(rows.getString(1),
+                            rows.getInt(2));
+                    byName.put(entry.playerName(), entry);
+                    ranking.add(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a won game without waiting for the database.
+     *
+     * @param playerName the name of the winner
+     * @throws IllegalStateException if the repository was closed
+     */
+    @Override
+    public void recordWin(final String playerName) {
+        recordWins(playerName, 1);
+    }
+
+    /**
+     * Counts several won games without waiting for the database.
+     *
+     * @param playerName the name of the winner
+     * @param count the number of won games
+     * @throws IllegalStateException if the repository was closed
+     */
+    public void recordWins(final String playerName, final int count) {
+        checkOpen();
+        if (count < 1) {
+            throw new IllegalArgumentException(
+                    "The number of wins must be positive.");
+        }
+        int pendingPlayers;
+        synchronized (this) {
+            HighScore old = byName.get(playerName);
+            HighScore updated = new HighScore(playerName,
+                    old == null ? count : old.wins() + count);
+            if (old != null) {
+                ranking.remove(old);
+            }
+            ranking.add(updated);
+            byName.put(playerName, updated);
+            pending.merge(playerName, count, Integer::sum);
+            pendingPlayers = pending.size();
+        }
+        if (pendingPlayers >= batchSize && writeQueued.compareAndSet(false,
+                true)) {
+            writer.execute(this::writeQuietly);
+        }
+    }
+
+    /**
+     * Returns the best players.
+     *
+     * @param limit the maximum number of entries
+     * @return the entries by descending wins, ties by name
+     */
+    public synchronized List<HighScore> top(final int limit) {
+        List<HighScore> top = new ArrayList<>(Math.min(limit,
+                ranking.size()));
+        Iterator<HighScore> entries = ranking.iterator();
+        while (top.size() < limit && entries.hasNext()) {
+            top.add(entries.next());
+        }
+        return top;
+    }
+
+    /**
+     * Returns the number of games a player has won.
+     *
+     * @param playerName the name of the player
+     * @return the wins, 0 for an unknown player
+     */
+    public synchronized int winsOf(final String playerName) {
+        HighScore entry = byName.get(playerName);
+        return entry == null ? 0 : entry.wins();
+    }
+
+    /**
+     * Writes the pending wins now and waits for the write.
+     *
+     * @throws SQLException if the wins cannot be written; they stay
+     *         pending
+     * @throws IllegalStateException if the repository was closed
+     */
+    public void flush() throws SQLException {
+        checkOpen();
+        try {
+            writer.submit(() -> {
+                writePending();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while writing high scores.",
+                    e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the background writes, writes the pending wins and closes
+     * the database.
+     *
+     * @throws SQLException if the pending wins cannot be written or the
+     *         database cannot be closed
+     */
+    @Override
+    public void close() throws SQLException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writePending();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void checkOpen() {
+        if (writer.isShutdown()) {
+            throw new IllegalStateException(
+                    "The high-score repository is closed.");
+        }
+    }
+
+    private void writeQuietly() {
+        try {
+            writePending();
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to write high scores, retrying later", e);
+        }
+    }
+
+    /**
+     * Writes the pending wins as one batch in one transaction; called
+     * only by the writer thread, or after it has stopped.
+     *
+     * @throws SQLException if the batch fails; its wins are queued again
+     */
+    private void writePending() throws SQLException {
+        writeQueued.set(false);
+        Map<String, Integer> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement upsert =
+                         connection.prepareStatement(UPSERT)) {
+                for (Map.Entry<String, Integer> wins : batch.entrySet()) {
+                    upsert.setString(1, wins.getKey());
+                    upsert.setInt(2, wins.getValue());
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            synchronized (this) {
+                batch.forEach((name, wins) ->
+                        pending.merge(name, wins, Integer::sum));
+            }
+            throw e;
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.debug("Rollback of high scores failed", e);
+        }
+    }
+}
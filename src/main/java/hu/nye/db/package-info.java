@@ -0,0 +1,4 @@
+/**
+ * Persistent high scores in an embedded database.
+ */
+package hu.nye.db;
@@ -0,0 +1,324 @@
+package hu.nye.io;
+
+import hu.nye.model.Board;
+import hu.nye.model.GameArchive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exports the positions of finished games as {@link TrainingSample}s
+ * into binary shards.
+ *
+ * <p>Every shard starts with a {@value #HEADER_SIZE}-byte header: the
+ * magic number, the format version, the size of a sample and the rows,
+ * columns and winning line length of the board, padded with zeros.
+ * The samples follow back to back. A shard is closed and the next one
+ * opened once another sample would take it beyond the size limit; the
+ * shards of a directory are numbered, and a new writer continues after
+ * the last existing one instead of replacing it.</p>
+ *
+ * <p>Every position before a move of the game becomes a sample unless a
+ * position with the same key, or its mirror image, was exported before;
+ * the keys are remembered in a bounded {@link OffHeapKeySet}. An
+ * optional {@link Scorer} labels the new positions, on the calling
+ * thread and outside of any lock, so that several self-play threads can
+ * share one writer and score in parallel.</p>
+ */
+public final class DatasetWriter implements GameArchive, AutoCloseable {
+
+    /**
+     * Scores positions for the side to move, such as a search does.
+     */
+    @FunctionalInterface
+    public interface Scorer {
+
+        /**
+         * Scores a position. The board must be left as it was.
+         *
+         * @param position the position
+         * @param playerSymbol the symbol of the player to move
+         * @return the score for the player to move
+         */
+        int score(Board position, char playerSymbol);
+    }
+
+    /** Identifies training sample shards ("C4DS"). */
+    static final int MAGIC = 0x43344453;
+
+    /** The version of the shard format. */
+    static final short VERSION = 1;
+
+    /** The size of the shard header in bytes. */
+    static final int HEADER_SIZE = 16;
+
+    /** The default size limit of a shard in megabytes. */
+    public static final int DEFAULT_SHARD_MEGABYTES = 256;
+
+    /** The default size of the key set in megabytes. */
+    public static final int DEFAULT_DEDUP_MEGABYTES = 64;
+
+    /** The number of bytes in a megabyte. */
+    private static final long MEGABYTE = 1_048_576;
+
+    /** The size of the write buffer in bytes. */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /** The directory holding the shards. */
+    private final Path directory;
+
+    /** The largest size of a shard in bytes. */
+    private final long maxShardBytes;
+
+    /** Labels the positions, or null. */
+    private final Scorer scorer;
+
+    /** The keys of the positions exported so far. */
+    private final OffHeapKeySet seen;
+
+    /** Encoded samples not yet written to the shard. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** The channel of the current shard, or null before the first. */
+    private FileChannel shard;
+
+    /** The number of the current shard. */
+    private int shardIndex = -1;
+
+    /** The shards opened by this writer. */
+    private int shardCount;
+
+    /** The bytes of the current shard, including buffered samples. */
+    private long shardBytes;
+
+    /** The samples written by this writer. */
+    private long written;
+
+    /** The positions skipped as duplicates. */
+    private long duplicates;
+
+    /**
+     * Creates a writer with the default limits that does not score.
+     *
+     * @param shardDirectory the directory of the shards, created if
+     *        needed
+     * @throws IOException if the directory cannot be created
+     */
+    public DatasetWriter(final Path shardDirectory) throws IOException {
+        this(shardDirectory, DEFAULT_SHARD_MEGABYTES,
+                DEFAULT_DEDUP_MEGABYTES, null);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param shardDirectory the directory of the shards, created if
+     *        needed
+     * @param shardMegabytes the size limit of a shard in megabytes
+     * @param dedupMegabytes the off-heap memory remembering the exported
+     *        positions, in megabytes
+     * @param positionScorer labels the positions, or null
+     * @throws IOException if the directory cannot be created
+     */
+    public DatasetWriter(final Path shardDirectory, final int shardMegabytes,
+                         final int dedupMegabytes,
+                         final Scorer positionScorer) throws IOException {
+        this(shardDirectory, shardMegabytes * MEGABYTE,
+                new OffHeapKeySet(dedupMegabytes), positionScorer);
+    }
+
+    /**
+     * Creates a writer with a shard limit in bytes.
+     *
+     * @param shardDirectory the directory of the shards
+     * @param shardLimit the size limit of a shard in bytes
+     * @param keys remembers the exported positions
+     * @param positionScorer labels the positions, or null
+     * @throws IOException if the directory cannot be created
+     */
+    DatasetWriter(final Path shardDirectory, final long shardLimit,
+                  final OffHeapKeySet keys, final Scorer positionScorer)
+            throws IOException {
+        if (shardLimit < HEADER_SIZE + TrainingSample.RECORD_SIZE) {
+            throw new IllegalArgumentException(
+                    "A shard must hold at least one sample.");
+        }
+        this.directory = Files.createDirectories(shardDirectory);
+        this.maxShardBytes = shardLimit;
+        this.seen = keys;
+        this.scorer = positionScorer;
+    }
+
+    /**
+     * Returns the file of a shard.
+     *
+     * @param shardDirectory the directory of the shards
+     * @param index the number of the shard
+     * @return the path of the shard
+     */
+    public static Path shardPath(final Path shardDirectory,
+                                 final int index) {
+        return shardDirectory.resolve(String.format("samples-%05d.c4ds",
+                index));
+    }
+
+    /**
+     * Exports the positions of a game played from the empty board. The
+     * game is taken back and replayed on the board, which ends up as it
+     * was.
+     *
+     * @param finalBoard the board after the last move, which must fit
+     *        into a bitboard and hold the moves in its history
+     * @param firstSymbol the symbol of the player who moved first
+     * @param secondSymbol the symbol of the player who moved second
+     * @param moves a buffer whose first {@code count} entries are the
+     *        columns played, in order
+     * @param count the number of moves
+     * @throws IOException if a shard cannot be written
+     */
+    @Override
+    public void archive(final Board finalBoard, final char firstSymbol,
+                        final char secondSymbol, final byte[] moves,
+                        final int count) throws IOException {
+        int firstResult = 0;
+        if (finalBoard.checkWin(firstSymbol)) {
+            firstResult = 1;
+        } else if (finalBoard.checkWin(secondSymbol)) {
+            firstResult = -1;
+        }
+        if (finalBoard.getHistorySize() != count) {
+            throw new IllegalArgumentException("The board does not hold "
+                    + "the " + count + " moves of the game.");
+        }
+        for (int i = 0; i < count; i++) {
+            finalBoard.undoMove();
+        }
+        for (int i = 0; i < count; i++) {
+            int side = i % 2;
+            char symbol = side == 0 ? firstSymbol : secondSymbol;
+            long current = finalBoard.getPieces(symbol);
+            long mask = finalBoard.getMask();
+            long key = current + mask;
+            if (firstSeen(Math.min(key, finalBoard.mirror(key)))) {
+                int score = scorer == null ? TrainingSample.NO_SCORE
+                        : scorer.score(finalBoard, symbol);
+                write(new TrainingSample(current, current ^ mask, i, side,
+                        side == 0 ? firstResult : -firstResult, score),
+                        finalBoard);
+            }
+            finalBoard.dropPiece(moves[i], symbol);
+        }
+    }
+
+    private synchronized boolean firstSeen(final long key) {
+        if (seen.add(key)) {
+            return true;
+        }
+        duplicates++;
+        return false;
+    }
+
+    /**
+     * Appends a sample to the current shard, opening the next shard when
+     * the sample does not fit.
+     *
+     * @param sample the sample
+     * @param board a board of the exported geometry
+     * @throws IOException if a shard cannot be written
+     */
+    private synchronized void write(final TrainingSample sample,
+                                    final Board board) throws IOException {
+        if (shard == null
+                || shardBytes + TrainingSample.RECORD_SIZE > maxShardBytes) {
+            nextShard(board);
+        }
+        if (buffer.remaining() < TrainingSample.RECORD_SIZE) {
+            drain();
+        }
+        sample.encode(buffer);
+        shardBytes += TrainingSample.RECORD_SIZE;
+        written++;
+    }
+
+    private void nextShard(final Board board) throws IOException {
+        closeShard();
+        do {
+            shardIndex++;
+        } while (Files.exists(shardPath(directory, shardIndex)));
+        shard = FileChannel.open(shardPath(directory, shardIndex),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).putShort(VERSION)
+                .putShort((short) TrainingSample.RECORD_SIZE)
+                .put((byte) board.getRowCount())
+                .put((byte) board.getColumnCount())
+                .put((byte) board.getWinLength());
+        while (buffer.position() < HEADER_SIZE) {
+            buffer.put((byte) 0);
+        }
+        shardBytes = HEADER_SIZE;
+        shardCount++;
+    }
+
+    /**
+     * Returns the number of samples written.
+     *
+     * @return the samples written by this writer
+     */
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Returns the number of positions skipped because they were exported
+     * before.
+     *
+     * @return the duplicate positions
+     */
+    public synchronized long getDuplicateCount() {
+        return duplicates;
+    }
+
+    /**
+     * Returns the number of shards written so far.
+     *
+     * @return the shards opened by this writer
+     */
+    public synchronized int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Writes the buffered samples and closes the current shard.
+     *
+     * @throws IOException if the shard cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closeShard();
+    }
+
+    private void closeShard() throws IOException {
+        if (shard == null) {
+            return;
+        }
+        try {
+            drain();
+            shard.force(false);
+        } finally {
+            shard.close();
+            shard = null;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            shard.write(buffer);
+        }
+        buffer.clear();
+    }
+}
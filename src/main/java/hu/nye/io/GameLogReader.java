@@ -0,0 +1,225 @@
+package hu.nye.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the records of a game log written by {@link GameLogWriter} one
+ * at a time.
+ *
+ * <p>The file is read through a fixed buffer, so a log of any size can
+ * be streamed in constant memory. A record cut off at the end of the
+ * file, as left behind by a crash during a write, is reported as an
+ * error rather than silently dropped.</p>
+ */
+public final class GameLogReader implements AutoCloseable {
+
+    /** Identifies game log files ("C4GL"). */
+    static final int MAGIC = 0x4334474C;
+
+    /** The version of the file format. */
+    static final short VERSION = 1;
+
+    /** The size of the file header in bytes. */
+    static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+
+    /** The size of the read buffer in bytes. */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /** The channel of the log file. */
+    private final FileChannel channel;
+
+    /** Bytes read from the channel but not yet decoded. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** Whether the channel has no more bytes. */
+    private boolean endOfFile;
+
+    private GameLogReader(final FileChannel fileChannel) {
+        this.channel = fileChannel;
+        buffer.flip();
+    }
+
+    /**
+     * Opens a game log.
+     *
+     * @param path the log file
+     * @return the reader, positioned before the first record
+     * @throws IOException if the file cannot be read or is not a log
+     */
+    public static GameLogReader open(final Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            checkHeader(channel);
+            channel.position(HEADER_SIZE);
+            return new GameLogReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record, or null after the last one
+     * @throws IOException if the file cannot be read or a record is
+     *         truncated or invalid
+     */
+    public GameRecord read() throws IOException {
+        if (!fill(1)) {
+            return null;
+        }
+        if (!fill(GameRecord.FIXED_SIZE)
+                || !fill(GameRecord.encodedSize(buffer))) {
+            throw new IOException("The last game record is truncated.");
+        }
+        try {
+            return GameRecord.decode(buffer);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid game record: " + e.getMessage(),
+                    e);
+        }
+    }
+
+    /**
+     * Returns the remaining records as a sequential stream, read lazily.
+     * Read errors are thrown as {@link UncheckedIOException}s.
+     *
+     * @return the records
+     */
+    public Stream<GameRecord> stream() {
+        Spliterator<GameRecord> records =
+                new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                        Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(
+                    final Consumer<? super GameRecord> action) {
+                try {
+                    GameRecord record = read();
+                    if (record == null) {
+                        return false;
+                    }
+                    action.accept(record);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(records, false);
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Exports every game of a log in the text format of
+     * {@link hu.nye.model.Board#saveFinalGame(String)}.
+     *
+     * @param log the game log to read
+     * @param text the text file to append the final boards to
+     * @return the number of exported games
+     * @throws IOException if either file cannot be accessed
+     */
+    public static long exportText(final Path log, final Path text)
+            throws IOException {
+        long count = 0;
+        try (GameLogReader reader = open(log);
+             BufferedWriter writer = Files.newBufferedWriter(text,
+                     StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                     StandardOpenOption.APPEND)) {
+            for (GameRecord record = reader.read(); record != null;
+                 record = reader.read()) {
+                record.replay().writeFinalGame(writer);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks the header of a log file.
+     *
+     * @param channel the channel of the file; its position is not used
+     * @throws IOException if the file is not a game log of this version
+     */
+    static void checkHeader(final FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        int read = 0;
+        while (header.hasRemaining() && read >= 0) {
+            read = channel.read(header, header.position());
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a game log file.");
+        }
+        if (header.getShort(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported game log version "
+                    + header.getShort(Integer.BYTES) + ".");
+        }
+    }
+
+    /**
+     * Returns the length of a log up to the end of its last complete
+     * record, skipping over the records without decoding them.
+     *
+     * @param channel the channel of a log whose header was checked; its
+     *        position is moved
+     * @return the offset after the last complete record
+     * @throws IOException if the file cannot be read
+     */
+    static long completeLength(final FileChannel channel) throws IOException {
+        channel.position(HEADER_SIZE);
+        GameLogReader scanner = new GameLogReader(channel);
+        ByteBuffer bytes = scanner.buffer;
+        long end = HEADER_SIZE;
+        while (scanner.fill(GameRecord.FIXED_SIZE)) {
+            int size = GameRecord.encodedSize(bytes);
+            if (!scanner.fill(size)) {
+                break;
+            }
+            bytes.position(bytes.position() + size);
+            end += size;
+        }
+        return end;
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of bytes,
+     * reading more from the channel if needed.
+     *
+     * @param bytes the number of bytes needed
+     * @return false if the file ended first
+     * @throws IOException if the file cannot be read
+     */
+    private boolean fill(final int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (!endOfFile && buffer.position() < bytes) {
+            endOfFile = channel.read(buffer) < 0;
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+}
@@ -0,0 +1,188 @@
+package hu.nye.io;
+
+import hu.nye.model.Board;
+import hu.nye.model.GameArchive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends {@link GameRecord}s to a binary game log.
+ *
+ * <p>A log starts with a {@value GameLogReader#HEADER_SIZE}-byte header,
+ * the magic number and the format version, followed by the encoded
+ * records back to back. Records are collected in a direct buffer and
+ * written with one channel write when it fills up; after every
+ * {@code recordsPerFlush} records the buffer is written and the file
+ * forced to disk, so that a crash loses at most one group. A record
+ * cut off by a crash is removed when the log is opened again, so that
+ * the records appended after it stay readable. Appending is
+ * synchronized, so several self-play threads can share one writer.</p>
+ */
+public final class GameLogWriter implements GameArchive, AutoCloseable {
+
+    /** The default number of records written per forced flush. */
+    public static final int DEFAULT_FLUSH_RECORDS = 4096;
+
+    /** The size of the write buffer in bytes. */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /** The channel of the log file, positioned at its end. */
+    private final FileChannel channel;
+
+    /** Encoded records not yet written to the channel. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** The number of records per forced flush. */
+    private final int flushRecords;
+
+    /** The records appended since the last forced flush. */
+    private int pending;
+
+    /** The records appended by this writer. */
+    private long appended;
+
+    /**
+     * Opens a log for appending with the default flush group size.
+     *
+     * @param path the log file, created if it does not exist
+     * @throws IOException if the file cannot be opened or is not a log
+     */
+    public GameLogWriter(final Path path) throws IOException {
+        this(path, DEFAULT_FLUSH_RECORDS);
+    }
+
+    /**
+     * Opens a log for appending.
+     *
+     * @param path the log file, created if it does not exist
+     * @param recordsPerFlush the number of records after which the
+     *        buffer is written and the file forced to disk
+     * @throws IOException if the file cannot be opened or is not a log
+     */
+    public GameLogWriter(final Path path, final int recordsPerFlush)
+            throws IOException {
+        if (recordsPerFlush < 1) {
+            throw new IllegalArgumentException(
+                    "At least one record must be written per flush.");
+        }
+        this.flushRecords = recordsPerFlush;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(
+                        GameLogReader.HEADER_SIZE);
+                header.putInt(GameLogReader.MAGIC)
+                        .putShort(GameLogReader.VERSION).flip();
+                writeFully(header);
+            } else {
+                GameLogReader.checkHeader(channel);
+                long end = GameLogReader.completeLength(channel);
+                if (end < channel.size()) {
+                    channel.truncate(end);
+                }
+            }
+            channel.position(channel.size());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param record the finished game
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void append(final GameRecord record)
+            throws IOException {
+        if (buffer.remaining() < record.encodedSize()) {
+            drain();
+        }
+        record.encode(buffer);
+        appended++;
+        pending++;
+        if (pending >= flushRecords) {
+            flush();
+        }
+    }
+
+    /**
+     * Appends a record of a game, deriving the outcome from the final
+     * board.
+     *
+     * @param finalBoard the board after the last move
+     * @param firstSymbol the symbol of the player who moved first
+     * @param secondSymbol the symbol of the player who moved second
+     * @param moves a buffer whose first {@code count} entries are the
+     *        columns played, in order
+     * @param count the number of moves
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void archive(final Board finalBoard, final char firstSymbol,
+                        final char secondSymbol, final byte[] moves,
+                        final int count) throws IOException {
+        GameRecord.Outcome outcome = GameRecord.Outcome.UNFINISHED;
+        if (finalBoard.checkWin(firstSymbol)) {
+            outcome = GameRecord.Outcome.FIRST_WINS;
+        } else if (finalBoard.checkWin(secondSymbol)) {
+            outcome = GameRecord.Outcome.SECOND_WINS;
+        } else if (finalBoard.isFull()) {
+            outcome = GameRecord.Outcome.DRAW;
+        }
+        append(GameRecord.of(finalBoard, firstSymbol, secondSymbol, moves,
+                count, outcome));
+    }
+
+    /**
+     * Writes the buffered records and forces the file to disk.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        drain();
+        channel.force(false);
+        pending = 0;
+    }
+
+    /**
+     * Returns the number of records appended through this writer.
+     *
+     * @return the record count
+     */
+    public synchronized long getAppendedCount() {
+        return appended;
+    }
+
+    /**
+     * Flushes the buffered records and closes the file.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(final ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package hu.nye.io;
+
+import hu.nye.model.Board;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A finished game: the board geometry, the symbols of both players, the
+ * columns played from the empty board and the outcome.
+ *
+ * <p>Encoded, a record takes {@value #FIXED_SIZE} bytes plus one byte
+ * per two moves: the rows and columns packed into one byte, the winning
+ * line length and the outcome into another, the two symbols, the number
+ * of moves and then the columns as four-bit values, the first move in
+ * the high half of its byte. A full 6x7 game fits into 26 bytes.</p>
+ *
+ * @param rows the number of rows of the board
+ * @param columns the number of columns of the board
+ * @param winLength the number of consecutive pieces required to win
+ * @param firstSymbol the symbol of the player who moved first
+ * @param secondSymbol the symbol of the player who moved second
+ * @param moves the columns played, in order
+ * @param outcome how the game ended
+ */
+public record GameRecord(int rows, int columns, int winLength,
+                         char firstSymbol, char secondSymbol, byte[] moves,
+                         Outcome outcome) {
+
+    /**
+     * The ways a game can end.
+     */
+    public enum Outcome {
+        /** The player who moved first completed a line. */
+        FIRST_WINS,
+        /** The player who moved second completed a line. */
+        SECOND_WINS,
+        /** The board filled up without a line. */
+        DRAW,
+        /** The game was stopped before it was decided. */
+        UNFINISHED
+    }
+
+    /** The size of a record without its moves in bytes. */
+    static final int FIXED_SIZE = 5;
+
+    /** The number of bits holding one packed value. */
+    private static final int NIBBLE_BITS = 4;
+
+    /** Mask of one packed value. */
+    private static final int NIBBLE_MASK = (1 << NIBBLE_BITS) - 1;
+
+    /** Mask of an unsigned byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** The largest symbol that fits into one byte. */
+    private static final char MAX_SYMBOL = 0xFF;
+
+    /** The outcomes by their encoded ordinal. */
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    /**
+     * Validates the record and copies the moves.
+     *
+     * @param rows the number of rows of the board
+     * @param columns the number of columns of the board
+     * @param winLength the number of consecutive pieces required to win
+     * @param firstSymbol the symbol of the player who moved first
+     * @param secondSymbol the symbol of the player who moved second
+     * @param moves the columns played, in order
+     * @param outcome how the game ended
+     */
+    public GameRecord {
+        if (rows > NIBBLE_MASK || columns > NIBBLE_MASK
+                || winLength > NIBBLE_MASK
+                || moves.length > rows * columns) {
+            throw new IllegalArgumentException("A " + rows + "x" + columns
+                    + " game of " + moves.length
+                    + " moves cannot be recorded.");
+        }
+        if (firstSymbol > MAX_SYMBOL || secondSymbol > MAX_SYMBOL) {
+            throw new IllegalArgumentException(
+                    "Player symbols must fit into one byte.");
+        }
+        moves = moves.clone();
+        for (byte move : moves) {
+            if (move < 0 || move >= columns) {
+                throw new IllegalArgumentException("Column " + move
+                        + " is not on a board of " + columns + " columns.");
+            }
+        }
+    }
+
+    /**
+     * Creates a record of a game played on the given board.
+     *
+     * @param board the board the game was played on
+     * @param firstSymbol the symbol of the player who moved first
+     * @param secondSymbol the symbol of the player who moved second
+     * @param moves a buffer whose first {@code count} entries are the
+     *        columns played
+     * @param count the number of moves
+     * @param outcome how the game ended
+     * @return the record
+     */
+    public static GameRecord of(final Board board, final char firstSymbol,
+                                final char secondSymbol, final byte[] moves,
+                                final int count, final Outcome outcome) {
+        return new GameRecord(board.getRowCount(), board.getColumnCount(),
+                board.getWinLength(), firstSymbol, secondSymbol,
+                Arrays.copyOf(moves, count), outcome);
+    }
+
+    /**
+     * Returns a copy of the columns played.
+     *
+     * @return the moves, in order
+     */
+    @Override
+    public byte[] moves() {
+        return moves.clone();
+    }
+
+    /**
+     * Returns the number of moves played.
+     *
+     * @return the number of moves
+     */
+    public int moveCount() {
+        return moves.length;
+    }
+
+    /**
+     * Plays the game again on a new board.
+     *
+     * @return the final position
+     */
+    public Board replay() {
+        Board board = new Board(rows, columns, winLength);
+        for (int i = 0; i < moves.length; i++) {
+            board.makeMove(moves[i], i % 2 == 0 ? firstSymbol : secondSymbol);
+        }
+        return board;
+    }
+
+    /**
+     * Returns the number of bytes {@link #encode(ByteBuffer)} writes.
+     *
+     * @return the encoded size
+     */
+    int encodedSize() {
+        return FIXED_SIZE + (moves.length + 1) / 2;
+    }
+
+    /**
+     * Writes the record at the position of a buffer.
+     *
+     * @param buffer a buffer with at least {@link #encodedSize()} bytes
+     *        remaining
+     */
+    void encode(final ByteBuffer buffer) {
+        buffer.put((byte) (rows << NIBBLE_BITS | columns))
+                .put((byte) (winLength << NIBBLE_BITS | outcome.ordinal()))
+                .put((byte) firstSymbol)
+                .put((byte) secondSymbol)
+                .put((byte) moves.length);
+        for (int i = 0; i < moves.length; i += 2) {
+            int low = i + 1 < moves.length ? moves[i + 1] : 0;
+            buffer.put((byte) (moves[i] << NIBBLE_BITS | low));
+        }
+    }
+
+    /**
+     * Returns the encoded size of the record starting at the position of
+     * a buffer, which must hold at least {@link #FIXED_SIZE} bytes.
+     *
+     * @param buffer the buffer, whose position is not changed
+     * @return the size of the whole record
+     */
+    static int encodedSize(final ByteBuffer buffer) {
+        int count = buffer.get(buffer.position() + FIXED_SIZE - 1)
+                & BYTE_MASK;
+        return FIXED_SIZE + (count + 1) / 2;
+    }
+
+    /**
+     * Reads a record at the position of a buffer.
+     *
+     * @param buffer a buffer holding a whole encoded record
+     * @return the record
+     * @throws IllegalArgumentException if the bytes are not a valid record
+     */
+    static GameRecord decode(final ByteBuffer buffer) {
+        int geometry = buffer.get() & BYTE_MASK;
+        int lineAndOutcome = buffer.get() & BYTE_MASK;
+        char first = (char) (buffer.get() & BYTE_MASK);
+        char second = (char) (buffer.get() & BYTE_MASK);
+        byte[] moves = new byte[buffer.get() & BYTE_MASK];
+        for (int i = 0; i < moves.length; i += 2) {
+            int packed = buffer.get() & BYTE_MASK;
+            moves[i] = (byte) (packed >>> NIBBLE_BITS);
+            if (i + 1 < moves.length) {
+                moves[i + 1] = (byte) (packed & NIBBLE_MASK);
+            }
+        }
+        int outcome = lineAndOutcome & NIBBLE_MASK;
+        if (outcome >= OUTCOMES.length) {
+            throw new IllegalArgumentException("Unknown outcome " + outcome
+                    + ".");
+        }
+        return new GameRecord(geometry >>> NIBBLE_BITS, geometry & NIBBLE_MASK,
+                lineAndOutcome >>> NIBBLE_BITS, first, second, moves,
+                OUTCOMES[outcome]);
+    }
+
+    /**
+     * Compares the records including the contents of the moves.
+     *
+     * @param other the object to compare with
+     * @return true if both records describe the same game
+     */
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof GameRecord record && sameBoard(record)
+                && sameGame(record);
+    }
+
+    private boolean sameBoard(final GameRecord other) {
+        return rows == other.rows && columns == other.columns
+                && winLength == other.winLength;
+    }
+
+    private boolean sameGame(final GameRecord other) {
+        return firstSymbol == other.firstSymbol
+                && secondSymbol == other.secondSymbol
+                && outcome == other.outcome
+                && Arrays.equals(moves, other.moves);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(rows, columns, winLength, firstSymbol,
+                secondSymbol, outcome, Arrays.hashCode(moves));
+    }
+
+    /**
+     * Returns the geometry, the outcome and the moves as digits.
+     *
+     * @return a readable description
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("GameRecord{")
+                .append(rows).append('x').append(columns)
+                .append(", connect ").append(winLength)
+                .append(", ").append(outcome).append(", moves=");
+        for (byte move : moves) {
+            text.append(Character.forDigit(move, columns));
+        }
+        return text.append('}').toString();
+    }
+}
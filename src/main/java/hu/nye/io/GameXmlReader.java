@@ -0,0 +1,296 @@
+package hu.nye.io;
+
+import hu.nye.model.Player;
+import hu.nye.model.SuspendedGame;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the {@link SuspendedGame}s of a document written by
+ * {@link GameXmlWriter} with a StAX stream reader, one game at a time,
+ * so that archives of any size are scanned in constant memory.
+ */
+public final class GameXmlReader implements AutoCloseable {
+
+    /** Creates the stream readers; external entities are not resolved. */
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    /** The file being read. */
+    private final InputStream input;
+
+    /** Reads the document. */
+    private final XMLStreamReader reader;
+
+    /** Whether the end of the root element was reached. */
+    private boolean finished;
+
+    private GameXmlReader(final InputStream file) throws IOException {
+        this.input = file;
+        try {
+            this.reader = FACTORY.createXMLStreamReader(file);
+            reader.nextTag();
+            if (!GameXmlWriter.ROOT.equals(reader.getLocalName())
+                    || !GameXmlWriter.VERSION.equals(
+                            reader.getAttributeValue(null, "version"))) {
+                throw new IOException("Not a suspended game document of "
+                        + "version " + GameXmlWriter.VERSION + ".");
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                false);
+        return factory;
+    }
+
+    /**
+     * Opens a document.
+     *
+     * @param path the file to read
+     * @return the reader, positioned before the first game
+     * @throws IOException if the file cannot be read or is not a
+     *         suspended game document
+     */
+    public static GameXmlReader open(final Path path) throws IOException {
+        InputStream file = new BufferedInputStream(Files.newInputStream(path));
+        try {
+            return new GameXmlReader(file);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or null after the last one
+     * @throws IOException if the file cannot be read or a game is invalid
+     */
+    public SuspendedGame read() throws IOException {
+        if (finished) {
+            return null;
+        }
+        try {
+            if (reader.nextTag() == XMLStreamConstants.END_ELEMENT) {
+                finished = true;
+                return null;
+            }
+            return readGame();
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid game: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a game element; the reader is on its start tag.
+     *
+     * @return the game
+     * @throws XMLStreamException if the document is malformed
+     */
+    private SuspendedGame readGame() throws XMLStreamException {
+        reader.require(XMLStreamConstants.START_ELEMENT, null,
+                GameXmlWriter.GAME);
+        int rows = intAttribute("rows");
+        int columns = intAttribute("columns");
+        int winLength = intAttribute("connect");
+        boolean humanToMove = GameXmlWriter.HUMAN.equals(
+                reader.getAttributeValue(null, "to-move"));
+        Player human = null;
+        Player computer = null;
+        List<String> cells = new ArrayList<>(rows);
+        List<Integer> moves = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case GameXmlWriter.PLAYER -> {
+                    Player player = new Player(
+                            reader.getAttributeValue(null, "name"),
+                            charAttribute("symbol"));
+                    if (GameXmlWriter.HUMAN.equals(
+                            reader.getAttributeValue(null, "role"))) {
+                        human = player;
+                    } else {
+                        computer = player;
+                    }
+                    reader.nextTag();
+                }
+                case GameXmlWriter.BOARD -> {
+                    while (reader.nextTag()
+                            == XMLStreamConstants.START_ELEMENT) {
+                        cells.add(reader.getElementText());
+                    }
+                }
+                case GameXmlWriter.MOVES -> {
+                    for (String move : reader.getElementText().trim()
+                            .split("\\s+")) {
+                        if (!move.isEmpty()) {
+                            moves.add(Integer.parseInt(move));
+                        }
+                    }
+                }
+                default -> throw new XMLStreamException("Unexpected element "
+                        + reader.getLocalName(), reader.getLocation());
+            }
+        }
+        if (human == null || computer == null) {
+            throw new XMLStreamException("A game needs both players.",
+                    reader.getLocation());
+        }
+        return new SuspendedGame(rows, columns, winLength, human, computer,
+                humanToMove, cells, moves);
+    }
+
+    private int intAttribute(final String name) throws XMLStreamException {
+        try {
+            return Integer.parseInt(reader.getAttributeValue(null, name));
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("Invalid attribute " + name,
+                    reader.getLocation(), e);
+        }
+    }
+
+    private char charAttribute(final String name)
+            throws XMLStreamException {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null || value.length() != 1) {
+            throw new XMLStreamException("Invalid attribute " + name,
+                    reader.getLocation());
+        }
+        return value.charAt(0);
+    }
+
+    /**
+     * Returns the remaining games as a sequential stream, read lazily.
+     * Read errors are thrown as {@link UncheckedIOException}s.
+     *
+     * @return the games
+     */
+    public Stream<SuspendedGame> stream() {
+        Spliterator<SuspendedGame> games =
+                new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                        Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(
+                    final Consumer<? super SuspendedGame> action) {
+                try {
+                    SuspendedGame game = read();
+                    if (game == null) {
+                        return false;
+                    }
+                    action.accept(game);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(games, false);
+    }
+
+    /**
+     * Reads the first game of a document.
+     *
+     * @param path the file to read
+     * @return the game
+     * @throws IOException if the file cannot be read or holds no game
+     */
+    public static SuspendedGame load(final Path path) throws IOException {
+        try (GameXmlReader reader = open(path)) {
+            SuspendedGame game = reader.read();
+            if (game == null) {
+                throw new IOException("No suspended game in '" + path
+                        + "'.");
+            }
+            return game;
+        }
+    }
+
+    /**
+     * Reads the games of many documents in parallel, one document per
+     * task, and checks that every board can be rebuilt.
+     *
+     * @param paths the files to read
+     * @param threads the number of reading threads
+     * @return the games of all documents, in the order of the files
+     * @throws IOException if a file cannot be read or holds an invalid
+     *         game
+     */
+    public static List<SuspendedGame> resumeAll(final List<Path> paths,
+                                                final int threads)
+            throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> paths.parallelStream()
+                    .flatMap(path -> readChecked(path).stream())
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Resuming games was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            throw new IOException("Resuming games failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<SuspendedGame> readChecked(final Path path) {
+        List<SuspendedGame> games = new ArrayList<>();
+        try (GameXmlReader reader = open(path)) {
+            for (SuspendedGame game = reader.read(); game != null;
+                 game = reader.read()) {
+                game.toBoard();
+                games.add(game);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+            throw new UncheckedIOException(new IOException("Invalid game in '"
+                    + path + "': " + e.getMessage(), e));
+        }
+        return games;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot close XML: " + e.getMessage(), e);
+        } finally {
+            input.close();
+        }
+    }
+}
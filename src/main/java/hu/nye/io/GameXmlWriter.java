@@ -0,0 +1,187 @@
+package hu.nye.io;
+
+import hu.nye.model.Player;
+import hu.nye.model.SuspendedGame;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes {@link SuspendedGame}s to an XML document with a StAX stream
+ * writer, one game at a time, so that archives of any size are written
+ * in constant memory.
+ *
+ * <p>The document has the following shape; rows are listed from the top
+ * and moves are the columns played since the game started:</p>
+ * <pre>
+ * &lt;suspended-games version="1"&gt;
+ *   &lt;game rows="6" columns="7" connect="4" to-move="human"&gt;
+ *     &lt;player role="human" name="Alice" symbol="R"/&gt;
+ *     &lt;player role="computer" name="Computer" symbol="Y"/&gt;
+ *     &lt;board&gt;
+ *       &lt;row&gt;-------&lt;/row&gt;
+ *       ...
+ *     &lt;/board&gt;
+ *     &lt;moves&gt;3 3 4&lt;/moves&gt;
+ *   &lt;/game&gt;
+ * &lt;/suspended-games&gt;
+ * </pre>
+ */
+public final class GameXmlWriter implements AutoCloseable {
+
+    /** The version of the document format. */
+    static final String VERSION = "1";
+
+    /** The root element. */
+    static final String ROOT = "suspended-games";
+
+    /** The element of one game. */
+    static final String GAME = "game";
+
+    /** The element of one player. */
+    static final String PLAYER = "player";
+
+    /** The element holding the rows of the board. */
+    static final String BOARD = "board";
+
+    /** The element of one row of the board. */
+    static final String ROW = "row";
+
+    /** The element listing the moves. */
+    static final String MOVES = "moves";
+
+    /** The role of the human player. */
+    static final String HUMAN = "human";
+
+    /** The role of the computer player. */
+    static final String COMPUTER = "computer";
+
+    /** Creates the stream writers. */
+    private static final XMLOutputFactory FACTORY =
+            XMLOutputFactory.newFactory();
+
+    /** The file being written. */
+    private final OutputStream output;
+
+    /** Writes the document. */
+    private final XMLStreamWriter writer;
+
+    /**
+     * Creates a document, replacing the file if it exists.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be created
+     */
+    public GameXmlWriter(final Path path) throws IOException {
+        this.output = new BufferedOutputStream(Files.newOutputStream(path));
+        try {
+            this.writer = FACTORY.createXMLStreamWriter(output,
+                    StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeCharacters("\n");
+            writer.writeStartElement(ROOT);
+            writer.writeAttribute("version", VERSION);
+            writer.writeCharacters("\n");
+        } catch (XMLStreamException e) {
+            output.close();
+            throw new IOException("Cannot write XML: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes one game.
+     *
+     * @param game the game to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(final SuspendedGame game) throws IOException {
+        try {
+            writer.writeCharacters("  ");
+            writer.writeStartElement(GAME);
+            writer.writeAttribute("rows", String.valueOf(game.rows()));
+            writer.writeAttribute("columns", String.valueOf(game.columns()));
+            writer.writeAttribute("connect",
+                    String.valueOf(game.winLength()));
+            writer.writeAttribute("to-move",
+                    game.humanToMove() ? HUMAN : COMPUTER);
+            writePlayer(HUMAN, game.human());
+            writePlayer(COMPUTER, game.computer());
+            writer.writeCharacters("\n    ");
+            writer.writeStartElement(BOARD);
+            for (String row : game.cells()) {
+                writer.writeCharacters("\n      ");
+                writer.writeStartElement(ROW);
+                writer.writeCharacters(row);
+                writer.writeEndElement();
+            }
+            writer.writeCharacters("\n    ");
+            writer.writeEndElement();
+            writer.writeCharacters("\n    ");
+            writer.writeStartElement(MOVES);
+            StringBuilder moves = new StringBuilder();
+            for (int move : game.moves()) {
+                if (!moves.isEmpty()) {
+                    moves.append(' ');
+                }
+                moves.append(move);
+            }
+            writer.writeCharacters(moves.toString());
+            writer.writeEndElement();
+            writer.writeCharacters("\n  ");
+            writer.writeEndElement();
+            writer.writeCharacters("\n");
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write XML: " + e.getMessage(), e);
+        }
+    }
+
+    private void writePlayer(final String role, final Player player)
+            throws XMLStreamException {
+        writer.writeCharacters("\n    ");
+        writer.writeEmptyElement(PLAYER);
+        writer.writeAttribute("role", role);
+        writer.writeAttribute("name", player.name());
+        writer.writeAttribute("symbol", String.valueOf(player.symbol()));
+    }
+
+    /**
+     * Writes one game to a new document.
+     *
+     * @param path the file to write, replaced if it exists
+     * @param game the game to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(final Path path, final SuspendedGame game)
+            throws IOException {
+        try (GameXmlWriter writer = new GameXmlWriter(path)) {
+            writer.write(game);
+        }
+    }
+
+    /**
+     * Ends the document and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.writeEndElement();
+            writer.writeCharacters("\n");
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write XML: " + e.getMessage(), e);
+        } finally {
+            output.close();
+        }
+    }
+}
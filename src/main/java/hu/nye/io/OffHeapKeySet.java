@@ -0,0 +1,120 @@
+package hu.nye.io;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A set of position keys of bounded size, held outside the Java heap so
+ * that hundreds of megabytes of keys add nothing to garbage collection.
+ *
+ * <p>Keys live in an open-addressing table with linear probing. Once the
+ * table is three quarters full it is cleared and starts over, so
+ * duplicates are only recognised within windows of that many distinct
+ * keys. The set is not thread-safe.</p>
+ */
+final class OffHeapKeySet {
+
+    /** The largest table accepted in megabytes. */
+    static final int MAX_MEGABYTES = 1024;
+
+    /** The number of bytes in a megabyte. */
+    private static final int MEGABYTE = 1_048_576;
+
+    /** Spreads the keys over the table (the golden ratio). */
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    /** The share of the slots filled before the table is cleared. */
+    private static final double MAX_LOAD = 0.75;
+
+    /** The slots; 0 marks an empty one, others hold a key plus one. */
+    private final LongBuffer slots;
+
+    /** The number of index bits of the table. */
+    private final int indexBits;
+
+    /** The number of keys after which the table is cleared. */
+    private final int maxSize;
+
+    /** The number of keys in the table. */
+    private int size;
+
+    /** How often the table was cleared. */
+    private long resets;
+
+    /**
+     * Allocates the table.
+     *
+     * @param megabytes the size of the table, rounded down to a power of
+     *        two slots
+     * @throws IllegalArgumentException if the size is not between 1 and
+     *         {@value #MAX_MEGABYTES} megabytes
+     */
+    OffHeapKeySet(final int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("The key set must take "
+                    + "between 1 and " + MAX_MEGABYTES + " MB.");
+        }
+        int slotCount = Integer.highestOneBit(
+                megabytes * (MEGABYTE / Long.BYTES));
+        this.indexBits = Integer.numberOfTrailingZeros(slotCount);
+        this.slots = ByteBuffer.allocateDirect(slotCount * Long.BYTES)
+                .asLongBuffer();
+        this.maxSize = (int) (slotCount * MAX_LOAD);
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key a non-negative position key
+     * @return true if the key was not in the set
+     */
+    boolean add(final long key) {
+        long stored = key + 1;
+        int mask = slots.capacity() - 1;
+        int index = home(stored);
+        for (long slot = slots.get(index); slot != 0;
+             slot = slots.get(index)) {
+            if (slot == stored) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        if (size >= maxSize) {
+            clear();
+            index = home(stored);
+        }
+        slots.put(index, stored);
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the number of keys in the table.
+     *
+     * @return the keys added since the last clear
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns how often the table filled up and was cleared.
+     *
+     * @return the number of clears
+     */
+    long resets() {
+        return resets;
+    }
+
+    private int home(final long stored) {
+        return (int) ((stored * MIX) >>> (Long.SIZE - indexBits));
+    }
+
+    private void clear() {
+        for (int i = 0; i < slots.capacity(); i++) {
+            slots.put(i, 0);
+        }
+        size = 0;
+        resets++;
+    }
+}
@@ -0,0 +1,112 @@
+package hu.nye.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One position of a self-played game, labelled for training an
+ * evaluator.
+ *
+ * <p>Encoded, a sample takes {@value #RECORD_SIZE} big-endian bytes:
+ * the bitboards of the side to move and of its opponent as
+ * {@code long}s, in the layout of
+ * {@link hu.nye.model.Board#getPieces(char)}, then the number of moves
+ * played, the side to move (0 for the player who moved first), the
+ * result and one reserved byte, and finally the score as an
+ * {@code int}.</p>
+ *
+ * @param current the pieces of the side to move
+ * @param opponent the pieces of the other player
+ * @param ply the number of moves played before the position
+ * @param side 0 if the player who moved first is to move, 1 otherwise
+ * @param result the outcome of the game for the side to move: 1 for a
+ *        win, 0 for a draw and -1 for a loss
+ * @param score the solver's score for the side to move, or
+ *        {@link #NO_SCORE}
+ */
+public record TrainingSample(long current, long opponent, int ply,
+                             int side, int result, int score) {
+
+    /** The size of an encoded sample in bytes. */
+    public static final int RECORD_SIZE = 2 * Long.BYTES + 4 + Integer.BYTES;
+
+    /** The score of a sample that was not searched. */
+    public static final int NO_SCORE = Integer.MIN_VALUE;
+
+    /**
+     * Returns whether the position was scored by a search.
+     *
+     * @return true if {@link #score()} holds a score
+     */
+    public boolean hasScore() {
+        return score != NO_SCORE;
+    }
+
+    /**
+     * Writes the sample.
+     *
+     * @param buffer the buffer, with at least {@value #RECORD_SIZE}
+     *        bytes remaining
+     */
+    void encode(final ByteBuffer buffer) {
+        buffer.putLong(current).putLong(opponent).put((byte) ply)
+                .put((byte) side).put((byte) result).put((byte) 0)
+                .putInt(score);
+    }
+
+    /**
+     * Reads a sample.
+     *
+     * @param buffer the buffer, positioned at an encoded sample
+     * @return the sample
+     */
+    static TrainingSample decode(final ByteBuffer buffer) {
+        long current = buffer.getLong();
+        long opponent = buffer.getLong();
+        int ply = Byte.toUnsignedInt(buffer.get());
+        int side = buffer.get();
+        int result = buffer.get();
+        buffer.get();
+        return new TrainingSample(current, opponent, ply, side, result,
+                buffer.getInt());
+    }
+
+    /**
+     * Reads every sample of a shard written by {@link DatasetWriter}.
+     *
+     * @param shard the shard file
+     * @return the samples in file order
+     * @throws IOException if the file cannot be read or is not a shard
+     */
+    public static List<TrainingSample> readShard(final Path shard)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(shard,
+                StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(
+                    Math.toIntExact(channel.size()));
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                continue;
+            }
+            bytes.flip();
+            if (bytes.remaining() < DatasetWriter.HEADER_SIZE
+                    || bytes.getInt() != DatasetWriter.MAGIC
+                    || bytes.getShort() != DatasetWriter.VERSION
+                    || bytes.getShort() != RECORD_SIZE) {
+                throw new IOException("'" + shard
+                        + "' is not a training sample shard.");
+            }
+            bytes.position(DatasetWriter.HEADER_SIZE);
+            List<TrainingSample> samples = new ArrayList<>(
+                    bytes.remaining() / RECORD_SIZE);
+            while (bytes.remaining() >= RECORD_SIZE) {
+                samples.add(decode(bytes));
+            }
+            return samples;
+        }
+    }
+}
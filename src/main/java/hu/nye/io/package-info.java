@@ -0,0 +1,6 @@
+/**
+ * Compact binary storage of finished games and of their positions as
+ * training samples, written and read as streams so that logs of
+ * millions of games never have to fit into memory.
+ */
+package hu.nye.io;
@@ -0,0 +1,66 @@
+package hu.nye.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * Configures Logback in code: messages of level INFO and above go to
+ * the console.
+ *
+ * <p>Logback finds this class through the service loader before it
+ * looks for a {@code logback.xml}. Setting up the appender directly
+ * skips the XML parser and its rule engine, which took a good part of
+ * the startup of a process asking for a single move. An XML
+ * configuration given by the {@code logback.configurationFile} system
+ * property still takes precedence.</p>
+ */
+public final class ConsoleLogConfigurator extends ContextAwareBase
+        implements Configurator {
+
+    /** The layout of a console line. */
+    static final String PATTERN =
+            "%d{HH:mm:ss.SSS} %-5level %logger{20} - %msg%n";
+
+    /** The system property naming an XML configuration. */
+    static final String CONFIG_FILE_PROPERTY = "logback.configurationFile";
+
+    /**
+     * Creates the configurator; called by the service loader.
+     */
+    public ConsoleLogConfigurator() {
+        // Logback passes the context to configure()
+    }
+
+    /**
+     * Attaches a console appender to the root logger, unless an XML
+     * configuration was given.
+     *
+     * @param context the logger context to configure
+     * @return whether Logback should try its other configurators
+     */
+    @Override
+    public ExecutionStatus configure(final LoggerContext context) {
+        if (System.getProperty(CONFIG_FILE_PROPERTY) != null) {
+            return ExecutionStatus.INVOKE_NEXT_IF_ANY;
+        }
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        ConsoleAppender<ILoggingEvent> appender = new ConsoleAppender<>();
+        appender.setContext(context);
+        appender.setName("CONSOLE");
+        appender.setEncoder(encoder);
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        return ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY;
+    }
+}
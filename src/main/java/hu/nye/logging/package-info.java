@@ -0,0 +1,5 @@
+/**
+ * The logging setup of the application, kept out of the startup path of
+ * short-lived invocations.
+ */
+package hu.nye.logging;
@@ -0,0 +1,96 @@
+package hu.nye.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only grows, such as the number of finished games.
+ *
+ * <p>Counting is a {@link LongAdder} increment, so threads counting at
+ * the same time do not contend on one cache line.</p>
+ */
+public final class Counter implements Metric {
+
+    /** The name of the counter. */
+    private final String name;
+
+    /** What the counter counts. */
+    private final String help;
+
+    /** The count. */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Creates a counter.
+     *
+     * @param metricName the name, ending with {@code _total}
+     * @param description what the counter counts
+     */
+    Counter(final String metricName, final String description) {
+        this.name = metricName;
+        this.help = description;
+    }
+
+    /** Adds one. */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Adds a number of events.
+     *
+     * @param events the number to add, not negative
+     */
+    public void add(final long events) {
+        count.add(events);
+    }
+
+    /**
+     * Returns the count.
+     *
+     * @return the sum of everything added
+     */
+    public long get() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the name of the counter.
+     *
+     * @return the name
+     */
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns what the counter counts.
+     *
+     * @return the description
+     */
+    @Override
+    public String help() {
+        return help;
+    }
+
+    /**
+     * Appends the counter as a Prometheus counter.
+     *
+     * @param text the exposition being written
+     */
+    @Override
+    public void appendPrometheus(final StringBuilder text) {
+        MetricsRegistry.appendHeader(text, this, "counter");
+        text.append(name).append(' ').append(get()).append('\n');
+    }
+
+    /**
+     * Appends the count.
+     *
+     * @param text the log line being written
+     */
+    @Override
+    public void appendSummary(final StringBuilder text) {
+        text.append(get());
+    }
+}
@@ -0,0 +1,176 @@
+package hu.nye.metrics;
+
+/**
+ * The metrics of games and searches, recorded only while enabled.
+ *
+ * <p>Metrics are disabled by default. Every recording method first
+ * reads one volatile flag and returns if it is off, and timers started
+ * while disabled do not read the clock, so instrumented code costs a
+ * predictable branch when nobody is looking. Hot loops, such as the
+ * transposition table probes of a search, count into plain fields of
+ * their owner and report the totals once per search.</p>
+ */
+public final class EngineMetrics {
+
+    /** The timer value of a timer started while disabled. */
+    public static final long NOT_TIMED = 0L;
+
+    /** The nanoseconds of a second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /** The registry of the engine metrics. */
+    private static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    /** The time the computer takes to choose a move. */
+    private static final LatencyHistogram MOVE_LATENCY =
+            REGISTRY.histogram("connect4_move_seconds",
+                    "Time the computer takes to choose a move.");
+
+    /** The duration of the searches. */
+    private static final LatencyHistogram SEARCH_TIME =
+            REGISTRY.histogram("connect4_search_seconds",
+                    "Duration of the solver searches.");
+
+    /** The nodes visited by the searches. */
+    private static final Counter SEARCH_NODES =
+            REGISTRY.counter("connect4_search_nodes_total",
+                    "Nodes visited by the solver searches.");
+
+    /** The transposition table probes of the searches. */
+    private static final Counter TABLE_PROBES =
+            REGISTRY.counter("connect4_tt_probes_total",
+                    "Transposition table probes.");
+
+    /** The probes that found their position. */
+    private static final Counter TABLE_HITS =
+            REGISTRY.counter("connect4_tt_hits_total",
+                    "Transposition table probes finding their position.");
+
+    /** The time needed to save a game. */
+    private static final LatencyHistogram SAVE_TIME =
+            REGISTRY.histogram("connect4_save_seconds",
+                    "Time needed to save or record a game.");
+
+    /** The time needed to load a game or a board. */
+    private static final LatencyHistogram LOAD_TIME =
+            REGISTRY.histogram("connect4_load_seconds",
+                    "Time needed to load a board or a suspended game.");
+
+    /** The games played to the end. */
+    private static final Counter GAMES_COMPLETED =
+            REGISTRY.counter("connect4_games_completed_total",
+                    "Games played until a win or a draw.");
+
+    /** Whether metrics are recorded. */
+    private static volatile boolean enabled;
+
+    static {
+        REGISTRY.gauge("connect4_search_nodes_per_second",
+                "Nodes visited per second of search.",
+                () -> rate(SEARCH_NODES.get(),
+                        SEARCH_TIME.totalNanos() / NANOS_PER_SECOND));
+        REGISTRY.gauge("connect4_tt_hit_ratio",
+                "Share of transposition table probes that hit.",
+                () -> rate(TABLE_HITS.get(), TABLE_PROBES.get()));
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private EngineMetrics() {
+        // This constructor is intentionally empty to prevent instantiation.
+    }
+
+    /**
+     * Returns the registry holding the engine metrics.
+     *
+     * @return the registry
+     */
+    public static MetricsRegistry registry() {
+        return REGISTRY;
+    }
+
+    /**
+     * Returns whether metrics are recorded.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off; values recorded so far are kept.
+     *
+     * @param on whether to record metrics
+     */
+    public static void setEnabled(final boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Starts a timer.
+     *
+     * @return the current {@link System#nanoTime()}, or
+     *         {@link #NOT_TIMED} if metrics are disabled
+     */
+    public static long startTimer() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the time the computer took to choose a move.
+     *
+     * @param start the value of {@link #startTimer()} before the choice
+     */
+    public static void moveChosen(final long start) {
+        MOVE_LATENCY.recordSince(start);
+    }
+
+    /**
+     * Records a finished search.
+     *
+     * @param nodes the nodes visited
+     * @param nanos the duration of the search
+     * @param probes the transposition table probes
+     * @param hits the probes that found their position
+     */
+    public static void searchFinished(final long nodes, final long nanos,
+                                      final long probes, final long hits) {
+        if (enabled) {
+            SEARCH_TIME.record(nanos);
+            SEARCH_NODES.add(nodes);
+            TABLE_PROBES.add(probes);
+            TABLE_HITS.add(hits);
+        }
+    }
+
+    /**
+     * Records the time needed to save a game.
+     *
+     * @param start the value of {@link #startTimer()} before saving
+     */
+    public static void gameSaved(final long start) {
+        SAVE_TIME.recordSince(start);
+    }
+
+    /**
+     * Records the time needed to load a game or a board.
+     *
+     * @param start the value of {@link #startTimer()} before loading
+     */
+    public static void gameLoaded(final long start) {
+        LOAD_TIME.recordSince(start);
+    }
+
+    /** Counts a game played until a win or a draw. */
+    public static void gameCompleted() {
+        if (enabled) {
+            GAMES_COMPLETED.increment();
+        }
+    }
+
+    private static double rate(final double count, final double per) {
+        return per > 0 ? count / per : 0;
+    }
+}
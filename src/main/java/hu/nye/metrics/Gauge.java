@@ -0,0 +1,84 @@
+package hu.nye.metrics;
+
+import java.util.Locale;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value computed when it is reported, such as a rate derived from two
+ * counters.
+ */
+public final class Gauge implements Metric {
+
+    /** The name of the gauge. */
+    private final String name;
+
+    /** What the gauge measures. */
+    private final String help;
+
+    /** Computes the value. */
+    private final DoubleSupplier value;
+
+    /**
+     * Creates a gauge.
+     *
+     * @param metricName the name
+     * @param description what the gauge measures
+     * @param supplier computes the value on every report
+     */
+    Gauge(final String metricName, final String description,
+          final DoubleSupplier supplier) {
+        this.name = metricName;
+        this.help = description;
+        this.value = supplier;
+    }
+
+    /**
+     * Returns the current value.
+     *
+     * @return the value computed now
+     */
+    public double get() {
+        return value.getAsDouble();
+    }
+
+    /**
+     * Returns the name of the gauge.
+     *
+     * @return the name
+     */
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns what the gauge measures.
+     *
+     * @return the description
+     */
+    @Override
+    public String help() {
+        return help;
+    }
+
+    /**
+     * Appends the gauge as a Prometheus gauge.
+     *
+     * @param text the exposition being written
+     */
+    @Override
+    public void appendPrometheus(final StringBuilder text) {
+        MetricsRegistry.appendHeader(text, this, "gauge");
+        text.append(name).append(' ').append(get()).append('\n');
+    }
+
+    /**
+     * Appends the value with two decimals.
+     *
+     * @param text the log line being written
+     */
+    @Override
+    public void appendSummary(final StringBuilder text) {
+        text.append(String.format(Locale.ROOT, "%.2f", get()));
+    }
+}
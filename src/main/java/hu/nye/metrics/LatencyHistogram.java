@@ -0,0 +1,217 @@
+package hu.nye.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in a log-linear histogram of nanoseconds, in the
+ * manner of HdrHistogram.
+ *
+ * <p>Every power of two is split into {@value #SUB_BUCKETS} buckets, so
+ * a reported percentile is at most 12.5% below the true value, whatever
+ * its magnitude. Recording is two atomic additions and never allocates,
+ * so any thread can record its own durations.</p>
+ */
+public final class LatencyHistogram implements Metric {
+
+    /** The number of buckets per power of two. */
+    private static final int SUB_BUCKETS = 8;
+
+    /** The bits selecting a bucket within a power of two. */
+    private static final int SUB_BITS = 3;
+
+    /** The number of buckets, enough for any {@code long}. */
+    private static final int BUCKETS = Long.SIZE * SUB_BUCKETS;
+
+    /** The percentage of a percentile of all values. */
+    private static final double HUNDRED = 100.0;
+
+    /** The percentiles reported, in percent. */
+    private static final double[] REPORTED = {50, 90, 99};
+
+    /** The nanoseconds of a second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /** The name of the histogram. */
+    private final String name;
+
+    /** What the histogram measures. */
+    private final String help;
+
+    /** The number of durations in each bucket. */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /** The sum of the recorded durations in nanoseconds. */
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Creates a histogram.
+     *
+     * @param metricName the name, ending with {@code _seconds}
+     * @param description what the histogram measures
+     */
+    public LatencyHistogram(final String metricName,
+                            final String description) {
+        this.name = metricName;
+        this.help = description;
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds; negative durations, from
+     *        a clock running backwards, count as 0
+     */
+    public void record(final long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        total.add(value);
+    }
+
+    /**
+     * Records the time since a timer was started.
+     *
+     * @param startNanos the {@link System#nanoTime()} the timer was
+     *        started at, or {@link EngineMetrics#NOT_TIMED} to record
+     *        nothing
+     */
+    public void recordSince(final long startNanos) {
+        if (startNanos != EngineMetrics.NOT_TIMED) {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the count
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the recorded durations.
+     *
+     * @return the total in nanoseconds
+     */
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    /**
+     * Returns a percentile of the recorded durations.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the lower bound of the bucket holding the percentile in
+     *         nanoseconds, or 0 if nothing was recorded
+     */
+    public long percentile(final double percentile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        long rank = (long) Math.ceil(percentile / HUNDRED * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return lowerBound(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the bucket of a duration.
+     *
+     * @param nanos the duration, not negative
+     * @return the bucket index
+     */
+    static int bucketOf(final long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the smallest duration of a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the lower bound
+     */
+    static long lowerBound(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+
+    /**
+     * Returns the name of the histogram.
+     *
+     * @return the name
+     */
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns what the histogram measures.
+     *
+     * @return the description
+     */
+    @Override
+    public String help() {
+        return help;
+    }
+
+    /**
+     * Appends the histogram as a Prometheus summary in seconds, with the
+     * reported percentiles as quantiles.
+     *
+     * @param text the exposition being written
+     */
+    @Override
+    public void appendPrometheus(final StringBuilder text) {
+        MetricsRegistry.appendHeader(text, this, "summary");
+        for (double percentile : REPORTED) {
+            text.append(name).append("{quantile=\"")
+                    .append(percentile / HUNDRED).append("\"} ")
+                    .append(percentile(percentile) / NANOS_PER_SECOND)
+                    .append('\n');
+        }
+        text.append(name).append("_sum ")
+                .append(totalNanos() / NANOS_PER_SECOND).append('\n');
+        text.append(name).append("_count ").append(count()).append('\n');
+    }
+
+    /**
+     * Appends the count and the reported percentiles in milliseconds.
+     *
+     * @param text the log line being written
+     */
+    @Override
+    public void appendSummary(final StringBuilder text) {
+        text.append("n=").append(count());
+        for (double percentile : REPORTED) {
+            text.append(String.format(Locale.ROOT, " p%.0f=%.3fms",
+                    percentile, percentile(percentile)
+                            / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+    }
+}
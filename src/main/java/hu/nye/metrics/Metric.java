@@ -0,0 +1,36 @@
+package hu.nye.metrics;
+
+/**
+ * A named value of a {@link MetricsRegistry}.
+ */
+public interface Metric {
+
+    /**
+     * Returns the name of the metric in the Prometheus exposition format.
+     *
+     * @return the name, such as {@code connect4_games_completed_total}
+     */
+    String name();
+
+    /**
+     * Returns what the metric measures.
+     *
+     * @return a one-line description
+     */
+    String help();
+
+    /**
+     * Appends the metric in the Prometheus text format, including its
+     * {@code HELP} and {@code TYPE} lines.
+     *
+     * @param text the exposition being written
+     */
+    void appendPrometheus(StringBuilder text);
+
+    /**
+     * Appends the current value in a short form for the log line.
+     *
+     * @param text the log line being written
+     */
+    void appendSummary(StringBuilder text);
+}
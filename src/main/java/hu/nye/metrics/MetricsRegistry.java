@@ -0,0 +1,144 @@
+package hu.nye.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds the metrics of an application and renders them as a log line or
+ * as the Prometheus text exposition format.
+ *
+ * <p>Metrics are created once, usually into static fields, and updated
+ * directly; the registry is only consulted when a report is written.</p>
+ */
+public final class MetricsRegistry {
+
+    /** The metrics in the order they were created. */
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    /** The metrics by name, to reject duplicates. */
+    private final Map<String, Metric> names = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a counter.
+     *
+     * @param name the unique name, ending with {@code _total}
+     * @param help what the counter counts
+     * @return the new counter
+     * @throws IllegalArgumentException if the name is taken
+     */
+    public Counter counter(final String name, final String help) {
+        return register(new Counter(name, help));
+    }
+
+    /**
+     * Creates a latency histogram.
+     *
+     * @param name the unique name, ending with {@code _seconds}
+     * @param help what the histogram measures
+     * @return the new histogram
+     * @throws IllegalArgumentException if the name is taken
+     */
+    public LatencyHistogram histogram(final String name, final String help) {
+        return register(new LatencyHistogram(name, help));
+    }
+
+    /**
+     * Creates a gauge computed on every report.
+     *
+     * @param name the unique name
+     * @param help what the gauge measures
+     * @param value computes the value
+     * @return the new gauge
+     * @throws IllegalArgumentException if the name is taken
+     */
+    public Gauge gauge(final String name, final String help,
+                       final DoubleSupplier value) {
+        return register(new Gauge(name, help, value));
+    }
+
+    private <M extends Metric> M register(final M metric) {
+        if (names.putIfAbsent(metric.name(), metric) != null) {
+            throw new IllegalArgumentException("The metric "
+                    + metric.name() + " already exists.");
+        }
+        metrics.add(metric);
+        return metric;
+    }
+
+    /**
+     * Returns the metrics in the order they were created.
+     *
+     * @return an unmodifiable snapshot of the metrics
+     */
+    public List<Metric> metrics() {
+        return List.copyOf(metrics);
+    }
+
+    /**
+     * Renders every metric on one line, for a log.
+     *
+     * @return the metrics as {@code name=value} pairs
+     */
+    public String summary() {
+        StringBuilder text = new StringBuilder();
+        for (Metric metric : metrics) {
+            if (!text.isEmpty()) {
+                text.append(", ");
+            }
+            text.append(metric.name()).append('=');
+            metric.appendSummary(text);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format.
+     *
+     * @return the exposition
+     */
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        for (Metric metric : metrics) {
+            metric.appendPrometheus(text);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the Prometheus exposition to a file, replacing it
+     * atomically so that a collector never reads a partial file.
+     *
+     * @param path the file to write, for example in the text file
+     *        directory of the node exporter
+     * @throws IOException if the file cannot be written
+     */
+    public void writePrometheus(final Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temporary, toPrometheus(), StandardCharsets.UTF_8);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Appends the {@code HELP} and {@code TYPE} lines of a metric.
+     *
+     * @param text the exposition being written
+     * @param metric the metric
+     * @param type the Prometheus type of the metric
+     */
+    static void appendHeader(final StringBuilder text, final Metric metric,
+                             final String type) {
+        text.append("# HELP ").append(metric.name()).append(' ')
+                .append(metric.help()).append('\n');
+        text.append("# TYPE ").append(metric.name()).append(' ')
+                .append(type).append('\n');
+    }
+}
@@ -0,0 +1,86 @@
+package hu.nye.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the metrics of a registry periodically: as one log line, and
+ * as a Prometheus text file if one is given. A last report is written
+ * when the reporter is closed.
+ */
+public final class MetricsReporter implements AutoCloseable {
+
+    /** Logs the reports. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(MetricsReporter.class);
+
+    /** The reported metrics. */
+    private final MetricsRegistry registry;
+
+    /** The Prometheus text file, or null to only log the metrics. */
+    private final Path prometheusFile;
+
+    /** Writes the reports in the background. */
+    private final ScheduledExecutorService reporter;
+
+    /**
+     * Starts reporting.
+     *
+     * @param metrics the metrics to report
+     * @param file the Prometheus text file to replace on every report,
+     *        or null to only log the metrics
+     * @param intervalMillis the time between two reports
+     */
+    public MetricsReporter(final MetricsRegistry metrics, final Path file,
+                           final long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException(
+                    "The report interval must be positive.");
+        }
+        this.registry = metrics;
+        this.prometheusFile = file;
+        this.reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleWithFixedDelay(this::report, intervalMillis,
+                intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Logs the metrics and writes the Prometheus file now; a file that
+     * cannot be written is logged and retried on the next report.
+     */
+    public void report() {
+        LOGGER.info("Metrics: {}", registry.summary());
+        if (prometheusFile != null) {
+            try {
+                registry.writePrometheus(prometheusFile);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write metrics to {}: {}",
+                        prometheusFile, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic reports and writes a last one.
+     */
+    @Override
+    public void close() {
+        reporter.shutdown();
+        try {
+            reporter.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+    }
+}
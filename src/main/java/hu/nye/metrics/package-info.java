@@ -0,0 +1,5 @@
+/**
+ * Counters and latency histograms of the engine, reported as a log line
+ * and as a Prometheus text file.
+ */
+package hu.nye.metrics;
@@ -7,34 +7,212 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Represents a Connect Four game board.
+ *
+ * <p>The number of rows, the number of columns and the length of a
+ * winning line are chosen when the board is created; the default
+ * constructor builds the standard 6x7 four-in-a-row board.</p>
+ *
+ * <p>Boards whose cells fit into a {@code long} are stored as
+ * bitboards: one {@code long} per player symbol plus a mask of the
+ * occupied cells. Every column uses {@code rows + 1} consecutive bits,
+ * bottom cell first, and the extra sentinel bit on top of each column is
+ * never set. This keeps moves, column-full checks, undo and win
+ * detection O(1) shift-and-mask operations. Larger boards keep one
+ * {@code int} of bits per column and player instead, bottom cell in bit
+ * 0, and find lines by combining neighbouring columns. The
+ * {@code char[][]} views returned by {@link #getBoard()} and
+ * {@link #getRow(int)} are materialized lazily in both cases.</p>
+ *
+ * <p>The columns of the pieces dropped since the board was cleared or
+ * loaded are kept on a primitive move stack, so {@link #undoMove()}
+ * takes back the last move. Together with {@link #copyInto(Board)},
+ * {@link #snapshot()} and the legal-move cursor
+ * {@link #nextLegalMove(int)}, this lets lookahead and playouts reuse
+ * one board per thread instead of creating a board per position.</p>
  */
 public final class Board {
+    /** The number of rows of the standard board. */
+    public static final int DEFAULT_ROWS = 6;
+
+    /** The number of columns of the standard board. */
+    public static final int DEFAULT_COLUMNS = 7;
+
+    /** The number of consecutive pieces required to win by default. */
+    public static final int DEFAULT_WIN_LENGTH = 4;
+
+    /** The smallest number of rows or columns of a board. */
+    public static final int MIN_SIZE = 4;
+
+    /** The largest number of rows or columns of a board. */
+    public static final int MAX_SIZE = 12;
+
+    /** The shortest winning line a board can be played with. */
+    private static final int MIN_WIN_LENGTH = 2;
+
+    /** The symbol representing an empty slot on the board. */
+    private static final char EMPTY_SLOT = '-';
+
+    /** The number of player symbols a board can hold. */
+    private static final int PLAYER_SLOTS = 2;
+
+    /** The odd constant spreading the piece keys, as in SplitMix64. */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** The first multiplier of the SplitMix64 finalizer. */
+    private static final long MIX_1 = 0xbf58476d1ce4e5b9L;
+
+    /** The second multiplier of the SplitMix64 finalizer. */
+    private static final long MIX_2 = 0x94d049bb133111ebL;
+
+    /** The first shift of the SplitMix64 finalizer. */
+    private static final int SHIFT_1 = 30;
+
+    /** The second shift of the SplitMix64 finalizer. */
+    private static final int SHIFT_2 = 27;
+
+    /** The last shift of the SplitMix64 finalizer. */
+    private static final int SHIFT_3 = 31;
+
+    /** The bits of a piece key holding the player symbol. */
+    private static final int SYMBOL_BITS = Character.SIZE;
+
     /** The number of rows on the game board. */
-    private static final int ROWS = 6;
+    private final int rows;
 
     /** The number of columns on the game board. */
-    private static final int COLS = 7;
+    private final int cols;
 
     /** The number of consecutive pieces required to win. */
-    private static final int WIN_SEQUENCE = 4;
+    private final int winLength;
 
-    /** The symbol representing an empty slot on the board. */
-    private static final char EMPTY_SLOT = '-';
+    /** The number of bits used by one column, including the sentinel. */
+    private final int height;
+
+    /** The bits of a single column occupied by real cells. */
+    private final long columnMask;
+
+    /** The bottom cell of every column. */
+    private final long bottomMask;
 
-    /** The 2D array representing the game board. */
-    private final char[][] board;
+    /** The top cell of every column. */
+    private final long topMask;
+
+    /** The discs of each player symbol, indexed by slot. */
+    private final long[] discs = new long[PLAYER_SLOTS];
 
     /**
-     * Initializes an empty board.
+     * The discs of each player symbol by slot and column on boards too
+     * large for a bitboard, or null on bitboard boards.
+     */
+    private final int[][] columnDiscs;
+
+    /**
+     * The number of pieces in each column on boards too large for a
+     * bitboard, or null on bitboard boards.
+     */
+    private final int[] heights;
+
+    /** The player symbol assigned to each slot. */
+    private final char[] symbols = {EMPTY_SLOT, EMPTY_SLOT};
+
+    /** The occupied cells of the board. */
+    private long mask;
+
+    /** The Zobrist hash of the pieces, see {@link #getHash()}. */
+    private long hash;
+
+    /** The Zobrist hash of the pieces mirrored at the center column. */
+    private long mirrorHash;
+
+    /** The columns dropped into since the board was cleared or loaded. */
+    private final byte[] history;
+
+    /** The number of moves on the move stack. */
+    private int historySize;
+
+    /** The lazily materialized character view of the board. */
+    private char[][] view;
+
+    /** Whether the character view is out of date. */
+    private boolean viewStale = true;
+
+    /** Prints the board for {@link #display()}, created on first use. */
+    private ConsoleRenderer consoleRenderer;
+
+    /**
+     * Initializes an empty standard board.
      */
     public Board() {
-        board = new char[ROWS][COLS];
-        for (char[] row : board) {
-            Arrays.fill(row, EMPTY_SLOT);
+        this(DEFAULT_ROWS, DEFAULT_COLUMNS, DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Initializes an empty board of the given geometry.
+     *
+     * @param rowCount the number of rows
+     * @param columnCount the number of columns
+     * @param lineLength the number of consecutive pieces required to win
+     * @throws IllegalArgumentException if a size is outside
+     *         {@value #MIN_SIZE}..{@value #MAX_SIZE} or no line of the
+     *         given length fits on the board
+     */
+    public Board(final int rowCount, final int columnCount,
+                 final int lineLength) {
+        this(rowCount, columnCount, lineLength,
+                columnCount * (rowCount + 1) <= Long.SIZE);
+    }
+
+    /**
+     * Initializes an empty board, choosing the representation explicitly
+     * so that tests can compare both on the same geometry.
+     *
+     * @param rowCount the number of rows
+     * @param columnCount the number of columns
+     * @param lineLength the number of consecutive pieces required to win
+     * @param packed whether to use bitboards, which requires
+     *        {@code columnCount * (rowCount + 1) <= 64}
+     */
+    Board(final int rowCount, final int columnCount, final int lineLength,
+          final boolean packed) {
+        if (rowCount < MIN_SIZE || rowCount > MAX_SIZE
+                || columnCount < MIN_SIZE || columnCount > MAX_SIZE) {
+            throw new IllegalArgumentException("A board must have "
+                    + MIN_SIZE + " to " + MAX_SIZE + " rows and columns, "
+                    + "not " + rowCount + "x" + columnCount + ".");
         }
+        if (lineLength < MIN_WIN_LENGTH
+                || lineLength > Math.max(rowCount, columnCount)) {
+            throw new IllegalArgumentException("A winning line of "
+                    + lineLength + " does not fit on a " + rowCount + "x"
+                    + columnCount + " board.");
+        }
+        if (packed && columnCount * (rowCount + 1) > Long.SIZE) {
+            throw new IllegalArgumentException("A " + rowCount + "x"
+                    + columnCount + " board does not fit into a bitboard.");
+        }
+        this.rows = rowCount;
+        this.cols = columnCount;
+        this.winLength = lineLength;
+        this.height = rowCount + 1;
+        this.columnMask = (1L << rowCount) - 1;
+        long bottom = 0;
+        if (packed) {
+            for (int col = 0; col < columnCount; col++) {
+                bottom |= 1L << (col * height);
+            }
+            this.columnDiscs = null;
+            this.heights = null;
+        } else {
+            this.columnDiscs = new int[PLAYER_SLOTS][columnCount];
+            this.heights = new int[columnCount];
+        }
+        this.bottomMask = bottom;
+        this.topMask = bottom << (rowCount - 1);
+        this.history = new byte[rowCount * columnCount];
     }
 
     /**
@@ -54,30 +232,68 @@ public final class Board {
             if (reader == null) {
                 System.out.println("No initial board file found. "
                         + "Starting with an empty board.");
-                // Initialize the board with empty cells
-                for (int row = 0; row < ROWS; row++) {
-                    Arrays.fill(board[row], '-'); // Use '-' for empty cells
-                }
+                clear();
                 return;
             }
 
-            for (int i = 0; i < ROWS; i++) {
+            for (int i = 0; i < rows; i++) {
                 String line = reader.readLine();
                 if (line != null) {
                     line = line.trim();  // Remove any extra whitespace
-                    if (line.length() == COLS) {
-                        board[i] = line.toCharArray();
+                    if (line.length() == cols) {
+                        setRow(i, line);
                     } else {
                         System.out.println("Invalid row length at line "
-                                + (i + 1) + ". Expected " + COLS
+                                + (i + 1) + ". Expected " + cols
                                 + " characters, but found " + line.length());
                     }
                 } else {
-                    // If line is null, fill the
-                    // rest of the board with empty cells
-                    Arrays.fill(board[i], '-');
+                    // If line is null, clear the rest of the board
+                    clearRow(i);
                 }
             }
+            if (hasFloatingPiece()) {
+                System.out.println("The initial board has pieces above "
+                        + "empty cells. Starting with an empty board.");
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Replaces the contents of the board, for example to resume a saved
+     * game. Unlike {@link #loadInitialBoard(String)} it rejects lines
+     * that do not fit the board instead of skipping them.
+     *
+     * @param lines the symbols of every row, top row first, one per
+     *        column
+     * @throws IllegalArgumentException if the lines do not match the
+     *         geometry, hold more than two player symbols or a piece
+     *         above an empty cell
+     */
+    public void setCells(final List<String> lines) {
+        if (lines.size() != rows) {
+            throw new IllegalArgumentException("Expected " + rows
+                    + " rows, but found " + lines.size() + ".");
+        }
+        clear();
+        for (int i = 0; i < rows; i++) {
+            String line = lines.get(i);
+            if (line.length() != cols) {
+                throw new IllegalArgumentException("Invalid row length at "
+                        + "line " + (i + 1) + ". Expected " + cols
+                        + " characters, but found " + line.length());
+            }
+            try {
+                setRow(i, line);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+        if (hasFloatingPiece()) {
+            clear();
+            throw new IllegalArgumentException(
+                    "A piece is above an empty cell.");
         }
     }
 
@@ -91,13 +307,26 @@ public final class Board {
             throws IOException {
         try (BufferedWriter writer =
                      new BufferedWriter(new FileWriter(filePath, true))) {
-            for (int i = 0; i < ROWS; i++) {
-                writer.write(new String(board[i]));
-                writer.newLine();
-            }
-            // Indicates the end of a game
-            writer.write("====\n");
+            writeFinalGame(writer);
+        }
+    }
+
+    /**
+     * Writes the board in the text format of {@link #saveFinalGame},
+     * so that many games can be written through one open writer.
+     *
+     * @param writer the writer to append the board to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeFinalGame(final BufferedWriter writer)
+            throws IOException {
+        char[][] cells = getBoard();
+        for (int i = 0; i < rows; i++) {
+            writer.write(cells[i]);
+            writer.newLine();
         }
+        // Indicates the end of a game
+        writer.write("====\n");
     }
 
     /**
@@ -108,13 +337,196 @@ public final class Board {
      * @return true if the move fails (column is full), false otherwise
      */
     public boolean makeMove(final int col, final char playerSymbol) {
-        for (int i = ROWS - 1; i >= 0; i--) {
-            if (board[i][col] == EMPTY_SLOT) {
-                board[i][col] = playerSymbol;
-                return false;
+        return dropPiece(col, playerSymbol) < 0;
+    }
+
+    /**
+     * Drops a piece into the specified column for the given player
+     * and reports where it landed, so the caller can pass the cell to
+     * {@link #checkWinAt(int, int)}.
+     *
+     * @param col the column to place the piece
+     * @param playerSymbol the symbol representing the player
+     * @return the row the piece landed in (0 being the top row),
+     *         or -1 if the column is full
+     */
+    public int dropPiece(final int col, final char playerSymbol) {
+        checkColumn(col);
+        if (heights != null) {
+            return dropWide(col, playerSymbol);
+        }
+        long move = (mask + bottomCell(col)) & columnCells(col);
+        if (move == 0) {
+            return -1;  // If the column is full
+        }
+        discs[slotFor(playerSymbol)] |= move;
+        mask |= move;
+        int level = Long.numberOfTrailingZeros(move) - col * height;
+        togglePiece(col, level, playerSymbol);
+        history[historySize++] = (byte) col;
+        viewStale = true;
+        return rows - 1 - level;
+    }
+
+    private int dropWide(final int col, final char playerSymbol) {
+        if (heights[col] == rows) {
+            return -1;
+        }
+        columnDiscs[slotFor(playerSymbol)][col] |= 1 << heights[col];
+        togglePiece(col, heights[col], playerSymbol);
+        heights[col]++;
+        history[historySize++] = (byte) col;
+        viewStale = true;
+        return rows - heights[col];
+    }
+
+    /**
+     * Takes back the last move played since the board was cleared or
+     * loaded, without allocating.
+     *
+     * @return true if the undo fails (no move was played), false
+     *         otherwise
+     */
+    public boolean undoMove() {
+        return historySize == 0 || undoMove(history[historySize - 1]);
+    }
+
+    /**
+     * Removes the topmost piece from the specified column.
+     * This is the inverse of {@link #makeMove(int, char)} and does not
+     * allocate, so it can be used to unmake moves during lookahead.
+     *
+     * @param col the column to remove the piece from
+     * @return true if the undo fails (column is empty), false otherwise
+     */
+    public boolean undoMove(final int col) {
+        checkColumn(col);
+        if (heights != null) {
+            if (heights[col] == 0) {
+                return true;
+            }
+            heights[col]--;
+            togglePiece(col, heights[col],
+                    symbols[slotAt(col, heights[col])]);
+            columnDiscs[0][col] &= ~(1 << heights[col]);
+            columnDiscs[1][col] &= ~(1 << heights[col]);
+            forgetMove(col);
+            viewStale = true;
+            return false;
+        }
+        long column = mask & columnCells(col);
+        if (column == 0) {
+            return true;
+        }
+        long top = Long.highestOneBit(column);
+        togglePiece(col, Long.numberOfTrailingZeros(top) - col * height,
+                symbols[(discs[0] & top) != 0 ? 0 : 1]);
+        mask &= ~top;
+        discs[0] &= ~top;
+        discs[1] &= ~top;
+        forgetMove(col);
+        viewStale = true;
+        return false;
+    }
+
+    /**
+     * Removes the latest move into a column from the move stack; usually
+     * it is the top of the stack.
+     *
+     * @param col the column whose top piece was removed
+     */
+    private void forgetMove(final int col) {
+        for (int i = historySize - 1; i >= 0; i--) {
+            if (history[i] == col) {
+                System.arraycopy(history, i + 1, history, i,
+                        historySize - 1 - i);
+                historySize--;
+                return;
             }
         }
-        return true;  // If the column is full
+    }
+
+    /**
+     * Returns the number of moves on the move stack, the moves played
+     * since the board was cleared or loaded and not taken back.
+     *
+     * @return the length of the move history
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * Returns a move of the move history.
+     *
+     * @param index the index of the move, 0 for the first one
+     * @return the column played
+     * @throws IndexOutOfBoundsException if there is no such move
+     */
+    public int getHistoryMove(final int index) {
+        if (index < 0 || index >= historySize) {
+            throw new IndexOutOfBoundsException("Move " + index
+                    + " out of bounds for " + historySize + " moves");
+        }
+        return history[index];
+    }
+
+    /**
+     * Returns the first column at or after the given one that is not
+     * full. Iterating with
+     * {@code for (int c = b.nextLegalMove(0); c >= 0;
+     * c = b.nextLegalMove(c + 1))} visits every legal move without
+     * allocating.
+     *
+     * @param fromColumn the first column to consider
+     * @return the column, or -1 if no later column can be played
+     */
+    public int nextLegalMove(final int fromColumn) {
+        if (fromColumn >= cols) {
+            return -1;
+        }
+        int from = Math.max(0, fromColumn);
+        if (heights != null) {
+            for (int col = from; col < cols; col++) {
+                if (heights[col] < rows) {
+                    return col;
+                }
+            }
+            return -1;
+        }
+        long open = topMask & ~mask & (-1L << (from * height));
+        return open == 0 ? -1 : Long.numberOfTrailingZeros(open) / height;
+    }
+
+    /**
+     * Writes every legal move into an array, in column order, without
+     * allocating.
+     *
+     * @param target the array receiving the columns; must hold one
+     *        entry per column
+     * @return the number of legal moves written
+     */
+    public int getLegalMoves(final int[] target) {
+        int count = 0;
+        for (int col = nextLegalMove(0); col >= 0;
+             col = nextLegalMove(col + 1)) {
+            target[count++] = col;
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the specified column is full.
+     *
+     * @param col the column to check
+     * @return true if no more pieces fit into the column, false otherwise
+     */
+    public boolean isColumnFull(final int col) {
+        checkColumn(col);
+        if (heights != null) {
+            return heights[col] == rows;
+        }
+        return ((mask + bottomCell(col)) & columnCells(col)) == 0;
     }
 
     /**
@@ -123,9 +535,111 @@ public final class Board {
      * @return true if the board is full, false otherwise
      */
     public boolean isFull() {
-        for (int i = 0; i < COLS; i++) {
-            if (board[0][i] == EMPTY_SLOT) {
-                return false;
+        if (heights != null) {
+            for (int count : heights) {
+                if (count < rows) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return (mask & topMask) == topMask;
+    }
+
+    /**
+     * Removes every piece and forgets the player symbols, so that one
+     * board can be reused for many games.
+     */
+    public void clear() {
+        mask = 0;
+        discs[0] = 0;
+        discs[1] = 0;
+        if (heights != null) {
+            Arrays.fill(heights, 0);
+            Arrays.fill(columnDiscs[0], 0);
+            Arrays.fill(columnDiscs[1], 0);
+        }
+        symbols[0] = EMPTY_SLOT;
+        symbols[1] = EMPTY_SLOT;
+        hash = 0;
+        mirrorHash = 0;
+        historySize = 0;
+        viewStale = true;
+    }
+
+    /**
+     * Copies the pieces and player symbols of this board into another
+     * board of the same geometry without allocating, so that one scratch
+     * board can be reset to the current position over and over.
+     *
+     * @param target the board to overwrite
+     * @throws IllegalArgumentException if the geometries differ
+     */
+    public void copyInto(final Board target) {
+        if (target.rows != rows || target.cols != cols
+                || target.winLength != winLength
+                || (target.heights == null) != (heights == null)) {
+            throw new IllegalArgumentException("Cannot copy a " + rows + "x"
+                    + cols + " board into a " + target.rows + "x"
+                    + target.cols + " board.");
+        }
+        target.mask = mask;
+        target.discs[0] = discs[0];
+        target.discs[1] = discs[1];
+        if (heights != null) {
+            System.arraycopy(heights, 0, target.heights, 0, cols);
+            System.arraycopy(columnDiscs[0], 0, target.columnDiscs[0], 0, cols);
+            System.arraycopy(columnDiscs[1], 0, target.columnDiscs[1], 0, cols);
+        }
+        target.symbols[0] = symbols[0];
+        target.symbols[1] = symbols[1];
+        target.hash = hash;
+        target.mirrorHash = mirrorHash;
+        System.arraycopy(history, 0, target.history, 0, historySize);
+        target.historySize = historySize;
+        target.viewStale = true;
+    }
+
+    /**
+     * Creates a board of the same geometry holding the same position and
+     * move history.
+     *
+     * @return an independent copy
+     */
+    public Board copy() {
+        Board copy = new Board(rows, cols, winLength, heights == null);
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Captures the position in an immutable snapshot, which can be kept
+     * while this board changes and restored later.
+     *
+     * @return the snapshot
+     */
+    public BoardSnapshot snapshot() {
+        return new BoardSnapshot(copy());
+    }
+
+    /**
+     * Returns whether another board holds the same pieces on the same
+     * geometry, whichever symbol slots and move order produced them.
+     * Nothing is allocated.
+     *
+     * @param other the board to compare with
+     * @return true if every cell holds the same symbol
+     */
+    public boolean samePosition(final Board other) {
+        if (other.rows != rows || other.cols != cols
+                || other.winLength != winLength || other.hash != hash) {
+            return false;
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (cellAt(row, col) != other.cellAt(row, col)) {
+                    return false;
+                }
             }
         }
         return true;
@@ -133,14 +647,31 @@ public final class Board {
 
     /**
      * Displays the current state of the board.
+     *
+     * @deprecated show the board through the {@link GameRenderer} of the
+     *             game instead, which also works without a console
      */
+    @Deprecated
     public void display() {
-        System.out.println("Current board:");
-        for (int i = 0; i < ROWS; i++) {
-            for (int j = 0; j < COLS; j++) {
-                System.out.print(board[i][j] + " ");
+        if (consoleRenderer == null) {
+            consoleRenderer = new ConsoleRenderer(System.out);
+        }
+        consoleRenderer.showBoard(this);
+    }
+
+    /**
+     * Appends the board as text, one line per row from the top with a
+     * space after every cell.
+     *
+     * @param frame the buffer to append to
+     */
+    public void appendTo(final StringBuilder frame) {
+        char[][] cells = getBoard();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                frame.append(cells[i][j]).append(' ');
             }
-            System.out.println();
+            frame.append(System.lineSeparator());
         }
     }
 
@@ -151,87 +682,238 @@ public final class Board {
      * @return true if the player has won, false otherwise
      */
     public boolean checkWin(final char playerSymbol) {
-        return checkHorizontalWin(playerSymbol)
-                || checkVerticalWin(playerSymbol)
-                || checkDiagonalWinAscending(playerSymbol)
-                || checkDiagonalWinDescending(playerSymbol);
+        int slot = slotOf(playerSymbol);
+        if (slot < 0) {
+            return false;
+        }
+        return heights != null ? hasWinningSequence(columnDiscs[slot])
+                : hasWinningSequence(discs[slot]);
     }
 
-    private boolean checkHorizontalWin(final char playerSymbol) {
-        for (int row = 0; row < ROWS; row++) {
-            for (int col = 0; col <= COLS - WIN_SEQUENCE; col++) {
-                if (checkWinningSequence(row, col, playerSymbol, 0, 1)) {
-                    return true;
-                }
-            }
+    /**
+     * Checks if the piece in the given cell is part of a winning sequence.
+     * Only the four lines through the cell are examined, in both
+     * directions, so any occupied cell may be given. After a move
+     * this is cheaper than {@link #checkWin(char)} and gives the same
+     * answer for the player who moved.
+     *
+     * @param row the row of the cell, 0 being the top row
+     * @param col the column of the cell
+     * @return true if the cell's owner has won through it, false otherwise
+     *         (including when the cell is empty)
+     */
+    public boolean checkWinAt(final int row, final int col) {
+        if (row < 0 || row >= rows) {
+            throw new ArrayIndexOutOfBoundsException("Index " + row
+                    + " out of bounds for length " + rows);
         }
-        return false;
+        checkColumn(col);
+        if (heights != null) {
+            return checkWinAtWide(rows - 1 - row, col);
+        }
+        long cell = cellBit(row, col);
+        long pieces;
+        if ((discs[0] & cell) != 0) {
+            pieces = discs[0];
+        } else if ((discs[1] & cell) != 0) {
+            pieces = discs[1];
+        } else {
+            return false;
+        }
+        return isLineThrough(pieces, cell, 1)
+                || isLineThrough(pieces, cell, height)
+                || isLineThrough(pieces, cell, height - 1)
+                || isLineThrough(pieces, cell, height + 1);
     }
 
-    private boolean checkVerticalWin(final char playerSymbol) {
-        for (int row = 0; row <= ROWS - WIN_SEQUENCE; row++) {
-            for (int col = 0; col < COLS; col++) {
-                if (checkWinningSequence(row, col, playerSymbol, 1, 0)) {
-                    return true;
-                }
-            }
+    private boolean isLineThrough(final long pieces, final long cell,
+                                  final int shift) {
+        return runAbove(pieces, cell, shift)
+                + runBelow(pieces, cell, shift) >= winLength - 1;
+    }
+
+    /**
+     * Counts the pieces following a cell towards higher bit indices.
+     *
+     * @param pieces the bitboard of a single player
+     * @param cell the starting cell, not counted
+     * @param shift the bit distance between neighbours on the line
+     * @return the length of the run, capped at {@code winLength - 1}
+     */
+    private int runAbove(final long pieces, final long cell,
+                         final int shift) {
+        int count = 0;
+        long probe = cell << shift;
+        while (count < winLength - 1 && (pieces & probe) != 0) {
+            count++;
+            probe <<= shift;
         }
-        return false;
+        return count;
     }
 
-    private boolean checkDiagonalWinDescending(final char playerSymbol) {
-        for (int row = 0; row <= ROWS - WIN_SEQUENCE; row++) {
-            for (int col = 0; col <= COLS - WIN_SEQUENCE; col++) {
-                if (checkWinningSequence(row, col, playerSymbol, 1, 1)) {
-                    return true;
-                }
-            }
+    /**
+     * Counts the pieces following a cell towards lower bit indices.
+     *
+     * @param pieces the bitboard of a single player
+     * @param cell the starting cell, not counted
+     * @param shift the bit distance between neighbours on the line
+     * @return the length of the run, capped at {@code winLength - 1}
+     */
+    private int runBelow(final long pieces, final long cell,
+                         final int shift) {
+        int count = 0;
+        long probe = cell >>> shift;
+        while (count < winLength - 1 && (pieces & probe) != 0) {
+            count++;
+            probe >>>= shift;
         }
-        return false;
+        return count;
     }
 
-    private boolean checkDiagonalWinAscending(final char playerSymbol) {
-        for (int row = WIN_SEQUENCE - 1; row < ROWS; row++) {
-            for (int col = 0; col <= COLS - WIN_SEQUENCE; col++) {
-                if (checkWinningSequence(row, col, playerSymbol, -1, 1)) {
-                    return true;
-                }
+    /**
+     * Checks whether a bitboard contains a winning sequence.
+     *
+     * @param pieces the bitboard of a single player
+     * @return true if the pieces contain a winning sequence
+     */
+    private boolean hasWinningSequence(final long pieces) {
+        return runStarts(pieces, 1) != 0              // vertical
+                || runStarts(pieces, height) != 0     // horizontal
+                || runStarts(pieces, height - 1) != 0 // diagonal ascending
+                || runStarts(pieces, height + 1) != 0; // diagonal descending
+    }
+
+    /**
+     * Finds the cells starting a run of {@code winLength} pieces in one
+     * direction. The run length doubles with every shift-and-mask step,
+     * and a final step covers the rest, so four in a row takes two steps
+     * and twelve in a row four. Four in a row, by far the most common,
+     * skips the loop.
+     *
+     * @param pieces the pieces of a single player
+     * @param shift the bit distance between neighbours on the line
+     * @return the cells starting a winning run
+     */
+    private long runStarts(final long pieces, final int shift) {
+        if (winLength == DEFAULT_WIN_LENGTH) {
+            long pairs = pieces & (pieces >>> shift);
+            return pairs & (pairs >>> (2 * shift));
+        }
+        long starts = pieces;
+        int length = 1;
+        while (length * 2 <= winLength) {
+            starts &= starts >>> (length * shift);
+            length *= 2;
+        }
+        if (length < winLength) {
+            starts &= starts >>> ((winLength - length) * shift);
+        }
+        return starts;
+    }
+
+    /**
+     * Checks whether the columns of a player on a large board contain a
+     * winning sequence. Shifting column {@code c + i} by {@code i} bits
+     * lines its diagonal neighbours up with column {@code c}.
+     *
+     * @param pieces the bits of a single player by column
+     * @return true if the pieces contain a winning sequence
+     */
+    private boolean hasWinningSequence(final int[] pieces) {
+        for (int col = 0; col < cols; col++) {
+            if (runStarts(pieces[col], 1) != 0) {
+                return true;
+            }
+        }
+        for (int col = 0; col + winLength <= cols; col++) {
+            int horizontal = pieces[col];
+            int ascending = pieces[col];
+            int descending = pieces[col];
+            for (int i = 1; i < winLength; i++) {
+                horizontal &= pieces[col + i];
+                ascending &= pieces[col + i] >>> i;
+                descending &= pieces[col + i] << i;
+            }
+            if ((horizontal | ascending | descending) != 0) {
+                return true;
             }
         }
         return false;
     }
 
+    private boolean checkWinAtWide(final int level, final int col) {
+        int bit = 1 << level;
+        int[] pieces;
+        if ((columnDiscs[0][col] & bit) != 0) {
+            pieces = columnDiscs[0];
+        } else if ((columnDiscs[1][col] & bit) != 0) {
+            pieces = columnDiscs[1];
+        } else {
+            return false;
+        }
+        return run(pieces, col, level, 0, 1)
+                + run(pieces, col, level, 0, -1) >= winLength - 1
+                || isLineThrough(pieces, col, level, 0)
+                || isLineThrough(pieces, col, level, 1)
+                || isLineThrough(pieces, col, level, -1);
+    }
+
+    private boolean isLineThrough(final int[] pieces, final int col,
+                                  final int level, final int rise) {
+        return run(pieces, col, level, 1, rise)
+                + run(pieces, col, level, -1, -rise) >= winLength - 1;
+    }
+
     /**
-     * Checks for a winning sequence in the specified direction.
+     * Counts the pieces following a cell of a large board in one
+     * direction.
      *
-     * @param startRow The starting row of the sequence.
-     * @param startCol The starting column of the sequence.
-     * @param playerSymbol The symbol of the player.
-     * @param rowIncrement The increment for the row.
-     * @param colIncrement The increment for the column.
-     * @return true if a winning sequence is found, false otherwise.
+     * @param pieces the bits of a single player by column
+     * @param col the column of the starting cell, not counted
+     * @param level the height of the starting cell, 0 being the bottom
+     * @param step the column distance between neighbours on the line
+     * @param rise the height distance between neighbours on the line
+     * @return the length of the run, capped at {@code winLength - 1}
      */
-    private boolean checkWinningSequence(final int startRow, final int startCol,
-                                         final char playerSymbol,
-                                         final int rowIncrement,
-                                         final int colIncrement) {
-        for (int i = 0; i < WIN_SEQUENCE; i++) {
-            int currentRow = startRow + (i * rowIncrement);
-            int currentCol = startCol + (i * colIncrement);
-            if (board[currentRow][currentCol] != playerSymbol) {
-                return false;
-            }
+    private int run(final int[] pieces, final int col, final int level,
+                    final int step, final int rise) {
+        int count = 0;
+        int c = col + step;
+        int r = level + rise;
+        while (count < winLength - 1 && isOccupied(pieces, c, r)) {
+            count++;
+            c += step;
+            r += rise;
         }
-        return true;
+        return count;
+    }
+
+    private boolean isOccupied(final int[] pieces, final int col,
+                               final int level) {
+        return col >= 0 && col < cols && level >= 0
+                && (pieces[col] & (1 << level)) != 0;
     }
 
     /**
      * Returns the current state of the board for testing.
+     * The returned array is a view materialized from the bitboards;
+     * writing into it does not change the board.
      *
      * @return a 2D char array representing the board
      */
     public char[][] getBoard() {
-        return this.board;
+        if (view == null) {
+            view = new char[rows][cols];
+        }
+        if (viewStale) {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    view[i][j] = cellAt(i, j);
+                }
+            }
+            viewStale = false;
+        }
+        return view;
     }
 
     /**
@@ -242,10 +924,384 @@ public final class Board {
      * @throws ArrayIndexOutOfBoundsException if the index is out of bounds.
      */
     public char[] getRow(final int i) {
-        if (i < 0 || i >= board.length) {
+        if (i < 0 || i >= rows) {
             throw new ArrayIndexOutOfBoundsException("Index " + i + " out of"
-                    + " bounds for length " + board.length);
+                    + " bounds for length " + rows);
+        }
+        return getBoard()[i];
+    }
+
+    /**
+     * Returns the number of rows on the board.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns on the board.
+     *
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of consecutive pieces required to win.
+     *
+     * @return the length of a winning sequence
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Returns the number of pieces on the board.
+     *
+     * @return the number of moves played
+     */
+    public int getMoveCount() {
+        if (heights == null) {
+            return Long.bitCount(mask);
+        }
+        int count = 0;
+        for (int pieces : heights) {
+            count += pieces;
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether the board is stored as bitboards, which
+     * {@link #getPieces(char)} and {@link #getMask()} require.
+     *
+     * @return true if the cells fit into a {@code long}
+     */
+    public boolean isBitboard() {
+        return heights == null;
+    }
+
+    /**
+     * Returns the bitboard of the given player's pieces.
+     * Column {@code c} occupies bits {@code c * (rows + 1)} to
+     * {@code c * (rows + 1) + rows - 1}, bottom cell first; the bit
+     * above each column is always clear.
+     *
+     * @param playerSymbol the symbol representing the player
+     * @return the player's pieces, or 0 if the symbol is not on the board
+     * @throws UnsupportedOperationException if the board is too large for
+     *         a bitboard
+     */
+    public long getPieces(final char playerSymbol) {
+        requireBitboard();
+        int slot = slotOf(playerSymbol);
+        return slot >= 0 ? discs[slot] : 0;
+    }
+
+    /**
+     * Returns the bitboard of all occupied cells, in the layout
+     * described at {@link #getPieces(char)}.
+     *
+     * @return the occupied cells
+     * @throws UnsupportedOperationException if the board is too large for
+     *         a bitboard
+     */
+    public long getMask() {
+        requireBitboard();
+        return mask;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position, maintained incrementally
+     * by every move and undo. Each piece contributes a key derived from
+     * its cell and symbol, so equal positions have equal hashes however
+     * they were reached, on every board of the same geometry and in
+     * every run.
+     *
+     * @return the position hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns a hash that is equal for a position and its mirror image
+     * at the center column, which have the same value and mirrored best
+     * moves. Keying a lookup structure by it stores mirrored positions
+     * only once.
+     *
+     * @return the smaller of the hashes of the position and its mirror
+     *         image
+     */
+    public long getCanonicalHash() {
+        return Math.min(hash, mirrorHash);
+    }
+
+    /**
+     * Returns whether the position is stored mirrored under its
+     * {@link #getCanonicalHash() canonical hash}, so that columns read
+     * from or written to a structure keyed by it must be mirrored with
+     * {@link #mirrorColumn(int)}.
+     *
+     * @return true if the mirror image is the canonical position
+     */
+    public boolean isCanonicalMirrored() {
+        return mirrorHash < hash;
+    }
+
+    /**
+     * Returns the column a move is mirrored to at the center column.
+     *
+     * @param col the column
+     * @return the mirrored column
+     */
+    public int mirrorColumn(final int col) {
+        checkColumn(col);
+        return cols - 1 - col;
+    }
+
+    /**
+     * Mirrors a bitboard in the layout of {@link #getPieces(char)} at the
+     * center column, for example to fold exact position keys built from
+     * {@link #getPieces(char)} and {@link #getMask()} together.
+     *
+     * @param bits the bitboard to mirror
+     * @return the mirrored bitboard
+     * @throws UnsupportedOperationException if the board is too large for
+     *         a bitboard
+     */
+    public long mirror(final long bits) {
+        requireBitboard();
+        long columnBits = (1L << height) - 1;
+        long mirrored = 0;
+        for (int col = 0; col < cols; col++) {
+            mirrored |= ((bits >>> (col * height)) & columnBits)
+                    << ((cols - 1 - col) * height);
         }
-        return board[i];
+        return mirrored;
+    }
+
+    /**
+     * Adds or removes a piece from both hashes.
+     *
+     * @param col the column of the piece
+     * @param level the height of the piece in its column, 0 at the bottom
+     * @param symbol the symbol of the piece
+     */
+    private void togglePiece(final int col, final int level,
+                             final char symbol) {
+        hash ^= pieceKey(col, level, symbol);
+        mirrorHash ^= pieceKey(cols - 1 - col, level, symbol);
+    }
+
+    /**
+     * Recomputes both hashes after cells were set without moves, which
+     * also empties the move stack.
+     */
+    private void rehash() {
+        historySize = 0;
+        hash = 0;
+        mirrorHash = 0;
+        for (int col = 0; col < cols; col++) {
+            for (int level = 0; level < rows; level++) {
+                int slot = slotAt(col, level);
+                if (slot >= 0) {
+                    togglePiece(col, level, symbols[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of the piece in a cell.
+     *
+     * @param col the column of the cell
+     * @param level the height of the cell in its column, 0 at the bottom
+     * @return the slot, or -1 if the cell is empty
+     */
+    private int slotAt(final int col, final int level) {
+        for (int slot = 0; slot < PLAYER_SLOTS; slot++) {
+            boolean set = heights != null
+                    ? (columnDiscs[slot][col] & (1 << level)) != 0
+                    : (discs[slot] & (1L << (col * height + level))) != 0;
+            if (set) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the Zobrist key of a piece, computed rather than looked up
+     * so that it does not depend on the geometry or a random seed.
+     *
+     * @param col the column of the piece
+     * @param level the height of the piece in its column, 0 at the bottom
+     * @param symbol the symbol of the piece
+     * @return the key
+     */
+    private static long pieceKey(final int col, final int level,
+                                 final char symbol) {
+        long cell = (long) col * MAX_SIZE + level;
+        long z = ((cell << SYMBOL_BITS) | symbol) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> SHIFT_1)) * MIX_1;
+        z = (z ^ (z >>> SHIFT_2)) * MIX_2;
+        return z ^ (z >>> SHIFT_3);
+    }
+
+    private void requireBitboard() {
+        if (heights != null) {
+            throw new UnsupportedOperationException("A " + rows + "x" + cols
+                    + " board does not fit into a bitboard.");
+        }
+    }
+
+    /**
+     * Returns the symbol in the given cell.
+     *
+     * @param row the row index, 0 being the top row
+     * @param col the column index
+     * @return the player symbol or the empty slot symbol
+     */
+    private char cellAt(final int row, final int col) {
+        for (int slot = 0; slot < PLAYER_SLOTS; slot++) {
+            boolean occupied = heights != null
+                    ? (columnDiscs[slot][col] & (1 << (rows - 1 - row))) != 0
+                    : (discs[slot] & cellBit(row, col)) != 0;
+            if (occupied) {
+                return symbols[slot];
+            }
+        }
+        return EMPTY_SLOT;
+    }
+
+    /**
+     * Replaces the contents of a row with the given symbols.
+     *
+     * @param row the row index, 0 being the top row
+     * @param line the symbols of the row, one per column
+     * @throws IOException if the line contains more than two player symbols
+     */
+    private void setRow(final int row, final String line) throws IOException {
+        clearRow(row);
+        for (int col = 0; col < cols; col++) {
+            char symbol = line.charAt(col);
+            if (symbol == EMPTY_SLOT) {
+                continue;
+            }
+            int slot;
+            try {
+                slot = slotFor(symbol);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            if (heights != null) {
+                // Gravity is checked once the whole board is set
+                columnDiscs[slot][col] |= 1 << (rows - 1 - row);
+                heights[col] = Math.max(heights[col], rows - row);
+            } else {
+                discs[slot] |= cellBit(row, col);
+                mask |= cellBit(row, col);
+            }
+        }
+        rehash();
+    }
+
+    /**
+     * Checks whether a loaded column holds a piece above an empty cell,
+     * which moves could not have produced. Drops land above the highest
+     * piece in the wide layout but on the lowest empty cell in the
+     * bitboard, so such boards are rejected instead.
+     *
+     * @return true if some column is not filled from the bottom
+     */
+    private boolean hasFloatingPiece() {
+        for (int col = 0; col < cols; col++) {
+            long filled = heights != null
+                    ? columnDiscs[0][col] | columnDiscs[1][col]
+                    : (mask & columnCells(col)) >>> (col * height);
+            if ((filled & (filled + 1)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clearRow(final int row) {
+        if (heights != null) {
+            int bit = 1 << (rows - 1 - row);
+            for (int col = 0; col < cols; col++) {
+                columnDiscs[0][col] &= ~bit;
+                columnDiscs[1][col] &= ~bit;
+                heights[col] = Integer.SIZE - Integer.numberOfLeadingZeros(
+                        columnDiscs[0][col] | columnDiscs[1][col]);
+            }
+        } else {
+            long cells = bottomMask << (rows - 1 - row);
+            mask &= ~cells;
+            discs[0] &= ~cells;
+            discs[1] &= ~cells;
+        }
+        rehash();
+        viewStale = true;
+    }
+
+    /**
+     * Returns the slot of a player symbol, assigning a free one if needed.
+     *
+     * @param symbol the player symbol
+     * @return the slot index
+     * @throws IllegalArgumentException if the symbol cannot be stored
+     */
+    private int slotFor(final char symbol) {
+        int slot = slotOf(symbol);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (symbol == EMPTY_SLOT) {
+            throw new IllegalArgumentException("The empty slot symbol '"
+                    + EMPTY_SLOT + "' cannot be used as a player symbol.");
+        }
+        for (int i = 0; i < PLAYER_SLOTS; i++) {
+            if (symbols[i] == EMPTY_SLOT) {
+                symbols[i] = symbol;
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported player symbol '"
+                + symbol + "': the board already holds '" + symbols[0]
+                + "' and '" + symbols[1] + "'.");
+    }
+
+    private int slotOf(final char symbol) {
+        if (symbol == EMPTY_SLOT) {
+            return -1;
+        }
+        if (symbols[0] == symbol) {
+            return 0;
+        }
+        return symbols[1] == symbol ? 1 : -1;
+    }
+
+    private void checkColumn(final int col) {
+        if (col < 0 || col >= cols) {
+            throw new ArrayIndexOutOfBoundsException("Index " + col
+                    + " out of bounds for length " + cols);
+        }
+    }
+
+    private long cellBit(final int row, final int col) {
+        return 1L << (col * height + rows - 1 - row);
+    }
+
+    private long bottomCell(final int col) {
+        return 1L << (col * height);
+    }
+
+    private long columnCells(final int col) {
+        return columnMask << (col * height);
     }
 }
@@ -0,0 +1,111 @@
+package hu.nye.model;
+
+/**
+ * An immutable copy of a {@link Board}'s position and move history,
+ * taken with {@link Board#snapshot()}.
+ *
+ * <p>A snapshot can be kept while the board it was taken from goes on,
+ * shared between threads, and restored into any board of the same
+ * geometry. Snapshots are equal when they hold the same pieces.</p>
+ */
+public final class BoardSnapshot {
+
+    /** The private copy of the board, never changed after creation. */
+    private final Board board;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param copy a copy of the board that nobody else references
+     */
+    BoardSnapshot(final Board copy) {
+        this.board = copy;
+    }
+
+    /**
+     * Returns the number of rows of the board.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return board.getRowCount();
+    }
+
+    /**
+     * Returns the number of columns of the board.
+     *
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return board.getColumnCount();
+    }
+
+    /**
+     * Returns the number of consecutive pieces required to win.
+     *
+     * @return the length of a winning line
+     */
+    public int getWinLength() {
+        return board.getWinLength();
+    }
+
+    /**
+     * Returns the number of pieces in the position.
+     *
+     * @return the number of moves played
+     */
+    public int getMoveCount() {
+        return board.getMoveCount();
+    }
+
+    /**
+     * Returns the Zobrist hash of the position.
+     *
+     * @return the hash, as {@link Board#getHash()}
+     */
+    public long getHash() {
+        return board.getHash();
+    }
+
+    /**
+     * Overwrites a board with the position and move history of the
+     * snapshot without allocating.
+     *
+     * @param target the board to overwrite
+     * @throws IllegalArgumentException if the geometries differ
+     */
+    public void restoreInto(final Board target) {
+        board.copyInto(target);
+    }
+
+    /**
+     * Creates a new board holding the position of the snapshot.
+     *
+     * @return a board that can be played on
+     */
+    public Board toBoard() {
+        return board.copy();
+    }
+
+    /**
+     * Returns whether another snapshot holds the same pieces.
+     *
+     * @param other the object to compare with
+     * @return true for a snapshot of the same position
+     */
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof BoardSnapshot snapshot
+                && board.samePosition(snapshot.board);
+    }
+
+    /**
+     * Returns a hash code derived from the position hash.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(board.getHash());
+    }
+}
@@ -0,0 +1,65 @@
+package hu.nye.model;
+
+import java.io.PrintStream;
+import java.util.Scanner;
+
+/**
+ * Asks the player for moves on the console until a valid column or the
+ * save command is entered.
+ */
+public final class ConsoleMoveSource implements MoveSource {
+
+    /** The input that suspends the game instead of making a move. */
+    static final String SAVE_COMMAND = "save";
+
+    /** Scanner to read player input from the console. */
+    private final Scanner inputScanner;
+
+    /** The console showing the prompts. */
+    private final PrintStream out;
+
+    /**
+     * Creates a source reading from the console.
+     *
+     * @param scanner a scanner for reading input
+     * @param console the console to prompt on, such as {@link System#out}
+     */
+    public ConsoleMoveSource(final Scanner scanner,
+                             final PrintStream console) {
+        this.inputScanner = scanner;
+        this.out = console;
+    }
+
+    /**
+     * Prompts the player to enter a valid column number for their move.
+     *
+     * @param board the current game board
+     * @param player the player to move
+     * @return the column number selected by the player, or
+     *         {@link #SUSPEND} if the player typed the save command
+     */
+    @Override
+    public int nextMove(final Board board, final Player player) {
+        int maxColumn = board.getColumnCount() - 1;
+        while (true) {
+            try {
+                out.print("Enter column (0-" + maxColumn + ") "
+                        + "to make your move, or '" + SAVE_COMMAND
+                        + "' to suspend the game: ");
+                int col = inputScanner.nextInt();
+                if (col >= 0 && col <= maxColumn) {
+                    return col;
+                }
+                out.println("Invalid column. Please enter "
+                        + "a number between 0 and " + maxColumn + ".");
+            } catch (Exception e) {
+                // Clear the invalid input
+                if (SAVE_COMMAND.equalsIgnoreCase(inputScanner.next())) {
+                    return SUSPEND;
+                }
+                out.println("Invalid input. Please enter a "
+                        + "valid number between 0 and " + maxColumn + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package hu.nye.model;
+
+import java.io.PrintStream;
+
+/**
+ * Prints the game to a console.
+ *
+ * <p>Each board is built in a frame buffer that is reused between moves
+ * and printed with a single write, rather than with one synchronized
+ * print call per cell.</p>
+ */
+public final class ConsoleRenderer implements GameRenderer {
+
+    /** The console to print to. */
+    private final PrintStream out;
+
+    /** The text of the board being printed. */
+    private final StringBuilder frame = new StringBuilder();
+
+    /**
+     * Creates a renderer.
+     *
+     * @param console the console to print to, such as {@link System#out}
+     */
+    public ConsoleRenderer(final PrintStream console) {
+        this.out = console;
+    }
+
+    /**
+     * Prints the board, one row per line from the top.
+     *
+     * @param board the current game board
+     */
+    @Override
+    public void showBoard(final Board board) {
+        frame.setLength(0);
+        frame.append("Current board:").append(System.lineSeparator());
+        board.appendTo(frame);
+        out.append(frame);
+        out.flush();
+    }
+
+    /**
+     * Prints the message on its own line.
+     *
+     * @param message the message without a line terminator
+     */
+    @Override
+    public void showMessage(final String message) {
+        out.println(message);
+    }
+}
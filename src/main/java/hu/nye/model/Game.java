@@ -1,6 +1,10 @@
 package hu.nye.model;
 
+import hu.nye.metrics.EngineMetrics;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
 
@@ -8,14 +12,20 @@ import java.util.Scanner;
  * Represents the game logic for a connect-four style game.
  * Handles player and computer turns,
  * checks for a winner, and saves or loads the game state.
+ *
+ * <p>The human player's moves come from a {@link MoveSource} and the
+ * game is shown by a {@link GameRenderer}, so a game can be played
+ * without a console, for example from a script and with rendering
+ * disabled.</p>
+ *
+ * <p>The computer's move latency, the time needed to save and load
+ * games and the number of finished games are recorded in the
+ * {@link EngineMetrics} while they are enabled.</p>
  */
 public final class Game {
 
-    /** The number of columns in the game board. */
-    private static final int BOARD_COLUMNS = 7;
-
-    /** The maximum column index allowed for moves. */
-    private static final int COLUMN_RANGE = 6;
+    /** The board file loaded for the standard geometry. */
+    private static final String INPUT_FILE = "board_input.txt";
 
     /** The game board where moves are made. */
     private final Board gameBoard;
@@ -26,11 +36,44 @@ public final class Game {
     /** The computer opponent in the game. */
     private final Player computerPlayer;
 
-    /** Scanner to read player input from the console. */
-    private final Scanner inputScanner;
+    /** Supplies the human player's moves. */
+    private final MoveSource moveSource;
+
+    /** Shows the board and the messages of the game. */
+    private final GameRenderer renderer;
+
+    /** Strategy deciding the computer's moves. */
+    private final MoveStrategy computerStrategy;
+
+    /** The row where the last piece landed. */
+    private int lastMoveRow;
+
+    /** The column where the last piece was dropped. */
+    private int lastMoveColumn;
+
+    /** Where finished games are stored, or null to save them as text. */
+    private final GameArchive gameArchive;
+
+    /** The columns played so far, in order. */
+    private final byte[] moveHistory;
+
+    /** Counts the wins of the players, or null. */
+    private final ScoreKeeper scoreKeeper;
+
+    /** The number of moves played so far. */
+    private int moveCount;
 
-    /** Random number generator to decide the computer's moves. */
-    private final Random randomGenerator;
+    /** Whether the game started from an empty board. */
+    private boolean startedEmpty;
+
+    /** Whether the human player moves first when the game starts. */
+    private boolean humanStarts = true;
+
+    /** Whether {@link #start()} continues the moves played so far. */
+    private boolean continuing;
+
+    /** Whether the player suspended the game. */
+    private boolean suspended;
 
     /**
      * Constructs a new Game object.
@@ -42,12 +85,85 @@ public final class Game {
      */
     public Game(final Player player, final Board board,
                 final Scanner scanner, final Random random) {
+        this(player, board, scanner, new RandomMoveStrategy(random));
+    }
+
+    /**
+     * Constructs a new Game object with a custom computer player.
+     *
+     * @param player the player of the game
+     * @param board the game board
+     * @param scanner a scanner for reading input
+     * @param strategy the strategy deciding the computer's moves
+     */
+    public Game(final Player player, final Board board,
+                final Scanner scanner, final MoveStrategy strategy) {
+        this(player, board, scanner, strategy, null);
+    }
+
+    /**
+     * Constructs a new Game object that stores finished games in an
+     * archive instead of the text file.
+     *
+     * @param player the player of the game
+     * @param board the game board
+     * @param scanner a scanner for reading input
+     * @param strategy the strategy deciding the computer's moves
+     * @param archive where finished games are stored, or null to save
+     *        them to 'saved_game.txt'
+     */
+    public Game(final Player player, final Board board,
+                final Scanner scanner, final MoveStrategy strategy,
+                final GameArchive archive) {
+        this(player, board, scanner, strategy, archive, null);
+    }
+
+    /**
+     * Constructs a new Game object that also counts the winner's
+     * victories.
+     *
+     * @param player the player of the game
+     * @param board the game board
+     * @param scanner a scanner for reading input
+     * @param strategy the strategy deciding the computer's moves
+     * @param archive where finished games are stored, or null to save
+     *        them to 'saved_game.txt'
+     * @param scores counts the wins of the players, or null
+     */
+    public Game(final Player player, final Board board,
+                final Scanner scanner, final MoveStrategy strategy,
+                final GameArchive archive, final ScoreKeeper scores) {
+        this(player, board, new ConsoleMoveSource(scanner, System.out),
+                new ConsoleRenderer(System.out), strategy, archive, scores);
+    }
+
+    /**
+     * Constructs a new Game object with custom input and output.
+     *
+     * @param player the player of the game
+     * @param board the game board
+     * @param moves supplies the player's moves
+     * @param display shows the board and the messages of the game
+     * @param strategy the strategy deciding the computer's moves
+     * @param archive where finished games are stored, or null to save
+     *        them to 'saved_game.txt'
+     * @param scores counts the wins of the players, or null
+     */
+    public Game(final Player player, final Board board,
+                final MoveSource moves, final GameRenderer display,
+                final MoveStrategy strategy, final GameArchive archive,
+                final ScoreKeeper scores) {
         // Assigning the parameters to the instance fields
         this.gameBoard = board;
         this.humanPlayer = player;
         this.computerPlayer = new Player("Computer", 'Y');
-        this.inputScanner = scanner;
-        this.randomGenerator = random;
+        this.moveSource = moves;
+        this.renderer = display;
+        this.computerStrategy = strategy;
+        this.gameArchive = archive;
+        this.scoreKeeper = scores;
+        this.moveHistory = new byte[board.getRowCount()
+                * board.getColumnCount()];
     }
 
     /**
@@ -56,115 +172,234 @@ public final class Game {
      * or there is a winner.
      */
     public void start() {
-        boolean isPlayerTurn = true;
+        boolean isPlayerTurn = humanStarts;
+        if (!continuing) {
+            startedEmpty = gameBoard.getMoveCount() == 0;
+            moveCount = 0;
+        }
+        continuing = false;
+        suspended = false;
 
         while (!gameBoard.isFull()) {
             if (isPlayerTurn) {
-                playerTurn();
+                // The computer may think about its replies meanwhile
+                computerStrategy.ponder(gameBoard, humanPlayer.symbol(),
+                        computerPlayer.symbol());
+                try {
+                    playerTurn();
+                } finally {
+                    computerStrategy.stopPondering();
+                }
+                if (suspended) {
+                    renderer.showMessage("Game suspended.");
+                    return;
+                }
             } else {
                 computerTurn();
             }
 
-            // Check for a winner after the move
-            if (gameBoard.checkWin(isPlayerTurn ? humanPlayer.symbol()
-                    : computerPlayer.symbol())) {
-                gameBoard.display();
-                System.out.println((isPlayerTurn ? humanPlayer.name()
+            // Only lines through the last piece can have been completed
+            if (gameBoard.checkWinAt(lastMoveRow, lastMoveColumn)) {
+                renderer.showBoard(gameBoard);
+                renderer.showMessage((isPlayerTurn ? humanPlayer.name()
                         : "Computer") + (isPlayerTurn ? ", you won!"
                         : " wins! Better luck next time."));
+                if (scoreKeeper != null) {
+                    scoreKeeper.recordWin((isPlayerTurn ? humanPlayer
+                            : computerPlayer).name());
+                }
+                EngineMetrics.gameCompleted();
                 saveFinalGame();
                 return;
             }
 
             isPlayerTurn = !isPlayerTurn;  // Switch turns
-            gameBoard.display();  // Display board after each move
+            renderer.showBoard(gameBoard);  // Display board after each move
         }
 
-        System.out.println("The game is a draw!");
+        renderer.showMessage("The game is a draw!");
+        EngineMetrics.gameCompleted();
         saveFinalGame();
     }
 
     /**
-     * Handles the player's turn by prompting
-     * them to select a column to make a move.
-     * If the column is full, it retries until a valid move is made.
+     * Handles the player's turn by asking the move source
+     * for a column to make a move.
+     * If the column is invalid or full, it retries until a valid move is
+     * made.
      */
     private void playerTurn() {
-        int col = getPlayerMove();  // Input validation happens in getPlayerMove
-        if (gameBoard.makeMove(col, humanPlayer.symbol())) {
-            System.out.println("Column is full, try another one.");
+        int col = moveSource.nextMove(gameBoard, humanPlayer);
+        if (col == MoveSource.SUSPEND) {
+            // The human moves first when the game is started again
+            suspended = true;
+            humanStarts = true;
+            continuing = true;
+            return;
+        }
+        if (col < 0 || col >= gameBoard.getColumnCount()) {
+            renderer.showMessage("Invalid column " + col + ".");
+            playerTurn();
+            return;
+        }
+        int row = gameBoard.dropPiece(col, humanPlayer.symbol());
+        if (row < 0) {
+            renderer.showMessage("Column is full, try another one.");
             playerTurn();  // Retry if the column is full
+        } else {
+            recordLastMove(row, col);
         }
     }
 
     /**
      * Handles the computer's turn
-     * by randomly selecting a column to make a move.
+     * by asking the computer's strategy for a column.
      * If the selected column is full, it retries until a valid move is made.
      */
     private void computerTurn() {
-        System.out.println("Computer's turn.");
+        renderer.showMessage("Computer's turn.");
+        long timer = EngineMetrics.startTimer();
         int col;
+        int row;
         do {
-            col = randomGenerator.nextInt(BOARD_COLUMNS);
-        } while (gameBoard.makeMove(col, computerPlayer.symbol()));
+            col = computerStrategy.chooseMove(gameBoard,
+                    computerPlayer.symbol());
+            row = gameBoard.dropPiece(col, computerPlayer.symbol());
+        } while (row < 0);
+        EngineMetrics.moveChosen(timer);
+        recordLastMove(row, col);
     }
 
     /**
-     * Prompts the player to enter a valid column number for their move.
+     * Remembers the cell of the last move for the win check.
      *
-     * @return the column number selected by the player
+     * @param row the row where the piece landed
+     * @param col the column where the piece was dropped
      */
-    private int getPlayerMove() {
-        int col = -1;
-        boolean validInput = false;
+    private void recordLastMove(final int row, final int col) {
+        lastMoveRow = row;
+        lastMoveColumn = col;
+        if (moveCount < moveHistory.length) {
+            moveHistory[moveCount++] = (byte) col;
+        }
+    }
 
-        while (!validInput) {
-            try {
-                System.out.print("Enter column (0-" + COLUMN_RANGE + ") "
-                        + "to make your move: ");
-                col = inputScanner.nextInt();  // Reading input from the player
-                if (col < 0 || col > COLUMN_RANGE) {
-                    System.out.println("Invalid column. Please enter "
-                            + "a number between 0 and " + COLUMN_RANGE + ".");
-                } else {
-                    validInput = true;  // Valid column, exit loop
-                }
-            } catch (Exception e) {
-                System.out.println("Invalid input. Please enter a "
-                        + "valid number between 0 and " + COLUMN_RANGE + ".");
-                inputScanner.next();  // Clear the invalid input
-            }
+    /**
+     * Returns whether the player suspended the game during the last call
+     * of {@link #start()}.
+     *
+     * @return true if the game was suspended rather than finished
+     */
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Captures the state of the game so that it can be resumed later.
+     *
+     * @return the board, the players, the side to move and the moves
+     *         played since the game started; the human player is to move
+     *         after a suspension
+     */
+    public SuspendedGame suspend() {
+        List<String> cells = new ArrayList<>(gameBoard.getRowCount());
+        for (char[] row : gameBoard.getBoard()) {
+            cells.add(new String(row));
+        }
+        List<Integer> moves = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            moves.add((int) moveHistory[i]);
         }
+        return new SuspendedGame(gameBoard.getRowCount(),
+                gameBoard.getColumnCount(), gameBoard.getWinLength(),
+                humanPlayer, computerPlayer, humanStarts, cells, moves);
+    }
 
-        return col;
+    /**
+     * Restores a suspended game; the next {@link #start()} continues it.
+     *
+     * @param saved the state captured by {@link #suspend()}
+     * @throws IllegalArgumentException if the game was played on another
+     *         board geometry or by other players
+     */
+    public void resume(final SuspendedGame saved) {
+        if (saved.rows() != gameBoard.getRowCount()
+                || saved.columns() != gameBoard.getColumnCount()
+                || saved.winLength() != gameBoard.getWinLength()) {
+            throw new IllegalArgumentException("The saved game was played "
+                    + "on a " + saved.rows() + "x" + saved.columns()
+                    + " board with " + saved.winLength() + " in a row.");
+        }
+        if (!saved.human().equals(humanPlayer)
+                || !saved.computer().equals(computerPlayer)) {
+            throw new IllegalArgumentException("The saved game was played "
+                    + "by " + saved.human() + " and " + saved.computer()
+                    + ".");
+        }
+        gameBoard.setCells(saved.cells());
+        moveCount = saved.moves().size();
+        for (int i = 0; i < moveCount; i++) {
+            moveHistory[i] = saved.moves().get(i).byteValue();
+        }
+        startedEmpty = moveCount == gameBoard.getMoveCount();
+        humanStarts = saved.humanToMove();
+        continuing = true;
     }
 
     /**
-     * Saves the final game state to a file named 'saved_game.txt'.
+     * Saves the final game state to a file named 'saved_game.txt', or
+     * stores the game in the archive if one was given and the game
+     * started from an empty board; a game continued from a loaded board
+     * cannot be replayed from its moves and is saved as text.
      * Notifies the user if the save was successful or if it failed.
      */
     public void saveFinalGame() {
+        long timer = EngineMetrics.startTimer();
+        if (gameArchive != null && startedEmpty) {
+            try {
+                gameArchive.archive(gameBoard, humanPlayer.symbol(),
+                        computerPlayer.symbol(), moveHistory, moveCount);
+                EngineMetrics.gameSaved(timer);
+                renderer.showMessage("Game recorded in the game log.");
+            } catch (IOException e) {
+                renderer.showMessage("Failed to record game: "
+                        + e.getMessage());
+            }
+            return;
+        }
         try {
             gameBoard.saveFinalGame("saved_game.txt");
-            System.out.println("Game result saved to 'saved_game.txt'.");
+            EngineMetrics.gameSaved(timer);
+            renderer.showMessage("Game result saved to 'saved_game.txt'.");
         } catch (IOException e) {
-            System.out.println("Failed to save game result: " + e.getMessage());
+            renderer.showMessage("Failed to save game result: "
+                    + e.getMessage());
         }
     }
 
     /**
-     * Loads the initial board state from a file named 'board_input.txt'.
+     * Loads the initial board state from a file named 'board_input.txt',
+     * or 'board_input_RxC.txt' for boards of R rows and C columns other
+     * than the standard 6x7.
      * Displays the loaded board if successful
      * or starts with a default board if not.
      */
     public void loadInitialBoard() {
+        String fileName = INPUT_FILE;
+        if (gameBoard.getRowCount() != Board.DEFAULT_ROWS
+                || gameBoard.getColumnCount() != Board.DEFAULT_COLUMNS) {
+            fileName = "board_input_" + gameBoard.getRowCount() + "x"
+                    + gameBoard.getColumnCount() + ".txt";
+        }
+        long timer = EngineMetrics.startTimer();
         try {
-            gameBoard.loadInitialBoard("board_input.txt");
-            System.out.println("Loaded initial board from 'board_input.txt'.");
-            gameBoard.display();  // Display the loaded board
+            gameBoard.loadInitialBoard(fileName);
+            EngineMetrics.gameLoaded(timer);
+            renderer.showMessage("Loaded initial board from '"
+                    + fileName + "'.");
+            renderer.showBoard(gameBoard);  // Display the loaded board
         } catch (IOException e) {
-            System.out.println("No initial board found. "
+            renderer.showMessage("No initial board found. "
                     + "Starting with default empty board.");
         }
     }
@@ -0,0 +1,24 @@
+package hu.nye.model;
+
+import java.io.IOException;
+
+/**
+ * Stores finished games.
+ */
+@FunctionalInterface
+public interface GameArchive {
+
+    /**
+     * Stores a game played from the empty board.
+     *
+     * @param finalBoard the board after the last move
+     * @param firstSymbol the symbol of the player who moved first
+     * @param secondSymbol the symbol of the player who moved second
+     * @param moves a buffer whose first {@code count} entries are the
+     *        columns played, in order
+     * @param count the number of moves
+     * @throws IOException if the game cannot be stored
+     */
+    void archive(Board finalBoard, char firstSymbol, char secondSymbol,
+                 byte[] moves, int count) throws IOException;
+}
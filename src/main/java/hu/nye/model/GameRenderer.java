@@ -0,0 +1,21 @@
+package hu.nye.model;
+
+/**
+ * Shows the progress of a game to the players.
+ */
+public interface GameRenderer {
+
+    /**
+     * Shows the board.
+     *
+     * @param board the current game board
+     */
+    void showBoard(Board board);
+
+    /**
+     * Shows a message, such as the result of the game.
+     *
+     * @param message the message without a line terminator
+     */
+    void showMessage(String message);
+}
@@ -0,0 +1,21 @@
+package hu.nye.model;
+
+/**
+ * Supplies the moves of the human player, for example from the console
+ * or from a prepared list.
+ */
+@FunctionalInterface
+public interface MoveSource {
+
+    /** Returned by {@link #nextMove} when the player suspends the game. */
+    int SUSPEND = -1;
+
+    /**
+     * Returns the next move of the player.
+     *
+     * @param board the current game board
+     * @param player the player to move
+     * @return the column to drop the piece into, or {@link #SUSPEND}
+     */
+    int nextMove(Board board, Player player);
+}
@@ -0,0 +1,42 @@
+package hu.nye.model;
+
+/**
+ * Decides which column the computer player drops its next piece into.
+ */
+@FunctionalInterface
+public interface MoveStrategy {
+
+    /**
+     * Chooses a column for the player to move.
+     * The board must not be modified by the strategy.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return the chosen column; callers retry if the column is full
+     */
+    int chooseMove(Board board, char playerSymbol);
+
+    /**
+     * Starts thinking in the background while the opponent is to move,
+     * for strategies that can make use of the opponent's time. Does
+     * nothing by default.
+     *
+     * @param board the current game board with the opponent to move; it
+     *        keeps changing, so a strategy must copy what it needs
+     * @param opponentSymbol the symbol of the opponent, who is to move
+     * @param playerSymbol the symbol of the strategy's own player
+     */
+    default void ponder(Board board, char opponentSymbol,
+                        char playerSymbol) {
+        // Most strategies only think when asked for a move
+    }
+
+    /**
+     * Stops the thinking started by
+     * {@link #ponder(Board, char, char)} and returns once it stopped.
+     * Does nothing by default.
+     */
+    default void stopPondering() {
+        // Most strategies never ponder
+    }
+}
@@ -0,0 +1,27 @@
+package hu.nye.model;
+
+/**
+ * Shows nothing, so that games without an audience run at full speed.
+ */
+public final class NoOpRenderer implements GameRenderer {
+
+    /**
+     * Ignores the board.
+     *
+     * @param board the current game board
+     */
+    @Override
+    public void showBoard(final Board board) {
+        // Nothing to show
+    }
+
+    /**
+     * Ignores the message.
+     *
+     * @param message the message without a line terminator
+     */
+    @Override
+    public void showMessage(final String message) {
+        // Nothing to show
+    }
+}
@@ -0,0 +1,36 @@
+package hu.nye.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks a column uniformly at random, as required for the first
+ * version of the computer player.
+ */
+public final class RandomMoveStrategy implements MoveStrategy {
+
+    /** Random number generator to decide the moves. */
+    private final RandomGenerator randomGenerator;
+
+    /**
+     * Constructs a new random strategy.
+     *
+     * @param random the random number generator to use, such as a
+     *               {@link java.util.Random} or, for one thread of a
+     *               batch run, a {@link java.util.SplittableRandom}
+     */
+    public RandomMoveStrategy(final RandomGenerator random) {
+        this.randomGenerator = random;
+    }
+
+    /**
+     * Returns a random column; it may already be full.
+     *
+     * @param board the current game board
+     * @param playerSymbol the symbol of the player to move
+     * @return a random column index
+     */
+    @Override
+    public int chooseMove(final Board board, final char playerSymbol) {
+        return randomGenerator.nextInt(board.getColumnCount());
+    }
+}
@@ -0,0 +1,16 @@
+package hu.nye.model;
+
+/**
+ * Counts the games won by each player.
+ */
+@FunctionalInterface
+public interface ScoreKeeper {
+
+    /**
+     * Counts a won game. Implementations must return quickly; storing
+     * the result may happen later.
+     *
+     * @param playerName the name of the winner
+     */
+    void recordWin(String playerName);
+}
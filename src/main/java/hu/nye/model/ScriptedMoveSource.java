@@ -0,0 +1,44 @@
+package hu.nye.model;
+
+/**
+ * Plays a prepared list of columns, for games without a human at the
+ * keyboard. The game is suspended when the list runs out.
+ */
+public final class ScriptedMoveSource implements MoveSource {
+
+    /** The columns to play, in order. */
+    private final int[] columns;
+
+    /** The index of the next column to play. */
+    private int next;
+
+    /**
+     * Creates a source playing the given columns.
+     *
+     * @param moves the columns to play, in order
+     */
+    public ScriptedMoveSource(final int... moves) {
+        this.columns = moves.clone();
+    }
+
+    /**
+     * Returns the next column of the list.
+     *
+     * @param board the current game board
+     * @param player the player to move
+     * @return the next column, or {@link #SUSPEND} after the last one
+     */
+    @Override
+    public int nextMove(final Board board, final Player player) {
+        return next < columns.length ? columns[next++] : SUSPEND;
+    }
+
+    /**
+     * Returns the number of columns not played yet.
+     *
+     * @return the number of remaining moves
+     */
+    public int remaining() {
+        return columns.length - next;
+    }
+}
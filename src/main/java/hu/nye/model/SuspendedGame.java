@@ -0,0 +1,69 @@
+package hu.nye.model;
+
+import java.util.List;
+
+/**
+ * The state of a game interrupted by its player, from which the game
+ * can be continued later.
+ *
+ * @param rows the number of rows of the board
+ * @param columns the number of columns of the board
+ * @param winLength the number of consecutive pieces required to win
+ * @param human the human player
+ * @param computer the computer player
+ * @param humanToMove whether the human player moves next
+ * @param cells the symbols of every row of the board, top row first
+ * @param moves the columns played since the game started, in order
+ */
+public record SuspendedGame(int rows, int columns, int winLength,
+                            Player human, Player computer,
+                            boolean humanToMove, List<String> cells,
+                            List<Integer> moves) {
+
+    /**
+     * Validates the board and copies the lists.
+     *
+     * @param rows the number of rows of the board
+     * @param columns the number of columns of the board
+     * @param winLength the number of consecutive pieces required to win
+     * @param human the human player
+     * @param computer the computer player
+     * @param humanToMove whether the human player moves next
+     * @param cells the symbols of every row of the board, top row first
+     * @param moves the columns played since the game started, in order
+     */
+    public SuspendedGame {
+        cells = List.copyOf(cells);
+        moves = List.copyOf(moves);
+        if (cells.size() != rows || moves.size() > rows * columns) {
+            throw new IllegalArgumentException("A " + rows + "x" + columns
+                    + " board cannot have " + cells.size() + " rows and "
+                    + moves.size() + " moves.");
+        }
+        for (String row : cells) {
+            if (row.length() != columns) {
+                throw new IllegalArgumentException("The row '" + row
+                        + "' does not have " + columns + " cells.");
+            }
+        }
+        for (int move : moves) {
+            if (move < 0 || move >= columns) {
+                throw new IllegalArgumentException("Column " + move
+                        + " is not on a board of " + columns + " columns.");
+            }
+        }
+    }
+
+    /**
+     * Builds the board of the game.
+     *
+     * @return a new board holding the saved pieces
+     * @throws IllegalArgumentException if the geometry is not supported
+     *         or the board holds more than two player symbols
+     */
+    public Board toBoard() {
+        Board board = new Board(rows, columns, winLength);
+        board.setCells(cells);
+        return board;
+    }
+}
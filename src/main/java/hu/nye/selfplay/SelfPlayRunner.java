@@ -0,0 +1,287 @@
+package hu.nye.selfplay;
+
+import hu.nye.ai.MctsStrategy;
+import hu.nye.ai.SearchBudget;
+import hu.nye.ai.Solver;
+import hu.nye.metrics.EngineMetrics;
+import hu.nye.model.Board;
+import hu.nye.model.GameArchive;
+import hu.nye.model.MoveStrategy;
+import hu.nye.model.RandomMoveStrategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays batches of games between two strategies without any console
+ * output.
+ *
+ * <p>Every thread owns one {@link Board}, which is cleared between
+ * games, one {@link SplittableRandom} split from the batch seed, and
+ * its own instances of both strategies. Threads claim games in chunks
+ * from a shared counter and keep their tallies locally until the batch
+ * ends, so they share nothing while playing.</p>
+ */
+public final class SelfPlayRunner {
+
+    /** The symbol of the player moving first. */
+    private static final char FIRST = 'R';
+
+    /** The symbol of the player moving second. */
+    private static final char SECOND = 'Y';
+
+    /** The number of games a thread claims at once. */
+    private static final int CHUNK_SIZE = 256;
+
+    /** The index of strategy A's wins in a tally. */
+    private static final int WINS_A = 0;
+
+    /** The index of strategy B's wins in a tally. */
+    private static final int WINS_B = 1;
+
+    /** The index of the draws in a tally. */
+    private static final int DRAWS = 2;
+
+    /** The index of the move count in a tally. */
+    private static final int MOVES = 3;
+
+    /** The number of counters in a tally. */
+    private static final int TALLY_SIZE = 4;
+
+    /** Creates strategy A for one thread from the thread's random. */
+    private final Function<RandomGenerator, MoveStrategy> strategyA;
+
+    /** Creates strategy B for one thread from the thread's random. */
+    private final Function<RandomGenerator, MoveStrategy> strategyB;
+
+    /** The number of playing threads. */
+    private final int threads;
+
+    /** Creates the board of each thread. */
+    private final Supplier<Board> boards;
+
+    /** Where finished games are stored, or null. */
+    private final GameArchive archive;
+
+    /**
+     * Creates a runner playing on standard boards.
+     *
+     * @param factoryA creates strategy A for each thread
+     * @param factoryB creates strategy B for each thread
+     * @param threadCount the number of playing threads
+     */
+    public SelfPlayRunner(
+            final Function<RandomGenerator, MoveStrategy> factoryA,
+            final Function<RandomGenerator, MoveStrategy> factoryB,
+            final int threadCount) {
+        this(factoryA, factoryB, threadCount, Board::new);
+    }
+
+    /**
+     * Creates a runner.
+     *
+     * @param factoryA creates strategy A for each thread
+     * @param factoryB creates strategy B for each thread
+     * @param threadCount the number of playing threads
+     * @param boardFactory creates the empty board of each thread
+     */
+    public SelfPlayRunner(
+            final Function<RandomGenerator, MoveStrategy> factoryA,
+            final Function<RandomGenerator, MoveStrategy> factoryB,
+            final int threadCount, final Supplier<Board> boardFactory) {
+        this(factoryA, factoryB, threadCount, boardFactory, null);
+    }
+
+    /**
+     * Creates a runner that stores every finished game.
+     *
+     * @param factoryA creates strategy A for each thread
+     * @param factoryB creates strategy B for each thread
+     * @param threadCount the number of playing threads
+     * @param boardFactory creates the empty board of each thread
+     * @param gameArchive where finished games are stored, shared by all
+     *        threads, or null
+     */
+    public SelfPlayRunner(
+            final Function<RandomGenerator, MoveStrategy> factoryA,
+            final Function<RandomGenerator, MoveStrategy> factoryB,
+            final int threadCount, final Supplier<Board> boardFactory,
+            final GameArchive gameArchive) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(
+                    "At least one thread is required.");
+        }
+        this.strategyA = factoryA;
+        this.strategyB = factoryB;
+        this.threads = threadCount;
+        this.boards = boardFactory;
+        this.archive = gameArchive;
+    }
+
+    /**
+     * Returns a strategy factory by name.
+     *
+     * @param name {@code random}, {@code solver} or {@code mcts}
+     * @param budget the search budget per move of the searching players
+     * @return the factory
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static Function<RandomGenerator, MoveStrategy> strategy(
+            final String name, final SearchBudget budget) {
+        return switch (name) {
+            case "random" -> RandomMoveStrategy::new;
+            case "solver" -> random -> new Solver(budget);
+            case "mcts" -> random -> new MctsStrategy(budget, random);
+            default -> throw new IllegalArgumentException(
+                    "Unknown strategy '" + name + "'.");
+        };
+    }
+
+    /**
+     * Plays a batch of games; strategy A moves first in even games and
+     * strategy B in odd ones.
+     *
+     * @param games the number of games to play
+     * @param seed the seed of the random numbers of all threads
+     * @return the aggregated results
+     */
+    public SelfPlayStats run(final long games, final long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        AtomicLong nextGame = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<long[]>> tallies = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = root.split();
+                tallies.add(pool.submit(
+                        () -> playChunks(games, nextGame, random)));
+            }
+            long[] total = new long[TALLY_SIZE];
+            for (Future<long[]> tally : tallies) {
+                long[] counts = tally.get();
+                for (int i = 0; i < TALLY_SIZE; i++) {
+                    total[i] += counts[i];
+                }
+            }
+            return new SelfPlayStats(
+                    total[WINS_A] + total[WINS_B] + total[DRAWS],
+                    total[WINS_A], total[WINS_B], total[DRAWS],
+                    total[MOVES], System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Self-play was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A self-play thread failed.",
+                    e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays chunks of games on the current thread until the batch is
+     * exhausted.
+     *
+     * @param games the number of games in the batch
+     * @param nextGame the index of the next unclaimed game
+     * @param random the random numbers of this thread
+     * @return the tally of this thread
+     * @throws IOException if a game cannot be archived
+     */
+    private long[] playChunks(final long games, final AtomicLong nextGame,
+                              final SplittableRandom random)
+            throws IOException {
+        MoveStrategy a = strategyA.apply(random);
+        MoveStrategy b = strategyB.apply(random);
+        Board board = boards.get();
+        byte[] moves = archive == null ? null
+                : new byte[board.getRowCount() * board.getColumnCount()];
+        long[] tally = new long[TALLY_SIZE];
+        long first = nextGame.getAndAdd(CHUNK_SIZE);
+        while (first < games) {
+            long last = Math.min(games, first + CHUNK_SIZE);
+            for (long game = first; game < last; game++) {
+                board.clear();
+                boolean aStarts = game % 2 == 0;
+                int winner = playGame(board, aStarts ? a : b,
+                        aStarts ? b : a, moves);
+                tally[MOVES] += board.getMoveCount();
+                EngineMetrics.gameCompleted();
+                if (archive != null) {
+                    long timer = EngineMetrics.startTimer();
+                    archive.archive(board, FIRST, SECOND, moves,
+                            board.getMoveCount());
+                    EngineMetrics.gameSaved(timer);
+                }
+                if (winner == 0) {
+                    tally[DRAWS]++;
+                } else if ((winner == 1) == aStarts) {
+                    tally[WINS_A]++;
+                } else {
+                    tally[WINS_B]++;
+                }
+            }
+            first = nextGame.getAndAdd(CHUNK_SIZE);
+        }
+        return tally;
+    }
+
+    /**
+     * Plays one game on an empty board.
+     *
+     * @param board the empty board to play on
+     * @param first the strategy moving first
+     * @param second the strategy moving second
+     * @return 1 if the first player won, 2 if the second did, 0 for a draw
+     */
+    public static int playGame(final Board board, final MoveStrategy first,
+                               final MoveStrategy second) {
+        return playGame(board, first, second, null);
+    }
+
+    /**
+     * Plays one game on an empty board and records its moves.
+     *
+     * @param board the empty board to play on
+     * @param first the strategy moving first
+     * @param second the strategy moving second
+     * @param moves receives the columns played, in order, if not null;
+     *        must hold a move for every cell
+     * @return 1 if the first player won, 2 if the second did, 0 for a draw
+     */
+    public static int playGame(final Board board, final MoveStrategy first,
+                               final MoveStrategy second,
+                               final byte[] moves) {
+        boolean firstToMove = true;
+        while (!board.isFull()) {
+            char symbol = firstToMove ? FIRST : SECOND;
+            MoveStrategy strategy = firstToMove ? first : second;
+            long timer = EngineMetrics.startTimer();
+            int col = strategy.chooseMove(board, symbol);
+            EngineMetrics.moveChosen(timer);
+            int row = board.dropPiece(col, symbol);
+            if (row < 0) {
+                continue;  // Strategies may pick full columns; ask again
+            }
+            if (moves != null) {
+                moves[board.getMoveCount() - 1] = (byte) col;
+            }
+            if (board.checkWinAt(row, col)) {
+                return firstToMove ? 1 : 2;
+            }
+            firstToMove = !firstToMove;
+        }
+        return 0;
+    }
+}
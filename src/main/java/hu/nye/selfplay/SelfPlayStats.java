@@ -0,0 +1,46 @@
+package hu.nye.selfplay;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregated results of a batch of self-play games.
+ * The two strategies take turns moving first, so the counts are given
+ * per strategy rather than per seat.
+ *
+ * @param games the number of games played
+ * @param winsA the games won by strategy A
+ * @param winsB the games won by strategy B
+ * @param draws the games ending with a full board
+ * @param moves the total number of moves played
+ * @param elapsedNanos the wall-clock time of the batch
+ */
+public record SelfPlayStats(long games, long winsA, long winsB, long draws,
+                            long moves, long elapsedNanos) {
+
+    /**
+     * Returns the playing speed.
+     *
+     * @return the number of games finished per second
+     */
+    public double gamesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return games * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Returns a human-readable summary of the batch.
+     *
+     * @return the summary line
+     */
+    @Override
+    public String toString() {
+        return String.format("games=%d A wins=%d B wins=%d draws=%d "
+                        + "avg moves=%.1f time=%d ms games/s=%.0f",
+                games, winsA, winsB, draws,
+                games == 0 ? 0.0 : (double) moves / games,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                gamesPerSecond());
+    }
+}
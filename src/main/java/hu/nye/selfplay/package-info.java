@@ -0,0 +1,5 @@
+/**
+ * Headless games between computer strategies,
+ * used for regression-testing the computer player.
+ */
+package hu.nye.selfplay;
@@ -0,0 +1,279 @@
+package hu.nye.server;
+
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serves games over TCP, one {@link GameSession} per connection.
+ *
+ * <p>Every connection is handled by its own virtual thread, which is
+ * parked while the client is idle, and uses small I/O buffers, so tens
+ * of thousands of idle sessions fit into one JVM. The computer's moves
+ * are searched on a fixed pool of platform threads instead: a search
+ * keeps its thread busy for its whole budget, and running it on the
+ * carrier threads of the virtual threads would stall the I/O of every
+ * other session. Each search thread owns one strategy, created on first
+ * use, which serves all sessions; a session only owns its board.</p>
+ */
+public final class GameServer implements AutoCloseable {
+
+    /** The number of pending connections the operating system queues. */
+    private static final int BACKLOG = 1024;
+
+    /** The size of the read and write buffers of a connection. */
+    private static final int IO_BUFFER = 256;
+
+    /** The longest request line accepted in bytes. */
+    private static final int MAX_LINE = 1024;
+
+    /** The pause after a failed accept in milliseconds. */
+    private static final long ACCEPT_RETRY_MILLIS = 100;
+
+    /** Logs dropped connections and failed sessions. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(GameServer.class);
+
+    /** The address the server listens on. */
+    private final InetSocketAddress address;
+
+    /** Creates the board of every session. */
+    private final Supplier<Board> boards;
+
+    /** The strategy of each search thread. */
+    private final ThreadLocal<MoveStrategy> strategies;
+
+    /** Runs the searches of the computer's moves. */
+    private final ExecutorService searchPool;
+
+    /** The session counts and move latencies. */
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    /** The open client connections, closed with the server. */
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /** Creates the session threads. */
+    private final ThreadFactory sessionThreads =
+            Thread.ofVirtual().name("session-", 0).factory();
+
+    /** The listening socket, or null before {@link #start()}. */
+    private ServerSocket serverSocket;
+
+    /** The thread accepting connections. */
+    private Thread acceptor;
+
+    /**
+     * Creates a server.
+     *
+     * @param listenAddress the address to listen on; port 0 picks a free
+     *        port
+     * @param searchThreads the number of threads searching the
+     *        computer's moves
+     * @param boardFactory creates the empty board of every session
+     * @param strategyFactory creates the strategy of each search thread
+     */
+    public GameServer(final InetSocketAddress listenAddress,
+                      final int searchThreads,
+                      final Supplier<Board> boardFactory,
+                      final Supplier<MoveStrategy> strategyFactory) {
+        if (searchThreads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one search thread is required.");
+        }
+        this.address = listenAddress;
+        this.boards = boardFactory;
+        this.strategies = ThreadLocal.withInitial(strategyFactory);
+        AtomicInteger searchers = new AtomicInteger();
+        this.searchPool = Executors.newFixedThreadPool(searchThreads,
+                task -> {
+                    Thread thread = new Thread(task,
+                            "search-" + searchers.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Starts listening and accepting connections in the background.
+     *
+     * @return the port the server listens on
+     * @throws IOException if the address cannot be bound
+     */
+    public int start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(address, BACKLOG);
+        acceptor = Thread.ofVirtual().name("accept").start(this::accept);
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the session counts and move latencies.
+     *
+     * @return the live metrics
+     */
+    public ServerMetrics metrics() {
+        return metrics;
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                sessionThreads.newThread(() -> serve(socket)).start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    // Typically out of file descriptors; let sessions end
+                    LOGGER.warn("Failed to accept a connection", e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(ACCEPT_RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Plays one session until the client quits or disconnects.
+     *
+     * @param socket the client connection
+     */
+    private void serve(final Socket socket) {
+        metrics.sessionOpened();
+        // Readers and writers would add 8 KB coding buffers per session
+        try (socket;
+             InputStream in = new BufferedInputStream(
+                     socket.getInputStream(), IO_BUFFER);
+             OutputStream out = new BufferedOutputStream(
+                     socket.getOutputStream(), IO_BUFFER)) {
+            GameSession session = new GameSession(boards.get(),
+                    this::search, metrics);
+            ByteArrayOutputStream request = new ByteArrayOutputStream();
+            send(out, session.greeting());
+            for (String line = readLine(in, request); line != null;
+                 line = readLine(in, request)) {
+                send(out, session.handle(line));
+                if (session.isClosed()) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Connection dropped", e);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Session failed", e);
+        } finally {
+            connections.remove(socket);
+            metrics.sessionClosed();
+        }
+    }
+
+    /**
+     * Reads one request line.
+     *
+     * @param in the connection
+     * @param line the buffer collecting the bytes of the line
+     * @return the line without its terminator, or null at the end of
+     *         the stream
+     * @throws IOException if the connection fails or the line is too
+     *         long
+     */
+    private static String readLine(final InputStream in,
+                                   final ByteArrayOutputStream line)
+            throws IOException {
+        line.reset();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0) {
+                return line.size() == 0 ? null
+                        : line.toString(StandardCharsets.UTF_8);
+            }
+            if (line.size() == MAX_LINE) {
+                throw new IOException("The request line is too long.");
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void send(final OutputStream out, final String line)
+            throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Searches a move on the search pool, parking the calling session
+     * thread until the move is found.
+     *
+     * @param board the board of the session, not modified meanwhile
+     * @param symbol the symbol of the computer
+     * @return the chosen column
+     */
+    private int search(final Board board, final char symbol) {
+        Future<Integer> move = searchPool.submit(
+                () -> strategies.get().chooseMove(board, symbol));
+        try {
+            return move.get();
+        } catch (InterruptedException e) {
+            move.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The search was interrupted.",
+                    e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The search failed.",
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Stops accepting connections, closes every session and stops the
+     * search threads.
+     *
+     * @throws IOException if the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+                acceptor.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Socket socket : connections) {
+                socket.close();
+            }
+            searchPool.shutdownNow();
+        }
+    }
+}
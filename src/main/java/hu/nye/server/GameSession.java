@@ -0,0 +1,175 @@
+package hu.nye.server;
+
+import hu.nye.metrics.EngineMetrics;
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+
+import java.util.Locale;
+
+/**
+ * One game between a client and the computer, driven by protocol lines.
+ *
+ * <p>The client moves first and every request is answered by exactly one
+ * line:</p>
+ * <ul>
+ *   <li>{@code MOVE <column>} drops the client's piece and answers
+ *   {@code WIN} or {@code DRAW} if that ended the game, otherwise the
+ *   computer moves and the answer is {@code MOVE <column>},
+ *   {@code LOSS <column>} or {@code DRAW <column>} with the computer's
+ *   column;</li>
+ *   <li>{@code BOARD} answers {@code BOARD} and the rows from the top,
+ *   separated by {@code /};</li>
+ *   <li>{@code NEW} clears the board and answers {@code OK};</li>
+ *   <li>{@code STATS} answers {@code STATS} and the server metrics;</li>
+ *   <li>{@code QUIT} answers {@code BYE} and ends the session.</li>
+ * </ul>
+ * <p>Invalid requests are answered with {@code ERROR} and a reason.</p>
+ */
+final class GameSession {
+
+    /** The symbol of the client's pieces. */
+    static final char CLIENT = 'R';
+
+    /** The symbol of the computer's pieces. */
+    static final char COMPUTER = 'Y';
+
+    /** The board of this session. */
+    private final Board board;
+
+    /** Chooses the computer's moves. */
+    private final MoveStrategy computer;
+
+    /** Records the latency of every move. */
+    private final ServerMetrics metrics;
+
+    /** Whether the current game has ended. */
+    private boolean gameOver;
+
+    /** Whether the client asked to end the session. */
+    private boolean closed;
+
+    /**
+     * Creates a session.
+     *
+     * @param sessionBoard the empty board of the session
+     * @param strategy chooses the computer's moves
+     * @param serverMetrics records the latency of every move
+     */
+    GameSession(final Board sessionBoard, final MoveStrategy strategy,
+                final ServerMetrics serverMetrics) {
+        this.board = sessionBoard;
+        this.computer = strategy;
+        this.metrics = serverMetrics;
+    }
+
+    /**
+     * Returns the line sent when a client connects.
+     *
+     * @return the greeting with the board geometry
+     */
+    String greeting() {
+        return "HELLO connect4 " + board.getRowCount() + " "
+                + board.getColumnCount() + " " + board.getWinLength();
+    }
+
+    /**
+     * Handles one request.
+     *
+     * @param line the request without its line terminator
+     * @return the answer without a line terminator
+     */
+    String handle(final String line) {
+        String[] words = line.trim().split("\\s+");
+        return switch (words[0].toUpperCase(Locale.ROOT)) {
+            case "MOVE" -> timedMove(words);
+            case "BOARD" -> board();
+            case "NEW" -> {
+                board.clear();
+                gameOver = false;
+                yield "OK";
+            }
+            case "STATS" -> "STATS " + metrics;
+            case "QUIT" -> {
+                closed = true;
+                yield "BYE";
+            }
+            default -> "ERROR Unknown command '" + words[0] + "'.";
+        };
+    }
+
+    /**
+     * Returns whether the client ended the session.
+     *
+     * @return true after {@code QUIT}
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    private String timedMove(final String[] words) {
+        long start = System.nanoTime();
+        String answer = move(words);
+        metrics.recordMove(System.nanoTime() - start);
+        return answer;
+    }
+
+    private String move(final String[] words) {
+        int col;
+        try {
+            col = words.length == 2 ? Integer.parseInt(words[1]) : -1;
+        } catch (NumberFormatException e) {
+            col = -1;
+        }
+        if (col < 0 || col >= board.getColumnCount()) {
+            return "ERROR Expected MOVE and a column between 0 and "
+                    + (board.getColumnCount() - 1) + ".";
+        }
+        if (gameOver) {
+            return "ERROR The game is over; send NEW to play again.";
+        }
+        int row = board.dropPiece(col, CLIENT);
+        if (row < 0) {
+            return "ERROR Column " + col + " is full.";
+        }
+        if (board.checkWinAt(row, col)) {
+            gameOver = true;
+            EngineMetrics.gameCompleted();
+            return "WIN";
+        }
+        if (board.isFull()) {
+            gameOver = true;
+            EngineMetrics.gameCompleted();
+            return "DRAW";
+        }
+        long timer = EngineMetrics.startTimer();
+        int answer;
+        do {
+            answer = computer.chooseMove(board, COMPUTER);
+            row = board.dropPiece(answer, COMPUTER);
+        } while (row < 0);
+        EngineMetrics.moveChosen(timer);
+        if (board.checkWinAt(row, answer)) {
+            gameOver = true;
+            EngineMetrics.gameCompleted();
+            return "LOSS " + answer;
+        }
+        if (board.isFull()) {
+            gameOver = true;
+            EngineMetrics.gameCompleted();
+            return "DRAW " + answer;
+        }
+        return "MOVE " + answer;
+    }
+
+    private String board() {
+        StringBuilder text = new StringBuilder("BOARD ");
+        char[][] cells = board.getBoard();
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                text.append('/');
+            }
+            text.append(cells[i]);
+        }
+        return text.toString();
+    }
+}
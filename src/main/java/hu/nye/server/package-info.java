@@ -0,0 +1,5 @@
+/**
+ * A line-protocol TCP server playing many games at once, one session
+ * per connection.
+ */
+package hu.nye.server;
@@ -0,0 +1,49 @@
+package hu.nye;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the time a fresh JVM takes to print the solver's first move,
+ * as a script asking for a single move would.
+ */
+class StartupTest {
+
+    /** A generous bound for a cold JVM on a slow build machine. */
+    private static final long MAX_FIRST_MOVE_MILLIS = 5000;
+
+    @Test
+    void testFirstMoveOfAFreshProcess() throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                App.class.getName(), "--move", "3344", "--computer", "solver",
+                "--threads", "1", "--budget-ms", "50")
+                .redirectErrorStream(true);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        String firstMove = null;
+        long elapsed = 0;
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = output.readLine(); line != null; line = output.readLine()) {
+                if (line.startsWith("Computer plays column")) {
+                    elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    firstMove = line;
+                }
+            }
+        }
+        assertTrue(process.waitFor(MAX_FIRST_MOVE_MILLIS, TimeUnit.MILLISECONDS), "The process should exit.");
+        assertEquals(0, process.exitValue());
+        assertNotNull(firstMove, "The computer's move should be printed.");
+        assertTrue(elapsed < MAX_FIRST_MOVE_MILLIS, "The first move took " + elapsed + " ms.");
+    }
+}
@@ -0,0 +1,192 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndgameTablebaseTest {
+
+    private static final int EMPTY = 6;
+
+    @TempDir
+    static Path directory;
+
+    private static Path tablebaseFile;
+
+    private static List<byte[]> seeds;
+
+    @BeforeAll
+    static void buildTablebase() throws IOException {
+        tablebaseFile = directory.resolve("endgames.c4tb");
+        seeds = EndgameTablebaseBuilder.randomGames(6, 7, 4, 3000, 42);
+        int written = new EndgameTablebaseBuilder(6, 7, 4, EMPTY, 4).build(seeds, tablebaseFile);
+        assertTrue(written > 1000, "The positions after the roots should be covered too.");
+        assertFalse(Files.exists(EndgameTablebaseBuilder.partsDirectory(tablebaseFile)),
+                "The parts should be removed after the merge.");
+    }
+
+    /**
+     * Replays the first moves of a seed game.
+     */
+    private static Board replay(byte[] game, int moves) {
+        Board board = new Board();
+        for (int i = 0; i < moves; i++) {
+            board.makeMove(game[i], i % 2 == 0 ? 'R' : 'Y');
+        }
+        return board;
+    }
+
+    /**
+     * Plain minimax over the board returning the packed result and distance.
+     */
+    private static int reference(Board board, char symbol, char other) {
+        int best = Integer.MIN_VALUE;
+        int bestValue = 0;
+        for (int col = 0; col < board.getColumnCount(); col++) {
+            int row = board.dropPiece(col, symbol);
+            if (row < 0) {
+                continue;
+            }
+            int value;
+            if (board.checkWinAt(row, col)) {
+                value = EndgameTablebase.pack(EndgameTablebase.WIN, 1);
+            } else if (board.isFull()) {
+                value = EndgameTablebase.pack(EndgameTablebase.DRAW, 1);
+            } else {
+                value = EndgameTablebase.parentOf(reference(board, other, symbol));
+            }
+            board.undoMove(col);
+            if (EndgameTablebase.rankOf(value) > best) {
+                best = EndgameTablebase.rankOf(value);
+                bestValue = value;
+            }
+        }
+        return bestValue;
+    }
+
+    @Test
+    void testFileLayout() throws IOException {
+        try (EndgameTablebase tablebase = EndgameTablebase.open(tablebaseFile)) {
+            assertEquals(EndgameTablebase.HEADER_SIZE + (long) tablebase.size() * EndgameTablebase.ENTRY_SIZE,
+                    Files.size(tablebaseFile));
+            assertEquals(EMPTY, tablebase.maxEmpty());
+        }
+    }
+
+    @Test
+    void testProbesMatchMinimax() throws IOException {
+        int checked = 0;
+        try (EndgameTablebase tablebase = EndgameTablebase.open(tablebaseFile)) {
+            for (byte[] game : seeds) {
+                for (int moves = 42 - EMPTY; moves < game.length; moves++) {
+                    Board board = replay(game, moves);
+                    char symbol = moves % 2 == 0 ? 'R' : 'Y';
+                    char other = symbol == 'R' ? 'Y' : 'R';
+                    int value = tablebase.probe(board, symbol);
+                    assertNotEquals(EndgameTablebase.NO_ENTRY, value, "Positions of seed games should be covered.");
+                    assertEquals(reference(board, symbol, other), value, "The tablebase should hold perfect play.");
+                    checked++;
+                    if (checked == 300) {
+                        return;
+                    }
+                }
+            }
+        }
+        assertTrue(checked > 50, "Enough seed games should reach the covered positions.");
+    }
+
+    @Test
+    void testBestMoveKeepsTheResult() throws IOException {
+        try (EndgameTablebase tablebase = EndgameTablebase.open(tablebaseFile)) {
+            for (byte[] game : seeds) {
+                if (game.length <= 42 - EMPTY) {
+                    continue;
+                }
+                Board board = replay(game, 42 - EMPTY);
+                char symbol = (42 - EMPTY) % 2 == 0 ? 'R' : 'Y';
+                int value = tablebase.probe(board, symbol);
+                int move = tablebase.bestMove(board, symbol);
+                int row = board.dropPiece(move, symbol);
+                if (board.checkWinAt(row, move)) {
+                    assertEquals(EndgameTablebase.pack(EndgameTablebase.WIN, 1), value);
+                } else if (!board.isFull()) {
+                    int child = tablebase.probe(board, symbol == 'R' ? 'Y' : 'R');
+                    assertEquals(value, EndgameTablebase.parentOf(child), "The best move should keep the value.");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMirrorImagesShareEntries() throws IOException {
+        try (EndgameTablebase tablebase = EndgameTablebase.open(tablebaseFile)) {
+            byte[] game = seeds.stream().filter(g -> g.length > 42 - EMPTY).findFirst().orElseThrow();
+            Board board = replay(game, 42 - EMPTY);
+            Board mirrored = new Board();
+            for (int i = 0; i < 42 - EMPTY; i++) {
+                mirrored.makeMove(mirrored.mirrorColumn(game[i]), i % 2 == 0 ? 'R' : 'Y');
+            }
+            assertEquals(tablebase.probe(board, 'R'), tablebase.probe(mirrored, 'R'));
+            assertEquals(EndgameTablebase.NO_ENTRY, tablebase.probe(new Board(), 'R'),
+                    "The empty board has too many empty cells.");
+            assertEquals(-1, tablebase.bestMove(new Board(8, 9, 4), 'R'), "Other geometries are not covered.");
+        }
+    }
+
+    @Test
+    void testInterruptedBuildResumes() throws IOException {
+        Path file = directory.resolve("resumed.c4tb");
+        Path parts = EndgameTablebaseBuilder.partsDirectory(file);
+        EndgameTablebaseBuilder builder = new EndgameTablebaseBuilder(6, 7, 4, 4, 2);
+        List<byte[]> games = seeds.subList(0, 20);
+        assertEquals(1, builder.solveParts(games, parts));
+
+        // Mark the first entry of the solved part to detect that it is reused
+        long key;
+        try (FileChannel part = FileChannel.open(EndgameTablebaseBuilder.partFile(parts, 0),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer entry = ByteBuffer.allocate(EndgameTablebase.ENTRY_SIZE);
+            part.read(entry, 0);
+            key = entry.getLong(0);
+            part.write(ByteBuffer.allocate(Short.BYTES).putShort(0, (short) 99), Long.BYTES);
+        }
+        builder.build(games, file);
+        try (EndgameTablebase tablebase = EndgameTablebase.open(file)) {
+            assertEquals(99, tablebase.probe(key), "A finished part should not be solved again.");
+        }
+
+        // Parts of other seeds are discarded
+        assertEquals(1, builder.solveParts(games, parts));
+        new EndgameTablebaseBuilder(6, 7, 4, 4, 2).build(seeds.subList(0, 21), file);
+        try (EndgameTablebase tablebase = EndgameTablebase.open(file)) {
+            assertNotEquals(99, tablebase.probe(key));
+        }
+    }
+
+    @Test
+    void testStrategyFallsBackOutsideTablebase() throws IOException {
+        try (EndgameTablebase tablebase = EndgameTablebase.open(tablebaseFile)) {
+            EndgameMoveStrategy strategy = new EndgameMoveStrategy(tablebase, (board, symbol) -> 6);
+            assertEquals(6, strategy.chooseMove(new Board(), 'R'));
+            assertEquals(0, strategy.getTablebaseHits());
+            byte[] game = seeds.stream().filter(g -> g.length > 42 - EMPTY).findFirst().orElseThrow();
+            Board board = replay(game, 42 - EMPTY);
+            char symbol = (42 - EMPTY) % 2 == 0 ? 'R' : 'Y';
+            assertEquals(tablebase.bestMove(board, symbol), strategy.chooseMove(board, symbol));
+            assertEquals(1, strategy.getTablebaseHits());
+        }
+        assertThrows(IOException.class, () -> EndgameTablebase.open(Files.writeString(
+                directory.resolve("not-a-tablebase"), "nothing")));
+    }
+}
@@ -0,0 +1,57 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import hu.nye.model.MoveStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyMoveStrategyTest {
+
+    @Test
+    void testCreatesTheStrategyOnTheFirstMoveOnly() {
+        AtomicInteger created = new AtomicInteger();
+        LazyMoveStrategy strategy = new LazyMoveStrategy(() -> {
+            created.incrementAndGet();
+            return (board, symbol) -> 5;
+        });
+        assertFalse(strategy.isInitialized());
+        assertEquals(0, created.get(), "Nothing should be created before the first move.");
+        assertEquals(5, strategy.chooseMove(new Board(), 'R'));
+        assertEquals(5, strategy.chooseMove(new Board(), 'Y'));
+        assertTrue(strategy.isInitialized());
+        assertEquals(1, created.get(), "The strategy should be created once.");
+    }
+
+    @Test
+    void testPonderingWaitsForTheFirstMove() {
+        List<String> calls = new ArrayList<>();
+        LazyMoveStrategy strategy = new LazyMoveStrategy(() -> new MoveStrategy() {
+            @Override
+            public int chooseMove(Board board, char playerSymbol) {
+                return 0;
+            }
+
+            @Override
+            public void ponder(Board board, char opponentSymbol, char playerSymbol) {
+                calls.add("ponder");
+            }
+
+            @Override
+            public void stopPondering() {
+                calls.add("stop");
+            }
+        });
+        strategy.ponder(new Board(), 'R', 'Y');
+        strategy.stopPondering();
+        assertFalse(strategy.isInitialized(), "Pondering should not load the strategy.");
+        strategy.chooseMove(new Board(), 'Y');
+        strategy.ponder(new Board(), 'R', 'Y');
+        strategy.stopPondering();
+        assertEquals(List.of("ponder", "stop"), calls, "A loaded strategy should ponder.");
+    }
+}
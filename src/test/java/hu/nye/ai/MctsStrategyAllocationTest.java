@@ -0,0 +1,38 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that Monte Carlo playouts do not allocate. Coverage
+ * instrumentation adds allocations of its own, so Surefire runs this
+ * class in a separate execution without the JaCoCo agent.
+ */
+class MctsStrategyAllocationTest {
+
+    @Test
+    void testPlayoutDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Board board = new Board();
+        MctsStrategy mcts = new MctsStrategy(SearchBudget.ofNodes(1), new SplittableRandom(5));
+        board.makeMove(3, 'R');
+        board.makeMove(3, 'Y');
+        for (int i = 0; i < 20_000; i++) {
+            mcts.playoutFrom(board, 'R', 'Y');
+        }
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 20_000; i++) {
+            mcts.playoutFrom(board, 'R', 'Y');
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated < 4_096, "Playouts should not allocate, but used " + allocated + " bytes.");
+        assertEquals(2, board.getMoveCount(), "The searched board should not change.");
+    }
+}
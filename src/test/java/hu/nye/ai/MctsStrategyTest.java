@@ -0,0 +1,82 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsStrategyTest {
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board();
+    }
+
+    @Test
+    void testTakesImmediateWin() {
+        board.makeMove(0, 'R');
+        board.makeMove(0, 'Y');
+        board.makeMove(1, 'R');
+        board.makeMove(1, 'Y');
+        board.makeMove(2, 'R');
+        board.makeMove(6, 'Y');
+        MctsStrategy mcts = new MctsStrategy(SearchBudget.ofNodes(5_000), new SplittableRandom(1));
+        SearchResult result = mcts.search(board, 'R');
+        assertEquals(3, result.move(), "The search should complete the horizontal line.");
+        assertEquals(5_000, result.nodes(), "Every playout should be counted.");
+        assertTrue(result.score() > 900, "A won position should have a high win rate: " + result);
+    }
+
+    @Test
+    void testBlocksOpponentWin() {
+        board.makeMove(0, 'Y');
+        board.makeMove(6, 'R');
+        board.makeMove(1, 'Y');
+        board.makeMove(6, 'R');
+        board.makeMove(2, 'Y');
+        MctsStrategy mcts = new MctsStrategy(SearchBudget.ofNodes(20_000), new SplittableRandom(2));
+        assertEquals(3, mcts.chooseMove(board, 'R'), "The search should block the open line.");
+    }
+
+    @Test
+    void testPlaysOnLargeBoards() {
+        Board large = new Board(12, 12, 5);
+        for (int col = 0; col < 4; col++) {
+            large.makeMove(col + 3, 'R');
+            large.makeMove(col + 3, 'Y');
+        }
+        MctsStrategy mcts = new MctsStrategy(SearchBudget.ofNodes(5_000), new SplittableRandom(3));
+        int move = mcts.chooseMove(large, 'R');
+        assertTrue(move == 2 || move == 7, "Either end of the four completes five in a row, not " + move);
+    }
+
+    @Test
+    void testReusesTreeAfterOpponentReply() {
+        MctsStrategy mcts = new MctsStrategy(SearchBudget.ofNodes(3_000), new SplittableRandom(4));
+        int first = mcts.chooseMove(board, 'R');
+        board.makeMove(first, 'R');
+        board.makeMove(3, 'Y');
+        mcts.chooseMove(board, 'R');
+        assertTrue(mcts.getTreeSize() > 3_001, "The subtree of the reply should be kept: " + mcts.getTreeSize());
+
+        Board other = new Board();
+        other.makeMove(0, 'Y');
+        mcts.chooseMove(other, 'R');
+        assertTrue(mcts.getTreeSize() <= 3_001, "An unrelated position should start a fresh tree.");
+    }
+
+    @Test
+    void testTimeBudgetStopsSearch() {
+        MctsStrategy mcts = new MctsStrategy(SearchBudget.ofMillis(50));
+        SearchResult result = mcts.search(board, 'R');
+        assertTrue(result.elapsedNanos() < 1_000_000_000L, "The search should stop near its time limit.");
+        assertTrue(result.nodesPerSecond() > 0, "The playout rate should be reported.");
+        assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(SearchBudget.unlimited()),
+                "A search without limits would never end.");
+    }
+}
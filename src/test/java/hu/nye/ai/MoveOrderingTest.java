@@ -0,0 +1,99 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveOrderingTest {
+
+    /** The bottom cell of every column of the standard board. */
+    private static final long BOTTOM = 0x40810204081L;
+
+    private static int[] order(final MoveOrdering ordering, final int ply, final long possible,
+                               final long wins, final long blocks, final int hashMove) {
+        int[] moves = new int[Board.DEFAULT_COLUMNS];
+        int count = ordering.order(ply, possible, wins, blocks, hashMove, moves);
+        return Arrays.copyOf(moves, count);
+    }
+
+    private static long cell(final int col, final int level) {
+        return 1L << (col * (Board.DEFAULT_ROWS + 1) + level);
+    }
+
+    @Test
+    void testStaticOrders() {
+        MoveOrdering plain = MoveOrdering.forBoard(new Board(), MoveOrdering.Scheme.LEFT_TO_RIGHT);
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6}, order(plain, 0, BOTTOM, 0, 0, -1),
+                "Plain order should go from left to right.");
+        MoveOrdering center = MoveOrdering.forBoard(new Board(), MoveOrdering.Scheme.CENTER_FIRST);
+        assertArrayEquals(new int[] {3, 2, 4, 1, 5, 0, 6}, order(center, 0, BOTTOM, 0, 0, -1),
+                "Center-first order should alternate outwards.");
+        assertArrayEquals(new int[] {5, 3, 2, 4, 1, 0, 6}, order(center, 0, BOTTOM, 0, 0, 5),
+                "The hash move should come first.");
+        assertArrayEquals(new int[] {2, 4, 1, 5, 0, 6}, order(center, 0, BOTTOM & ~cell(3, 0), 0, 0, 3),
+                "Full columns should be skipped, even as hash move.");
+    }
+
+    @Test
+    void testWinsAndBlocksAreForced() {
+        MoveOrdering ordering = MoveOrdering.forBoard(new Board(), MoveOrdering.Scheme.CENTER_FIRST);
+        assertArrayEquals(new int[] {5}, order(ordering, 0, BOTTOM, cell(5, 0), cell(1, 0), 3),
+                "A win should be the only move.");
+        assertArrayEquals(new int[] {1}, order(ordering, 0, BOTTOM, 0, cell(1, 0) | cell(1, 2), 3),
+                "A playable threat should force the block.");
+        assertArrayEquals(new int[] {3, 2, 4, 1, 5, 0, 6}, order(ordering, 0, BOTTOM, cell(5, 1), cell(1, 1), -1),
+                "Threats above the playable cells should not force anything.");
+    }
+
+    @Test
+    void testKillerMovesFollowTheHashMove() {
+        MoveOrdering ordering = MoveOrdering.forBoard(new Board(), MoveOrdering.Scheme.KILLERS);
+        ordering.cutoff(4, 6, cell(6, 0), 3);
+        ordering.cutoff(4, 0, cell(0, 0), 3);
+        assertArrayEquals(new int[] {0, 6}, ordering.killersOf(4), "The latest killer should come first.");
+        assertArrayEquals(new int[] {2, 0, 6, 3, 4, 1, 5}, order(ordering, 4, BOTTOM, 0, 0, 2),
+                "Killers should follow the hash move.");
+        assertArrayEquals(new int[] {3, 2, 4, 1, 5, 0, 6}, order(ordering, 5, BOTTOM, 0, 0, -1),
+                "Killers should only apply to their own ply.");
+        long higher = BOTTOM & ~cell(0, 0) | cell(0, 1);
+        assertEquals(6, order(ordering, 4, higher, 0, 0, -1)[0],
+                "A killer should not apply to another cell of its column.");
+        ordering.newSearch();
+        assertArrayEquals(new int[] {-1, -1}, ordering.killersOf(4), "A new search should forget the killers.");
+    }
+
+    @Test
+    void testHistoryOrdersTheQuietMoves() {
+        MoveOrdering ordering = MoveOrdering.forBoard(new Board(), MoveOrdering.Scheme.KILLERS_AND_HISTORY);
+        ordering.cutoff(2, 0, cell(0, 0), 4);
+        ordering.cutoff(3, 6, cell(6, 0), 5);
+        assertArrayEquals(new int[] {0, 3, 2, 4, 1, 5, 6}, order(ordering, 6, BOTTOM, 0, 0, -1),
+                "The history of the side to move should order the moves.");
+        assertArrayEquals(new int[] {6, 3, 2, 4, 1, 5, 0}, order(ordering, 7, BOTTOM, 0, 0, -1),
+                "Each side should have its own history.");
+
+        MoveOrdering killersOnly = MoveOrdering.forBoard(new Board(), MoveOrdering.Scheme.KILLERS);
+        killersOnly.cutoff(2, 0, cell(0, 0), 4);
+        assertArrayEquals(new int[] {3, 2, 4, 1, 5, 0, 6}, order(killersOnly, 6, BOTTOM, 0, 0, -1),
+                "Killers alone should keep the center-first order.");
+    }
+
+    @Test
+    void testSchemesAgreeOnTheSolution() {
+        // Column 3 is the only move creating two threats at once
+        for (MoveOrdering.Scheme scheme : MoveOrdering.Scheme.values()) {
+            Board board = new Board();
+            board.makeMove(1, 'R');
+            board.makeMove(6, 'Y');
+            board.makeMove(2, 'R');
+            board.makeMove(6, 'Y');
+            Solver solver = new Solver(SearchBudget.unlimited(), new TranspositionTable(), scheme);
+            SearchResult result = solver.search(board, 'R');
+            assertEquals(3, result.move(), scheme + " should find the double threat.");
+            assertEquals(Solver.WIN_SCORE - 7, result.score(), scheme + " should find the quickest win.");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    @TempDir
+    static Path directory;
+
+    private static Path bookFile;
+
+    @BeforeAll
+    static void generateBook() throws IOException {
+        bookFile = directory.resolve("book.bin");
+        int written = new OpeningBookGenerator(2, SearchBudget.ofDepth(4), 2).generate(bookFile);
+        assertEquals(1 + 7 + 49, written, "Every position up to two moves should be written.");
+    }
+
+    @Test
+    void testFileLayout() throws IOException {
+        assertEquals(OpeningBook.HEADER_SIZE + 57L * OpeningBook.ENTRY_SIZE, Files.size(bookFile));
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            assertEquals(57, book.size());
+            assertEquals(2, book.depth());
+        }
+    }
+
+    @Test
+    void testLookupFindsSearchedPosition() throws IOException {
+        Board board = new Board();
+        board.makeMove(3, 'R');
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            int value = book.lookup(OpeningBook.keyOf(board.getPieces('Y'), board.getMask()));
+            assertNotEquals(OpeningBook.NO_ENTRY, value, "Position after one move should be in the book.");
+            int move = OpeningBook.moveOf(value);
+            assertTrue(move >= 0 && move < 7, "The book move should be a column.");
+            assertFalse(Solver.isDecisive(OpeningBook.scoreOf(value)), "A depth 4 search cannot prove the opening.");
+            assertEquals(move, book.bestMove(board, 'Y'));
+        }
+    }
+
+    @Test
+    void testPackRoundTrip() {
+        int value = OpeningBook.pack(-(Solver.WIN_SCORE - 12), 6);
+        assertEquals(6, OpeningBook.moveOf(value));
+        assertEquals(-(Solver.WIN_SCORE - 12), OpeningBook.scoreOf(value));
+        assertNotEquals(OpeningBook.NO_ENTRY, value);
+    }
+
+    @Test
+    void testPositionOutsideBook() throws IOException {
+        Board board = new Board();
+        board.makeMove(3, 'R');
+        board.makeMove(3, 'Y');
+        board.makeMove(3, 'R');
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            assertEquals(-1, book.bestMove(board, 'Y'), "Three-move positions are not in a depth 2 book.");
+            assertEquals(OpeningBook.NO_ENTRY, book.lookup(-5L));
+        }
+    }
+
+    @Test
+    void testBookStrategyFallsBackOutsideBook() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            BookMoveStrategy strategy = new BookMoveStrategy(book, (board, symbol) -> 6);
+            Board board = new Board();
+            int first = strategy.chooseMove(board, 'R');
+            assertEquals(book.bestMove(board, 'R'), first, "The book move should be played.");
+            board.makeMove(first, 'R');
+            board.makeMove(0, 'Y');
+            board.makeMove(0, 'R');
+            assertEquals(6, strategy.chooseMove(board, 'Y'), "The fallback should be asked outside the book.");
+            assertEquals(1, strategy.getBookHits());
+        }
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path other = directory.resolve("other.bin");
+        Files.write(other, new byte[OpeningBook.HEADER_SIZE]);
+        assertThrows(IOException.class, () -> OpeningBook.open(other));
+        Path truncated = directory.resolve("truncated.bin");
+        byte[] bytes = Files.readAllBytes(bookFile);
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> OpeningBook.open(truncated));
+    }
+}
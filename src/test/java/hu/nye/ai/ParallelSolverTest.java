@@ -0,0 +1,76 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSolverTest {
+
+    private static Board play(final String moves) {
+        Board board = new Board();
+        char symbol = 'R';
+        for (char c : moves.toCharArray()) {
+            board.makeMove(c - '0', symbol);
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        return board;
+    }
+
+    @Test
+    void testTakesImmediateWin() {
+        for (ParallelSolver.Mode mode : ParallelSolver.Mode.values()) {
+            Board board = play("001126");
+            try (ParallelSolver solver = new ParallelSolver(SearchBudget.ofNodes(100_000), 3, mode)) {
+                assertEquals(3, solver.chooseMove(board, 'R'), "Solver should complete the horizontal line.");
+            }
+        }
+    }
+
+    @Test
+    void testAgreesWithSingleThreadedSolver() {
+        for (ParallelSolver.Mode mode : ParallelSolver.Mode.values()) {
+            Board board = play("36466334641164354610321040535100");
+            SearchResult expected = new Solver(SearchBudget.unlimited()).search(board, 'R');
+            try (ParallelSolver solver = new ParallelSolver(SearchBudget.unlimited(), 4, mode)) {
+                SearchResult result = solver.search(board, 'R');
+                assertEquals(expected.score(), result.score(), "Parallel search should find the same value.");
+                assertEquals(mode, solver.getMode());
+            }
+        }
+    }
+
+    @Test
+    void testRespectsTimeBudget() {
+        for (ParallelSolver.Mode mode : ParallelSolver.Mode.values()) {
+            try (ParallelSolver solver = new ParallelSolver(SearchBudget.ofMillis(100), 4, mode)) {
+                SearchResult result = solver.search(new Board(), 'R');
+                assertTrue(result.elapsedNanos() < 2_000_000_000L, "Search should stop close to its deadline.");
+                assertTrue(result.move() >= 0 && result.move() < 7, "A legal move should be returned.");
+                assertTrue(result.nodes() > 0, "Nodes of all threads should be counted.");
+            }
+        }
+    }
+
+    @Test
+    void testBenchmarkReportsEveryThreadCount() {
+        for (ParallelSolver.Mode mode : ParallelSolver.Mode.values()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            double speedup = SearchBenchmark.run(3, 4, mode, new PrintStream(output));
+            assertTrue(speedup > 0, "Speedup should be reported.");
+            String report = output.toString();
+            assertTrue(report.contains("threads=1 "), "Single-threaded baseline should be measured.");
+            assertTrue(report.contains("threads=2 "), "Thread counts should double.");
+            assertTrue(report.contains("threads=3 "), "The maximum thread count should be measured.");
+        }
+    }
+
+    @Test
+    void testRejectsZeroThreads() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelSolver(SearchBudget.ofNodes(1), 0, ParallelSolver.Mode.LAZY_SMP));
+    }
+}
@@ -0,0 +1,125 @@
+package hu.nye.ai;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PonderingStrategyTest {
+
+    /** The depth every reply is pondered to before the player moves. */
+    private static final int DEPTH = 8;
+
+    /** How long pondering may take on a slow machine. */
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    private static Board opening() {
+        Board board = new Board();
+        board.makeMove(3, 'R');
+        board.makeMove(3, 'Y');
+        board.makeMove(2, 'R');
+        board.makeMove(4, 'Y');
+        return board;
+    }
+
+    private static void awaitDepth(final PonderingStrategy strategy, final int depth)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (strategy.getPonderedDepth() < depth && strategy.isPondering()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testPonderingWarmsTheTableForEveryReply() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable();
+        Solver solver = new Solver(SearchBudget.ofDepth(DEPTH), table);
+        PonderingStrategy strategy = new PonderingStrategy(solver, table);
+        strategy.ponder(opening(), 'R', 'Y');
+        awaitDepth(strategy, DEPTH);
+        assertTrue(strategy.getPonderedDepth() >= DEPTH, "Every reply should be pondered to depth " + DEPTH + ".");
+        for (int reply = 0; reply < Board.DEFAULT_COLUMNS; reply++) {
+            Board board = opening();
+            board.makeMove(reply, 'R');
+            strategy.chooseMove(board, 'Y');
+            assertFalse(strategy.isPondering(), "Asking for a move should stop pondering.");
+            SearchResult warm = solver.getLastResult();
+            SearchResult cold = new Solver(SearchBudget.ofDepth(DEPTH), new TranspositionTable()).search(board, 'Y');
+            assertTrue(warm.nodes() < cold.nodes(),
+                    "Reply " + reply + " should need fewer nodes: " + warm.nodes() + " vs " + cold.nodes());
+        }
+        assertTrue(strategy.getPonderedNodes() > 0, "Replies should have been searched.");
+    }
+
+    @Test
+    void testFailedPonderingIsLoggedAndEnds() throws InterruptedException {
+        // The solver does not support five in a row
+        Board board = new Board(Board.DEFAULT_ROWS, Board.DEFAULT_COLUMNS, 5);
+        TranspositionTable table = new TranspositionTable();
+        PonderingStrategy strategy = new PonderingStrategy((b, s) -> 2, table);
+        Logger logger = (Logger) LoggerFactory.getLogger(PonderingStrategy.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        try {
+            strategy.ponder(board, 'R', 'Y');
+            awaitDepth(strategy, 1);
+            assertFalse(strategy.isPondering(), "A failed pondering should end.");
+            assertEquals(0, strategy.getPonderedDepth());
+            assertEquals(2, strategy.chooseMove(board, 'Y'), "The move should still be chosen.");
+        } finally {
+            logger.detachAppender(appender);
+            logger.setAdditive(true);
+        }
+        assertEquals(1, appender.list.size(), "The failure should be logged once.");
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.WARN, event.getLevel());
+        assertEquals("Pondering failed", event.getMessage());
+        assertEquals(IllegalArgumentException.class.getName(), event.getThrowableProxy().getClassName(),
+                "The cause should be logged with the warning.");
+    }
+
+    @Test
+    void testStopsOnceEveryReplyIsSolved() throws InterruptedException {
+        Board board = new Board(4, 4, 4);
+        TranspositionTable table = new TranspositionTable();
+        PonderingStrategy strategy = new PonderingStrategy(new Solver(SearchBudget.unlimited(), table), table);
+        strategy.ponder(board, 'R', 'Y');
+        for (int i = 0; i < 200 && strategy.isPondering(); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(strategy.isPondering(), "Pondering should end when every reply is solved.");
+        strategy.stopPondering();
+        assertTrue(strategy.getPonderedDepth() <= 15, "No reply needs more than the empty cells.");
+        board.makeMove(1, 'R');
+        Solver solver = new Solver(SearchBudget.unlimited(), table);
+        solver.search(board, 'Y');
+        Solver cold = new Solver(SearchBudget.unlimited(), new TranspositionTable());
+        cold.search(board, 'Y');
+        assertTrue(solver.getLastResult().nodes() < cold.getLastResult().nodes(),
+                "The solved reply should be found in the table.");
+        assertEquals(cold.getLastResult().score(), solver.getLastResult().score());
+    }
+
+    @Test
+    void testDoesNotPonderAFullBoard() {
+        Board board = new Board(4, 4, 4);
+        for (int col = 0; col < 4; col++) {
+            for (int row = 0; row < 4; row++) {
+                board.makeMove(col, (row + col / 2) % 2 == 0 ? 'R' : 'Y');
+            }
+        }
+        TranspositionTable table = new TranspositionTable();
+        PonderingStrategy strategy = new PonderingStrategy((b, s) -> 0, table);
+        strategy.ponder(board, 'R', 'Y');
+        assertFalse(strategy.isPondering());
+        strategy.stopPondering();
+    }
+}
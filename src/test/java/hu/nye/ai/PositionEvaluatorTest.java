@@ -0,0 +1,102 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionEvaluatorTest {
+
+    @Test
+    void testCountsLinesOfTheGeometry() {
+        assertEquals(69, PositionEvaluator.forBoard(new Board()).lineCount(),
+                "The standard board should have 69 lines of four.");
+        assertEquals(48, new PositionEvaluator(5, 5, 3).lineCount(),
+                "A 5x5 board should have 48 lines of three.");
+    }
+
+    @Test
+    void testEmptyBoardIsBalanced() {
+        Board board = new Board();
+        assertEquals(0, PositionEvaluator.forBoard(board).evaluate(board, 'R'),
+                "Nobody should stand better on the empty board.");
+    }
+
+    @Test
+    void testFindsThreats() {
+        Board board = new Board();
+        PositionEvaluator evaluator = PositionEvaluator.forBoard(board);
+        for (int col = 0; col < 3; col++) {
+            board.makeMove(col, 'R');
+        }
+        assertEquals(1L << 21, evaluator.threats(board.getPieces('R'), board.getMask()),
+                "Only the bottom cell of column 3 should complete the line.");
+        board.makeMove(4, 'Y');
+        assertEquals(1L << 21, evaluator.threats(board.getPieces('R'), board.getMask()),
+                "A piece beyond the threat should not block it.");
+        board.makeMove(3, 'Y');
+        assertEquals(0, evaluator.threats(board.getPieces('R'), board.getMask()),
+                "A blocked line should not be a threat.");
+
+        Board small = new Board(5, 5, 3);
+        small.makeMove(0, 'R');
+        small.makeMove(1, 'R');
+        assertEquals(1L << 12, new PositionEvaluator(5, 5, 3)
+                        .threats(small.getPieces('R'), small.getMask()),
+                "Two pieces should threaten on a board of three in a row.");
+    }
+
+    @Test
+    void testThreatsOnTheOwnersParityScoreDouble() {
+        PositionEvaluator evaluator = new PositionEvaluator(6, 7, 4);
+        // Three in a row on the bottom row, an odd row
+        long current = 1L | 1L << 7 | 1L << 14;
+        // With three pieces on the board the side to move moved second
+        int second = evaluator.evaluate(current, current);
+        // A lone piece in the top right corner starts three lines
+        long corner = 1L << 47;
+        int first = evaluator.evaluate(current, current | corner);
+        assertEquals(second + PositionEvaluator.PARITY_THREAT_SCORE
+                        - PositionEvaluator.THREAT_SCORE - 3, first,
+                "A threat on an odd row should count double for the first player.");
+    }
+
+    @Test
+    void testPrefersTheCenter() {
+        Board center = new Board();
+        center.makeMove(3, 'R');
+        Board edge = new Board();
+        edge.makeMove(0, 'R');
+        PositionEvaluator evaluator = PositionEvaluator.forBoard(center);
+        assertTrue(evaluator.evaluate(center, 'R') > evaluator.evaluate(edge, 'R'),
+                "A piece in the center should be worth more than one on the edge.");
+        assertTrue(evaluator.evaluate(center, 'Y') < 0,
+                "The opponent's center piece should count against the mover.");
+    }
+
+    @Test
+    void testMirroredPositionsScoreTheSame() {
+        Board board = new Board();
+        Board mirror = new Board();
+        PositionEvaluator evaluator = PositionEvaluator.forBoard(board);
+        String moves = "3322415660";
+        char symbol = 'R';
+        for (char move : moves.toCharArray()) {
+            int col = move - '0';
+            board.makeMove(col, symbol);
+            mirror.makeMove(board.getColumnCount() - 1 - col, symbol);
+            symbol = symbol == 'R' ? 'Y' : 'R';
+            assertEquals(evaluator.evaluate(board, symbol), evaluator.evaluate(mirror, symbol),
+                    "Mirrored positions should score the same after " + moves);
+        }
+    }
+
+    @Test
+    void testMatchesOnlyItsGeometry() {
+        PositionEvaluator evaluator = new PositionEvaluator(6, 7, 4);
+        assertTrue(evaluator.matches(new Board()), "The standard board should match.");
+        assertFalse(evaluator.matches(new Board(6, 7, 5)), "Another line length should not match.");
+        assertThrows(IllegalArgumentException.class, () -> new PositionEvaluator(12, 12, 4),
+                "A board beyond a bitboard should be rejected.");
+    }
+}
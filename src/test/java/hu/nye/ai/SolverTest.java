@@ -0,0 +1,169 @@
+package hu.nye.ai;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board();
+    }
+
+    @Test
+    void testTakesImmediateWin() {
+        board.makeMove(0, 'R');
+        board.makeMove(0, 'Y');
+        board.makeMove(1, 'R');
+        board.makeMove(1, 'Y');
+        board.makeMove(2, 'R');
+        board.makeMove(6, 'Y');
+        Solver solver = new Solver(SearchBudget.ofNodes(100_000));
+        SearchResult result = solver.search(board, 'R');
+        assertEquals(3, result.move(), "Solver should complete the horizontal line.");
+        assertTrue(result.isDecisive(), "An immediate win should be a decisive score.");
+        assertTrue(result.score() > 0, "The win should be scored for the mover.");
+    }
+
+    @Test
+    void testBlocksOpponentWin() {
+        board.makeMove(0, 'Y');
+        board.makeMove(6, 'R');
+        board.makeMove(1, 'Y');
+        board.makeMove(6, 'R');
+        board.makeMove(2, 'Y');
+        Solver solver = new Solver(SearchBudget.ofNodes(200_000));
+        assertEquals(3, solver.chooseMove(board, 'R'), "Solver should block the open line.");
+    }
+
+    @Test
+    void testFindsDoubleThreat() {
+        board.makeMove(1, 'R');
+        board.makeMove(6, 'Y');
+        board.makeMove(2, 'R');
+        board.makeMove(6, 'Y');
+        Solver solver = new Solver(SearchBudget.unlimited());
+        SearchResult result = solver.search(board, 'R');
+        assertEquals(3, result.move(), "Only column 3 creates two threats at once.");
+        assertEquals(Solver.WIN_SCORE - 7, result.score(), "The win should be completed with the seventh piece.");
+    }
+
+    @Test
+    void testSolvesNearlyFullBoardExactly() {
+        // A random 32-move game that leaves no four in a row
+        String fill = "36466334641164354610321040535100";
+        char symbol = 'R';
+        for (char c : fill.toCharArray()) {
+            assertFalse(board.makeMove(c - '0', symbol), "Setup move should fit.");
+            assertFalse(board.checkWin(symbol), "Setup should not contain a win.");
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        char opponent = symbol == 'R' ? 'Y' : 'R';
+        int expected = referenceScore(board, symbol, opponent, fill.length());
+        SearchResult result = new Solver(SearchBudget.unlimited()).search(board, symbol);
+        assertEquals(expected, result.score(), "Solver should agree with exhaustive minimax.");
+        board.makeMove(result.move(), symbol);
+        int achieved = board.checkWin(symbol)
+                ? Solver.WIN_SCORE - fill.length() - 1
+                : -referenceScore(board, opponent, symbol, fill.length() + 1);
+        assertEquals(expected, achieved, "The chosen move should achieve the score.");
+    }
+
+    @Test
+    void testFailingLowBelowATableLowerBoundIsNotExact() {
+        board.makeMove(3, 'R');
+        long current = board.getPieces('Y');
+        long mask = board.getMask();
+        int depth = 6;
+        int col = 3;
+        Solver coldSolver = new Solver(SearchBudget.ofDepth(depth));
+        coldSolver.prepare(board, System.nanoTime());
+        int cold = coldSolver.scoreRootMove(current, mask, col, depth, -Solver.WIN_SCORE - 1);
+
+        // A lower bound above the true score, as left by a deeper search
+        TranspositionTable table = new TranspositionTable();
+        Board child = board.copy();
+        child.makeMove(col, 'Y');
+        long key = child.getPieces('R') + child.getMask();
+        table.store(key, -cold + 2, depth, TranspositionTable.LOWER, -1);
+        Solver solver = new Solver(SearchBudget.ofDepth(depth), table);
+        solver.prepare(board, System.nanoTime());
+        solver.scoreRootMove(current, mask, col, depth, -Solver.WIN_SCORE - 1);
+        assertNotEquals(TranspositionTable.EXACT, TranspositionTable.boundOf(table.probe(key)),
+                "Failing low against a raised alpha should not store an exact score.");
+        assertEquals(cold, solver.scoreRootMove(current, mask, col, depth, -Solver.WIN_SCORE - 1),
+                "The re-search should agree with a cold solve.");
+    }
+
+    /**
+     * Scores a position by plain minimax over the whole game tree.
+     */
+    private static int referenceScore(final Board position, final char me, final char opponent,
+                                      final int moves) {
+        int best = Integer.MIN_VALUE;
+        for (int col = 0; col < 7; col++) {
+            int row = position.dropPiece(col, me);
+            if (row < 0) {
+                continue;
+            }
+            int score = position.checkWinAt(row, col)
+                    ? Solver.WIN_SCORE - moves - 1
+                    : -referenceScore(position, opponent, me, moves + 1);
+            position.undoMove(col);
+            best = Math.max(best, score);
+        }
+        return best == Integer.MIN_VALUE ? 0 : best;
+    }
+
+    @Test
+    void testRespectsNodeBudget() {
+        Solver solver = new Solver(SearchBudget.ofNodes(5_000));
+        SearchResult result = solver.search(board, 'R');
+        assertTrue(result.nodes() <= 5_000, "Search should stop at the node limit.");
+        assertTrue(result.move() >= 0 && result.move() < 7, "A legal move should still be returned.");
+        assertEquals(result, solver.getLastResult(), "The last result should be kept.");
+    }
+
+    @Test
+    void testRespectsTimeBudget() {
+        Solver solver = new Solver(SearchBudget.ofMillis(100));
+        SearchResult result = solver.search(board, 'R');
+        assertTrue(result.elapsedNanos() < 2_000_000_000L, "Search should stop close to its deadline.");
+        assertTrue(result.depth() > 0, "At least one iteration should complete.");
+        assertTrue(result.nodesPerSecond() > 0, "Search speed should be reported.");
+        assertEquals(3, result.move(), "The center column is the best opening move.");
+    }
+
+    @Test
+    void testDoesNotModifyBoard() {
+        board.makeMove(3, 'R');
+        long mask = board.getMask();
+        new Solver(SearchBudget.ofNodes(10_000)).search(board, 'Y');
+        assertEquals(mask, board.getMask(), "Searching should leave the board unchanged.");
+    }
+
+    @Test
+    void testRejectsFullBoard() {
+        for (int col = 0; col < 7; col++) {
+            for (int row = 0; row < 6; row++) {
+                board.makeMove(col, (col / 2 + row) % 2 == 0 ? 'R' : 'Y');
+            }
+        }
+        Solver solver = new Solver(SearchBudget.ofNodes(10));
+        assertThrows(IllegalArgumentException.class, () -> solver.search(board, 'R'));
+    }
+
+    @Test
+    void testRejectsOtherWinLengthOfTheSameSize() {
+        Solver solver = new Solver(SearchBudget.ofNodes(1_000));
+        solver.search(new Board(), 'R');
+        Board connectFive = new Board(Board.DEFAULT_ROWS, Board.DEFAULT_COLUMNS, 5);
+        assertThrows(IllegalArgumentException.class, () -> solver.search(connectFive, 'R'),
+                "A cached geometry should not hide another win length.");
+    }
+}
@@ -0,0 +1,127 @@
+package hu.nye.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(10);
+        table.store(12345L, -987, 7, TranspositionTable.LOWER, 3);
+        long entry = table.probe(12345L);
+        assertNotEquals(TranspositionTable.NO_ENTRY, entry, "Stored entry should be found.");
+        assertEquals(-987, TranspositionTable.scoreOf(entry));
+        assertEquals(7, TranspositionTable.depthOf(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.boundOf(entry));
+        assertEquals(3, TranspositionTable.moveOf(entry));
+    }
+
+    @Test
+    void testMissingMoveAndKey() {
+        TranspositionTable table = new TranspositionTable(10);
+        table.store(42L, Solver.WIN_SCORE - 10, 0, TranspositionTable.EXACT, -1);
+        assertEquals(-1, TranspositionTable.moveOf(table.probe(42L)), "Missing move should be -1.");
+        assertEquals(Solver.WIN_SCORE - 10, TranspositionTable.scoreOf(table.probe(42L)));
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(43L), "Unknown key should miss.");
+    }
+
+    @Test
+    void testDeeperEntryOfCurrentSearchIsKept() {
+        TranspositionTable table = new TranspositionTable(1);  // One bucket of two slots
+        table.store(1L, 1, 10, TranspositionTable.EXACT, 0);
+        table.store(2L, 2, 5, TranspositionTable.EXACT, 0);
+        table.store(3L, 3, 3, TranspositionTable.EXACT, 0);
+        assertEquals(1, TranspositionTable.scoreOf(table.probe(1L)), "A bucket should hold several positions.");
+        assertEquals(2, TranspositionTable.scoreOf(table.probe(2L)), "Shallower entry should not evict.");
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(3L));
+
+        table.newSearch();
+        table.store(3L, 3, 3, TranspositionTable.EXACT, 0);
+        assertEquals(3, TranspositionTable.scoreOf(table.probe(3L)), "Entries of old searches should be replaced.");
+        assertEquals(1, TranspositionTable.scoreOf(table.probe(1L)), "The shallowest old entry should go first.");
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(2L));
+
+        table.store(3L, 4, 1, TranspositionTable.UPPER, 2);
+        assertEquals(4, TranspositionTable.scoreOf(table.probe(3L)), "The same position should be overwritten.");
+    }
+
+    @Test
+    void testSizeInMegabytesAndResize() {
+        TranspositionTable table = TranspositionTable.ofMegabytes(3);
+        assertEquals(2L << 20, table.sizeInBytes(), "The table should be the largest power of two that fits.");
+        assertEquals(table.sizeInBytes() / TranspositionTable.SLOT_BYTES, table.capacity());
+        table.store(7L, 5, 5, TranspositionTable.EXACT, 1);
+        table.resize(2);
+        assertEquals(2L << 20, table.sizeInBytes());
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(7L), "Resizing should empty the table.");
+        table.resize(16);
+        assertEquals(16L << 20, table.sizeInBytes());
+        table.store(7L, 5, 5, TranspositionTable.EXACT, 1);
+        assertEquals(5, TranspositionTable.scoreOf(table.probe(7L)));
+        assertThrows(IllegalArgumentException.class, () -> table.resize(0));
+    }
+
+    @Test
+    void testAllocatesOnFirstUse() {
+        TranspositionTable table = TranspositionTable.ofMegabytes(64);
+        assertFalse(table.isAllocated(), "A new table should not hold memory yet.");
+        assertEquals(64L << 20, table.sizeInBytes(), "The size should be known before allocation.");
+        table.clear();
+        assertFalse(table.isAllocated(), "Clearing should not allocate.");
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(7L));
+        assertTrue(table.isAllocated(), "The first probe should allocate.");
+        table.resize(1);
+        assertFalse(table.isAllocated(), "Resizing should release the memory until the next use.");
+        table.store(7L, 5, 5, TranspositionTable.EXACT, 1);
+        assertTrue(table.isAllocated(), "A store should allocate.");
+        assertEquals(5, TranspositionTable.scoreOf(table.probe(7L)));
+    }
+
+    @Test
+    void testConcurrentWritersNeverReturnForeignEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(6);  // Small, so threads collide constantly
+        AtomicInteger wrong = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextInt(1_000);
+                    long entry = table.probe(key);
+                    if (entry != TranspositionTable.NO_ENTRY && TranspositionTable.scoreOf(entry) != (int) key) {
+                        wrong.incrementAndGet();
+                    }
+                    table.store(key, (int) key, random.nextInt(20), TranspositionTable.EXACT, (int) key % 7);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, wrong.get(), "A probe should only return entries stored for its key.");
+    }
+
+    @Test
+    void testClear() {
+        TranspositionTable table = new TranspositionTable(4);
+        table.store(5L, 1, 1, TranspositionTable.EXACT, 1);
+        table.clear();
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(5L));
+        assertEquals(16, table.capacity());
+    }
+
+    @Test
+    void testInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+}
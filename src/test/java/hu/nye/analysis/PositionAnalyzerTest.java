@@ -0,0 +1,148 @@
+package hu.nye.analysis;
+
+import hu.nye.ai.SearchBudget;
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionAnalyzerTest {
+
+    private static final String EMPTY_ROW = "-------";
+
+    @TempDir
+    Path dir;
+
+    private PositionAnalyzer analyzer(int threads) {
+        return new PositionAnalyzer(6, 7, 'R', 'Y', SearchBudget.ofDepth(6), threads);
+    }
+
+    private static String position(String... bottomRows) {
+        StringBuilder text = new StringBuilder();
+        for (int i = bottomRows.length; i < 6; i++) {
+            text.append(EMPTY_ROW).append('\n');
+        }
+        for (String row : bottomRows) {
+            text.append(row).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Test
+    void testInvalidRecordsAreCountedAndSkipped() throws IOException {
+        Path input = dir.resolve("positions.txt");
+        Files.writeString(input, position("RRR-YYY") // 0: R wins in column 3
+                + "====\n"
+                + position("---R---") // 1: Y to move
+                + "\n"
+                + "-------\n-------\n--X----\n-------\n-------\n-------\n" // 2: unknown symbol
+                + position("RR-R---") // 3: parity
+                + "-------\n-------\n-------\n-------\n---R---\n---Y---\n" // 4: Y floats? no, valid
+                + "-------\n-------\n-------\n---R---\n-------\n---Y---\n" // 5: floating
+                + position("RRRRYYY") // 6: decided
+                + "-------\n-------\n------\n-------\n-------\n-------\n" // 7: short row
+                + "  -------  \r\n-------\r\n-------\r\n-------\r\n-------\r\n-------\r\n" // 8: empty board
+                + "-------\n-------\n"); // 9: cut off
+        Path output = dir.resolve("results.csv");
+
+        AnalysisReport report = analyzer(2).analyze(input, output, PositionAnalyzer.Format.CSV, r -> { });
+
+        assertEquals(4, report.analyzed(), report.toString());
+        assertEquals(6, report.skipped());
+        assertEquals(2L, report.defects().get(PositionDefect.MALFORMED));
+        assertEquals(1L, report.defects().get(PositionDefect.SYMBOLS));
+        assertEquals(1L, report.defects().get(PositionDefect.PARITY));
+        assertEquals(1L, report.defects().get(PositionDefect.FLOATING));
+        assertEquals(1L, report.defects().get(PositionDefect.DECIDED));
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(CsvResultWriter.HEADER, lines.get(0));
+        assertEquals(5, lines.size());
+        String[] win = lines.get(1).split(",");
+        assertEquals("0", win[0]);
+        assertEquals("R", win[1]);
+        assertEquals("3", win[3], "The winning move should be found.");
+        assertTrue(lines.get(2).startsWith("1,Y,"), "Y should move after one R piece.");
+        assertTrue(lines.get(3).startsWith("4,R,"));
+        assertTrue(lines.get(4).startsWith("8,R,"), "Whitespace and CRLF should be ignored.");
+    }
+
+    @Test
+    void testBinaryOutput() throws IOException {
+        Path input = dir.resolve("positions.txt");
+        Files.writeString(input, position("RRR-YYY") + position("---R---"));
+        Path output = dir.resolve("results.bin");
+
+        AnalysisReport report = analyzer(1).analyze(input, output, PositionAnalyzer.Format.BINARY, r -> { });
+
+        assertEquals(2, report.analyzed());
+        assertEquals(8 + 2L * BinaryResultWriter.RECORD_SIZE, Files.size(output));
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(output))) {
+            assertEquals(BinaryResultWriter.MAGIC, in.readInt());
+            assertEquals(BinaryResultWriter.VERSION, in.readInt());
+            assertEquals(0, in.readLong());
+            Board board = new Board();
+            board.setCells(List.of(EMPTY_ROW, EMPTY_ROW, EMPTY_ROW, EMPTY_ROW, EMPTY_ROW, "RRR-YYY"));
+            assertEquals(board.getPieces('R') + board.getMask(), in.readLong());
+            assertEquals('R', in.readByte());
+            assertEquals(3, in.readByte());
+        }
+    }
+
+    @Test
+    void testLargeFileKeepsInputOrder() throws IOException {
+        Random random = new Random(5);
+        StringBuilder text = new StringBuilder();
+        int positions = 3 * PositionAnalyzer.BATCH_SIZE + 17;
+        List<Character> sides = new ArrayList<>();
+        for (int i = 0; i < positions; i++) {
+            Board board = new Board();
+            char symbol = 'R';
+            int moves = random.nextInt(10);
+            for (int m = 0; m < moves; m++) {
+                int col = random.nextInt(7);
+                int row = board.dropPiece(col, symbol);
+                if (board.checkWinAt(row, col)) {
+                    board.undoMove(col);
+                    break;
+                }
+                symbol = symbol == 'R' ? 'Y' : 'R';
+            }
+            sides.add(symbol);
+            for (char[] row : board.getBoard()) {
+                text.append(row).append('\n');
+            }
+            text.append("====\n");
+        }
+        Path input = dir.resolve("many.txt");
+        Files.writeString(input, text);
+        Path output = dir.resolve("many.csv");
+
+        AnalysisReport report = analyzer(4).analyze(input, output, PositionAnalyzer.Format.CSV, r -> { });
+
+        assertEquals(positions, report.analyzed(), report.toString());
+        assertEquals(0, report.skipped());
+        assertTrue(report.positionsPerSecond() > 0);
+        List<String> lines = Files.readAllLines(output);
+        for (int i = 0; i < positions; i++) {
+            assertTrue(lines.get(i + 1).startsWith(i + "," + sides.get(i) + ","),
+                    "Results should be written in input order.");
+        }
+    }
+
+    @Test
+    void testUnsupportedSetupIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PositionAnalyzer(12, 12, 'R', 'Y', SearchBudget.ofDepth(1), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PositionAnalyzer(6, 7, 'R', 'R', SearchBudget.ofDepth(1), 1));
+    }
+}
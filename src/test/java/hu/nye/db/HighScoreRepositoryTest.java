@@ -0,0 +1,133 @@
+package hu.nye.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the HighScoreRepository class.
+ */
+class HighScoreRepositoryTest {
+
+    private static final long NEVER = 3_600_000;
+
+    @TempDir
+    Path dir;
+
+    private String url() {
+        return "jdbc:h2:" + dir.resolve("scores").toAbsolutePath();
+    }
+
+    private int storedWins(String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url());
+             ResultSet rows = connection.createStatement().executeQuery(
+                     "SELECT wins FROM high_scores WHERE player_name = '" + name + "'")) {
+            return rows.next() ? rows.getInt(1) : 0;
+        }
+    }
+
+    @Test
+    void testLeaderboardIsRankedFromMemory() throws SQLException {
+        try (HighScoreRepository scores = new HighScoreRepository(url(), NEVER, 1_000)) {
+            scores.recordWin("Bob");
+            scores.recordWin("Alice");
+            scores.recordWins("Carol", 3);
+            scores.recordWin("Alice");
+            assertEquals(List.of(new HighScore("Carol", 3), new HighScore("Alice", 2), new HighScore("Bob", 1)),
+                    scores.top(10), "Entries should be ranked by wins.");
+            assertEquals(2, scores.top(2).size());
+            assertEquals(0, storedWins("Carol"), "Wins should not be written synchronously.");
+            scores.recordWins("Bob", 2);
+            assertEquals(new HighScore("Bob", 3), scores.top(1).get(0), "Ties should be ordered by name.");
+        }
+    }
+
+    @Test
+    void testWinsSurviveReopening() throws SQLException {
+        try (HighScoreRepository scores = new HighScoreRepository(url(), NEVER, 1_000)) {
+            scores.recordWins("Alice", 2);
+            scores.flush();
+            assertEquals(2, storedWins("Alice"), "A flush should write the pending wins.");
+            scores.recordWin("Alice");
+            scores.recordWin("Computer");
+        }
+        try (HighScoreRepository scores = new HighScoreRepository(url(), NEVER, 1_000)) {
+            assertEquals(3, scores.winsOf("Alice"), "Closing should write the pending wins.");
+            assertEquals(1, scores.winsOf("Computer"));
+            assertEquals(0, scores.winsOf("Nobody"));
+        }
+    }
+
+    @Test
+    void testClosedRepositoryRejectsWins() throws SQLException {
+        HighScoreRepository scores = new HighScoreRepository(url(), NEVER, 1);
+        scores.recordWin("Alice");
+        scores.close();
+        assertThrows(IllegalStateException.class, () -> scores.recordWin("Alice"),
+                "Wins after closing should be rejected.");
+        assertThrows(IllegalStateException.class, scores::flush);
+        assertEquals(1, storedWins("Alice"), "Closing should still write the pending wins.");
+    }
+
+    @Test
+    void testFullBatchIsWrittenInBackground() throws Exception {
+        try (HighScoreRepository scores = new HighScoreRepository(url(), NEVER, 4)) {
+            for (int i = 0; i < 4; i++) {
+                scores.recordWin("Player" + i);
+            }
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (storedWins("Player3") == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, storedWins("Player3"), "A full batch should be written without a flush.");
+        }
+    }
+
+    @Test
+    void testConcurrentWinsAreAllCounted() throws Exception {
+        int threads = 4;
+        int winsPerThread = 5_000;
+        try (HighScoreRepository scores = new HighScoreRepository(url(), 5, 8)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                Thread worker = new Thread(() -> {
+                    for (int i = 0; i < winsPerThread; i++) {
+                        scores.recordWin("Player" + (i + id) % 16);
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            int total = scores.top(100).stream().mapToInt(HighScore::wins).sum();
+            assertEquals(threads * winsPerThread, total, "The cache should count every win.");
+        }
+        try (HighScoreRepository scores = new HighScoreRepository(url(), NEVER, 1_000)) {
+            int total = scores.top(100).stream().mapToInt(HighScore::wins).sum();
+            assertEquals(threads * winsPerThread, total, "The database should count every win.");
+        }
+    }
+
+    @Test
+    void testInvalidEntriesAreRejected() throws SQLException {
+        try (HighScoreRepository scores = new HighScoreRepository(url(), NEVER, 1_000)) {
+            assertThrows(IllegalArgumentException.class, () -> scores.recordWin(" "));
+            assertThrows(IllegalArgumentException.class, () -> scores.recordWin("x".repeat(65)));
+            assertThrows(IllegalArgumentException.class, () -> scores.recordWins("Alice", 0));
+            assertTrue(scores.top(10).isEmpty(), "Rejected wins should not be counted.");
+        }
+        assertThrows(IllegalArgumentException.class, () -> new HighScore("Alice", -1));
+    }
+}
@@ -0,0 +1,115 @@
+package hu.nye.io;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the training sample export.
+ */
+class DatasetWriterTest {
+
+    /** A vertical win of the first player in column 0. */
+    private static final String WIN = "0101010";
+
+    @TempDir
+    Path dir;
+
+    private static void archive(DatasetWriter writer, String columns) throws IOException {
+        Board board = new Board();
+        byte[] moves = new byte[columns.length()];
+        char symbol = 'R';
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (byte) (columns.charAt(i) - '0');
+            board.makeMove(moves[i], symbol);
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        Board before = board.copy();
+        writer.archive(board, 'R', 'Y', moves, moves.length);
+        assertTrue(board.samePosition(before), "The final board should be restored.");
+        assertEquals(moves.length, board.getHistorySize(), "The moves should be replayed.");
+    }
+
+    @Test
+    void testExportsEveryPositionOfAGame() throws IOException {
+        try (DatasetWriter writer = new DatasetWriter(dir, 1, 1,
+                (board, symbol) -> board.getMoveCount() * 10)) {
+            archive(writer, WIN);
+            assertEquals(7, writer.getWrittenCount());
+        }
+        List<TrainingSample> samples = TrainingSample.readShard(DatasetWriter.shardPath(dir, 0));
+        assertEquals(7, samples.size(), "Every position before a move should be exported.");
+        assertEquals(new TrainingSample(0, 0, 0, 0, 1, 0), samples.get(0), "The empty board is won by the first player.");
+        TrainingSample last = samples.get(6);
+        assertEquals(6, last.ply());
+        assertEquals(0, last.side(), "The first player moves seventh.");
+        assertEquals(0b111L, last.current(), "The first player holds three pieces in column 0.");
+        assertEquals(0b111L << 7, last.opponent(), "The second player holds three pieces in column 1.");
+        assertEquals(60, last.score(), "The scorer should label the position.");
+        assertEquals(-1, samples.get(1).result(), "The second player lost.");
+    }
+
+    @Test
+    void testSkipsDuplicatesAndMirrorImages() throws IOException {
+        try (DatasetWriter writer = new DatasetWriter(dir)) {
+            archive(writer, WIN);
+            archive(writer, WIN);
+            archive(writer, "6565656");
+            assertEquals(7, writer.getWrittenCount(), "Repeated and mirrored positions should be skipped.");
+            assertEquals(14, writer.getDuplicateCount());
+            archive(writer, "0101020");
+            assertEquals(8, writer.getWrittenCount(), "Only the new last position should be exported.");
+        }
+        List<TrainingSample> samples = TrainingSample.readShard(DatasetWriter.shardPath(dir, 0));
+        assertFalse(samples.get(0).hasScore(), "Samples should not be scored without a scorer.");
+    }
+
+    @Test
+    void testRollsShardsAtTheSizeLimit() throws IOException {
+        long limit = DatasetWriter.HEADER_SIZE + 3L * TrainingSample.RECORD_SIZE;
+        try (DatasetWriter writer = new DatasetWriter(dir, limit, new OffHeapKeySet(1), null)) {
+            archive(writer, WIN);
+            assertEquals(3, writer.getShardCount(), "Seven samples should fill three shards.");
+        }
+        assertEquals(limit, Files.size(DatasetWriter.shardPath(dir, 0)), "A full shard should reach the limit.");
+        assertEquals(1, TrainingSample.readShard(DatasetWriter.shardPath(dir, 2)).size());
+        try (DatasetWriter writer = new DatasetWriter(dir, limit, new OffHeapKeySet(1), null)) {
+            archive(writer, WIN);
+        }
+        assertTrue(Files.exists(DatasetWriter.shardPath(dir, 3)), "A new writer should continue the numbering.");
+        assertEquals(3, TrainingSample.readShard(DatasetWriter.shardPath(dir, 0)).size(),
+                "Existing shards should not be replaced.");
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("other.c4ds");
+        Files.write(file, new byte[DatasetWriter.HEADER_SIZE]);
+        assertThrows(IOException.class, () -> TrainingSample.readShard(file));
+    }
+
+    @Test
+    void testKeySetStartsOverWhenFull() {
+        OffHeapKeySet keys = new OffHeapKeySet(1);
+        assertTrue(keys.add(0), "The empty position should be a valid key.");
+        assertFalse(keys.add(0), "A key should only be added once.");
+        int capacity = 1_048_576 / Long.BYTES * 3 / 4;
+        for (long key = 1; key < capacity; key++) {
+            assertTrue(keys.add(key * 97));
+        }
+        assertEquals(capacity, keys.size());
+        assertEquals(0, keys.resets());
+        assertTrue(keys.add(-2L >>> 1), "A new key should clear the full set.");
+        assertEquals(1, keys.resets());
+        assertEquals(1, keys.size());
+        assertTrue(keys.add(0), "Cleared keys should be forgotten.");
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapKeySet(0));
+    }
+}
@@ -0,0 +1,193 @@
+package hu.nye.io;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the binary game log.
+ */
+class GameLogTest {
+
+    private static final String DRAW = "015502320345364356222230416104501114435666";
+
+    @TempDir
+    Path dir;
+
+    private static byte[] moves(String columns) {
+        byte[] moves = new byte[columns.length()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (byte) (columns.charAt(i) - '0');
+        }
+        return moves;
+    }
+
+    private static GameRecord standard(String columns, GameRecord.Outcome outcome) {
+        return new GameRecord(6, 7, 4, 'R', 'Y', moves(columns), outcome);
+    }
+
+    @Test
+    void testRecordsRoundTrip() throws IOException {
+        Path log = dir.resolve("games.c4log");
+        List<GameRecord> written = List.of(
+                standard(DRAW, GameRecord.Outcome.DRAW),
+                standard("0101010", GameRecord.Outcome.FIRST_WINS),
+                standard("", GameRecord.Outcome.UNFINISHED),
+                new GameRecord(12, 12, 5, 'X', 'O', new byte[] {11, 0, 11}, GameRecord.Outcome.UNFINISHED));
+        try (GameLogWriter writer = new GameLogWriter(log)) {
+            for (GameRecord record : written) {
+                writer.append(record);
+            }
+            assertEquals(written.size(), writer.getAppendedCount());
+        }
+        List<GameRecord> read = new ArrayList<>();
+        try (GameLogReader reader = GameLogReader.open(log)) {
+            for (GameRecord record = reader.read(); record != null; record = reader.read()) {
+                read.add(record);
+            }
+        }
+        assertEquals(written, read, "Records should be read back unchanged.");
+        assertEquals(26, standard(DRAW, GameRecord.Outcome.DRAW).encodedSize(),
+                "A full standard game should take 26 bytes.");
+    }
+
+    @Test
+    void testStreamsManyRecords() throws IOException {
+        Path log = dir.resolve("many.c4log");
+        Random random = new Random(3);
+        int games = 100_000;
+        try (GameLogWriter writer = new GameLogWriter(log, 1_000)) {
+            for (int i = 0; i < games; i++) {
+                byte[] moves = new byte[1 + random.nextInt(20)];
+                for (int m = 0; m < moves.length; m++) {
+                    moves[m] = (byte) random.nextInt(7);
+                }
+                writer.append(new GameRecord(6, 7, 4, 'R', 'Y', moves, GameRecord.Outcome.UNFINISHED));
+            }
+        }
+        try (GameLogReader reader = GameLogReader.open(log)) {
+            assertEquals(games, reader.stream().count(), "Every record should be streamed.");
+        }
+    }
+
+    @Test
+    void testReopenAppendsAfterExistingRecords() throws IOException {
+        Path log = dir.resolve("append.c4log");
+        try (GameLogWriter writer = new GameLogWriter(log)) {
+            writer.append(standard("012", GameRecord.Outcome.UNFINISHED));
+        }
+        try (GameLogWriter writer = new GameLogWriter(log)) {
+            writer.append(standard("3456", GameRecord.Outcome.UNFINISHED));
+        }
+        try (GameLogReader reader = GameLogReader.open(log)) {
+            List<GameRecord> records = reader.stream().toList();
+            assertEquals(2, records.size());
+            assertEquals(4, records.get(1).moveCount());
+        }
+    }
+
+    @Test
+    void testTruncatedRecordIsReported() throws IOException {
+        Path log = dir.resolve("truncated.c4log");
+        try (GameLogWriter writer = new GameLogWriter(log)) {
+            writer.append(standard(DRAW, GameRecord.Outcome.DRAW));
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (GameLogReader reader = GameLogReader.open(log)) {
+            assertThrows(IOException.class, reader::read, "A cut-off record must not be read.");
+        }
+    }
+
+    @Test
+    void testReopenDropsTruncatedRecord() throws IOException {
+        Path log = dir.resolve("crashed.c4log");
+        try (GameLogWriter writer = new GameLogWriter(log)) {
+            writer.append(standard("012", GameRecord.Outcome.UNFINISHED));
+            writer.append(standard(DRAW, GameRecord.Outcome.DRAW));
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (GameLogWriter writer = new GameLogWriter(log)) {
+            writer.append(standard("3456", GameRecord.Outcome.UNFINISHED));
+            writer.append(standard("0101010", GameRecord.Outcome.FIRST_WINS));
+        }
+        try (GameLogReader reader = GameLogReader.open(log)) {
+            List<GameRecord> records = reader.stream().toList();
+            assertEquals(List.of(standard("012", GameRecord.Outcome.UNFINISHED),
+                    standard("3456", GameRecord.Outcome.UNFINISHED),
+                    standard("0101010", GameRecord.Outcome.FIRST_WINS)), records,
+                    "Only the cut-off record should be lost.");
+        }
+    }
+
+    @Test
+    void testForeignFileIsRejected() throws IOException {
+        Path other = dir.resolve("other.txt");
+        Files.writeString(other, "not a game log");
+        assertThrows(IOException.class, () -> GameLogReader.open(other));
+        assertThrows(IOException.class, () -> new GameLogWriter(other));
+    }
+
+    @Test
+    void testArchiveDerivesOutcome() throws IOException {
+        Path log = dir.resolve("archive.c4log");
+        Board board = new Board();
+        byte[] history = moves("0101010");
+        char symbol = 'R';
+        for (byte move : history) {
+            board.makeMove(move, symbol);
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        try (GameLogWriter writer = new GameLogWriter(log)) {
+            writer.archive(board, 'R', 'Y', history, history.length);
+        }
+        try (GameLogReader reader = GameLogReader.open(log)) {
+            GameRecord record = reader.read();
+            assertEquals(GameRecord.Outcome.FIRST_WINS, record.outcome());
+            assertTrue(record.replay().checkWin('R'), "The replayed board should be won.");
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void testExportText() throws IOException {
+        Path log = dir.resolve("export.c4log");
+        Path text = dir.resolve("saved_game.txt");
+        try (GameLogWriter writer = new GameLogWriter(log)) {
+            writer.append(standard(DRAW, GameRecord.Outcome.DRAW));
+            writer.append(standard("0101010", GameRecord.Outcome.FIRST_WINS));
+        }
+        assertEquals(2, GameLogReader.exportText(log, text));
+        String exported = Files.readString(text);
+        assertTrue(exported.contains("===="), "Games should be separated like text saves.");
+        assertTrue(exported.startsWith("YRYYRRY\n"), "The drawn game should be exported first.");
+    }
+
+    @Test
+    void testRecordValidation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameRecord(6, 7, 4, 'R', 'Y', new byte[] {7}, GameRecord.Outcome.UNFINISHED));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameRecord(6, 7, 4, 'R', 'Y', new byte[43], GameRecord.Outcome.UNFINISHED));
+        byte[] moves = moves("33");
+        GameRecord record = new GameRecord(6, 7, 4, 'R', 'Y', moves, GameRecord.Outcome.UNFINISHED);
+        moves[0] = 0;
+        assertEquals(3, record.moves()[0], "The record should keep its own copy of the moves.");
+        assertEquals(record, standard("33", GameRecord.Outcome.UNFINISHED));
+        assertEquals(record.hashCode(), standard("33", GameRecord.Outcome.UNFINISHED).hashCode());
+    }
+}
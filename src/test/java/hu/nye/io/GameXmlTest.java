@@ -0,0 +1,134 @@
+package hu.nye.io;
+
+import hu.nye.model.Board;
+import hu.nye.model.Player;
+import hu.nye.model.SuspendedGame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for saving and resuming suspended games as XML.
+ */
+class GameXmlTest {
+
+    private static final Player ALICE = new Player("Alice & <Bob>", 'R');
+    private static final Player COMPUTER = new Player("Computer", 'Y');
+
+    @TempDir
+    Path dir;
+
+    private static SuspendedGame game(String columns) {
+        Board board = new Board();
+        List<Integer> moves = new ArrayList<>();
+        char symbol = 'R';
+        for (char column : columns.toCharArray()) {
+            board.makeMove(column - '0', symbol);
+            moves.add(column - '0');
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        List<String> cells = new ArrayList<>();
+        for (char[] row : board.getBoard()) {
+            cells.add(new String(row));
+        }
+        return new SuspendedGame(6, 7, 4, ALICE, COMPUTER, moves.size() % 2 == 0, cells, moves);
+    }
+
+    @Test
+    void testGamesRoundTrip() throws IOException {
+        Path file = dir.resolve("games.xml");
+        List<SuspendedGame> written = List.of(game(""), game("3"), game("334452"));
+        try (GameXmlWriter writer = new GameXmlWriter(file)) {
+            for (SuspendedGame game : written) {
+                writer.write(game);
+            }
+        }
+        List<SuspendedGame> read = new ArrayList<>();
+        try (GameXmlReader reader = GameXmlReader.open(file)) {
+            for (SuspendedGame game = reader.read(); game != null; game = reader.read()) {
+                read.add(game);
+            }
+            assertNull(reader.read(), "Reading past the end should keep returning null.");
+        }
+        assertEquals(written, read, "Games should be read back unchanged.");
+        assertEquals(written.get(0), GameXmlReader.load(file), "Loading should return the first game.");
+    }
+
+    @Test
+    void testResumedBoardMatchesSavedOne() throws IOException {
+        Path file = dir.resolve("one.xml");
+        SuspendedGame saved = game("3344521");
+        GameXmlWriter.save(file, saved);
+        Board board = GameXmlReader.load(file).toBoard();
+        Board expected = saved.toBoard();
+        assertArrayEquals(expected.getBoard(), board.getBoard());
+        assertEquals(7, board.getMoveCount());
+    }
+
+    @Test
+    void testStreamsLargeArchive() throws IOException {
+        Path file = dir.resolve("archive.xml");
+        SuspendedGame game = game("0123456012345");
+        int games = 20_000;
+        try (GameXmlWriter writer = new GameXmlWriter(file)) {
+            for (int i = 0; i < games; i++) {
+                writer.write(game);
+            }
+        }
+        try (GameXmlReader reader = GameXmlReader.open(file)) {
+            assertEquals(games, reader.stream().filter(game::equals).count(),
+                    "Every game should be streamed.");
+        }
+    }
+
+    @Test
+    void testResumeAllReadsEveryFile() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int f = 0; f < 12; f++) {
+            Path file = dir.resolve("batch" + f + ".xml");
+            try (GameXmlWriter writer = new GameXmlWriter(file)) {
+                for (int i = 0; i <= f; i++) {
+                    writer.write(game(String.valueOf(f % 7)));
+                }
+            }
+            files.add(file);
+        }
+        List<SuspendedGame> games = GameXmlReader.resumeAll(files, 4);
+        assertEquals(78, games.size(), "Every game of every file should be resumed.");
+        assertEquals(List.of(0), games.get(0).moves(), "Games should keep the order of the files.");
+        assertEquals(List.of(4), games.get(games.size() - 1).moves());
+    }
+
+    @Test
+    void testInvalidDocumentsAreRejected() throws IOException {
+        Path foreign = dir.resolve("foreign.xml");
+        Files.writeString(foreign, "<games/>");
+        assertThrows(IOException.class, () -> GameXmlReader.open(foreign));
+
+        Path badBoard = dir.resolve("bad.xml");
+        Files.writeString(badBoard, """
+                <suspended-games version="1">
+                  <game rows="6" columns="7" connect="4" to-move="human">
+                    <player role="human" name="Alice" symbol="R"/>
+                    <player role="computer" name="Computer" symbol="Y"/>
+                    <board><row>-------</row></board>
+                    <moves></moves>
+                  </game>
+                </suspended-games>
+                """);
+        assertThrows(IOException.class, () -> GameXmlReader.load(badBoard), "A board needs every row.");
+
+        Path threeSymbols = dir.resolve("three.xml");
+        GameXmlWriter.save(threeSymbols, new SuspendedGame(4, 4, 4, ALICE, COMPUTER, true,
+                List.of("----", "----", "----", "RYX-"), List.of()));
+        assertThrows(IOException.class, () -> GameXmlReader.resumeAll(List.of(threeSymbols), 2),
+                "Boards that cannot be rebuilt should be reported.");
+    }
+}
@@ -0,0 +1,60 @@
+package hu.nye.metrics;
+
+import hu.nye.ai.SearchBudget;
+import hu.nye.ai.Solver;
+import hu.nye.model.Board;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the EngineMetrics class.
+ */
+class EngineMetricsTest {
+
+    @AfterEach
+    void disable() {
+        EngineMetrics.setEnabled(false);
+    }
+
+    private static long value(String name) {
+        for (Metric metric : EngineMetrics.registry().metrics()) {
+            if (metric.name().equals(name)) {
+                return metric instanceof LatencyHistogram histogram ? histogram.count()
+                        : ((Counter) metric).get();
+            }
+        }
+        throw new AssertionError("No metric " + name);
+    }
+
+    @Test
+    void testDisabledMetricsRecordNothing() {
+        EngineMetrics.setEnabled(false);
+        long games = value("connect4_games_completed_total");
+        long searches = value("connect4_search_seconds");
+        assertEquals(EngineMetrics.NOT_TIMED, EngineMetrics.startTimer(), "Disabled timers should not read the clock.");
+        EngineMetrics.gameCompleted();
+        new Solver(SearchBudget.ofDepth(4)).search(new Board(), 'R');
+        assertEquals(games, value("connect4_games_completed_total"));
+        assertEquals(searches, value("connect4_search_seconds"));
+    }
+
+    @Test
+    void testSearchesAreRecordedWhenEnabled() {
+        EngineMetrics.setEnabled(true);
+        long nodes = value("connect4_search_nodes_total");
+        long probes = value("connect4_tt_probes_total");
+        long searches = value("connect4_search_seconds");
+        long games = value("connect4_games_completed_total");
+        new Solver(SearchBudget.ofDepth(8)).search(new Board(), 'R');
+        EngineMetrics.gameCompleted();
+        assertEquals(searches + 1, value("connect4_search_seconds"));
+        assertTrue(value("connect4_search_nodes_total") > nodes, "Visited nodes should be counted.");
+        assertTrue(value("connect4_tt_probes_total") > probes, "Table probes should be counted.");
+        assertEquals(games + 1, value("connect4_games_completed_total"));
+        String text = EngineMetrics.registry().toPrometheus();
+        assertTrue(text.contains("connect4_search_nodes_per_second "), text);
+        assertTrue(text.contains("connect4_tt_hit_ratio "), text);
+    }
+}
@@ -0,0 +1,47 @@
+package hu.nye.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the LatencyHistogram class.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryLatency() {
+        long[] samples = {0, 1, 7, 8, 9, 15, 16, 17, 1_000, 123_456, Long.MAX_VALUE / 2};
+        for (long nanos : samples) {
+            int bucket = LatencyHistogram.bucketOf(nanos);
+            long lower = LatencyHistogram.lowerBound(bucket);
+            assertTrue(lower <= nanos, "Bucket of " + nanos + " starts at " + lower);
+            assertTrue(nanos - lower <= nanos / 8, "Bucket of " + nanos + " is too wide.");
+            assertTrue(LatencyHistogram.bucketOf(lower) == bucket, "Lower bounds belong to their bucket.");
+        }
+    }
+
+    @Test
+    void testPercentilesCountAndSum() {
+        LatencyHistogram histogram = new LatencyHistogram("test_seconds", "Test.");
+        assertEquals(0, histogram.percentile(50), "An empty histogram has no percentiles.");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);  // 1 us .. 1 ms
+        }
+        histogram.record(-5);
+        assertEquals(1001, histogram.count());
+        assertEquals(500_500_000L, histogram.totalNanos(), "Negative durations should count as 0.");
+        long median = histogram.percentile(50);
+        assertTrue(median <= 500_000 && median >= 500_000 * 7 / 8, "Median was " + median);
+        assertEquals(0, histogram.percentile(0), "The minimum was 0.");
+    }
+
+    @Test
+    void testUntimedTimersRecordNothing() {
+        LatencyHistogram histogram = new LatencyHistogram("test_seconds", "Test.");
+        histogram.recordSince(EngineMetrics.NOT_TIMED);
+        assertEquals(0, histogram.count());
+        histogram.recordSince(System.nanoTime());
+        assertEquals(1, histogram.count());
+    }
+}
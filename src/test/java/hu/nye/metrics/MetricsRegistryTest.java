@@ -0,0 +1,69 @@
+package hu.nye.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the MetricsRegistry class.
+ */
+class MetricsRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testPrometheusExposition() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter games = registry.counter("games_total", "Games played.");
+        LatencyHistogram moves = registry.histogram("move_seconds", "Move time.");
+        registry.gauge("ratio", "A ratio.", () -> 0.25);
+        games.add(3);
+        games.increment();
+        moves.record(2_000_000_000L);
+        String text = registry.toPrometheus();
+        assertTrue(text.contains("# HELP games_total Games played.\n# TYPE games_total counter\ngames_total 4\n"),
+                text);
+        assertTrue(text.contains("# TYPE move_seconds summary\n"), text);
+        assertTrue(text.contains("move_seconds{quantile=\"0.5\"} "), text);
+        assertTrue(text.contains("move_seconds_sum 2.0\nmove_seconds_count 1\n"), text);
+        assertTrue(text.contains("# TYPE ratio gauge\nratio 0.25\n"), text);
+        assertTrue(text.endsWith("\n"), "Every line should be terminated.");
+    }
+
+    @Test
+    void testSummaryKeepsCreationOrder() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("b_total", "B.").increment();
+        registry.counter("a_total", "A.");
+        registry.histogram("c_seconds", "C.").record(1_500_000);
+        String summary = registry.summary();
+        assertTrue(summary.startsWith("b_total=1, a_total=0, c_seconds=n=1 p50="), summary);
+        assertEquals(3, registry.metrics().size());
+    }
+
+    @Test
+    void testDuplicateNamesAreRejected() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("games_total", "Games.");
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("games_total", "Games."));
+    }
+
+    @Test
+    void testFileIsReplacedByReports() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter games = registry.counter("games_total", "Games played.");
+        Path file = dir.resolve("connect4.prom");
+        try (MetricsReporter reporter = new MetricsReporter(registry, file, 3_600_000)) {
+            reporter.report();
+            assertTrue(Files.readString(file).contains("games_total 0\n"));
+            games.increment();
+        }
+        assertTrue(Files.readString(file).contains("games_total 1\n"), "Closing should write a last report.");
+        assertFalse(Files.exists(dir.resolve("connect4.prom.tmp")), "No temporary file should be left.");
+    }
+}
@@ -5,6 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -146,4 +150,483 @@ class BoardTest {
         }
     }
 
+    @Test
+    void testCheckWinDiagonalAscending() {
+        board.makeMove(0, 'R');
+        board.makeMove(1, 'Y');
+        board.makeMove(1, 'R');
+        board.makeMove(2, 'Y');
+        board.makeMove(2, 'Y');
+        board.makeMove(2, 'R');
+        board.makeMove(3, 'Y');
+        board.makeMove(3, 'Y');
+        board.makeMove(3, 'Y');
+        assertFalse(board.checkWin('R'), "Player R should not win before the fourth disc.");
+        board.makeMove(3, 'R');
+        assertTrue(board.checkWin('R'), "Player R should win with ascending diagonal.");
+        assertFalse(board.checkWin('Y'), "Player Y should not have a winning sequence.");
+    }
+
+    @Test
+    void testCheckWinDiagonalDescending() {
+        board.makeMove(6, 'R');
+        board.makeMove(5, 'Y');
+        board.makeMove(5, 'R');
+        board.makeMove(4, 'Y');
+        board.makeMove(4, 'Y');
+        board.makeMove(4, 'R');
+        board.makeMove(3, 'Y');
+        board.makeMove(3, 'Y');
+        board.makeMove(3, 'Y');
+        board.makeMove(3, 'R');
+        assertTrue(board.checkWin('R'), "Player R should win with descending diagonal.");
+    }
+
+    @Test
+    void testCheckWinDoesNotWrapAcrossColumns() {
+        // Three discs on top of column 0 and one at the bottom of column 1
+        // are adjacent bits in the bitboard but not a vertical line.
+        board.makeMove(0, 'Y');
+        board.makeMove(0, 'Y');
+        board.makeMove(0, 'Y');
+        board.makeMove(0, 'R');
+        board.makeMove(0, 'R');
+        board.makeMove(0, 'R');
+        board.makeMove(1, 'R');
+        assertFalse(board.checkWin('R'), "A line must not wrap from one column into the next.");
+    }
+
+    @Test
+    void testCheckWinUnknownSymbol() {
+        board.makeMove(0, 'R');
+        assertFalse(board.checkWin('Y'), "A symbol that never moved cannot win.");
+    }
+
+    @Test
+    void testUndoMove() {
+        board.makeMove(3, 'R');
+        board.makeMove(3, 'Y');
+        assertFalse(board.undoMove(3), "Undo should succeed on a non-empty column.");
+        assertEquals('-', board.getBoard()[4][3], "Undo should remove the top disc.");
+        assertEquals('R', board.getBoard()[5][3], "Undo should keep the discs below.");
+        assertFalse(board.undoMove(3), "Undo should succeed on a non-empty column.");
+        assertTrue(board.undoMove(3), "Undo should fail on an empty column.");
+    }
+
+    @Test
+    void testIsColumnFull() {
+        for (int i = 0; i < 6; i++) {
+            assertFalse(board.isColumnFull(4), "Column should not be full yet.");
+            board.makeMove(4, i % 2 == 0 ? 'R' : 'Y');
+        }
+        assertTrue(board.isColumnFull(4), "Column should be full after six discs.");
+        board.undoMove(4);
+        assertFalse(board.isColumnFull(4), "Column should not be full after undo.");
+    }
+
+    @Test
+    void testGetBoardViewFollowsMoves() {
+        char[][] before = board.getBoard();
+        board.makeMove(2, 'R');
+        assertEquals('R', board.getBoard()[5][2], "View should reflect the latest move.");
+        assertEquals('R', before[5][2], "View array should be reused between calls.");
+        assertArrayEquals("--R----".toCharArray(), board.getRow(5), "Row view should match the board.");
+    }
+
+    @Test
+    void testGetRowOutOfBounds() {
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> board.getRow(6));
+    }
+
+    @Test
+    void testThirdSymbolRejected() {
+        board.makeMove(0, 'R');
+        board.makeMove(1, 'Y');
+        assertThrows(IllegalArgumentException.class, () -> board.makeMove(2, 'X'));
+    }
+
+    @Test
+    void testLoadInitialBoardWithDiscs() throws IOException {
+        board.loadInitialBoard("board_partial.txt");
+        assertArrayEquals("RRRY---".toCharArray(), board.getRow(5), "Bottom row should be loaded.");
+        assertArrayEquals("---Y---".toCharArray(), board.getRow(4), "Second row should be loaded.");
+        assertFalse(board.makeMove(3, 'Y'), "Move should stack on the loaded discs.");
+        assertEquals('Y', board.getBoard()[3][3], "Disc should land above the loaded ones.");
+        assertFalse(board.makeMove(4, 'R'), "Move should be valid on an empty column.");
+        assertFalse(board.checkWin('R'), "Loaded discs interrupted by Y should not win.");
+    }
+
+    @Test
+    void testFloatingPiecesAreRejected() throws IOException {
+        for (boolean packed : new boolean[] {true, false}) {
+            Board loaded = new Board(6, 7, 4, packed);
+            loaded.loadInitialBoard("board_floating.txt");
+            assertEquals(0, loaded.getMoveCount(), "A floating piece should not be loaded (packed=" + packed + ").");
+            assertEquals(5, loaded.dropPiece(3, 'Y'), "The column should be empty (packed=" + packed + ").");
+
+            Board set = new Board(4, 5, 3, packed);
+            assertThrows(IllegalArgumentException.class,
+                    () -> set.setCells(List.of("-----", "--R--", "-----", "-Y---")));
+            assertEquals(0, set.getMoveCount(), "A rejected board should be left empty.");
+        }
+    }
+
+    @Test
+    void testDropPieceReturnsLandingRow() {
+        assertEquals(5, board.dropPiece(1, 'R'), "First piece should land on the bottom row.");
+        assertEquals(4, board.dropPiece(1, 'Y'), "Second piece should land above the first.");
+        for (int i = 0; i < 4; i++) {
+            board.dropPiece(1, 'R');
+        }
+        assertEquals(-1, board.dropPiece(1, 'Y'), "Full column should be reported with -1.");
+    }
+
+    @Test
+    void testCheckWinAtHorizontalMiddle() {
+        board.dropPiece(0, 'R');
+        board.dropPiece(1, 'R');
+        board.dropPiece(3, 'R');
+        int row = board.dropPiece(2, 'R');
+        assertTrue(board.checkWinAt(row, 2), "Filling the gap should complete the line.");
+        assertTrue(board.checkWinAt(5, 0), "Every disc of the line should report the win.");
+    }
+
+    @Test
+    void testCheckWinAtFindsVerticalLineAbove() {
+        Board wide = new Board(Board.MAX_SIZE, Board.MAX_SIZE, 5);
+        for (Board current : List.of(board, wide)) {
+            current.dropPiece(0, 'R');
+            for (int i = 0; i < current.getWinLength(); i++) {
+                current.dropPiece(0, 'Y');
+            }
+            int bottom = current.getRowCount() - 1;
+            assertTrue(current.checkWinAt(bottom - 1, 0), "The lowest disc of the line should report the win.");
+            assertFalse(current.checkWinAt(bottom, 0), "The disc below the line is not part of it.");
+        }
+    }
+
+    @Test
+    void testCheckWinAtEmptyCell() {
+        assertFalse(board.checkWinAt(0, 0), "An empty cell cannot be part of a win.");
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> board.checkWinAt(6, 0));
+    }
+
+    @Test
+    void testCheckWinAtAgreesWithCheckWin() {
+        Random random = new Random(42);
+        for (int game = 0; game < 500; game++) {
+            Board current = new Board();
+            char symbol = 'R';
+            while (!current.isFull()) {
+                int col = random.nextInt(7);
+                int row = current.dropPiece(col, symbol);
+                if (row < 0) {
+                    continue;
+                }
+                boolean won = current.checkWinAt(row, col);
+                assertEquals(current.checkWin(symbol), won, "Local and full win checks should agree.");
+                if (won) {
+                    break;
+                }
+                symbol = symbol == 'R' ? 'Y' : 'R';
+            }
+        }
+    }
+
+    @Test
+    void testClearResetsPiecesAndSymbols() {
+        board.makeMove(3, 'R');
+        board.makeMove(3, 'Y');
+        board.clear();
+        assertEquals(0L, board.getMask(), "Clearing should empty every cell.");
+        assertEquals('-', board.getBoard()[5][3]);
+        board.makeMove(0, 'A');
+        board.makeMove(1, 'B');
+        assertEquals(1L, Long.bitCount(board.getPieces('A')), "New symbols are accepted after clearing.");
+    }
+
+    @Test
+    void testGeometryIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> new Board(3, 7, 3), "Too few rows.");
+        assertThrows(IllegalArgumentException.class, () -> new Board(6, 13, 4), "Too many columns.");
+        assertThrows(IllegalArgumentException.class, () -> new Board(5, 5, 6), "The line cannot fit.");
+        assertThrows(IllegalArgumentException.class, () -> new Board(12, 12, 4, true), "Too large for a bitboard.");
+    }
+
+    @Test
+    void testCustomGeometry() {
+        Board wide = new Board(12, 12, 5);
+        assertEquals(12, wide.getRowCount());
+        assertEquals(12, wide.getColumnCount());
+        assertEquals(5, wide.getWinLength());
+        assertFalse(wide.isBitboard(), "A 12x12 board does not fit into a long.");
+        assertThrows(UnsupportedOperationException.class, wide::getMask);
+        assertTrue(new Board(8, 7, 4).isBitboard(), "Seven columns of nine bits fit into a long.");
+
+        for (int col = 0; col < 4; col++) {
+            assertEquals(11, wide.dropPiece(col, 'R'));
+            assertFalse(wide.checkWin('R'), "Four is not enough when five are required.");
+        }
+        assertEquals(11, wide.dropPiece(4, 'R'));
+        assertTrue(wide.checkWinAt(11, 4), "Five in a row should win.");
+        assertTrue(wide.checkWin('R'));
+        assertEquals(5, wide.getMoveCount());
+        assertEquals('R', wide.getRow(11)[0]);
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> wide.dropPiece(12, 'R'));
+    }
+
+    @Test
+    void testWideBoardFillsAndUndoes() {
+        Board wide = new Board(12, 12, 4);
+        for (int i = 0; i < 12; i++) {
+            assertEquals(11 - i, wide.dropPiece(0, i % 2 == 0 ? 'R' : 'Y'));
+        }
+        assertTrue(wide.isColumnFull(0));
+        assertEquals(-1, wide.dropPiece(0, 'R'), "A full column rejects further pieces.");
+        assertFalse(wide.undoMove(0));
+        assertFalse(wide.isColumnFull(0));
+        assertEquals('-', wide.getBoard()[0][0], "Undo should empty the top cell.");
+        wide.clear();
+        assertEquals(0, wide.getMoveCount());
+        assertTrue(wide.undoMove(0), "Nothing to undo on an empty board.");
+    }
+
+    @Test
+    void testBothRepresentationsAgree() {
+        Random random = new Random(7);
+        int[][] geometries = {{6, 7, 4}, {4, 4, 3}, {5, 9, 5}, {7, 8, 4}, {6, 7, 2}};
+        for (int[] geometry : geometries) {
+            for (int game = 0; game < 200; game++) {
+                Board packed = new Board(geometry[0], geometry[1], geometry[2], true);
+                Board wide = new Board(geometry[0], geometry[1], geometry[2], false);
+                char symbol = 'R';
+                while (!packed.isFull()) {
+                    int col = random.nextInt(geometry[1]);
+                    int row = packed.dropPiece(col, symbol);
+                    assertEquals(row, wide.dropPiece(col, symbol), "Pieces should land in the same row.");
+                    if (row < 0) {
+                        continue;
+                    }
+                    boolean won = packed.checkWinAt(row, col);
+                    assertEquals(won, wide.checkWinAt(row, col), "Local win checks should agree.");
+                    assertEquals(won, packed.checkWin(symbol), "Full and local checks should agree.");
+                    assertEquals(won, wide.checkWin(symbol), "Full and local checks should agree.");
+                    assertEquals(won, hasLine(packed.getBoard(), symbol, geometry[2]), "The reference should agree.");
+                    if (won) {
+                        break;
+                    }
+                    symbol = symbol == 'R' ? 'Y' : 'R';
+                }
+                assertEquals(packed.isFull(), wide.isFull());
+                assertEquals(packed.getMoveCount(), wide.getMoveCount());
+                assertArrayEquals(packed.getBoard(), wide.getBoard(), "The views should agree.");
+            }
+        }
+    }
+
+    private static boolean hasLine(final char[][] cells, final char symbol, final int length) {
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int row = 0; row < cells.length; row++) {
+            for (int col = 0; col < cells[row].length; col++) {
+                for (int[] direction : directions) {
+                    int count = 0;
+                    int r = row;
+                    int c = col;
+                    while (count < length && r < cells.length && c >= 0 && c < cells[r].length
+                            && cells[r][c] == symbol) {
+                        count++;
+                        r += direction[0];
+                        c += direction[1];
+                    }
+                    if (count == length) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testCopyIntoOverwritesTarget() {
+        board.makeMove(3, 'R');
+        board.makeMove(4, 'Y');
+        Board copy = new Board();
+        copy.makeMove(0, 'A');
+        board.copyInto(copy);
+        assertArrayEquals(board.getBoard(), copy.getBoard(), "The copy should show the same pieces.");
+        copy.makeMove(3, 'Y');
+        assertEquals('-', board.getBoard()[4][3], "Moves on the copy should not change the original.");
+        assertThrows(IllegalArgumentException.class, () -> board.copyInto(new Board(7, 7, 4)));
+    }
+
+
+    @Test
+    void testSetCellsReplacesBoard() {
+        Board board = new Board(4, 5, 3);
+        board.makeMove(0, 'A');
+        board.setCells(List.of("-----", "-----", "--Y--", "-RYR-"));
+        assertEquals(4, board.getMoveCount(), "The old pieces should be removed.");
+        assertEquals("-RYR-", new String(board.getRow(3)));
+        assertEquals(1, board.dropPiece(2, 'R'), "Pieces should stack on the restored ones.");
+        assertThrows(IllegalArgumentException.class, () -> board.setCells(List.of("-----")));
+        assertThrows(IllegalArgumentException.class,
+                () -> board.setCells(List.of("-----", "-----", "-----", "----")));
+        assertThrows(IllegalArgumentException.class,
+                () -> board.setCells(List.of("-----", "-----", "-----", "RYX--")));
+    }
+
+    @Test
+    void testHashFollowsMovesAndUndos() {
+        Random random = new Random(11);
+        for (boolean packed : new boolean[] {true, false}) {
+            for (int game = 0; game < 100; game++) {
+                Board played = new Board(6, 7, 4, packed);
+                long[] hashes = new long[43];
+                int[] moves = new int[42];
+                int count = 0;
+                char symbol = 'R';
+                while (!played.isFull()) {
+                    int col = random.nextInt(7);
+                    if (played.dropPiece(col, symbol) < 0) {
+                        continue;
+                    }
+                    moves[count++] = col;
+                    hashes[count] = played.getHash();
+                    Board rebuilt = new Board(6, 7, 4, packed);
+                    List<String> rows = new java.util.ArrayList<>();
+                    for (char[] row : played.getBoard()) {
+                        rows.add(new String(row));
+                    }
+                    rebuilt.setCells(rows);
+                    assertEquals(played.getHash(), rebuilt.getHash(), "The hash should not depend on the move order.");
+                    symbol = symbol == 'R' ? 'Y' : 'R';
+                }
+                while (count > 0) {
+                    assertEquals(hashes[count], played.getHash());
+                    played.undoMove(moves[--count]);
+                }
+                assertEquals(0, played.getHash(), "Undoing every move should restore the empty hash.");
+            }
+        }
+    }
+
+    @Test
+    void testCanonicalHashFoldsMirrorImages() {
+        Board left = new Board();
+        Board right = new Board();
+        int[] moves = {0, 1, 1, 2, 5};
+        char symbol = 'R';
+        for (int col : moves) {
+            left.makeMove(col, symbol);
+            right.makeMove(right.mirrorColumn(col), symbol);
+            symbol = symbol == 'R' ? 'Y' : 'R';
+        }
+        assertNotEquals(left.getHash(), right.getHash(), "Mirror images are different positions.");
+        assertEquals(left.getCanonicalHash(), right.getCanonicalHash(), "Mirror images should share a key.");
+        assertNotEquals(left.isCanonicalMirrored(), right.isCanonicalMirrored());
+        assertEquals(right.getMask(), left.mirror(left.getMask()), "The bitboards should mirror too.");
+        assertEquals(right.getPieces('R'), left.mirror(left.getPieces('R')));
+        assertEquals(left.getMask(), left.mirror(left.mirror(left.getMask())));
+
+        Board other = new Board();
+        other.makeMove(0, 'Y');
+        left.copyInto(other);
+        assertEquals(left.getHash(), other.getHash(), "A copy should have the same hash.");
+        other.clear();
+        assertEquals(0, other.getCanonicalHash());
+        other.makeMove(3, 'R');
+        assertFalse(other.isCanonicalMirrored(), "A symmetric position is its own mirror image.");
+        assertEquals(other.getHash(), other.getCanonicalHash());
+    }
+
+    @Test
+    void testUndoFollowsMoveHistory() {
+        for (boolean packed : new boolean[] {true, false}) {
+            Board played = new Board(6, 7, 4, packed);
+            assertTrue(played.undoMove(), "An empty board has nothing to undo.");
+            int[] moves = {3, 3, 2, 4, 2, 6};
+            char symbol = 'R';
+            for (int col : moves) {
+                played.makeMove(col, symbol);
+                symbol = symbol == 'R' ? 'Y' : 'R';
+            }
+            assertEquals(moves.length, played.getHistorySize());
+            for (int i = 0; i < moves.length; i++) {
+                assertEquals(moves[i], played.getHistoryMove(i));
+            }
+            played.undoMove(3);  // Not the last move: its entry is removed
+            assertEquals(List.of(3, 2, 4, 2, 6), history(played));
+            assertFalse(played.undoMove());
+            assertFalse(played.undoMove());
+            assertEquals(List.of(3, 2, 4), history(played), "The last moves should be taken back.");
+            assertEquals('-', played.getBoard()[3][2], "The second piece of column 2 should be gone.");
+            assertEquals('R', played.getBoard()[5][2]);
+            assertThrows(IndexOutOfBoundsException.class, () -> played.getHistoryMove(3));
+
+            Board copy = new Board(6, 7, 4, packed);
+            played.copyInto(copy);
+            assertEquals(List.of(3, 2, 4), history(copy), "A copy should keep the history.");
+            copy.setCells(List.of("-------", "-------", "-------", "-------", "-------", "--R----"));
+            assertEquals(0, copy.getHistorySize(), "Loaded cells have no history.");
+            assertTrue(copy.undoMove());
+            assertEquals(1, copy.getMoveCount());
+        }
+    }
+
+    private static List<Integer> history(Board board) {
+        List<Integer> moves = new ArrayList<>();
+        for (int i = 0; i < board.getHistorySize(); i++) {
+            moves.add(board.getHistoryMove(i));
+        }
+        return moves;
+    }
+
+    @Test
+    void testLegalMoveCursor() {
+        for (boolean packed : new boolean[] {true, false}) {
+            Board played = new Board(4, 5, 3, packed);
+            int[] moves = new int[5];
+            assertEquals(5, played.getLegalMoves(moves));
+            for (int i = 0; i < 4; i++) {
+                played.makeMove(1, 'R');
+                played.makeMove(4, 'Y');
+            }
+            assertEquals(3, played.getLegalMoves(moves));
+            assertArrayEquals(new int[] {0, 2, 3}, Arrays.copyOf(moves, 3), "Full columns should be skipped.");
+            assertEquals(2, played.nextLegalMove(1));
+            assertEquals(-1, played.nextLegalMove(4));
+            assertEquals(-1, played.nextLegalMove(5));
+            assertEquals(0, played.nextLegalMove(-3));
+        }
+        Board wide = new Board(12, 12, 4);
+        for (int i = 0; i < 12; i++) {
+            wide.makeMove(11, i % 2 == 0 ? 'R' : 'Y');
+        }
+        assertEquals(-1, wide.nextLegalMove(11));
+        assertEquals(10, wide.nextLegalMove(10));
+    }
+
+    @Test
+    void testSnapshotIsIndependent() {
+        board.makeMove(3, 'R');
+        board.makeMove(2, 'Y');
+        BoardSnapshot snapshot = board.snapshot();
+        board.makeMove(3, 'R');
+        assertEquals(2, snapshot.getMoveCount(), "Later moves should not change a snapshot.");
+        assertNotEquals(board.getHash(), snapshot.getHash());
+
+        snapshot.restoreInto(board);
+        assertEquals(2, board.getMoveCount());
+        assertEquals(snapshot.getHash(), board.getHash());
+        assertEquals(snapshot, board.snapshot());
+        assertEquals(snapshot.hashCode(), board.snapshot().hashCode());
+
+        Board other = snapshot.toBoard();
+        other.undoMove();
+        assertEquals(1, other.getMoveCount(), "A restored board should keep the history.");
+        assertNotEquals(snapshot, other.snapshot());
+        assertTrue(board.samePosition(snapshot.toBoard()));
+        assertFalse(board.samePosition(new Board(7, 7, 4)));
+    }
 }
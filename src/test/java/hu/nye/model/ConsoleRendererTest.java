@@ -0,0 +1,70 @@
+package hu.nye.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the ConsoleRenderer class.
+ */
+class ConsoleRendererTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    void testBoardIsPrintedAsOneFrame() {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        int[] writes = new int[1];
+        PrintStream console = new PrintStream(printed) {
+            @Override
+            public void write(byte[] buf, int off, int len) {
+                writes[0]++;
+                super.write(buf, off, len);
+            }
+        };
+        ConsoleRenderer renderer = new ConsoleRenderer(console);
+        Board board = new Board(4, 4, 4);
+        board.dropPiece(1, 'R');
+
+        renderer.showBoard(board);
+
+        String empty = "- - - - " + NL;
+        assertEquals("Current board:" + NL + empty.repeat(3) + "- R - - " + NL, printed.toString(),
+                "The frame should list the rows from the top.");
+        assertEquals(1, writes[0], "The frame should be written at once.");
+    }
+
+    @Test
+    void testFrameIsRebuiltForEveryMove() {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        ConsoleRenderer renderer = new ConsoleRenderer(new PrintStream(printed));
+        Board board = new Board(4, 4, 4);
+
+        renderer.showBoard(board);
+        board.dropPiece(0, 'Y');
+        renderer.showBoard(board);
+        renderer.showMessage("Done");
+
+        String frame = "Current board:" + NL;
+        String empty = "- - - - " + NL;
+        assertEquals(frame + empty.repeat(4) + frame + empty.repeat(3) + "Y - - - " + NL + "Done" + NL, printed.toString());
+    }
+
+    @Test
+    void testNoOpRendererPrintsNothing() {
+        PrintStream console = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed));
+        try {
+            GameRenderer renderer = new NoOpRenderer();
+            renderer.showBoard(new Board());
+            renderer.showMessage("Hidden");
+        } finally {
+            System.setOut(console);
+        }
+        assertEquals(0, printed.size(), "Nothing should be printed.");
+    }
+}
@@ -4,9 +4,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -26,6 +29,8 @@ class GameTest {
         humanPlayer = new Player("Alice", 'X'); // Real Player object
         mockScanner = mock(Scanner.class); // Mocking the Scanner for user input
         mockRandom = mock(Random.class); // Mocking the Random for computer moves
+        when(mockBoard.getRowCount()).thenReturn(6); // Standard geometry
+        when(mockBoard.getColumnCount()).thenReturn(7);
 
         // Create a new Game instance with the mocks
         game = new Game(humanPlayer, mockBoard, mockScanner, mockRandom);
@@ -48,16 +53,16 @@ class GameTest {
     void testPlayerTurnValidMove() {
         // Arrange
         when(mockScanner.nextInt()).thenReturn(2); // Simulate player choosing column 2
-        when(mockBoard.makeMove(2, humanPlayer.symbol())).thenReturn(false); // Simulate valid move
+        when(mockBoard.dropPiece(2, humanPlayer.symbol())).thenReturn(5); // Simulate valid move landing on the bottom row
         when(mockBoard.isFull()).thenReturn(false, true); // First not full, then full to end game loop
-        when(mockBoard.checkWin(humanPlayer.symbol())).thenReturn(true); // Simulate player winning after move
+        when(mockBoard.checkWinAt(5, 2)).thenReturn(true); // Simulate player winning after move
 
         // Act
         game.start();
 
         // Assert
-        verify(mockBoard).makeMove(2, humanPlayer.symbol()); // Ensure player move is made
-        verify(mockBoard).checkWin(humanPlayer.symbol()); // Ensure game checks for a win
+        verify(mockBoard).dropPiece(2, humanPlayer.symbol()); // Ensure player move is made
+        verify(mockBoard).checkWinAt(5, 2); // Ensure game checks for a win at the landing cell
     }
 
 
@@ -66,17 +71,17 @@ class GameTest {
         // Arrange
         when(mockScanner.nextInt()).thenReturn(2); // Simulate player choosing column 2
         when(mockBoard.isFull()).thenReturn(false); // Ensure the game doesn't end early
-        when(mockBoard.makeMove(2, humanPlayer.symbol()))
-                .thenReturn(true)  // First attempt is invalid (column full)
-                .thenReturn(false); // Second attempt is valid
-        when(mockBoard.checkWin(humanPlayer.symbol())).thenReturn(true); // Simulate player winning after the move
+        when(mockBoard.dropPiece(2, humanPlayer.symbol()))
+                .thenReturn(-1)  // First attempt is invalid (column full)
+                .thenReturn(0); // Second attempt is valid
+        when(mockBoard.checkWinAt(0, 2)).thenReturn(true); // Simulate player winning after the move
 
         // Act
         game.start(); // Start the game
 
         // Assert
-        verify(mockBoard, times(2)).makeMove(2, humanPlayer.symbol()); // Ensure the player retries after invalid move
-        verify(mockBoard).checkWin(humanPlayer.symbol()); // Ensure the game checks for a win
+        verify(mockBoard, times(2)).dropPiece(2, humanPlayer.symbol()); // Ensure the player retries after invalid move
+        verify(mockBoard).checkWinAt(0, 2); // Ensure the game checks for a win
     }
 
 
@@ -86,22 +91,65 @@ class GameTest {
         when(mockScanner.nextInt())
                 .thenThrow(new RuntimeException()) // Simulate invalid input (e.g., non-integer)
                 .thenReturn(2); // Then simulate valid input (column 2)
-        when(mockBoard.makeMove(2, humanPlayer.symbol())).thenReturn(false); // Simulate valid move
+        when(mockBoard.dropPiece(2, humanPlayer.symbol())).thenReturn(5); // Simulate valid move
         when(mockBoard.isFull()).thenReturn(false, true); // First not full, then full to end game loop
-        when(mockBoard.checkWin(humanPlayer.symbol())).thenReturn(true); // Simulate player winning after valid move
+        when(mockBoard.checkWinAt(5, 2)).thenReturn(true); // Simulate player winning after valid move
 
         // Act
         game.start();
 
         // Assert
-        verify(mockBoard).makeMove(2, humanPlayer.symbol()); // Ensure valid move happens after invalid input
-        verify(mockBoard).checkWin(humanPlayer.symbol()); // Ensure game checks for a win
+        verify(mockBoard).dropPiece(2, humanPlayer.symbol()); // Ensure valid move happens after invalid input
+        verify(mockBoard).checkWinAt(5, 2); // Ensure game checks for a win
     }
 
 
 
 
 
+    @Test
+    void testComputerTurnRetriesFullColumn() {
+        // Arrange
+        when(mockScanner.nextInt()).thenReturn(2); // Player always picks column 2
+        when(mockBoard.isFull()).thenReturn(false);
+        when(mockBoard.dropPiece(2, humanPlayer.symbol())).thenReturn(5);
+        when(mockBoard.getColumnCount()).thenReturn(7);
+        when(mockRandom.nextInt(7)).thenReturn(3, 4); // First pick is full, second is not
+        when(mockBoard.dropPiece(3, 'Y')).thenReturn(-1);
+        when(mockBoard.dropPiece(4, 'Y')).thenReturn(5);
+        when(mockBoard.checkWinAt(5, 4)).thenReturn(true); // Computer wins with its move
+
+        // Act
+        game.start();
+
+        // Assert
+        verify(mockBoard).dropPiece(3, 'Y');
+        verify(mockBoard).dropPiece(4, 'Y');
+        verify(mockBoard).checkWinAt(5, 2);
+        verify(mockBoard).checkWinAt(5, 4);
+    }
+
+    @Test
+    void testComputerUsesStrategy() {
+        // Arrange
+        MoveStrategy strategy = mock(MoveStrategy.class);
+        game = new Game(humanPlayer, mockBoard, mockScanner, strategy);
+        when(mockScanner.nextInt()).thenReturn(0);
+        when(mockBoard.isFull()).thenReturn(false);
+        when(mockBoard.dropPiece(0, humanPlayer.symbol())).thenReturn(5);
+        when(strategy.chooseMove(mockBoard, 'Y')).thenReturn(6);
+        when(mockBoard.dropPiece(6, 'Y')).thenReturn(5);
+        when(mockBoard.checkWinAt(5, 6)).thenReturn(true);
+
+        // Act
+        game.start();
+
+        // Assert
+        verify(strategy).chooseMove(mockBoard, 'Y');
+        verify(mockBoard).dropPiece(6, 'Y');
+        verifyNoInteractions(mockRandom);
+    }
+
     @Test //jó
     void testSaveFinalGameSuccess() throws IOException {
         // Arrange
@@ -126,6 +174,171 @@ class GameTest {
         verify(mockBoard).saveFinalGame("saved_game.txt");
     }
 
+    @Test
+    void testFinishedGameIsArchived() throws IOException {
+        // Arrange
+        GameArchive archive = mock(GameArchive.class);
+        game = new Game(humanPlayer, mockBoard, mockScanner, new RandomMoveStrategy(mockRandom), archive);
+        when(mockScanner.nextInt()).thenReturn(2);
+        when(mockBoard.dropPiece(2, humanPlayer.symbol())).thenReturn(5);
+        when(mockBoard.checkWinAt(5, 2)).thenReturn(true);
+
+        // Act
+        game.start();
+
+        // Assert
+        verify(archive).archive(same(mockBoard), eq('X'), eq('Y'), argThat(moves -> moves[0] == 2), eq(1));
+        verify(mockBoard, never()).saveFinalGame(anyString());
+    }
+
+    @Test
+    void testWinnerIsCounted() {
+        // Arrange
+        ScoreKeeper scores = mock(ScoreKeeper.class);
+        game = new Game(humanPlayer, mockBoard, mockScanner, new RandomMoveStrategy(mockRandom), null, scores);
+        when(mockScanner.nextInt()).thenReturn(2);
+        when(mockBoard.dropPiece(2, humanPlayer.symbol())).thenReturn(5);
+        when(mockBoard.checkWinAt(5, 2)).thenReturn(true);
+
+        // Act
+        game.start();
+
+        // Assert
+        verify(scores).recordWin("Alice");
+    }
+
+    @Test
+    void testLoadedGameIsSavedAsText() throws IOException {
+        // Arrange
+        GameArchive archive = mock(GameArchive.class);
+        game = new Game(humanPlayer, mockBoard, mockScanner, new RandomMoveStrategy(mockRandom), archive);
+        when(mockBoard.getMoveCount()).thenReturn(3); // Continued from a loaded board
+        when(mockBoard.isFull()).thenReturn(true);
+
+        // Act
+        game.start();
+
+        // Assert
+        verifyNoInteractions(archive);
+        verify(mockBoard).saveFinalGame("saved_game.txt");
+    }
+
+    @Test
+    void testSaveCommandSuspendsAndResumes() throws IOException {
+        // Arrange
+        Board board = new Board();
+        MoveStrategy strategy = (b, s) -> 6;
+        game = new Game(humanPlayer, board, mockScanner, strategy);
+        when(mockScanner.nextInt()).thenReturn(3).thenThrow(new java.util.InputMismatchException());
+        when(mockScanner.next()).thenReturn("save");
+
+        // Act
+        game.start();
+        SuspendedGame saved = game.suspend();
+
+        // Assert
+        assertTrue(game.isSuspended(), "Typing save should suspend the game.");
+        assertEquals(List.of(3, 6), saved.moves());
+        assertTrue(saved.humanToMove(), "The human should move after resuming.");
+        assertEquals(humanPlayer, saved.human());
+
+        // Resume the saved game on a fresh board and win it in column 0
+        Board resumedBoard = new Board();
+        Scanner input = mock(Scanner.class);
+        when(input.nextInt()).thenReturn(0);
+        GameArchive archive = mock(GameArchive.class);
+        Game resumed = new Game(humanPlayer, resumedBoard, input, (b, s) -> 5, archive);
+        resumed.resume(saved);
+        assertArrayEquals(board.getBoard(), resumedBoard.getBoard(), "The board should be restored.");
+        resumed.start();
+        assertFalse(resumed.isSuspended());
+        assertTrue(resumedBoard.checkWin(humanPlayer.symbol()), "The game should continue to a win.");
+        assertEquals(List.of(3, 6, 0, 5, 0, 5, 0, 5, 0), resumed.suspend().moves(),
+                "The history should continue the saved moves.");
+        verify(archive).archive(same(resumedBoard), eq('X'), eq('Y'), any(), eq(9));
+    }
+
+    @Test
+    void testScriptedGameRunsWithoutConsole() {
+        // Arrange
+        Board board = new Board();
+        GameRenderer renderer = mock(GameRenderer.class);
+        game = new Game(humanPlayer, board, new ScriptedMoveSource(0, 9, 0, 0, 0), renderer,
+                (b, s) -> 6, mock(GameArchive.class), null);
+        java.io.PrintStream console = System.out;
+        java.io.ByteArrayOutputStream printed = new java.io.ByteArrayOutputStream();
+        System.setOut(new java.io.PrintStream(printed));
+
+        // Act
+        try {
+            game.start();
+        } finally {
+            System.setOut(console);
+        }
+
+        // Assert
+        assertTrue(board.checkWin(humanPlayer.symbol()), "The scripted moves should win the game.");
+        assertEquals(0, printed.size(), "Nothing should be printed to the console.");
+        verify(renderer).showMessage("Invalid column 9.");
+        verify(renderer).showMessage("Alice, you won!");
+        verify(renderer, times(7)).showBoard(board);
+        verifyNoInteractions(mockScanner);
+    }
+
+    @Test
+    void testScriptedGameSuspendsWhenMovesRunOut() {
+        // Arrange
+        ScriptedMoveSource moves = new ScriptedMoveSource(3, 3);
+        game = new Game(humanPlayer, new Board(), moves, new NoOpRenderer(), (b, s) -> 6, null, null);
+
+        // Act
+        game.start();
+
+        // Assert
+        assertTrue(game.isSuspended(), "The game should stop when the script ends.");
+        assertEquals(0, moves.remaining());
+        assertEquals(List.of(3, 6, 3, 6), game.suspend().moves());
+    }
+
+    @Test
+    void testComputerPondersDuringThePlayersTurns() {
+        // Arrange
+        List<String> calls = new ArrayList<>();
+        MoveStrategy strategy = new MoveStrategy() {
+            @Override
+            public int chooseMove(Board board, char playerSymbol) {
+                calls.add("move");
+                return 6;
+            }
+
+            @Override
+            public void ponder(Board board, char opponentSymbol, char playerSymbol) {
+                calls.add("ponder " + opponentSymbol + playerSymbol + board.getMoveCount());
+            }
+
+            @Override
+            public void stopPondering() {
+                calls.add("stop");
+            }
+        };
+        game = new Game(humanPlayer, new Board(), new ScriptedMoveSource(3, 3), new NoOpRenderer(), strategy,
+                null, null);
+
+        // Act
+        game.start();
+
+        // Assert
+        assertEquals(List.of("ponder XY0", "stop", "move", "ponder XY2", "stop", "move", "ponder XY4", "stop"), calls,
+                "Pondering should cover exactly the player's turns, including the suspending one.");
+    }
+
+    @Test
+    void testResumeRejectsOtherGeometry() {
+        SuspendedGame saved = new SuspendedGame(4, 4, 4, humanPlayer, new Player("Computer", 'Y'), true,
+                List.of("----", "----", "----", "----"), List.of());
+        assertThrows(IllegalArgumentException.class, () -> game.resume(saved));
+    }
+
     @Test //jó
     void testLoadInitialBoardSuccess() throws IOException {
         // Arrange
@@ -0,0 +1,85 @@
+package hu.nye.selfplay;
+
+import hu.nye.ai.SearchBudget;
+import hu.nye.model.Board;
+import hu.nye.model.GameArchive;
+import hu.nye.model.MoveStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlayRunnerTest {
+
+    @Test
+    void testRandomBatchCountsEveryGame() {
+        SelfPlayRunner runner = new SelfPlayRunner(
+                SelfPlayRunner.strategy("random", null),
+                SelfPlayRunner.strategy("random", null), 3);
+        SelfPlayStats stats = runner.run(2_000, 7L);
+        assertEquals(2_000, stats.games(), "Every game should be played exactly once.");
+        assertEquals(stats.games(), stats.winsA() + stats.winsB() + stats.draws());
+        assertTrue(stats.moves() >= 7 * stats.games(), "A game needs at least seven moves.");
+        assertTrue(stats.gamesPerSecond() > 0, "Speed should be reported.");
+    }
+
+    @Test
+    void testSameSeedGivesSameResultOnOneThread() {
+        SelfPlayRunner runner = new SelfPlayRunner(
+                SelfPlayRunner.strategy("random", null),
+                SelfPlayRunner.strategy("random", null), 1);
+        SelfPlayStats first = runner.run(500, 42L);
+        SelfPlayStats second = runner.run(500, 42L);
+        assertEquals(first.winsA(), second.winsA());
+        assertEquals(first.draws(), second.draws());
+        assertEquals(first.moves(), second.moves());
+    }
+
+    @Test
+    void testSolverBeatsRandom() {
+        SearchBudget budget = SearchBudget.ofNodes(2_000);
+        SelfPlayRunner runner = new SelfPlayRunner(
+                SelfPlayRunner.strategy("solver", budget),
+                SelfPlayRunner.strategy("random", budget), 2);
+        SelfPlayStats stats = runner.run(40, 1L);
+        assertTrue(stats.winsA() > stats.winsB() * 4, "The solver should win most games: " + stats);
+    }
+
+    @Test
+    void testGamesAreArchived() {
+        AtomicInteger archived = new AtomicInteger();
+        GameArchive archive = (board, first, second, moves, count) -> {
+            assertEquals(board.getMoveCount(), count, "Every move should be recorded.");
+            archived.incrementAndGet();
+        };
+        SelfPlayRunner runner = new SelfPlayRunner(
+                SelfPlayRunner.strategy("random", null),
+                SelfPlayRunner.strategy("random", null), 2, Board::new, archive);
+        runner.run(300, 5L);
+        assertEquals(300, archived.get(), "Every game should be archived once.");
+    }
+
+    @Test
+    void testPlayGameReportsWinnerAndDraw() {
+        Board board = new Board();
+        MoveStrategy column0 = (b, s) -> 0;
+        MoveStrategy column1 = (b, s) -> 1;
+        assertEquals(1, SelfPlayRunner.playGame(board, column0, column1), "First player stacks four first.");
+
+        board.clear();
+        int[] next = {0};
+        String draw = "015502320345364356222230416104501114435666";
+        MoveStrategy scripted = (b, s) -> draw.charAt(next[0]++) - '0';
+        assertEquals(0, SelfPlayRunner.playGame(board, scripted, scripted), "Scripted game ends in a draw.");
+        assertTrue(board.isFull());
+    }
+
+    @Test
+    void testUnknownStrategy() {
+        assertThrows(IllegalArgumentException.class, () -> SelfPlayRunner.strategy("human", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SelfPlayRunner(SelfPlayRunner.strategy("random", null),
+                        SelfPlayRunner.strategy("random", null), 0));
+    }
+}
@@ -0,0 +1,125 @@
+package hu.nye.server;
+
+import hu.nye.model.Board;
+import hu.nye.model.RandomMoveStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the GameServer class, over localhost connections.
+ */
+class GameServerTest {
+
+    private static GameServer server() {
+        return new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2,
+                Board::new, () -> new RandomMoveStrategy(new Random(1)));
+    }
+
+    private static void awaitActive(GameServer server, int sessions) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (server.metrics().activeSessions() != sessions && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(sessions, server.metrics().activeSessions());
+    }
+
+    /**
+     * Plays one game over a connection with the client always choosing the
+     * leftmost free column.
+     */
+    private static String playGame(int port) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            assertEquals("HELLO connect4 6 7 4", in.readLine());
+            int column = 0;
+            while (true) {
+                out.print("MOVE " + column + "\n");
+                out.flush();
+                String answer = in.readLine();
+                if (answer.startsWith("ERROR")) {
+                    column++;
+                } else if (!answer.startsWith("MOVE")) {
+                    out.print("QUIT\n");
+                    out.flush();
+                    assertEquals("BYE", in.readLine());
+                    return answer;
+                }
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentGames() throws Exception {
+        try (GameServer server = server()) {
+            int port = server.start();
+            ExecutorService clients = Executors.newFixedThreadPool(8);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(clients.submit(() -> playGame(port)));
+            }
+            for (Future<String> result : results) {
+                String answer = result.get();
+                assertTrue(answer.equals("WIN") || answer.startsWith("LOSS") || answer.startsWith("DRAW"),
+                        "Every game should end: " + answer);
+            }
+            clients.shutdown();
+            awaitActive(server, 0);
+            assertEquals(32, server.metrics().totalSessions());
+            assertTrue(server.metrics().moves() >= 32 * 4, "Every move should be timed.");
+        }
+    }
+
+    @Test
+    void testManyIdleSessions() throws Exception {
+        int sessions = 1_000;
+        List<Socket> sockets = new ArrayList<>();
+        try (GameServer server = server()) {
+            int port = server.start();
+            try {
+                for (int i = 0; i < sessions; i++) {
+                    sockets.add(new Socket(InetAddress.getLoopbackAddress(), port));
+                }
+                awaitActive(server, sessions);
+                // An idle crowd must not delay an active client
+                assertNotNull(playGame(port));
+            } finally {
+                for (Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+            awaitActive(server, 0);
+        }
+    }
+
+    @Test
+    void testCloseEndsOpenSessions() throws Exception {
+        GameServer server = server();
+        int port = server.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.UTF_8))) {
+            assertNotNull(in.readLine());
+            server.close();
+            assertNull(in.readLine(), "Closing the server should close the connection.");
+        }
+        assertThrows(IOException.class, () -> new Socket(InetAddress.getLoopbackAddress(), port).close());
+    }
+}
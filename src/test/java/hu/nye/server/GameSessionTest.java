@@ -0,0 +1,59 @@
+package hu.nye.server;
+
+import hu.nye.model.Board;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the GameSession class.
+ */
+class GameSessionTest {
+
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    @Test
+    void testClientWins() {
+        GameSession session = new GameSession(new Board(), (board, symbol) -> 6, metrics);
+        assertEquals("HELLO connect4 6 7 4", session.greeting());
+        assertEquals("MOVE 6", session.handle("MOVE 0"));
+        assertEquals("MOVE 6", session.handle("move 0"));
+        assertEquals("MOVE 6", session.handle(" MOVE  0 "));
+        assertEquals("WIN", session.handle("MOVE 0"));
+        assertEquals("ERROR The game is over; send NEW to play again.", session.handle("MOVE 1"));
+        assertEquals(5, metrics.moves(), "Every move request should be timed.");
+        assertEquals("BOARD -------/-------/R------/R-----Y/R-----Y/R-----Y", session.handle("BOARD"));
+        assertEquals("OK", session.handle("NEW"));
+        assertEquals("BOARD " + "-------/".repeat(5) + "-------", session.handle("BOARD"));
+    }
+
+    @Test
+    void testComputerWinsAndRetriesFullColumns() {
+        int[] calls = {0};
+        // Keeps asking for column 0 after it fills up, then plays 1
+        GameSession session = new GameSession(new Board(),
+                (board, symbol) -> calls[0]++ < 3 ? 0 : 1, metrics);
+        assertEquals("MOVE 0", session.handle("MOVE 0"));
+        assertEquals("MOVE 0", session.handle("MOVE 0"));
+        assertEquals("MOVE 0", session.handle("MOVE 0"));
+        assertEquals("ERROR Column 0 is full.", session.handle("MOVE 0"));
+        assertEquals("MOVE 1", session.handle("MOVE 2"));
+        assertEquals("MOVE 1", session.handle("MOVE 2"));
+        assertEquals("MOVE 1", session.handle("MOVE 3"));
+        assertEquals("LOSS 1", session.handle("MOVE 3"));
+    }
+
+    @Test
+    void testInvalidRequests() {
+        GameSession session = new GameSession(new Board(), (board, symbol) -> 0, metrics);
+        assertTrue(session.handle("MOVE 7").startsWith("ERROR"));
+        assertTrue(session.handle("MOVE x").startsWith("ERROR"));
+        assertTrue(session.handle("MOVE").startsWith("ERROR"));
+        assertTrue(session.handle("").startsWith("ERROR"));
+        assertTrue(session.handle("JUMP").startsWith("ERROR"));
+        assertTrue(session.handle("STATS").startsWith("STATS sessions="));
+        assertFalse(session.isClosed());
+        assertEquals("BYE", session.handle("QUIT"));
+        assertTrue(session.isClosed());
+    }
+}
@@ -0,0 +1,36 @@
+package hu.nye.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the ServerMetrics class.
+ */
+class ServerMetricsTest {
+
+    @Test
+    void testPercentiles() {
+        ServerMetrics metrics = new ServerMetrics();
+        assertEquals(0, metrics.latencyPercentile(50), "No moves means no latency.");
+        for (int i = 1; i <= 100; i++) {
+            metrics.recordMove(i * 1_000_000L);  // 1 ms .. 100 ms
+        }
+        assertEquals(100, metrics.moves());
+        long median = metrics.latencyPercentile(50);
+        assertTrue(median <= 50_000 && median >= 50_000 * 7 / 8, "Median was " + median);
+        long p99 = metrics.latencyPercentile(99);
+        assertTrue(p99 <= 99_000 && p99 >= 99_000 * 7 / 8, "p99 was " + p99);
+        assertTrue(metrics.toString().contains("moves=100"));
+    }
+
+    @Test
+    void testSessionCounts() {
+        ServerMetrics metrics = new ServerMetrics();
+        metrics.sessionOpened();
+        metrics.sessionOpened();
+        metrics.sessionClosed();
+        assertEquals(1, metrics.activeSessions());
+        assertEquals(2, metrics.totalSessions());
+    }
+}